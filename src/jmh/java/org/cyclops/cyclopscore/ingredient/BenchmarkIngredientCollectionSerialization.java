@@ -0,0 +1,129 @@
+package org.cyclops.cyclopscore.ingredient;
+
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.Tag;
+import org.cyclops.commoncapabilities.api.ingredient.IIngredientSerializer;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientArrayList;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionCompactReader;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionCompactSerializer;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientCollections;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the NBT serialization of {@link IngredientCollections#serialize}
+ * versus the compact format of {@link IngredientCollectionCompactSerializer}.
+ *
+ * The encode benchmarks also report the encoded size in bytes through an auxiliary counter.
+ * The count benchmarks lazily iterate over the instances that match a prototype, without building a collection.
+ *
+ * @author rubensworks
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BenchmarkIngredientCollectionSerialization {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private IngredientArrayList<ComplexStack, Integer> collection;
+    private byte[] encodedNbt;
+    private byte[] encodedCompact;
+
+    @Setup
+    public void setup() throws IOException {
+        collection = new IngredientArrayList<>(IngredientComponentStubs.COMPLEX_SERIALIZABLE,
+                IngredientBenchmarkFixtures.createComplexStacks(size));
+        encodedNbt = writeNbt();
+        encodedCompact = IngredientCollectionCompactSerializer.toBytes(collection);
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class EncodedSize {
+        public long bytes;
+    }
+
+    protected byte[] writeNbt() throws IOException {
+        ByteArrayDataOutput output = ByteStreams.newDataOutput();
+        NbtIo.write(IngredientCollections.serialize(collection), output);
+        return output.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encodeNbt(EncodedSize encodedSize) throws IOException {
+        byte[] bytes = writeNbt();
+        encodedSize.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public byte[] encodeCompact(EncodedSize encodedSize) {
+        byte[] bytes = IngredientCollectionCompactSerializer.toBytes(collection);
+        encodedSize.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public IngredientArrayList<ComplexStack, Integer> decodeNbt() throws IOException {
+        // Equivalent to IngredientCollections#deserialize, without the component registry lookup.
+        CompoundTag tag = NbtIo.read(ByteStreams.newDataInput(encodedNbt));
+        IIngredientSerializer<ComplexStack, Integer> serializer = IngredientComponentStubs.COMPLEX_SERIALIZABLE.getSerializer();
+        IngredientArrayList<ComplexStack, Integer> decoded = new IngredientArrayList<>(IngredientComponentStubs.COMPLEX_SERIALIZABLE);
+        for (Tag subTag : (ListTag) tag.get("ingredients")) {
+            decoded.add(serializer.deserializeInstance(subTag));
+        }
+        return decoded;
+    }
+
+    @Benchmark
+    public IngredientArrayList<ComplexStack, Integer> decodeCompact() throws IOException {
+        return IngredientCollectionCompactSerializer.readInto(ByteStreams.newDataInput(encodedCompact),
+                new IngredientArrayList<>(IngredientComponentStubs.COMPLEX_SERIALIZABLE));
+    }
+
+    @Benchmark
+    public long countMatchingNbt() throws IOException {
+        CompoundTag tag = NbtIo.read(ByteStreams.newDataInput(encodedNbt));
+        return countMatching(IngredientCollections.deserializeIterator(tag, IngredientComponentStubs.COMPLEX_SERIALIZABLE,
+                IngredientBenchmarkFixtures.PROBE, ComplexStack.Match.GROUP | ComplexStack.Match.META));
+    }
+
+    @Benchmark
+    public long countMatchingCompact() throws IOException {
+        return countMatching(new IngredientCollectionCompactReader<>(ByteStreams.newDataInput(encodedCompact),
+                IngredientComponentStubs.COMPLEX_SERIALIZABLE, IngredientBenchmarkFixtures.PROBE, ComplexStack.Match.GROUP | ComplexStack.Match.META));
+    }
+
+    protected long countMatching(Iterator<ComplexStack> it) {
+        long count = 0;
+        while (it.hasNext()) {
+            it.next();
+            count++;
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,143 @@
+package org.cyclops.cyclopscore.ingredient;
+
+import org.cyclops.cyclopscore.ingredient.collection.IIngredientCollectionMutable;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientArrayList;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionMultiClassified;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionSingleClassified;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientHashSet;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientLinkedList;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientTreeSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Benchmarks for the {@link IIngredientCollectionMutable} set and list implementations.
+ * @author rubensworks
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BenchmarkIngredientCollections {
+
+    @Param({"HashSet", "TreeSet", "ArrayList", "LinkedList",
+            "Classified:HashSet:Group", "Classified:TreeSet:Group",
+            "MultiClassified:HashSet", "MultiClassified:TreeSet"})
+    public String type;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private List<ComplexStack> source;
+    private IIngredientCollectionMutable<ComplexStack, Integer> collection;
+
+    @Setup
+    public void setup() {
+        source = IngredientBenchmarkFixtures.createComplexStacks(size);
+        collection = createCollection(type).get();
+        collection.addAll(source);
+    }
+
+    public static Supplier<IIngredientCollectionMutable<ComplexStack, Integer>> createCollection(String type) {
+        switch (type) {
+            case "HashSet":
+                return () -> new IngredientHashSet<>(IngredientComponentStubs.COMPLEX);
+            case "TreeSet":
+                return () -> new IngredientTreeSet<>(IngredientComponentStubs.COMPLEX);
+            case "ArrayList":
+                return () -> new IngredientArrayList<>(IngredientComponentStubs.COMPLEX);
+            case "LinkedList":
+                return () -> new IngredientLinkedList<>(IngredientComponentStubs.COMPLEX);
+            case "Classified:HashSet:Group":
+                return () -> new IngredientCollectionSingleClassified<>(IngredientComponentStubs.COMPLEX,
+                        () -> new IngredientHashSet<>(IngredientComponentStubs.COMPLEX),
+                        IngredientComponentStubs.COMPLEX.getCategoryTypes().get(0));
+            case "Classified:TreeSet:Group":
+                return () -> new IngredientCollectionSingleClassified<>(IngredientComponentStubs.COMPLEX,
+                        () -> new IngredientTreeSet<>(IngredientComponentStubs.COMPLEX),
+                        IngredientComponentStubs.COMPLEX.getCategoryTypes().get(0));
+            case "MultiClassified:HashSet":
+                return () -> new IngredientCollectionMultiClassified<>(IngredientComponentStubs.COMPLEX,
+                        () -> new IngredientHashSet<>(IngredientComponentStubs.COMPLEX));
+            case "MultiClassified:TreeSet":
+                return () -> new IngredientCollectionMultiClassified<>(IngredientComponentStubs.COMPLEX,
+                        () -> new IngredientTreeSet<>(IngredientComponentStubs.COMPLEX));
+            default:
+                throw new IllegalArgumentException("Unknown collection type: " + type);
+        }
+    }
+
+    @Benchmark
+    public IIngredientCollectionMutable<ComplexStack, Integer> insert() {
+        IIngredientCollectionMutable<ComplexStack, Integer> collection = createCollection(type).get();
+        collection.addAll(source);
+        return collection;
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (ComplexStack complexStack : collection) {
+            blackhole.consume(complexStack);
+        }
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return collection.contains(IngredientBenchmarkFixtures.PROBE);
+    }
+
+    @Benchmark
+    public void iterateMatchGroup(Blackhole blackhole) {
+        iterateMatch(blackhole, ComplexStack.Match.GROUP);
+    }
+
+    @Benchmark
+    public void iterateMatchMeta(Blackhole blackhole) {
+        iterateMatch(blackhole, ComplexStack.Match.META);
+    }
+
+    @Benchmark
+    public void iterateMatchGroupMeta(Blackhole blackhole) {
+        iterateMatch(blackhole, ComplexStack.Match.GROUP | ComplexStack.Match.META);
+    }
+
+    @Benchmark
+    public boolean containsMatchGroup() {
+        return collection.contains(IngredientBenchmarkFixtures.PROBE, ComplexStack.Match.GROUP);
+    }
+
+    @Benchmark
+    public boolean containsMatchMeta() {
+        return collection.contains(IngredientBenchmarkFixtures.PROBE, ComplexStack.Match.META);
+    }
+
+    @Benchmark
+    public boolean containsMatchGroupMeta() {
+        return collection.contains(IngredientBenchmarkFixtures.PROBE, ComplexStack.Match.GROUP | ComplexStack.Match.META);
+    }
+
+    protected void iterateMatch(Blackhole blackhole, int matchCondition) {
+        Iterator<ComplexStack> it = collection.iterator(IngredientBenchmarkFixtures.PROBE, matchCondition);
+        while (it.hasNext()) {
+            blackhole.consume(it.next());
+        }
+    }
+
+}
@@ -0,0 +1,182 @@
+package org.cyclops.cyclopscore.ingredient;
+
+import org.cyclops.cyclopscore.ingredient.collection.IIngredientCollapsedCollectionMutable;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientArrayList;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionPrototypeMap;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionQuantitativeGrouper;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionSingleClassifiedCollapsed;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientHashMapLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Benchmarks for the {@link IIngredientCollapsedCollectionMutable} implementations.
+ *
+ * Main findings of the earlier hand-timed version of this benchmark:
+ * - Both collections perform similarly for insertion.
+ * - Contains-match and iterate-match is slightly slower for classified when no category type matches.
+ * - Contains-match and iterate-match is significantly faster for classified when a category type matches.
+ * =&gt; Overall classified is better for match-based contains or iteration.
+ *    If only exact lookups are required, then prototyped might be better.
+ *    If needs are unknown, then defaulting to the classified collection is a good strategy.
+ *
+ * @author rubensworks
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BenchmarkIngredientCollectionsCollapsed {
+
+    @Param({"PrototypeMap", "PrototypeMap:Aggregated:Group", "Classified:PrototypeMap:Group", "QuantitativeGrouper:ArrayList"})
+    public String type;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private List<ComplexStack> source;
+    private IIngredientCollapsedCollectionMutable<ComplexStack, Integer> collection;
+    private int removeIndex;
+
+    @Setup
+    public void setup() {
+        source = IngredientBenchmarkFixtures.createComplexStacks(size);
+        collection = createCollection(type).get();
+        collection.addAll(source);
+    }
+
+    public static Supplier<IIngredientCollapsedCollectionMutable<ComplexStack, Integer>> createCollection(String type) {
+        switch (type) {
+            case "PrototypeMap":
+                return () -> new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX);
+            case "PrototypeMap:Aggregated:Group":
+                return () -> new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX, false,
+                        new IngredientHashMapLong<>(IngredientComponentStubs.COMPLEX),
+                        Collections.singletonList(IngredientComponentStubs.COMPLEX.getCategoryTypes().get(0)), null);
+            case "Classified:PrototypeMap:Group":
+                return () -> new IngredientCollectionSingleClassifiedCollapsed<>(IngredientComponentStubs.COMPLEX,
+                        () -> new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX),
+                        IngredientComponentStubs.COMPLEX.getCategoryTypes().get(0));
+            case "QuantitativeGrouper:ArrayList":
+                return () -> new IngredientCollectionQuantitativeGrouper<>(new IngredientArrayList<>(IngredientComponentStubs.COMPLEX));
+            default:
+                throw new IllegalArgumentException("Unknown collection type: " + type);
+        }
+    }
+
+    @Benchmark
+    public IIngredientCollapsedCollectionMutable<ComplexStack, Integer> insert() {
+        IIngredientCollapsedCollectionMutable<ComplexStack, Integer> collection = createCollection(type).get();
+        collection.addAll(source);
+        return collection;
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (ComplexStack complexStack : collection) {
+            blackhole.consume(complexStack);
+        }
+    }
+
+    @Benchmark
+    public void forEach(Blackhole blackhole) {
+        collection.forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public long getQuantity() {
+        return collection.getQuantity(IngredientBenchmarkFixtures.PROBE);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return collection.contains(IngredientBenchmarkFixtures.PROBE);
+    }
+
+    @Benchmark
+    public void iterateMatchGroup(Blackhole blackhole) {
+        iterateMatch(blackhole, ComplexStack.Match.GROUP);
+    }
+
+    @Benchmark
+    public void iterateMatchMeta(Blackhole blackhole) {
+        iterateMatch(blackhole, ComplexStack.Match.META);
+    }
+
+    @Benchmark
+    public void iterateMatchGroupMeta(Blackhole blackhole) {
+        iterateMatch(blackhole, ComplexStack.Match.GROUP | ComplexStack.Match.META);
+    }
+
+    @Benchmark
+    public void forEachMatchGroup(Blackhole blackhole) {
+        collection.forEachMatching(IngredientBenchmarkFixtures.PROBE, ComplexStack.Match.GROUP, blackhole::consume);
+    }
+
+    @Benchmark
+    public void forEachMatchMeta(Blackhole blackhole) {
+        collection.forEachMatching(IngredientBenchmarkFixtures.PROBE, ComplexStack.Match.META, blackhole::consume);
+    }
+
+    @Benchmark
+    public boolean containsMatchGroup() {
+        return collection.contains(IngredientBenchmarkFixtures.PROBE, ComplexStack.Match.GROUP);
+    }
+
+    @Benchmark
+    public boolean containsMatchMeta() {
+        return collection.contains(IngredientBenchmarkFixtures.PROBE, ComplexStack.Match.META);
+    }
+
+    @Benchmark
+    public boolean containsMatchGroupMeta() {
+        return collection.contains(IngredientBenchmarkFixtures.PROBE, ComplexStack.Match.GROUP | ComplexStack.Match.META);
+    }
+
+    @Benchmark
+    public long getTotalQuantityGroup() {
+        return collection.getTotalQuantity(IngredientBenchmarkFixtures.PROBE, ComplexStack.Match.GROUP);
+    }
+
+    @Benchmark
+    public long getTotalQuantityMeta() {
+        return collection.getTotalQuantity(IngredientBenchmarkFixtures.PROBE, ComplexStack.Match.META);
+    }
+
+    /**
+     * Remove an instance and add it again, cycling over all source instances,
+     * so that removals at all positions are covered.
+     */
+    @Benchmark
+    public boolean removeAndAdd() {
+        ComplexStack instance = source.get(removeIndex);
+        removeIndex = (removeIndex + 1) % source.size();
+        return collection.remove(instance) && collection.add(instance);
+    }
+
+    protected void iterateMatch(Blackhole blackhole, int matchCondition) {
+        Iterator<ComplexStack> it = collection.iterator(IngredientBenchmarkFixtures.PROBE, matchCondition);
+        while (it.hasNext()) {
+            blackhole.consume(it.next());
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+package org.cyclops.cyclopscore.ingredient;
+
+import org.cyclops.cyclopscore.ingredient.collection.IIngredientCollapsedCollectionMutable;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionPrototypeConcurrentMap;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionPrototypeMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for concurrently folding instances into a single collapsed collection,
+ * comparing {@link IngredientCollectionPrototypeConcurrentMap}
+ * with an {@link IngredientCollectionPrototypeMap} that is guarded by a single lock.
+ *
+ * @author rubensworks
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class BenchmarkIngredientCollectionsConcurrent {
+
+    @Param({"ConcurrentPrototypeMap", "SynchronizedPrototypeMap"})
+    public String type;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private List<ComplexStack> source;
+    private IIngredientCollapsedCollectionMutable<ComplexStack, Integer> collection;
+    private boolean synchronize;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        source = IngredientBenchmarkFixtures.createComplexStacks(size);
+        switch (type) {
+            case "ConcurrentPrototypeMap":
+                collection = new IngredientCollectionPrototypeConcurrentMap<>(IngredientComponentStubs.COMPLEX);
+                synchronize = false;
+                break;
+            case "SynchronizedPrototypeMap":
+                collection = new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX);
+                synchronize = true;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown collection type: " + type);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index;
+
+        public ComplexStack next(List<ComplexStack> source) {
+            if (++index >= source.size()) {
+                index = 0;
+            }
+            return source.get(index);
+        }
+    }
+
+    @Benchmark
+    public boolean add(Cursor cursor) {
+        ComplexStack instance = cursor.next(source);
+        if (synchronize) {
+            synchronized (collection) {
+                return collection.add(instance);
+            }
+        }
+        return collection.add(instance);
+    }
+
+    @Benchmark
+    public long getQuantity(Cursor cursor) {
+        ComplexStack instance = cursor.next(source);
+        if (synchronize) {
+            synchronized (collection) {
+                return collection.getQuantity(instance);
+            }
+        }
+        return collection.getQuantity(instance);
+    }
+
+    @Benchmark
+    public void setQuantity(Cursor cursor) {
+        ComplexStack instance = cursor.next(source);
+        if (synchronize) {
+            synchronized (collection) {
+                collection.setQuantity(instance, 10);
+            }
+            return;
+        }
+        collection.setQuantity(instance, 10);
+    }
+
+}
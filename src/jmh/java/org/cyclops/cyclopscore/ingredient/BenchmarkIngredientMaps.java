@@ -0,0 +1,164 @@
+package org.cyclops.cyclopscore.ingredient;
+
+import org.cyclops.cyclopscore.ingredient.collection.IIngredientMapMutable;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientHashMap;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientMapMultiClassified;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientMapSingleClassified;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientOpenHashMap;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientTreeMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Benchmarks for the {@link IIngredientMapMutable} implementations.
+ * @author rubensworks
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BenchmarkIngredientMaps {
+
+    @Param({"HashMap", "OpenHashMap", "TreeMap",
+            "Classified:HashMap:Group", "Classified:OpenHashMap:Group", "Classified:TreeMap:Group",
+            "MultiClassified:HashMap", "MultiClassified:OpenHashMap", "MultiClassified:TreeMap"})
+    public String type;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private IIngredientMapMutable<ComplexStack, Integer, Integer> source;
+    private IIngredientMapMutable<ComplexStack, Integer, Integer> map;
+
+    @Setup
+    public void setup() {
+        source = new IngredientHashMap<>(IngredientComponentStubs.COMPLEX);
+        int i = 0;
+        for (ComplexStack complexStack : IngredientBenchmarkFixtures.createComplexStacks(size)) {
+            source.put(complexStack, i++);
+        }
+        map = createMap(type).get();
+        map.putAll(source);
+    }
+
+    public static Supplier<IIngredientMapMutable<ComplexStack, Integer, Integer>> createMap(String type) {
+        switch (type) {
+            case "HashMap":
+                return () -> new IngredientHashMap<>(IngredientComponentStubs.COMPLEX);
+            case "OpenHashMap":
+                return () -> new IngredientOpenHashMap<>(IngredientComponentStubs.COMPLEX);
+            case "TreeMap":
+                return () -> new IngredientTreeMap<>(IngredientComponentStubs.COMPLEX);
+            case "Classified:HashMap:Group":
+                return () -> new IngredientMapSingleClassified<>(IngredientComponentStubs.COMPLEX,
+                        () -> new IngredientHashMap<>(IngredientComponentStubs.COMPLEX),
+                        IngredientComponentStubs.COMPLEX.getCategoryTypes().get(0));
+            case "Classified:OpenHashMap:Group":
+                return () -> new IngredientMapSingleClassified<>(IngredientComponentStubs.COMPLEX,
+                        () -> new IngredientOpenHashMap<>(IngredientComponentStubs.COMPLEX),
+                        IngredientComponentStubs.COMPLEX.getCategoryTypes().get(0));
+            case "Classified:TreeMap:Group":
+                return () -> new IngredientMapSingleClassified<>(IngredientComponentStubs.COMPLEX,
+                        () -> new IngredientTreeMap<>(IngredientComponentStubs.COMPLEX),
+                        IngredientComponentStubs.COMPLEX.getCategoryTypes().get(0));
+            case "MultiClassified:HashMap":
+                return () -> new IngredientMapMultiClassified<>(IngredientComponentStubs.COMPLEX,
+                        () -> new IngredientHashMap<>(IngredientComponentStubs.COMPLEX));
+            case "MultiClassified:OpenHashMap":
+                return () -> new IngredientMapMultiClassified<>(IngredientComponentStubs.COMPLEX,
+                        () -> new IngredientOpenHashMap<>(IngredientComponentStubs.COMPLEX));
+            case "MultiClassified:TreeMap":
+                return () -> new IngredientMapMultiClassified<>(IngredientComponentStubs.COMPLEX,
+                        () -> new IngredientTreeMap<>(IngredientComponentStubs.COMPLEX));
+            default:
+                throw new IllegalArgumentException("Unknown map type: " + type);
+        }
+    }
+
+    @Benchmark
+    public IIngredientMapMutable<ComplexStack, Integer, Integer> insert() {
+        IIngredientMapMutable<ComplexStack, Integer, Integer> map = createMap(type).get();
+        map.putAll(source);
+        return map;
+    }
+
+    @Benchmark
+    public IIngredientMapMutable<ComplexStack, Integer, Integer> insertParallel() {
+        IIngredientMapMutable<ComplexStack, Integer, Integer> map = createMap(type).get();
+        if (map instanceof IngredientMapMultiClassified) {
+            ((IngredientMapMultiClassified<ComplexStack, Integer, Integer>) map).putAllParallel(source);
+        } else if (map instanceof IngredientMapSingleClassified) {
+            ((IngredientMapSingleClassified<ComplexStack, Integer, Integer, ?>) map).putAllParallel(source);
+        } else {
+            map.putAll(source);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (Map.Entry<ComplexStack, Integer> entry : map) {
+            blackhole.consume(entry);
+        }
+    }
+
+    @Benchmark
+    public Integer get() {
+        return map.get(IngredientBenchmarkFixtures.PROBE);
+    }
+
+    @Benchmark
+    public void iterateMatchGroup(Blackhole blackhole) {
+        iterateMatch(blackhole, ComplexStack.Match.GROUP);
+    }
+
+    @Benchmark
+    public void iterateMatchMeta(Blackhole blackhole) {
+        iterateMatch(blackhole, ComplexStack.Match.META);
+    }
+
+    @Benchmark
+    public void iterateMatchGroupMeta(Blackhole blackhole) {
+        iterateMatch(blackhole, ComplexStack.Match.GROUP | ComplexStack.Match.META);
+    }
+
+    @Benchmark
+    public boolean containsMatchGroup() {
+        return map.containsKey(IngredientBenchmarkFixtures.PROBE, ComplexStack.Match.GROUP);
+    }
+
+    @Benchmark
+    public boolean containsMatchMeta() {
+        return map.containsKey(IngredientBenchmarkFixtures.PROBE, ComplexStack.Match.META);
+    }
+
+    @Benchmark
+    public boolean containsMatchGroupMeta() {
+        return map.containsKey(IngredientBenchmarkFixtures.PROBE, ComplexStack.Match.GROUP | ComplexStack.Match.META);
+    }
+
+    protected void iterateMatch(Blackhole blackhole, int matchCondition) {
+        Iterator<Map.Entry<ComplexStack, Integer>> it = map.iterator(IngredientBenchmarkFixtures.PROBE, matchCondition);
+        while (it.hasNext()) {
+            blackhole.consume(it.next());
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+package org.cyclops.cyclopscore.ingredient;
+
+import com.google.common.collect.Lists;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionPrototypeMap;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientMapLongQuantityIndexed;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for "sort by amount" queries over the counts of an {@link IngredientCollectionPrototypeMap},
+ * comparing an {@link IngredientMapLongQuantityIndexed} with sorting all counts.
+ *
+ * @author rubensworks
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BenchmarkIngredientQuantityIndex {
+
+    private static final int TOP = 50;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private List<ComplexStack> source;
+    private IngredientMapLongQuantityIndexed<ComplexStack, Integer> indexedCounts;
+    private IngredientCollectionPrototypeMap<ComplexStack, Integer> indexedCollection;
+    private IngredientCollectionPrototypeMap<ComplexStack, Integer> collection;
+    private int cursor;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        source = IngredientBenchmarkFixtures.createComplexStacks(size);
+        indexedCounts = new IngredientMapLongQuantityIndexed<>(IngredientComponentStubs.COMPLEX);
+        indexedCollection = new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX, false, indexedCounts,
+                Collections.emptyList(), null);
+        collection = new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX);
+        for (ComplexStack instance : source) {
+            indexedCollection.add(instance);
+            collection.add(instance);
+        }
+    }
+
+    @Benchmark
+    public List<Object2LongMap.Entry<ComplexStack>> topIndexed() {
+        return indexedCounts.getTop(TOP);
+    }
+
+    @Benchmark
+    public List<Object2LongMap.Entry<ComplexStack>> topSorted() {
+        List<Object2LongMap.Entry<ComplexStack>> entries = Lists.newArrayListWithCapacity(collection.size());
+        Iterator<Object2LongMap.Entry<ComplexStack>> it = collection.prototypeLongIterator();
+        while (it.hasNext()) {
+            entries.add(it.next());
+        }
+        entries.sort(Comparator.comparingLong(Object2LongMap.Entry<ComplexStack>::getLongValue).reversed());
+        return entries.subList(0, Math.min(TOP, entries.size()));
+    }
+
+    @Benchmark
+    public boolean addIndexed() {
+        return indexedCollection.add(next());
+    }
+
+    @Benchmark
+    public boolean add() {
+        return collection.add(next());
+    }
+
+    protected ComplexStack next() {
+        if (++cursor >= source.size()) {
+            cursor = 0;
+        }
+        return source.get(cursor);
+    }
+
+}
@@ -0,0 +1,44 @@
+package org.cyclops.cyclopscore.ingredient;
+
+import com.google.common.collect.Lists;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Shared inputs for the ingredient benchmarks.
+ * @author rubensworks
+ */
+public class IngredientBenchmarkFixtures {
+
+    public static final long SEED = 1000;
+
+    /**
+     * The instance that is used as lookup key and match prototype in all benchmarks.
+     */
+    public static final ComplexStack PROBE = new ComplexStack(ComplexStack.Group.B, 10, 10, null);
+
+    /**
+     * Create a deterministic list of random complex stacks.
+     * @param count The number of stacks to create.
+     * @return A list of complex stacks, which may contain duplicates.
+     */
+    public static List<ComplexStack> createComplexStacks(int count) {
+        Random rand = new Random(SEED);
+        List<ComplexStack> complexStacks = Lists.newArrayListWithExpectedSize(count);
+        for (int i = 0; i < count; i++) {
+            complexStacks.add(createComplexStack(rand));
+        }
+        return complexStacks;
+    }
+
+    public static ComplexStack createComplexStack(Random rand) {
+        ComplexStack.Group group = ComplexStack.Group.values()[rand.nextInt(ComplexStack.Group.values().length)];
+        ComplexStack.Tag tag = ComplexStack.Tag.values()[rand.nextInt(ComplexStack.Tag.values().length)];
+        if (rand.nextBoolean()) {
+            tag = null;
+        }
+        return new ComplexStack(group, rand.nextInt(64) + 1, rand.nextInt(15), tag);
+    }
+
+}
@@ -0,0 +1,102 @@
+package org.cyclops.cyclopscore.ingredient.storage;
+
+import com.google.common.collect.Lists;
+import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
+import org.cyclops.cyclopscore.ingredient.ComplexStack;
+import org.cyclops.cyclopscore.ingredient.IngredientBenchmarkFixtures;
+import org.cyclops.cyclopscore.ingredient.IngredientComponentStubs;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientArrayList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for moving several prototypes between two slotted storages,
+ * comparing {@link IngredientStorageHelpers#moveIngredientsBatch} with one move loop per prototype.
+ *
+ * @author rubensworks
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BenchmarkIngredientStorageHelpersMoveBatch {
+
+    private static final long MAX_QUANTITY = 200;
+
+    @Param({"100", "1000"})
+    public int slots;
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    private List<ComplexStack> sourceInstances;
+    private List<IngredientMoveRequest<ComplexStack, Integer>> requests;
+    private IngredientComponentStorageSlottedCollectionWrapper<ComplexStack, Integer> source;
+    private IngredientComponentStorageSlottedCollectionWrapper<ComplexStack, Integer> destination;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        sourceInstances = IngredientBenchmarkFixtures.createComplexStacks(slots);
+        requests = Lists.newArrayList();
+        for (ComplexStack.Group group : ComplexStack.Group.values()) {
+            requests.add(new IngredientMoveRequest<>(new ComplexStack(group, 0, 1, null), ComplexStack.Match.GROUP, MAX_QUANTITY));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        IngredientArrayList<ComplexStack, Integer> sourceList = new IngredientArrayList<>(IngredientComponentStubs.COMPLEX, sourceInstances);
+        IngredientArrayList<ComplexStack, Integer> destinationList = new IngredientArrayList<>(IngredientComponentStubs.COMPLEX, slots);
+        for (int i = 0; i < slots; i++) {
+            destinationList.add(null);
+        }
+        source = createStorage(sourceList);
+        destination = createStorage(destinationList);
+    }
+
+    protected IngredientComponentStorageSlottedCollectionWrapper<ComplexStack, Integer> createStorage(IngredientArrayList<ComplexStack, Integer> list) {
+        return indexed
+                ? new IngredientComponentStorageSlottedIndexedCollectionWrapper<>(list, 64, Long.MAX_VALUE)
+                : new IngredientComponentStorageSlottedCollectionWrapper<>(list, 64, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public long[] moveBatch() throws InconsistentIngredientInsertionException {
+        return IngredientStorageHelpers.moveIngredientsBatch(source, destination, requests, false);
+    }
+
+    @Benchmark
+    public long[] movePerPrototype() throws InconsistentIngredientInsertionException {
+        IIngredientMatcher<ComplexStack, Integer> matcher = IngredientComponentStubs.COMPLEX.getMatcher();
+        long[] moved = new long[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            IngredientMoveRequest<ComplexStack, Integer> request = requests.get(i);
+            while (moved[i] < request.getMaxQuantity()) {
+                ComplexStack instance = matcher.withQuantity(request.getInstance(), request.getMaxQuantity() - moved[i]);
+                long movedQuantity = matcher.getQuantity(IngredientStorageHelpers.moveIngredientsSlotted(source, -1,
+                        destination, -1, instance, request.getMatchCondition(), false));
+                if (movedQuantity == 0) {
+                    break;
+                }
+                moved[i] += movedQuantity;
+            }
+        }
+        return moved;
+    }
+
+}
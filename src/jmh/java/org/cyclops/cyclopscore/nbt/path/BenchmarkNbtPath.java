@@ -0,0 +1,82 @@
+package org.cyclops.cyclopscore.nbt.path;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for parsing and executing NBT path expressions.
+ * @author rubensworks
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BenchmarkNbtPath {
+
+    private CompoundTag tag;
+    private INbtPathExpression expression;
+    private INbtPathExpression expressionCompiled;
+
+    @Setup
+    public void setup() throws NbtParseException {
+        CompoundTag tag1 = new CompoundTag();
+        CompoundTag tag2 = new CompoundTag();
+        ListTag tag3 = new ListTag();
+        CompoundTag tag4 = new CompoundTag();
+        CompoundTag tag5 = new CompoundTag();
+        CompoundTag tag6 = new CompoundTag();
+        tag1.put("a", tag2);
+        tag2.put("b", tag3);
+        tag3.add(tag4);
+        tag3.add(tag5);
+        tag3.add(tag6);
+        tag4.putString("notX", "X");
+        tag5.putString("x", "X");
+        tag6.putString("x", "notX");
+        tag = tag1;
+
+        expression = NbtPath.parse("$.a.b[?(@.x == \"X\")][0].x");
+        expressionCompiled = NbtPath.compile(expression);
+    }
+
+    @Benchmark
+    public INbtPathExpression parse() throws NbtParseException {
+        return NbtPath.parse("$.a.bdef.c[?(@.c == \"B\")]*.x");
+    }
+
+    @Benchmark
+    public Tag execute() {
+        return expression.match(tag).getMatches().findFirst().get();
+    }
+
+    @Benchmark
+    public boolean test() {
+        return expression.test(tag);
+    }
+
+    @Benchmark
+    public Tag executeCompiled() {
+        return expressionCompiled.match(tag).getMatches().findFirst().get();
+    }
+
+    @Benchmark
+    public boolean testCompiled() {
+        return expressionCompiled.test(tag);
+    }
+
+}
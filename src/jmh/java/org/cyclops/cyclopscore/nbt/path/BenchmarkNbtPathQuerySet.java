@@ -0,0 +1,107 @@
+package org.cyclops.cyclopscore.nbt.path;
+
+import com.google.common.collect.Lists;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import org.cyclops.cyclopscore.nbt.path.query.NbtPathQuerySet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for evaluating many NBT path expressions against the same tag,
+ * separately or as a single query set.
+ * @author rubensworks
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BenchmarkNbtPathQuerySet {
+
+    private static final int RULES = 50;
+
+    private CompoundTag tag;
+    private List<INbtPathExpression> expressions;
+    private NbtPathQuerySet querySet;
+
+    @Setup
+    public void setup() throws NbtParseException {
+        tag = new CompoundTag();
+        CompoundTag display = new CompoundTag();
+        display.putString("name", "Item");
+        tag.put("display", display);
+        ListTag enchantments = new ListTag();
+        for (int i = 0; i < 100; i++) {
+            CompoundTag enchantment = new CompoundTag();
+            enchantment.putString("id", "enchantment" + i);
+            enchantment.putInt("lvl", i % 5);
+            enchantments.add(enchantment);
+        }
+        tag.put("enchantments", enchantments);
+        for (int i = 0; i < 100; i++) {
+            tag.putInt("key" + i, i);
+        }
+
+        expressions = Lists.newArrayList();
+        for (int i = 0; i < RULES; i++) {
+            switch (i % 3) {
+                case 0:
+                    expressions.add(NbtPath.compile("$.enchantments*.id == \"enchantment" + i + "\""));
+                    break;
+                case 1:
+                    expressions.add(NbtPath.compile("$.enchantments*.lvl > " + (i % 5)));
+                    break;
+                default:
+                    expressions.add(NbtPath.compile("$.display.name == \"Item" + i + "\""));
+                    break;
+            }
+        }
+        querySet = new NbtPathQuerySet(expressions);
+    }
+
+    @Benchmark
+    public boolean[] testSeparately() {
+        boolean[] results = new boolean[expressions.size()];
+        for (int i = 0; i < expressions.size(); i++) {
+            results[i] = expressions.get(i).test(tag);
+        }
+        return results;
+    }
+
+    @Benchmark
+    public boolean[] testQuerySet() {
+        return querySet.test(tag);
+    }
+
+    @Benchmark
+    public int matchSeparately() {
+        int count = 0;
+        for (INbtPathExpression expression : expressions) {
+            count += (int) expression.match(tag).getMatches().count();
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int matchQuerySet() {
+        int count = 0;
+        for (NbtPathExpressionMatches matches : querySet.match(tag)) {
+            count += (int) matches.getMatches().count();
+        }
+        return count;
+    }
+
+}
@@ -1,5 +1,7 @@
 package org.cyclops.cyclopscore.ingredient.collection;
 
+import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
+
 /**
  * A mutable ingredient collection that does not strictly adhere to the {@link IIngredientCollection} interface
  * and will collapse ingredients that are equal, ignoring their quantity.
@@ -29,4 +31,62 @@ public interface IIngredientCollapsedCollectionMutable<T, M> extends IIngredient
      */
     public void setQuantity(T instance, long quantity);
 
+    /**
+     * Get the sum of quantities of all instances that match the given instance under the given match condition.
+     * The quantity of the given instance and the quantity part of the match condition are ignored.
+     *
+     * Implementations may answer this without iteration if they maintain aggregates for the match condition.
+     *
+     * @param instance An instance.
+     * @param matchCondition A match condition.
+     * @return The total quantity.
+     */
+    public default long getTotalQuantity(T instance, M matchCondition) {
+        long total = 0;
+        for (T prototype : getMatchingPrototypes(instance, matchCondition)) {
+            total += getQuantity(prototype);
+        }
+        return total;
+    }
+
+    /**
+     * Get the number of distinct instances that match the given instance under the given match condition.
+     * The quantity of the given instance and the quantity part of the match condition are ignored.
+     *
+     * Implementations may answer this without iteration if they maintain aggregates for the match condition.
+     *
+     * @param instance An instance.
+     * @param matchCondition A match condition.
+     * @return The number of distinct instances.
+     */
+    public default int getPrototypeCount(T instance, M matchCondition) {
+        return getMatchingPrototypes(instance, matchCondition).size();
+    }
+
+    /**
+     * Collect all distinct instances, with a quantity of 1,
+     * that match the given instance under the given match condition, ignoring quantity.
+     * @param instance An instance.
+     * @param matchCondition A match condition.
+     * @return The matching instances with a quantity of 1.
+     */
+    public default IngredientHashSet<T, M> getMatchingPrototypes(T instance, M matchCondition) {
+        IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
+        IngredientHashSet<T, M> prototypes = new IngredientHashSet<>(getComponent());
+        forEachMatching(instance, withoutQuantityCondition(matchCondition),
+                thisInstance -> prototypes.add(matcher.withQuantity(thisInstance, 1)));
+        return prototypes;
+    }
+
+    /**
+     * Remove the condition of the primary quantifier from the given match condition.
+     * @param matchCondition A match condition.
+     * @return The match condition without quantity condition.
+     */
+    public default M withoutQuantityCondition(M matchCondition) {
+        IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
+        return getComponent().getPrimaryQuantifier() == null ? matchCondition
+                : matcher.withoutCondition(matchCondition, getComponent().getPrimaryQuantifier().getMatchCondition());
+    }
+
 }
@@ -3,6 +3,7 @@ package org.cyclops.cyclopscore.ingredient.collection;
 import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
 
 import java.util.Iterator;
+import java.util.function.Consumer;
 
 /**
  * A collection-like thing that contains ingredient component instances.
@@ -39,6 +40,25 @@ public interface IIngredientCollectionLike<T, M, I> extends Iterable<I> {
      */
     public Iterator<I> iterator(T instance, M matchCondition);
 
+    /**
+     * Visit all occurrences of the given instance under the given match conditions.
+     *
+     * Contrary to {@link #iterator(Object, Object)}, implementations may traverse their internal storage directly,
+     * so that no iterators or intermediary objects have to be allocated.
+     * This collection must not be modified by the consumer.
+     *
+     * @param instance An instance.
+     * @param matchCondition A match condition.
+     * @param consumer A consumer that is called for all occurrences of the given instance
+     *                 under the given match conditions.
+     */
+    public default void forEachMatching(T instance, M matchCondition, Consumer<? super I> consumer) {
+        Iterator<I> it = iterator(instance, matchCondition);
+        while (it.hasNext()) {
+            consumer.accept(it.next());
+        }
+    }
+
     /**
      * Check if this collection equals the given object.
      * @param o An object.
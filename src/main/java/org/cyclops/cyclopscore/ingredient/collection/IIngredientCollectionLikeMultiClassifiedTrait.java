@@ -2,12 +2,14 @@ package org.cyclops.cyclopscore.ingredient.collection;
 
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import org.cyclops.commoncapabilities.api.ingredient.IngredientComponentCategoryType;
 
 import javax.annotation.Nullable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * An interface-based trait for collections that have a multi-level classification,
@@ -52,6 +54,86 @@ public interface IIngredientCollectionLikeMultiClassifiedTrait<T, M, I, L extend
         return getClassifiedCollections().get(category);
     }
 
+    /**
+     * Get the cheapest classified collection-like for the given instance and match condition.
+     * @param instance An instance, may be null if the match condition matches everything.
+     * @param matchCondition A match condition.
+     * @return The cheapest classified collection-like.
+     * @see #planQuery(Object, Object)
+     */
+    public default L getBestClassifiedCollection(@Nullable T instance, M matchCondition) {
+        if (instance == null || matchCondition.equals(getComponent().getMatcher().getAnyMatchCondition())) {
+            return getFirstSingleClassified();
+        }
+        return getClassifiedCollections().get(getCheapestCategory(instance, matchCondition, null));
+    }
+
+    /**
+     * Find the category type of which the classified bucket of the given instance contains the fewest instances,
+     * among all category types that apply to the given match condition.
+     * On equal costs, the first category type is chosen.
+     * @param instance An instance.
+     * @param matchCondition A match condition.
+     * @param candidateCosts An optional map to which the costs of all applicable category types are added.
+     * @return The cheapest category type.
+     */
+    public default IngredientComponentCategoryType<T, M, ?> getCheapestCategory(T instance, M matchCondition,
+                                                                               @Nullable Map<IngredientComponentCategoryType<T, M, ?>, Integer> candidateCosts) {
+        IngredientComponentCategoryType<T, M, ?> bestCategory = null;
+        int bestCost = Integer.MAX_VALUE;
+        for (IngredientComponentCategoryType<T, M, ?> categoryType : getComponent().getCategoryTypes()) {
+            if (getComponent().getMatcher().hasCondition(matchCondition, categoryType.getMatchCondition())) {
+                L collection = getClassifiedCollections().get(categoryType);
+                int cost = collection instanceof IIngredientCollectionLikeSingleClassifiedTrait
+                        ? ((IIngredientCollectionLikeSingleClassifiedTrait<T, M, ?, ?, ?>) collection).getClassifiedCount(instance)
+                        : collection.size();
+                if (candidateCosts != null) {
+                    candidateCosts.put(categoryType, cost);
+                }
+                if (cost < bestCost) {
+                    bestCategory = categoryType;
+                    bestCost = cost;
+                }
+            }
+        }
+        if (bestCategory == null) {
+            throw new IllegalStateException(
+                    "Match condition does not match with any of the available category types, this is a coding error.");
+        }
+        return bestCategory;
+    }
+
+    /**
+     * Determine the cheapest classified collection-like for iterating over the given instance
+     * with the given match condition.
+     *
+     * All category types that apply to the match condition are considered,
+     * and the one of which the classified bucket of the given instance contains the fewest instances is chosen.
+     * These bucket sizes are maintained incrementally by the classified collection-likes,
+     * so planning only requires one lookup per category type.
+     * On equal costs, the first category type is chosen, as is done by {@link #getBestClassifiedCollection(Object)}.
+     *
+     * @param instance An instance, may be null if the match condition matches everything.
+     * @param matchCondition A match condition.
+     * @return The query plan.
+     */
+    public default IngredientCollectionQueryPlan<T, M, L> planQuery(@Nullable T instance, M matchCondition) {
+        Map<IngredientComponentCategoryType<T, M, ?>, Integer> candidateCosts = Maps.newLinkedHashMap();
+        Map<IngredientComponentCategoryType<T, M, ?>, L> candidateCollections = Maps.newIdentityHashMap();
+        if (instance == null || matchCondition.equals(getComponent().getMatcher().getAnyMatchCondition())) {
+            L collection = getFirstSingleClassified();
+            return new IngredientCollectionQueryPlan<>(null, collection, collection.size(), candidateCosts, candidateCollections);
+        }
+
+        IngredientComponentCategoryType<T, M, ?> bestCategory = getCheapestCategory(instance, matchCondition, candidateCosts);
+        for (IngredientComponentCategoryType<T, M, ?> categoryType : candidateCosts.keySet()) {
+            candidateCollections.put(categoryType, getClassifiedCollections().get(categoryType));
+        }
+        L bestCollection = candidateCollections.get(bestCategory);
+        int bestCost = candidateCosts.get(bestCategory);
+        return new IngredientCollectionQueryPlan<>(bestCategory, bestCollection, bestCost, candidateCosts, candidateCollections);
+    }
+
     /**
      * @return The first available classified collection-like.
      */
@@ -59,6 +141,16 @@ public interface IIngredientCollectionLikeMultiClassifiedTrait<T, M, I, L extend
         return Iterables.getFirst(getClassifiedCollections().values(), null);
     }
 
+    @Override
+    public default void forEach(Consumer<? super I> consumer) {
+        getFirstSingleClassified().forEach(consumer);
+    }
+
+    @Override
+    public default void forEachMatching(T instance, M matchCondition, Consumer<? super I> consumer) {
+        getBestClassifiedCollection(instance, matchCondition).forEachMatching(instance, matchCondition, consumer);
+    }
+
     /**
      * Remove the given instance from the given collection-like.
      *
@@ -85,11 +177,12 @@ public interface IIngredientCollectionLikeMultiClassifiedTrait<T, M, I, L extend
         public RemoveCallbackIterator(IIngredientCollectionLikeMultiClassifiedTrait<T, M, I, L> multiClassifiedCollection,
                                       T instance, M matchCondition) {
             this.multiClassifiedCollection = multiClassifiedCollection;
-            L classifiedCollection = this.multiClassifiedCollection.getBestClassifiedCollection(matchCondition);
+            L classifiedCollection = this.multiClassifiedCollection.getBestClassifiedCollection(instance, matchCondition);
             this.iterator = classifiedCollection.iterator(instance, matchCondition);
             this.otherClassifiedCollections = Lists
                     .newArrayList(this.multiClassifiedCollection.getClassifiedCollections().values());
-            otherClassifiedCollections.remove(classifiedCollection);
+            // Remove by identity, as classified collections with the same contents are equal
+            otherClassifiedCollections.removeIf(c -> c == classifiedCollection);
         }
 
         @Override
@@ -1,11 +1,13 @@
 package org.cyclops.cyclopscore.ingredient.collection;
 
+import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
 import org.cyclops.commoncapabilities.api.ingredient.IngredientComponentCategoryType;
 
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * An interface-based trait for collections that have a single-level classification,
@@ -73,6 +75,69 @@ public interface IIngredientCollectionLikeSingleClassifiedTrait<T, M, I, C, L ex
      */
     public Map<C, L> getClassifiedCollections();
 
+    /**
+     * Get the number of instances in the classified collection-like of the given instance.
+     * This is the number of instances that must be visited when iterating with a match condition
+     * that applies to this classifier.
+     * @param instance An instance.
+     * @return The number of instances with the same classifier.
+     */
+    public default int getClassifiedCount(T instance) {
+        L collection = this.getClassifiedCollections().get(getClassifier(instance));
+        return collection == null ? 0 : collection.size();
+    }
+
+    /**
+     * Calculate a histogram of the sizes of all classified collection-likes, for debugging purposes.
+     * @return An array where the value at index i is the number of classified collection-likes
+     *         with a size in the range [2^i, 2^(i+1)[.
+     */
+    public default int[] getClassifiedSizeHistogram() {
+        int[] histogram = new int[Integer.SIZE];
+        for (L collection : this.getClassifiedCollections().values()) {
+            int size = collection.size();
+            if (size > 0) {
+                histogram[Integer.SIZE - 1 - Integer.numberOfLeadingZeros(size)]++;
+            }
+        }
+        return histogram;
+    }
+
+    @Override
+    public default void forEach(Consumer<? super I> consumer) {
+        for (L collection : this.getClassifiedCollections().values()) {
+            collection.forEach(consumer);
+        }
+    }
+
+    @Override
+    public default void forEachMatching(T instance, M matchCondition, Consumer<? super I> consumer) {
+        if (Objects.equals(getComponent().getMatcher().getAnyMatchCondition(), matchCondition)) {
+            forEach(consumer);
+        } else if (appliesToClassifier(matchCondition)) {
+            // At most one classifier will be found, so we can simply delegate this call
+            L collection = this.getClassifiedCollections().get(getClassifier(instance));
+            if (collection != null) {
+                if (Objects.equals(getCategoryType().getMatchCondition(), matchCondition)) {
+                    collection.forEach(consumer);
+                } else {
+                    M subMatchCondition = getComponent().getMatcher().withoutCondition(matchCondition, getCategoryType().getMatchCondition());
+                    collection.forEachMatching(instance, subMatchCondition, consumer);
+                }
+            }
+        } else {
+            IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
+            Consumer<I> filteredConsumer = iterableInstance -> {
+                if (matcher.matches(instance, getInstance(iterableInstance), matchCondition)) {
+                    consumer.accept(iterableInstance);
+                }
+            };
+            for (L collection : this.getClassifiedCollections().values()) {
+                collection.forEach(filteredConsumer);
+            }
+        }
+    }
+
     /**
      * Set the internal size value.
      *
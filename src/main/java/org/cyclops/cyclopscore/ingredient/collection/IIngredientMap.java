@@ -4,9 +4,11 @@ import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 /**
  * A mapping from ingredient component instances to values of any type.
@@ -159,4 +161,39 @@ public interface IIngredientMap<T, M, V> extends IIngredientCollectionLike<T, M,
      */
     Set<Map.Entry<T, V>> entrySet();
 
+    /**
+     * Visit all instance-value pairs in this map.
+     *
+     * Implementations may traverse their internal storage directly,
+     * so that no iterators or entry objects have to be allocated.
+     * This map must not be modified by the consumer.
+     *
+     * @param consumer A consumer for instance-value pairs.
+     */
+    public default void forEachEntry(BiConsumer<? super T, ? super V> consumer) {
+        for (Map.Entry<T, V> entry : this) {
+            consumer.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Visit all instance-value pairs of which the instance matches the given instance
+     * under the given match conditions.
+     *
+     * Implementations may traverse their internal storage directly,
+     * so that no iterators or entry objects have to be allocated.
+     * This map must not be modified by the consumer.
+     *
+     * @param instance An instance.
+     * @param matchCondition A match condition.
+     * @param consumer A consumer for instance-value pairs.
+     */
+    public default void forEachEntryMatching(T instance, M matchCondition, BiConsumer<? super T, ? super V> consumer) {
+        Iterator<Map.Entry<T, V>> it = iterator(instance, matchCondition);
+        while (it.hasNext()) {
+            Map.Entry<T, V> entry = it.next();
+            consumer.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
 }
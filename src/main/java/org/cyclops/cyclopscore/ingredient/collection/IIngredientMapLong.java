@@ -0,0 +1,78 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+
+import java.util.Iterator;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * A mapping from ingredient component instances to primitive long values.
+ *
+ * Contrary to regular {@link IIngredientMap}s, values can be read without boxing.
+ * Zero values are never stored, so a value of zero is equivalent to an absent mapping.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ */
+public interface IIngredientMapLong<T, M> extends IIngredientMap<T, M, Long> {
+
+    /**
+     * Get the value for the given instance.
+     * @param key An instance.
+     * @return The value, or zero if the instance is not present.
+     */
+    public long getLong(T key);
+
+    /**
+     * @return An iterator over all instance-value entries.
+     */
+    public Iterator<Object2LongMap.Entry<T>> longIterator();
+
+    /**
+     * Iterate over all instance-value entries of which the instance matches the given instance
+     * under the given match conditions.
+     *
+     * @param instance An instance.
+     * @param matchCondition A match condition.
+     * @return An iterator over all matching instance-value entries.
+     */
+    public Iterator<Object2LongMap.Entry<T>> longIterator(T instance, M matchCondition);
+
+    /**
+     * Visit all instance-value pairs in this map, with unboxed values.
+     *
+     * Implementations may traverse their internal storage directly,
+     * so that no iterators or entry objects have to be allocated.
+     * This map must not be modified by the consumer.
+     *
+     * @param consumer A consumer for instance-value pairs.
+     */
+    public default void forEachLongEntry(ObjLongConsumer<? super T> consumer) {
+        Iterator<Object2LongMap.Entry<T>> it = longIterator();
+        while (it.hasNext()) {
+            Object2LongMap.Entry<T> entry = it.next();
+            consumer.accept(entry.getKey(), entry.getLongValue());
+        }
+    }
+
+    /**
+     * Visit all instance-value pairs of which the instance matches the given instance
+     * under the given match conditions, with unboxed values.
+     *
+     * Implementations may traverse their internal storage directly,
+     * so that no iterators or entry objects have to be allocated.
+     * This map must not be modified by the consumer.
+     *
+     * @param instance An instance.
+     * @param matchCondition A match condition.
+     * @param consumer A consumer for instance-value pairs.
+     */
+    public default void forEachLongEntryMatching(T instance, M matchCondition, ObjLongConsumer<? super T> consumer) {
+        Iterator<Object2LongMap.Entry<T>> it = longIterator(instance, matchCondition);
+        while (it.hasNext()) {
+            Object2LongMap.Entry<T> entry = it.next();
+            consumer.accept(entry.getKey(), entry.getLongValue());
+        }
+    }
+
+}
@@ -0,0 +1,38 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+/**
+ * A mutable mapping from ingredient component instances to primitive long values.
+ *
+ * Setting a value to zero, either directly or by adding to it, removes its mapping.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ */
+public interface IIngredientMapLongMutable<T, M> extends IIngredientMapLong<T, M>, IIngredientMapMutable<T, M, Long> {
+
+    /**
+     * Set the value for the given instance.
+     * @param key An instance key.
+     * @param value A value, where zero will remove the mapping.
+     * @return The previous value, or zero if the instance was not present.
+     */
+    public long putLong(T key, long value);
+
+    /**
+     * Add the given increment to the value of the given instance.
+     * If the instance was not present, it will be added with the increment as value.
+     * @param key An instance key.
+     * @param increment The value to add, which may be negative.
+     * @return The previous value, or zero if the instance was not present.
+     * @throws ArithmeticException If the new value would overflow, in which case the map is not changed.
+     */
+    public long addTo(T key, long increment) throws ArithmeticException;
+
+    /**
+     * Remove the mapping for the given instance.
+     * @param key An instance key.
+     * @return The removed value, or zero if the instance was not present.
+     */
+    public long removeLong(T key);
+
+}
@@ -0,0 +1,181 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponentCategoryType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Materialized aggregates over the prototypes of a collapsed collection.
+ *
+ * For the whole collection, and for each value of the configured category types,
+ * the sum of quantities and the number of distinct prototypes is maintained.
+ * These are updated incrementally via {@link #onQuantityChanged(Object, long, long)},
+ * so that they can be queried in O(1) for match conditions that correspond to a single category type.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ * @author rubensworks
+ */
+public class IngredientCollectionCategoryAggregates<T, M> {
+
+    private final IngredientComponent<T, M> component;
+    private final List<IngredientComponentCategoryType<T, M, ?>> categoryTypes;
+    private final List<Map<Object, Aggregate>> aggregates;
+    private long totalQuantity;
+    private int prototypeCount;
+
+    /**
+     * Create new aggregates.
+     * @param component The component type.
+     * @param categoryTypes The category types for which aggregates must be maintained per category value.
+     *                      This may not contain the primary quantifier.
+     */
+    public IngredientCollectionCategoryAggregates(IngredientComponent<T, M> component,
+                                                  Iterable<? extends IngredientComponentCategoryType<T, M, ?>> categoryTypes) {
+        this.component = component;
+        this.categoryTypes = Lists.newArrayList(categoryTypes);
+        this.aggregates = Lists.newArrayListWithCapacity(this.categoryTypes.size());
+        for (IngredientComponentCategoryType<T, M, ?> categoryType : this.categoryTypes) {
+            if (categoryType == component.getPrimaryQuantifier()) {
+                throw new IllegalArgumentException("Aggregates can not be maintained for the primary quantifier.");
+            }
+            this.aggregates.add(categoryType.isReferenceEqual() ? Maps.newIdentityHashMap() : Maps.newHashMap());
+        }
+    }
+
+    public IngredientComponent<T, M> getComponent() {
+        return component;
+    }
+
+    public List<IngredientComponentCategoryType<T, M, ?>> getCategoryTypes() {
+        return categoryTypes;
+    }
+
+    /**
+     * Update the aggregates after the quantity of the given prototype was changed.
+     * @param prototype A prototype.
+     * @param previousQuantity The quantity before the change, zero if the prototype was absent.
+     * @param quantity The quantity after the change, zero if the prototype was removed.
+     */
+    public void onQuantityChanged(T prototype, long previousQuantity, long quantity) {
+        if (previousQuantity == quantity) {
+            return;
+        }
+        long delta = quantity - previousQuantity;
+        int prototypeDelta = previousQuantity == 0 ? 1 : (quantity == 0 ? -1 : 0);
+        this.totalQuantity += delta;
+        this.prototypeCount += prototypeDelta;
+        for (int i = 0; i < categoryTypes.size(); i++) {
+            Object classifier = categoryTypes.get(i).getClassifier().apply(prototype);
+            Map<Object, Aggregate> categoryAggregates = aggregates.get(i);
+            Aggregate aggregate = categoryAggregates.get(classifier);
+            if (aggregate == null) {
+                aggregate = new Aggregate();
+                categoryAggregates.put(classifier, aggregate);
+            }
+            aggregate.quantity += delta;
+            aggregate.prototypes += prototypeDelta;
+            // Cleanup aggregates of category values that become empty
+            if (aggregate.prototypes == 0) {
+                categoryAggregates.remove(classifier);
+            }
+        }
+    }
+
+    /**
+     * Reset all aggregates.
+     */
+    public void clear() {
+        this.totalQuantity = 0;
+        this.prototypeCount = 0;
+        for (Map<Object, Aggregate> categoryAggregates : aggregates) {
+            categoryAggregates.clear();
+        }
+    }
+
+    /**
+     * Get the index of the category type that corresponds to the given match condition.
+     * @param matchCondition A match condition.
+     * @return The index of the category type, -1 if the match condition matches anything,
+     *         or -2 if no aggregate is available for the match condition.
+     */
+    protected int getCategoryIndex(M matchCondition) {
+        IIngredientMatcher<T, M> matcher = component.getMatcher();
+        if (component.getPrimaryQuantifier() != null) {
+            matchCondition = matcher.withoutCondition(matchCondition, component.getPrimaryQuantifier().getMatchCondition());
+        }
+        if (Objects.equals(matcher.getAnyMatchCondition(), matchCondition)) {
+            return -1;
+        }
+        for (int i = 0; i < categoryTypes.size(); i++) {
+            if (Objects.equals(categoryTypes.get(i).getMatchCondition(), matchCondition)) {
+                return i;
+            }
+        }
+        return -2;
+    }
+
+    /**
+     * Check if aggregates are available for the given match condition.
+     * This is the case if the match condition, ignoring quantity,
+     * matches anything or equals the match condition of one of the category types.
+     * @param matchCondition A match condition.
+     * @return If the aggregates apply.
+     */
+    public boolean appliesTo(M matchCondition) {
+        return getCategoryIndex(matchCondition) != -2;
+    }
+
+    /**
+     * Get the sum of quantities of all prototypes matching the given instance under the given match condition,
+     * ignoring quantity.
+     * @param instance An instance.
+     * @param matchCondition A match condition for which {@link #appliesTo(Object)} is true.
+     * @return The total quantity.
+     * @throws IllegalArgumentException If no aggregate is available for the given match condition.
+     */
+    public long getTotalQuantity(T instance, M matchCondition) throws IllegalArgumentException {
+        int index = getCategoryIndex(matchCondition);
+        if (index == -1) {
+            return totalQuantity;
+        }
+        Aggregate aggregate = getAggregate(index, instance, matchCondition);
+        return aggregate == null ? 0 : aggregate.quantity;
+    }
+
+    /**
+     * Get the number of distinct prototypes matching the given instance under the given match condition,
+     * ignoring quantity.
+     * @param instance An instance.
+     * @param matchCondition A match condition for which {@link #appliesTo(Object)} is true.
+     * @return The number of prototypes.
+     * @throws IllegalArgumentException If no aggregate is available for the given match condition.
+     */
+    public int getPrototypeCount(T instance, M matchCondition) throws IllegalArgumentException {
+        int index = getCategoryIndex(matchCondition);
+        if (index == -1) {
+            return prototypeCount;
+        }
+        Aggregate aggregate = getAggregate(index, instance, matchCondition);
+        return aggregate == null ? 0 : aggregate.prototypes;
+    }
+
+    protected Aggregate getAggregate(int index, T instance, M matchCondition) throws IllegalArgumentException {
+        if (index < 0) {
+            throw new IllegalArgumentException("No aggregates are maintained for match condition " + matchCondition);
+        }
+        return aggregates.get(index).get(categoryTypes.get(index).getClassifier().apply(instance));
+    }
+
+    protected static class Aggregate {
+        private long quantity;
+        private int prototypes;
+    }
+
+}
@@ -0,0 +1,218 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.collect.Lists;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+import org.cyclops.cyclopscore.nbt.path.stream.NbtPathStreamEvaluator;
+
+import javax.annotation.Nullable;
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * A lazy iterator over instances that are serialized in the format of {@link IngredientCollectionCompactSerializer}.
+ *
+ * Instances are only decoded when they are requested, so the serialized collection never has to be materialized.
+ *
+ * Optionally, a prototype and match condition can be given, after which only matching instances will be returned.
+ * Each distinct prototype is only decoded and matched once,
+ * so entries of non-matching prototypes are skipped by only reading their index and quantity.
+ * Non-matching prototypes are not kept, so a filtered read does not hold the whole prototype dictionary.
+ * If the match condition is exact, the NBT of all prototypes after the first matching one is skipped without decoding,
+ * as the serialized prototypes are distinct.
+ *
+ * Decoded prototype NBT is counted by an {@link NbtAccounter},
+ * which by default allows {@link NbtPathStreamEvaluator#DEFAULT_MAX_BYTES} bytes over all prototypes of the reader,
+ * as the input may come from untrusted sources such as the network.
+ *
+ * I/O errors are thrown as {@link UncheckedIOException}.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ */
+public class IngredientCollectionCompactReader<T, M> implements Iterator<T> {
+
+    private final DataInput input;
+    private final IngredientComponent<T, M> component;
+    @Nullable
+    private final T instance;
+    private final M matchCondition;
+    private final M matchConditionNoQuantity;
+    private final boolean matchQuantity;
+    private final boolean matchExact;
+    private final long count;
+    private final NbtAccounter accounter;
+
+    // Non-matching prototypes are stored as null
+    private final List<T> prototypes = Lists.newArrayList();
+    private boolean matchFound = false;
+    private long read = 0;
+    private boolean nextLoaded = false;
+    private T next = null;
+
+    /**
+     * Create a new reader, and read the header from the input.
+     * @param input The input to read from.
+     * @param component The component type, which must equal the serialized component.
+     * @param instance The instance to match with, or null if all instances must be returned.
+     * @param matchCondition The match condition.
+     * @throws IOException If an I/O error occurred.
+     * @throws IllegalArgumentException If the input was invalid.
+     */
+    public IngredientCollectionCompactReader(DataInput input, IngredientComponent<T, M> component,
+                                             @Nullable T instance, M matchCondition)
+            throws IOException, IllegalArgumentException {
+        this(input, component, instance, matchCondition, true);
+    }
+
+    /**
+     * Create a new reader that returns all instances, and read the header from the input.
+     * @param input The input to read from.
+     * @param component The component type, which must equal the serialized component.
+     * @throws IOException If an I/O error occurred.
+     * @throws IllegalArgumentException If the input was invalid.
+     */
+    public IngredientCollectionCompactReader(DataInput input, IngredientComponent<T, M> component)
+            throws IOException, IllegalArgumentException {
+        this(input, component, null, component.getMatcher().getAnyMatchCondition());
+    }
+
+    /**
+     * Create a new reader.
+     * @param input The input to read from.
+     * @param component The component type, which must equal the serialized component.
+     * @param instance The instance to match with, or null if all instances must be returned.
+     * @param matchCondition The match condition.
+     * @param readHeader If the version and component header must be read,
+     *                   false if the input was written by {@link IngredientCollectionCompactSerializer#writeInstances}.
+     * @throws IOException If an I/O error occurred.
+     * @throws IllegalArgumentException If the input was invalid.
+     */
+    public IngredientCollectionCompactReader(DataInput input, IngredientComponent<T, M> component,
+                                             @Nullable T instance, M matchCondition, boolean readHeader)
+            throws IOException, IllegalArgumentException {
+        this(input, component, instance, matchCondition, readHeader, NbtPathStreamEvaluator.createDefaultAccounter());
+    }
+
+    /**
+     * Create a new reader.
+     * @param input The input to read from.
+     * @param component The component type, which must equal the serialized component.
+     * @param instance The instance to match with, or null if all instances must be returned.
+     * @param matchCondition The match condition.
+     * @param readHeader If the version and component header must be read,
+     *                   false if the input was written by {@link IngredientCollectionCompactSerializer#writeInstances}.
+     * @param accounter The accounter for the decoded and skipped prototype NBT.
+     * @throws IOException If an I/O error occurred.
+     * @throws IllegalArgumentException If the input was invalid.
+     */
+    public IngredientCollectionCompactReader(DataInput input, IngredientComponent<T, M> component,
+                                             @Nullable T instance, M matchCondition, boolean readHeader,
+                                             NbtAccounter accounter)
+            throws IOException, IllegalArgumentException {
+        this.input = input;
+        this.accounter = accounter;
+        this.component = component;
+        IIngredientMatcher<T, M> matcher = component.getMatcher();
+        M quantityCondition = component.getPrimaryQuantifier() == null ? null : component.getPrimaryQuantifier().getMatchCondition();
+        this.instance = instance;
+        this.matchQuantity = instance != null && quantityCondition != null && matcher.hasCondition(matchCondition, quantityCondition);
+        this.matchCondition = matchCondition;
+        this.matchConditionNoQuantity = quantityCondition == null ? matchCondition : matcher.withoutCondition(matchCondition, quantityCondition);
+        this.matchExact = instance != null && Objects.equals(matchConditionNoQuantity, matcher.getExactMatchNoQuantityCondition());
+
+        if (readHeader) {
+            String componentName = IngredientCollectionCompactSerializer.readHeader(input);
+            if (!component.getName().toString().equals(componentName)) {
+                throw new IllegalArgumentException("The serialized component " + componentName
+                        + " does not match the component " + component.getName());
+            }
+        }
+        this.count = IngredientCollectionCompactSerializer.readVarLong(input);
+    }
+
+    public IngredientComponent<T, M> getComponent() {
+        return component;
+    }
+
+    /**
+     * @return The number of serialized instances that have not been read yet,
+     *         including the ones that will be skipped by the match condition.
+     */
+    public long getRemaining() {
+        return count - read + (nextLoaded ? 1 : 0);
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (!nextLoaded && read < count) {
+                read++;
+                int index = readPrototypeIndex();
+                long quantity = IngredientCollectionCompactSerializer.readVarLong(input);
+                T prototype = prototypes.get(index);
+                if (prototype != null) {
+                    T candidate = component.getMatcher().withQuantity(prototype, quantity);
+                    if (!matchQuantity || component.getMatcher().matches(instance, candidate, matchCondition)) {
+                        next = candidate;
+                        nextLoaded = true;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return nextLoaded;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T current = next;
+        next = null;
+        nextLoaded = false;
+        return current;
+    }
+
+    /**
+     * @return A spliterator over the remaining instances.
+     *         It is sized if no instance to match with was given.
+     */
+    public Spliterator<T> spliterator() {
+        if (instance == null) {
+            return Spliterators.spliterator(this, getRemaining(), Spliterator.ORDERED);
+        }
+        return Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED);
+    }
+
+    protected int readPrototypeIndex() throws IOException, IllegalArgumentException {
+        long index = IngredientCollectionCompactSerializer.readVarLong(input);
+        if (index == prototypes.size()) {
+            if (matchExact && matchFound) {
+                // No other distinct prototype can match exactly anymore
+                NbtPathStreamEvaluator.skip(input, input.readByte(), accounter);
+                prototypes.add(null);
+            } else {
+                T prototype = component.getSerializer().deserializeInstance(NbtIo.readAnyTag(input, accounter));
+                boolean matches = instance == null || component.getMatcher().matches(instance, prototype, matchConditionNoQuantity);
+                prototypes.add(matches ? prototype : null);
+                matchFound |= matches;
+            }
+        } else if (index > prototypes.size()) {
+            throw new IllegalArgumentException("Invalid prototype index " + index + " at instance " + (read - 1));
+        }
+        return (int) index;
+    }
+
+}
@@ -0,0 +1,356 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import net.minecraft.nbt.ByteArrayTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.resources.ResourceLocation;
+import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
+import org.cyclops.commoncapabilities.api.ingredient.IIngredientSerializer;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+import org.cyclops.cyclopscore.nbt.path.stream.NbtPathStreamEvaluator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Serializes ingredient collections to a compact binary format.
+ *
+ * Instead of serializing every instance as a separate NBT tag,
+ * instances are split into a prototype with quantity 1 and a quantity.
+ * Every distinct prototype is serialized only once, the first time it is encountered,
+ * and is referred to by its index afterwards.
+ * Indexes and quantities are written as variable-length integers.
+ *
+ * The format is as follows:
+ * <ol>
+ *     <li>Format version (byte)</li>
+ *     <li>Component name (UTF)</li>
+ *     <li>Instance count (varint)</li>
+ *     <li>For each instance: prototype index (varint), prototype NBT tag if the index is new, quantity (varlong)</li>
+ * </ol>
+ *
+ * Since the dictionary is built while writing, both writing and reading happen in a single pass,
+ * and instances can be streamed directly into a collection.
+ * {@link IngredientCollectionCompactReader} can be used to lazily iterate over serialized instances.
+ */
+public final class IngredientCollectionCompactSerializer {
+
+    public static final byte VERSION = 1;
+
+    IngredientCollectionCompactSerializer() {
+
+    }
+
+    /**
+     * Write the given collection in the compact format.
+     * @param collection An ingredient collection.
+     * @param output The output to write to.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @throws IOException If an I/O error occurred.
+     */
+    public static <T, M> void write(IIngredientCollection<T, M> collection, DataOutput output) throws IOException {
+        output.writeByte(VERSION);
+        output.writeUTF(collection.getComponent().getName().toString());
+        writeInstances(collection, output);
+    }
+
+    /**
+     * Write the given collection in the compact format, without the version and component header.
+     * This is useful when the component is already known by the reader,
+     * which can read the result using {@link IngredientCollectionCompactReader} without reading a header.
+     * @param collection An ingredient collection.
+     * @param output The output to write to.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @throws IOException If an I/O error occurred.
+     */
+    public static <T, M> void writeInstances(IIngredientCollection<T, M> collection, DataOutput output) throws IOException {
+        IngredientComponent<T, M> component = collection.getComponent();
+        IIngredientMatcher<T, M> matcher = component.getMatcher();
+        IIngredientSerializer<T, M> serializer = component.getSerializer();
+        writeVarLong(output, collection.size());
+
+        IngredientHashMap<T, M, Integer> prototypeIndexes = new IngredientHashMap<>(component);
+        for (T instance : collection) {
+            T prototype = matcher.withQuantity(instance, 1);
+            Integer index = prototypeIndexes.get(prototype);
+            if (index == null) {
+                index = prototypeIndexes.size();
+                prototypeIndexes.put(prototype, index);
+                writeVarLong(output, index);
+                NbtIo.writeAnyTag(serializer.serializeInstance(prototype), output);
+            } else {
+                writeVarLong(output, index);
+            }
+            writeVarLong(output, matcher.getQuantity(instance));
+        }
+    }
+
+    /**
+     * Write the given collection in the compact format.
+     * @param collection An ingredient collection.
+     * @param buffer The buffer to write to.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     */
+    public static <T, M> void write(IIngredientCollection<T, M> collection, ByteBuf buffer) {
+        try {
+            write(collection, new ByteBufOutputStream(buffer));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Serialize the given collection to a byte array in the compact format.
+     * @param collection An ingredient collection.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @return A byte array.
+     */
+    public static <T, M> byte[] toBytes(IIngredientCollection<T, M> collection) {
+        ByteArrayDataOutput output = ByteStreams.newDataOutput();
+        try {
+            write(collection, output);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Serialize the given collection to an NBT byte array tag in the compact format.
+     * @param collection An ingredient collection.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @return A byte array tag.
+     */
+    public static <T, M> ByteArrayTag toTag(IIngredientCollection<T, M> collection) {
+        return new ByteArrayTag(toBytes(collection));
+    }
+
+    /**
+     * Read instances in the compact format, and add them to the given collection one by one.
+     * @param input The input to read from.
+     * @param collection The collection to add to, its component must equal the serialized component.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @param <C> The collection type.
+     * @return The given collection.
+     * @throws IOException If an I/O error occurred.
+     * @throws IllegalArgumentException If the input was invalid.
+     */
+    public static <T, M, C extends IIngredientCollectionMutable<T, M>> C readInto(DataInput input, C collection)
+            throws IOException, IllegalArgumentException {
+        return readInto(input, collection, NbtPathStreamEvaluator.createDefaultAccounter());
+    }
+
+    /**
+     * Read instances in the compact format, and add them to the given collection one by one.
+     * @param input The input to read from.
+     * @param collection The collection to add to, its component must equal the serialized component.
+     * @param accounter The accounter for the prototype NBT.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @param <C> The collection type.
+     * @return The given collection.
+     * @throws IOException If an I/O error occurred.
+     * @throws IllegalArgumentException If the input was invalid.
+     */
+    public static <T, M, C extends IIngredientCollectionMutable<T, M>> C readInto(DataInput input, C collection,
+                                                                                  NbtAccounter accounter)
+            throws IOException, IllegalArgumentException {
+        IngredientComponent<T, M> component = collection.getComponent();
+        readInstances(new IngredientCollectionCompactReader<>(input, component, null,
+                component.getMatcher().getAnyMatchCondition(), true, accounter), collection);
+        return collection;
+    }
+
+    /**
+     * Read a collection in the compact format.
+     * @param input The input to read from.
+     * @param ingredientCollectionFactory A function that creates a {@link IIngredientCollectionMutable}
+     *                                    from an {@link IngredientComponent}.
+     * @param <C> The collection type.
+     * @return An ingredient collection.
+     * @throws IOException If an I/O error occurred.
+     * @throws IllegalArgumentException If the input was invalid.
+     */
+    public static <C extends IIngredientCollectionMutable<?, ?>> C read(DataInput input,
+                                                                        IngredientCollections.IIngredientCollectionConstructor<C>
+                                                                                ingredientCollectionFactory)
+            throws IOException, IllegalArgumentException {
+        return read(input, ingredientCollectionFactory, NbtPathStreamEvaluator.createDefaultAccounter());
+    }
+
+    /**
+     * Read a collection in the compact format.
+     * @param input The input to read from.
+     * @param ingredientCollectionFactory A function that creates a {@link IIngredientCollectionMutable}
+     *                                    from an {@link IngredientComponent}.
+     * @param accounter The accounter for the prototype NBT.
+     * @param <C> The collection type.
+     * @return An ingredient collection.
+     * @throws IOException If an I/O error occurred.
+     * @throws IllegalArgumentException If the input was invalid.
+     */
+    public static <C extends IIngredientCollectionMutable<?, ?>> C read(DataInput input,
+                                                                        IngredientCollections.IIngredientCollectionConstructor<C>
+                                                                                ingredientCollectionFactory,
+                                                                        NbtAccounter accounter)
+            throws IOException, IllegalArgumentException {
+        String componentName = readHeader(input);
+        IngredientComponent<?, ?> component = IngredientComponent.REGISTRY.get(ResourceLocation.parse(componentName));
+        if (component == null) {
+            throw new IllegalArgumentException("No ingredient component with the given name was found: " + componentName);
+        }
+        C collection = ingredientCollectionFactory.create(component);
+        readInstances(createReaderWithoutHeader(input, component, accounter), (IIngredientCollectionMutable) collection);
+        return collection;
+    }
+
+    /**
+     * Read a collection in the compact format,
+     * where at most {@link NbtPathStreamEvaluator#DEFAULT_MAX_BYTES} bytes of prototype NBT may be decoded.
+     * @param buffer The buffer to read from.
+     * @param ingredientCollectionFactory A function that creates a {@link IIngredientCollectionMutable}
+     *                                    from an {@link IngredientComponent}.
+     * @param <C> The collection type.
+     * @return An ingredient collection.
+     * @throws IllegalArgumentException If the input was invalid.
+     */
+    public static <C extends IIngredientCollectionMutable<?, ?>> C read(ByteBuf buffer,
+                                                                        IngredientCollections.IIngredientCollectionConstructor<C>
+                                                                                ingredientCollectionFactory)
+            throws IllegalArgumentException {
+        return read(buffer, ingredientCollectionFactory, NbtPathStreamEvaluator.createDefaultAccounter());
+    }
+
+    /**
+     * Read a collection in the compact format.
+     * @param buffer The buffer to read from.
+     * @param ingredientCollectionFactory A function that creates a {@link IIngredientCollectionMutable}
+     *                                    from an {@link IngredientComponent}.
+     * @param accounter The accounter for the prototype NBT.
+     * @param <C> The collection type.
+     * @return An ingredient collection.
+     * @throws IllegalArgumentException If the input was invalid.
+     */
+    public static <C extends IIngredientCollectionMutable<?, ?>> C read(ByteBuf buffer,
+                                                                        IngredientCollections.IIngredientCollectionConstructor<C>
+                                                                                ingredientCollectionFactory,
+                                                                        NbtAccounter accounter)
+            throws IllegalArgumentException {
+        try {
+            return read(new ByteBufInputStream(buffer), ingredientCollectionFactory, accounter);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Read a collection from a byte array in the compact format.
+     * @param bytes A byte array.
+     * @param ingredientCollectionFactory A function that creates a {@link IIngredientCollectionMutable}
+     *                                    from an {@link IngredientComponent}.
+     * @param <C> The collection type.
+     * @return An ingredient collection.
+     * @throws IllegalArgumentException If the input was invalid.
+     */
+    public static <C extends IIngredientCollectionMutable<?, ?>> C fromBytes(byte[] bytes,
+                                                                             IngredientCollections.IIngredientCollectionConstructor<C>
+                                                                                     ingredientCollectionFactory)
+            throws IllegalArgumentException {
+        try {
+            return read(ByteStreams.newDataInput(bytes), ingredientCollectionFactory);
+        } catch (IOException | IllegalStateException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Read a collection from an NBT byte array tag in the compact format.
+     * @param tag A byte array tag.
+     * @param ingredientCollectionFactory A function that creates a {@link IIngredientCollectionMutable}
+     *                                    from an {@link IngredientComponent}.
+     * @param <C> The collection type.
+     * @return An ingredient collection.
+     * @throws IllegalArgumentException If the tag was invalid.
+     */
+    public static <C extends IIngredientCollectionMutable<?, ?>> C fromTag(ByteArrayTag tag,
+                                                                           IngredientCollections.IIngredientCollectionConstructor<C>
+                                                                                   ingredientCollectionFactory)
+            throws IllegalArgumentException {
+        return fromBytes(tag.getAsByteArray(), ingredientCollectionFactory);
+    }
+
+    protected static String readHeader(DataInput input) throws IOException, IllegalArgumentException {
+        byte version = input.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported compact ingredient collection format version: " + version);
+        }
+        return input.readUTF();
+    }
+
+    protected static <T, M> IngredientCollectionCompactReader<T, M> createReaderWithoutHeader(DataInput input,
+                                                                                             IngredientComponent<T, M> component,
+                                                                                             NbtAccounter accounter)
+            throws IOException {
+        return new IngredientCollectionCompactReader<>(input, component, null, component.getMatcher().getAnyMatchCondition(),
+                false, accounter);
+    }
+
+    protected static <T, M> void readInstances(IngredientCollectionCompactReader<T, M> reader,
+                                               IIngredientCollectionMutable<T, M> collection)
+            throws IOException, IllegalArgumentException {
+        try {
+            while (reader.hasNext()) {
+                collection.add(reader.next());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Write an unsigned variable-length long, using 7 bits per byte.
+     * @param output The output to write to.
+     * @param value The value to write.
+     * @throws IOException If an I/O error occurred.
+     */
+    public static void writeVarLong(DataOutput output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+
+    /**
+     * Read an unsigned variable-length long, using 7 bits per byte.
+     * @param input The input to read from.
+     * @return The read value.
+     * @throws IOException If an I/O error occurred.
+     * @throws IllegalArgumentException If the value is too long.
+     */
+    public static long readVarLong(DataInput input) throws IOException, IllegalArgumentException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = input.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Variable-length long is too long");
+    }
+
+}
@@ -2,6 +2,8 @@ package org.cyclops.cyclopscore.ingredient.collection;
 
 import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
 
+import java.util.Collections;
+
 /**
  * @author rubensworks
  */
@@ -26,4 +28,22 @@ public class IngredientCollectionHelpers {
                 ingredientComponent.getCategoryTypes().get(0));
     }
 
+    /**
+     * Create a new collapsed collection for the given ingredient component,
+     * of which {@link IngredientCollectionPrototypeMap#snapshot()} is an O(1) operation.
+     * This collection will not be able to store negative quantities.
+     *
+     * Updates are O(log n) instead of O(1), so this should only be used for collections that are snapshotted often,
+     * such as collections that are read by other threads.
+     *
+     * @param ingredientComponent An ingredient component.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @return A mutable collapsed ingredient collection that is backed by an {@link IngredientCopyOnWriteMapLong}.
+     */
+    public static <T, M> IngredientCollectionPrototypeMap<T, M> createSnapshottableCollection(IngredientComponent<T, M> ingredientComponent) {
+        return new IngredientCollectionPrototypeMap<>(ingredientComponent, false,
+                new IngredientCopyOnWriteMapLong<>(ingredientComponent), Collections.emptyList(), null);
+    }
+
 }
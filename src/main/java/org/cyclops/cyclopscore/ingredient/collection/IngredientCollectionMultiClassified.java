@@ -12,7 +12,6 @@ import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -55,31 +54,40 @@ public class IngredientCollectionMultiClassified<T, M> extends IngredientCollect
      * A multi-threaded addAll implementation.
      * This will create workers for adding the given instances to all classified collections.
      * @param executorService An optional executor service.
-     *                        If none is provided, a new temporary one will be created
-     *                        for the duration of this method call.
+     *                        If none is provided, {@link #addAllParallel(Iterable)} will be used.
      * @param instances The instances that need to be added.
      * @return If the collection was changed due to this addition.
      *         This can be false in the case of sets in which each instance can only exists once.
      */
     public boolean addAllThreaded(@Nullable ExecutorService executorService, Iterable<? extends T> instances) {
-        boolean newExecutorService = false;
         if (executorService == null) {
-            executorService = Executors.newFixedThreadPool(this.classifiedCollections.size());
-            newExecutorService = true;
+            return addAllParallel(instances);
         }
         try {
-            boolean ret =  executorService.invokeAll(this.classifiedCollections.values().stream()
+            return executorService.invokeAll(this.classifiedCollections.values().stream()
                     .map(c -> (Callable<Boolean>) () -> c.addAll(instances)).collect(Collectors.toList())).get(0).get();
-            if (newExecutorService) {
-                executorService.shutdown();
-            }
-            return ret;
         } catch (InterruptedException | ExecutionException e) {
             e.printStackTrace();
             return false;
         }
     }
 
+    /**
+     * Add the given instances in parallel on the shared pool of {@link IngredientCollectionParallelHelpers}.
+     * All classified collections are filled concurrently,
+     * and within each of them, the instances are partitioned by classifier value
+     * so that each classified sub-collection is filled by exactly one task.
+     * @param instances The instances that need to be added.
+     * @return If the collection was changed due to this addition.
+     *         This can be false in the case of sets in which each instance can only exists once.
+     */
+    public boolean addAllParallel(Iterable<? extends T> instances) {
+        return IngredientCollectionParallelHelpers.invoke(() -> IngredientCollectionParallelHelpers.invokeAll(
+                this.classifiedCollections.values().stream()
+                        .map(c -> (Callable<Integer>) () -> c.addAllForked(instances))
+                        .collect(Collectors.toList())).get(0) > 0);
+    }
+
     @Override
     public boolean remove(T instance) {
         boolean result = false;
@@ -99,7 +107,7 @@ public class IngredientCollectionMultiClassified<T, M> extends IngredientCollect
 
         // Pick the best classified collection for the given condition,
         // and iterate over all matching elements.
-        IngredientCollectionSingleClassified<T, M, ?, ?> classifiedCollection = getBestClassifiedCollection(matchCondition);
+        IngredientCollectionSingleClassified<T, M, ?, ?> classifiedCollection = getBestClassifiedCollection(instance, matchCondition);
 
         // Determine all other classified collections
         Set<IngredientCollectionSingleClassified<T, M, ?, ?>> otherClassifiedCollections = Sets.newIdentityHashSet();
@@ -129,12 +137,12 @@ public class IngredientCollectionMultiClassified<T, M> extends IngredientCollect
 
     @Override
     public boolean contains(T instance, M matchCondition) {
-        return getBestClassifiedCollection(matchCondition).contains(instance, matchCondition);
+        return getBestClassifiedCollection(instance, matchCondition).contains(instance, matchCondition);
     }
 
     @Override
     public int count(T instance, M matchCondition) {
-        return getBestClassifiedCollection(matchCondition).count(instance, matchCondition);
+        return getBestClassifiedCollection(instance, matchCondition).count(instance, matchCondition);
     }
 
     @Override
@@ -0,0 +1,142 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Helpers for parallel bulk operations on ingredient collections.
+ *
+ * All parallel operations run on a single shared and bounded {@link ForkJoinPool},
+ * so that no threads have to be created per call.
+ *
+ * @author rubensworks
+ */
+public class IngredientCollectionParallelHelpers {
+
+    /**
+     * The maximum number of worker threads of the shared pool.
+     */
+    public static final int MAX_PARALLELISM = Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors() - 1));
+
+    /**
+     * @return The shared pool for parallel ingredient collection operations.
+     */
+    public static ForkJoinPool getForkJoinPool() {
+        return ForkJoinPoolHolder.pool;
+    }
+
+    /**
+     * Lazily creates the shared pool when it is used for the first time,
+     * relying on the thread-safe initialization of classes.
+     */
+    private static class ForkJoinPoolHolder {
+        private static final ForkJoinPool pool = new ForkJoinPool(MAX_PARALLELISM, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("CyclopsCore Ingredient Collection Worker " + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Run the given task in the shared pool, and wait for its result.
+     * If the current thread already belongs to the shared pool, the task is run directly.
+     * @param task A task.
+     * @param <R> The result type.
+     * @return The task result.
+     */
+    public static <R> R invoke(Callable<R> task) {
+        ForkJoinTask<R> forkJoinTask = ForkJoinTask.adapt(task);
+        if (ForkJoinTask.getPool() == getForkJoinPool()) {
+            return forkJoinTask.invoke();
+        }
+        return getForkJoinPool().invoke(forkJoinTask);
+    }
+
+    /**
+     * Run all the given tasks in parallel, and wait for their results.
+     * This must be called from within the shared pool.
+     * @param tasks The tasks.
+     * @param <R> The result type.
+     * @return The task results, in the same order as the tasks.
+     */
+    public static <R> List<R> invokeAll(Collection<Callable<R>> tasks) {
+        List<ForkJoinTask<R>> forkJoinTasks = Lists.newArrayListWithCapacity(tasks.size());
+        for (Callable<R> task : tasks) {
+            forkJoinTasks.add(ForkJoinTask.adapt(task));
+        }
+        ForkJoinTask.invokeAll(forkJoinTasks);
+        List<R> results = Lists.newArrayListWithCapacity(tasks.size());
+        for (ForkJoinTask<R> forkJoinTask : forkJoinTasks) {
+            results.add(forkJoinTask.join());
+        }
+        return results;
+    }
+
+    /**
+     * Load the given elements into the classified collections of the given classified collection,
+     * where the elements are partitioned by classifier,
+     * so that each classified collection is filled by exactly one task without requiring locks.
+     *
+     * This must be called from within the shared pool.
+     * The size of the given classified collection is not updated.
+     *
+     * @param classified A single-classified collection.
+     * @param elements The elements to load.
+     * @param instanceGetter A function to obtain the instance to classify from an element.
+     * @param loader A function to load a partition of elements into a classified collection,
+     *               returning how much the classified collection grew.
+     *               This is called concurrently for different classified collections.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @param <I> The type that can be iterated over.
+     * @param <C> A classifier type.
+     * @param <L> The collection-like type that is being used to store classified partitions.
+     * @param <E> The element type.
+     * @return The sum of growths of all classified collections.
+     */
+    public static <T, M, I, C, L extends IIngredientCollectionLike<T, M, I>, E> int loadPartitioned(
+            IIngredientCollectionLikeSingleClassifiedTrait<T, M, I, C, L> classified,
+            Iterable<? extends E> elements, Function<? super E, T> instanceGetter,
+            ToIntBiFunction<? super L, List<E>> loader) {
+        // Partition the elements by classifier
+        Map<C, List<E>> partitions = classified.getCategoryType().isReferenceEqual() ? Maps.newIdentityHashMap() : Maps.newHashMap();
+        for (E element : elements) {
+            partitions.computeIfAbsent(classified.getClassifier(instanceGetter.apply(element)), c -> Lists.newArrayList())
+                    .add(element);
+        }
+
+        // Classified collections must be created sequentially, as the classification map is not thread-safe
+        List<Callable<Integer>> tasks = Lists.newArrayListWithCapacity(partitions.size());
+        for (Map.Entry<C, List<E>> partition : partitions.entrySet()) {
+            L collection = classified.getOrCreateClassifiedCollection(partition.getKey());
+            List<E> partitionElements = partition.getValue();
+            tasks.add(() -> loader.applyAsInt(collection, partitionElements));
+        }
+
+        int added = 0;
+        for (int partitionAdded : invokeAll(tasks)) {
+            added += partitionAdded;
+        }
+
+        // Cleanup classified collections that remained empty
+        for (C classifier : partitions.keySet()) {
+            L collection = classified.getClassifiedCollections().get(classifier);
+            if (collection != null && collection.isEmpty()) {
+                classified.getClassifiedCollections().remove(classifier);
+            }
+        }
+        return added;
+    }
+
+}
@@ -0,0 +1,125 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.collect.Iterators;
+import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientInstanceWrapper;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A thread-safe variant of {@link IngredientCollectionPrototypeMap}.
+ *
+ * Quantities are stored per prototype in a {@link ConcurrentHashMap},
+ * and are updated atomically per prototype, so that multiple threads can add and remove instances concurrently
+ * without blocking each other, unless they modify the same prototype.
+ * {@link #getQuantity(Object)}, {@link #setQuantity(Object, long)}, {@link #add(Object)} and {@link #remove(Object)}
+ * are linearizable.
+ * Iteration is weakly consistent: it never throws a {@link java.util.ConcurrentModificationException},
+ * and may or may not reflect modifications that are made during iteration.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ */
+public class IngredientCollectionPrototypeConcurrentMap<T, M> extends IngredientCollectionAdapter<T, M>
+        implements IIngredientCollapsedCollectionMutable<T, M> {
+
+    private final ConcurrentHashMap<IngredientInstanceWrapper<T, M>, Long> ingredients;
+    private final boolean negativeQuantities;
+
+    public IngredientCollectionPrototypeConcurrentMap(IngredientComponent<T, M> component) {
+        this(component, false);
+    }
+
+    public IngredientCollectionPrototypeConcurrentMap(IngredientComponent<T, M> component, boolean negativeQuantities) {
+        super(component);
+        this.ingredients = new ConcurrentHashMap<>();
+        this.negativeQuantities = negativeQuantities;
+    }
+
+    @Override
+    public boolean add(T instance) {
+        long quantity = getComponent().getMatcher().getQuantity(instance);
+        if (quantity != 0) {
+            ingredients.merge(getPrototype(instance), quantity, (existingValue, addedValue) -> {
+                long newValue = Math.addExact(existingValue, addedValue);
+                return newValue != 0 ? newValue : null;
+            });
+        }
+        return true;
+    }
+
+    @Override
+    public boolean remove(T instance) {
+        long currentValue = getComponent().getMatcher().getQuantity(instance);
+        boolean[] removed = { false };
+        ingredients.compute(getPrototype(instance), (prototype, value) -> {
+            long existingValue = value == null ? 0 : value;
+            if (currentValue == existingValue) {
+                removed[0] = true;
+                return null;
+            } else if (currentValue < existingValue || isNegativeQuantities()) {
+                removed[0] = true;
+                return existingValue - currentValue;
+            }
+            return value;
+        });
+        return removed[0];
+    }
+
+    @Override
+    public boolean contains(T instance) {
+        return getQuantity(instance) == getComponent().getMatcher().getQuantity(instance);
+    }
+
+    @Override
+    public void clear() {
+        ingredients.clear();
+    }
+
+    @Override
+    public int size() {
+        return ingredients.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return ingredients.isEmpty();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
+        return Iterators.transform(ingredients.entrySet().iterator(), (Map.Entry<IngredientInstanceWrapper<T, M>, Long> entry) ->
+                matcher.withQuantity(entry.getKey().getInstance(), Math.min(matcher.getMaximumQuantity(), entry.getValue())));
+    }
+
+    protected IngredientInstanceWrapper<T, M> getPrototype(T instance) {
+        return getComponent().wrap(getComponent().getMatcher().withQuantity(instance, 1));
+    }
+
+    @Override
+    public void setQuantity(T instance, long quantity) {
+        if (quantity != 0) {
+            ingredients.put(getPrototype(instance), quantity);
+        } else {
+            ingredients.remove(getPrototype(instance));
+        }
+    }
+
+    @Override
+    public long getQuantity(T instance) {
+        Long count = ingredients.get(getPrototype(instance));
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @return If negative quantities are allowed.
+     */
+    public boolean isNegativeQuantities() {
+        return negativeQuantities;
+    }
+
+}
@@ -2,17 +2,22 @@ package org.cyclops.cyclopscore.ingredient.collection;
 
 import com.google.common.base.Function;
 import com.google.common.collect.Iterators;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
 import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
 import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponentCategoryType;
 
 import javax.annotation.Nullable;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
 
 /**
- * An ingredient collection that stores the collection as an {@link IIngredientMap}
+ * An ingredient collection that stores the collection as an {@link IIngredientMapLong}
  * where instances are stored as keys and their amounts as values.
- * By default, a {@link IngredientHashMap} will be used as internal map.
+ * By default, a {@link IngredientHashMapLong} will be used as internal map.
  *
  * Note: This uses slightly different semantics compared to the {@link IIngredientCollection} interface.
  * For instance, multiple instances that are equal (ignoring quantity) are combined by this collection.
@@ -21,45 +26,80 @@ import java.util.Map;
  * which means that even if an instance is not present,
  * it can still be removed, but it will result in a negative quantity.
  *
+ * The total quantity and number of prototypes are maintained incrementally,
+ * and optionally also per value of a given set of category types,
+ * so that {@link #getTotalQuantity(Object, Object)} and {@link #getPrototypeCount(Object, Object)}
+ * can be answered in O(1) for those match conditions.
+ *
+ * Optionally, an {@link IngredientPrototypeInterner} can be given,
+ * so that stored prototypes are shared with other collections using the same interner.
+ *
  * @param <T> The instance type.
  * @param <M> The matching condition parameter.
  */
 public class IngredientCollectionPrototypeMap<T, M> extends IngredientCollectionAdapter<T, M>
         implements IIngredientCollapsedCollectionMutable<T, M> {
 
-    private final IIngredientMapMutable<T, M, Long> ingredients;
+    private final IIngredientMapLongMutable<T, M> ingredients;
     private final boolean negativeQuantities;
+    private final IngredientCollectionCategoryAggregates<T, M> aggregates;
+    @Nullable
+    private final IngredientPrototypeInterner<T, M> interner;
 
     public IngredientCollectionPrototypeMap(IngredientComponent<T, M> component) {
         this(component, false);
     }
 
     public IngredientCollectionPrototypeMap(IngredientComponent<T, M> component, boolean negativeQuantities) {
-        this(component, negativeQuantities, new IngredientHashMap<>(component));
+        this(component, negativeQuantities, new IngredientHashMapLong<>(component), Collections.emptyList(), null);
     }
 
+    /**
+     * @param component The component type.
+     * @param negativeQuantities If negative quantities are allowed.
+     * @param map The internal map.
+     * @deprecated Use {@link #IngredientCollectionPrototypeMap(IngredientComponent, boolean, IIngredientMapLongMutable, Iterable, IngredientPrototypeInterner)},
+     *             as maps with boxed values are wrapped in an {@link IngredientMapLongBoxedAdapter}.
+     */
+    @Deprecated
     public IngredientCollectionPrototypeMap(IngredientComponent<T, M> component, boolean negativeQuantities,
                                             IIngredientMapMutable<T, M, Long> map) {
+        this(component, negativeQuantities, map instanceof IIngredientMapLongMutable
+                ? (IIngredientMapLongMutable<T, M>) map : new IngredientMapLongBoxedAdapter<>(map),
+                Collections.emptyList(), null);
+    }
+
+    /**
+     * Create a new instance.
+     * @param component The component type.
+     * @param negativeQuantities If negative quantities are allowed.
+     * @param map The internal map, which may already contain entries.
+     * @param aggregatedCategoryTypes The category types for which the total quantity and number of prototypes
+     *                                must be maintained per category value, can be empty.
+     * @param interner An optional interner for the prototypes that are stored in the internal map.
+     */
+    public IngredientCollectionPrototypeMap(IngredientComponent<T, M> component, boolean negativeQuantities,
+                                            IIngredientMapLongMutable<T, M> map,
+                                            Iterable<? extends IngredientComponentCategoryType<T, M, ?>> aggregatedCategoryTypes,
+                                            @Nullable IngredientPrototypeInterner<T, M> interner) {
         super(component);
         this.ingredients = map;
         this.negativeQuantities = negativeQuantities;
+        this.interner = interner;
         if (getComponent().getPrimaryQuantifier() == null) {
             throw new IllegalArgumentException("Quantitative grouping requires a primary quantifier on the component type.");
         }
+        this.aggregates = new IngredientCollectionCategoryAggregates<>(component, aggregatedCategoryTypes);
+        map.forEachLongEntry((prototype, quantity) -> this.aggregates.onQuantityChanged(prototype, 0, quantity));
     }
 
     @Override
     public boolean add(T instance) {
         IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
-        T prototype = getPrototype(instance);
-        Long value = ingredients.get(prototype);
-        long existingValue = value == null ? 0 : value;
-        long newValue = Math.addExact(existingValue, matcher.getQuantity(instance));
-        if (newValue != 0) {
-            ingredients.put(prototype, newValue);
-        } else {
-            ingredients.remove(prototype);
-        }
+        long quantity = matcher.getQuantity(instance);
+        T prototype = getStoredPrototype(getPrototype(instance), quantity);
+        long previous = ingredients.addTo(prototype, quantity);
+        aggregates.onQuantityChanged(prototype, previous, previous + quantity);
         return true;
     }
 
@@ -67,14 +107,18 @@ public class IngredientCollectionPrototypeMap<T, M> extends IngredientCollection
     public boolean remove(T instance) {
         IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
         T prototype = getPrototype(instance);
-        Long value = ingredients.get(prototype);
-        long existingValue = value == null ? 0 : value;
+        long existingValue = ingredients.getLong(prototype);
         long currentValue = matcher.getQuantity(instance);
         if (currentValue == existingValue) {
-            ingredients.remove(prototype);
+            ingredients.removeLong(prototype);
+            aggregates.onQuantityChanged(prototype, existingValue, 0);
             return true;
         } else if (currentValue < existingValue || isNegativeQuantities()) {
-            ingredients.put(prototype, existingValue - currentValue);
+            if (existingValue == 0) {
+                prototype = internPrototype(prototype);
+            }
+            ingredients.putLong(prototype, existingValue - currentValue);
+            aggregates.onQuantityChanged(prototype, existingValue, existingValue - currentValue);
             return true;
         }
         return false;
@@ -83,9 +127,7 @@ public class IngredientCollectionPrototypeMap<T, M> extends IngredientCollection
     @Override
     public boolean contains(T instance) {
         IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
-        T prototype = getPrototype(instance);
-        Long value = ingredients.get(prototype);
-        long existingValue = value == null ? 0 : value;
+        long existingValue = ingredients.getLong(getPrototype(instance));
         long currentValue = matcher.getQuantity(instance);
         return currentValue == existingValue;
     }
@@ -100,11 +142,10 @@ public class IngredientCollectionPrototypeMap<T, M> extends IngredientCollection
         }
 
         T prototype = getPrototype(instance);
-        Iterator<Map.Entry<T, Long>> it = ingredients.iterator(prototype, matchCondition);
+        Iterator<Object2LongMap.Entry<T>> it = ingredients.longIterator(prototype, matchCondition);
         boolean exactMatch = getComponent().getPrimaryQuantifier() != null && matcher.hasCondition(matchCondition, getComponent().getPrimaryQuantifier().getMatchCondition());
         while (it.hasNext()) {
-            Long value = it.next().getValue();
-            long existingValue = value == null ? 0 : value;
+            long existingValue = it.next().getLongValue();
             long currentValue = matcher.getQuantity(instance);
             if (exactMatch ? currentValue == existingValue : currentValue <= existingValue) {
                 return true;
@@ -116,6 +157,7 @@ public class IngredientCollectionPrototypeMap<T, M> extends IngredientCollection
     @Override
     public void clear() {
         ingredients.clear();
+        aggregates.clear();
     }
 
     @Override
@@ -125,24 +167,69 @@ public class IngredientCollectionPrototypeMap<T, M> extends IngredientCollection
 
     @Override
     public Iterator<T> iterator() {
-        return Iterators.transform(ingredients.iterator(), new QuantityApplier<>(getComponent()));
+        return Iterators.transform(trackRemovals(ingredients.longIterator()), new QuantityApplier<>(getComponent()));
     }
 
     @Override
     public Iterator<T> iterator(T instance, M matchCondition) {
         IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
         if (!matcher.hasCondition(matchCondition, getComponent().getPrimaryQuantifier().getMatchCondition())) {
-            return Iterators.transform(ingredients.iterator(instance, matchCondition), new QuantityApplier<>(getComponent()));
+            return Iterators.transform(trackRemovals(ingredients.longIterator(instance, matchCondition)),
+                    new QuantityApplier<>(getComponent()));
         }
         return super.iterator(instance, matchCondition);
     }
 
+    @Override
+    public void forEach(Consumer<? super T> consumer) {
+        IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
+        long maxQuantity = matcher.getMaximumQuantity();
+        ingredients.forEachLongEntry((prototype, quantity) -> consumer.accept(matcher.withQuantity(prototype, Math.min(maxQuantity, quantity))));
+    }
+
+    @Override
+    public void forEachMatching(T instance, M matchCondition, Consumer<? super T> consumer) {
+        IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
+        if (!matcher.hasCondition(matchCondition, getComponent().getPrimaryQuantifier().getMatchCondition())) {
+            long maxQuantity = matcher.getMaximumQuantity();
+            ingredients.forEachLongEntryMatching(instance, matchCondition,
+                    (prototype, quantity) -> consumer.accept(matcher.withQuantity(prototype, Math.min(maxQuantity, quantity))));
+        } else {
+            forEach(thisInstance -> {
+                if (matcher.matches(instance, thisInstance, matchCondition)) {
+                    consumer.accept(thisInstance);
+                }
+            });
+        }
+    }
+
+    /**
+     * Visit all available counted prototypes with their quantities,
+     * without allocating iterators or entries.
+     * @param consumer A consumer for all non-zero quantity instances with a quantity of 1, and their actual quantity.
+     */
+    public void forEachPrototype(ObjLongConsumer<? super T> consumer) {
+        ingredients.forEachLongEntry(consumer);
+    }
+
+    /**
+     * Visit all available counted prototypes with their quantities under the given match conditions,
+     * without allocating iterators or entries.
+     * @param instance An instance.
+     * @param matchCondition A match condition.
+     * @param consumer A consumer for all matching non-zero quantity instances with a quantity of 1,
+     *                 and their actual quantity.
+     */
+    public void forEachPrototype(T instance, M matchCondition, ObjLongConsumer<? super T> consumer) {
+        ingredients.forEachLongEntryMatching(getPrototype(instance), matchCondition, consumer);
+    }
+
     /**
      * @return An iterator over all available counted prototypes.
      *         This will contain all non-zero quantity instances, but with a quantity of 1.
      */
     public Iterator<Map.Entry<T, Long>> prototypeIterator() {
-        return ingredients.iterator();
+        return trackRemovals(ingredients.iterator());
     }
 
     /**
@@ -152,7 +239,54 @@ public class IngredientCollectionPrototypeMap<T, M> extends IngredientCollection
      *         This will contain all non-zero quantity instances, but with a quantity of 1.
      */
     public Iterator<Map.Entry<T, Long>> prototypeIterator(T instance, M matchCondition) {
-        return ingredients.iterator(getPrototype(instance), matchCondition);
+        return trackRemovals(ingredients.iterator(getPrototype(instance), matchCondition));
+    }
+
+    /**
+     * @return An iterator over all available counted prototypes, with unboxed counts.
+     *         This will contain all non-zero quantity instances, but with a quantity of 1.
+     */
+    public Iterator<Object2LongMap.Entry<T>> prototypeLongIterator() {
+        return trackRemovals(ingredients.longIterator());
+    }
+
+    /**
+     * @param instance An instance.
+     * @param matchCondition A match condition.
+     * @return An iterator over all available counted prototypes under the given match conditions, with unboxed counts.
+     *         This will contain all non-zero quantity instances, but with a quantity of 1.
+     */
+    public Iterator<Object2LongMap.Entry<T>> prototypeLongIterator(T instance, M matchCondition) {
+        return trackRemovals(ingredients.longIterator(getPrototype(instance), matchCondition));
+    }
+
+    /**
+     * Create an immutable snapshot of the current state of this collection,
+     * which can be read from other threads without locking.
+     *
+     * This is only an O(1) operation if this collection is backed by an {@link IngredientCopyOnWriteMapLong},
+     * such as the collections of {@link IngredientCollectionHelpers#createSnapshottableCollection(IngredientComponent)}.
+     * Otherwise, a persistent map is built from all prototypes, which takes O(n log n) time and allocates per node,
+     * which is more expensive than copying this collection.
+     *
+     * Snapshots are deliberately only offered by this collection and the copy-on-write maps,
+     * and not by other long maps such as {@link IngredientHashMapLong} or by classified collections.
+     * A plain long map can be snapshotted by wrapping it in this collection,
+     * and classified collections are indexes over their instances,
+     * of which a consistent snapshot would require all classified sub-collections to be copied together,
+     * so these should be snapshotted via the prototype map they were filled from instead.
+     *
+     * Quantities are stored boxed in the snapshot, as the persistent trie is shared with maps of other value types.
+     * With a copy-on-write backing map, a quantity is boxed once per write,
+     * and reads such as {@link IngredientPersistentPrototypeMap#getQuantity(Object)} only unbox.
+     *
+     * @return An immutable snapshot.
+     */
+    public IngredientPersistentPrototypeMap<T, M> snapshot() {
+        IngredientPersistentMap<T, M, Long> map = ingredients instanceof IngredientCopyOnWriteMapLong
+                ? ((IngredientCopyOnWriteMapLong<T, M>) ingredients).snapshot()
+                : new IngredientPersistentMap<>(getComponent(), ingredients);
+        return new IngredientPersistentPrototypeMap<>(map, isNegativeQuantities());
     }
 
     protected T getPrototype(T instance) {
@@ -160,20 +294,73 @@ public class IngredientCollectionPrototypeMap<T, M> extends IngredientCollection
         return matcher.withQuantity(instance, 1);
     }
 
+    /**
+     * Get the prototype that will be stored as key in the internal map when the given quantity is set for it.
+     * Prototypes are only interned when a new entry will be stored,
+     * as existing entries keep their key and entries with a zero quantity are not stored,
+     * so that updates do not evict useful prototypes from a shared interner.
+     * @param prototype A prototype.
+     * @param quantity The new quantity of the prototype.
+     * @return The canonical prototype if a new entry will be stored and an interner is set, otherwise the prototype.
+     */
+    protected T getStoredPrototype(T prototype, long quantity) {
+        if (interner != null && quantity != 0 && ingredients.getLong(prototype) == 0) {
+            return interner.intern(prototype);
+        }
+        return prototype;
+    }
+
+    protected T internPrototype(T prototype) {
+        return interner != null ? interner.intern(prototype) : prototype;
+    }
+
     @Override
     public void setQuantity(T instance, long quantity) {
-        T prototype = getPrototype(instance);
-        if (quantity != 0) {
-            ingredients.put(prototype, quantity);
-        } else {
-            ingredients.remove(prototype);
-        }
+        T prototype = getStoredPrototype(getPrototype(instance), quantity);
+        long previous = ingredients.putLong(prototype, quantity);
+        aggregates.onQuantityChanged(prototype, previous, quantity);
     }
 
     @Override
     public long getQuantity(T instance) {
-        Long count = ingredients.get(getPrototype(instance));
-        return count == null ? 0 : count;
+        return ingredients.getLong(getPrototype(instance));
+    }
+
+    @Override
+    public long getTotalQuantity(T instance, M matchCondition) {
+        if (aggregates.appliesTo(matchCondition)) {
+            return aggregates.getTotalQuantity(instance, matchCondition);
+        }
+        long[] total = new long[1];
+        ingredients.forEachLongEntryMatching(getPrototype(instance), withoutQuantityCondition(matchCondition),
+                (prototype, quantity) -> total[0] += quantity);
+        return total[0];
+    }
+
+    @Override
+    public int getPrototypeCount(T instance, M matchCondition) {
+        if (aggregates.appliesTo(matchCondition)) {
+            return aggregates.getPrototypeCount(instance, matchCondition);
+        }
+        int[] count = new int[1];
+        ingredients.forEachLongEntryMatching(getPrototype(instance), withoutQuantityCondition(matchCondition),
+                (prototype, quantity) -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * @return The aggregates that are maintained over all prototypes.
+     */
+    public IngredientCollectionCategoryAggregates<T, M> getAggregates() {
+        return aggregates;
+    }
+
+    /**
+     * @return The interner for stored prototypes, or null if prototypes are not interned.
+     */
+    @Nullable
+    public IngredientPrototypeInterner<T, M> getInterner() {
+        return interner;
     }
 
     /**
@@ -183,7 +370,56 @@ public class IngredientCollectionPrototypeMap<T, M> extends IngredientCollection
         return negativeQuantities;
     }
 
-    protected static class QuantityApplier<T, M> implements Function<Map.Entry<T, Long>, T> {
+    /**
+     * Wrap an iterator over the internal map, so that removals via the iterator update the aggregates.
+     * If no category types are aggregated, removals do not have to be tracked, so the iterator is returned as is.
+     * @param iterator An iterator over the internal map.
+     * @param <E> The entry type.
+     * @return An iterator over the same entries.
+     */
+    protected <E extends Map.Entry<T, Long>> Iterator<E> trackRemovals(Iterator<E> iterator) {
+        if (aggregates.getCategoryTypes().isEmpty()) {
+            return iterator;
+        }
+        return new AggregatesUpdatingIterator<>(iterator);
+    }
+
+    /**
+     * An iterator that updates the aggregates when entries are removed from the internal map.
+     * @param <E> The entry type.
+     */
+    protected class AggregatesUpdatingIterator<E extends Map.Entry<T, Long>> implements Iterator<E> {
+
+        private final Iterator<E> iterator;
+        private T currentKey;
+        private long currentValue;
+
+        public AggregatesUpdatingIterator(Iterator<E> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public E next() {
+            E next = iterator.next();
+            // Read the value now, as entries of the internal map may become invalid after removal
+            currentKey = next.getKey();
+            currentValue = next instanceof Object2LongMap.Entry ? ((Object2LongMap.Entry<?>) next).getLongValue() : next.getValue();
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            iterator.remove();
+            aggregates.onQuantityChanged(currentKey, currentValue, 0);
+        }
+    }
+
+    protected static class QuantityApplier<T, M> implements Function<Object2LongMap.Entry<T>, T> {
 
         private final IIngredientMatcher<T, M> matcher;
 
@@ -193,9 +429,8 @@ public class IngredientCollectionPrototypeMap<T, M> extends IngredientCollection
 
         @Nullable
         @Override
-        public T apply(@Nullable Map.Entry<T, Long> input) {
-            Long value = input.getValue();
-            long quantity = Math.min(matcher.getMaximumQuantity(), value == null ? 0 : value);
+        public T apply(@Nullable Object2LongMap.Entry<T> input) {
+            long quantity = Math.min(matcher.getMaximumQuantity(), input.getLongValue());
             return matcher.withQuantity(input.getKey(), quantity);
         }
     }
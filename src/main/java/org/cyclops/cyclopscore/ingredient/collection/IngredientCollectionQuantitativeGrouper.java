@@ -1,11 +1,13 @@
 package org.cyclops.cyclopscore.ingredient.collection;
 
-import com.google.common.collect.Lists;
+import com.google.common.collect.ForwardingIterator;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntIterators;
 import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
 import org.cyclops.commoncapabilities.api.ingredient.IngredientComponentCategoryType;
 
 import java.util.Iterator;
-import java.util.List;
 import java.util.Objects;
 
 /**
@@ -17,6 +19,13 @@ import java.util.Objects;
  * Warning: If the given collection is mutated outside of this grouper,
  * behaviour becomes undefined.
  *
+ * The positions of the instances are indexed per quantifierless prototype,
+ * so that instances can be added and removed without scanning the inner list.
+ * Existing instances are updated in place, so their positions remain stable.
+ * Removed instances are replaced by the last instance of the inner list,
+ * so that no other positions have to be renumbered.
+ * So the order of the inner list is not preserved when instances are removed.
+ *
  * @param <T> An instance type.
  * @param <M> The matching condition parameter.
  * @param <I> The inner collection type.
@@ -27,6 +36,8 @@ public class IngredientCollectionQuantitativeGrouper<T, M, I extends IIngredient
     private final IngredientComponentCategoryType<T, M, ?> primaryQuantifier;
     private final M quantifierlessMatchCondition;
     private final long maxQuantity;
+    private final IngredientHashMap<T, M, Stacks> stacksIndex;
+    private boolean indexValid;
 
     public IngredientCollectionQuantitativeGrouper(I innerCollection,
                                                    boolean ignoreInnerCollectionEmptyCheck) {
@@ -45,6 +56,8 @@ public class IngredientCollectionQuantitativeGrouper<T, M, I extends IIngredient
         this.quantifierlessMatchCondition = matcher.withoutCondition(matcher.getExactMatchCondition(),
                 getPrimaryQuantifier().getMatchCondition());
         this.maxQuantity = matcher.getMaximumQuantity();
+        this.stacksIndex = new IngredientHashMap<>(getComponent());
+        this.indexValid = false;
     }
 
     public IngredientCollectionQuantitativeGrouper(I innerCollection) {
@@ -61,20 +74,19 @@ public class IngredientCollectionQuantitativeGrouper<T, M, I extends IIngredient
 
     @Override
     public boolean contains(T instance) {
-        Iterator<T> it = iterator(instance, getQuantifierlessMatchCondition());
-        if (!it.hasNext()) {
+        Stacks stacks = getStacks(instance, false);
+        if (stacks == null) {
             // Fail if there are no matches
             return false;
         }
-        T first = it.next();
-        if (it.hasNext()) {
+        if (stacks.size() > 1) {
             // If we have more than one matches, at least one of them has the max quantity
             return true;
         }
         // Otherwise, check if the single existing instance has a quantity
         // that is equal or higher than the given instance quantity.
         IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
-        return matcher.getQuantity(instance) <= matcher.getQuantity(first);
+        return matcher.getQuantity(instance) <= matcher.getQuantity(getInnerCollection().get(stacks.first()));
     }
 
     @Override
@@ -89,39 +101,31 @@ public class IngredientCollectionQuantitativeGrouper<T, M, I extends IIngredient
 
     @Override
     public boolean add(T instance) {
-        // If an equal instance already exists, add its quantity
-        Iterator<T> it = iterator(instance, getQuantifierlessMatchCondition());
-        while (it.hasNext()) {
-            IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
-            T existing = it.next();
-
-            // Check if the combined amount will be within the accepted amount.
-            long remainingAllowedQuantity = maxQuantity - matcher.getQuantity(existing);
-            long newQuantity = matcher.getQuantity(instance);
-            if (remainingAllowedQuantity == 0) {
-                // This instance reached its max quantity
-                // continue;
-            } else if (remainingAllowedQuantity >= newQuantity) {
-                // If so, combine both instance quantities
-
-                // Remove the existing instance, as we consider instances as being immutable
-                it.remove();
-
-                long combinedQuantity = Math.addExact(matcher.getQuantity(existing), matcher.getQuantity(instance));
-                T joinedInstance = matcher.withQuantity(instance, combinedQuantity);
-                return super.add(joinedInstance);
-            } else {
-                // If not, split up into two separate instances where we fill the first one to the maximum amount.
+        IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
+        Stacks stacks = getStacks(instance, true);
+        if (stacks.nonFull < 0) {
+            return addStack(stacks, instance);
+        }
 
-                // Remove the existing instance, as we consider instances as being immutable
-                it.remove();
+        // If a non-full equal instance already exists, add its quantity
+        int position = stacks.nonFull;
+        T existing = getInnerCollection().get(position);
 
-                long remainingQuantity = newQuantity - remainingAllowedQuantity;
-                return super.add(matcher.withQuantity(existing, maxQuantity))
-                        & super.add(matcher.withQuantity(instance, remainingQuantity));
-            }
+        // Check if the combined amount will be within the accepted amount.
+        long remainingAllowedQuantity = maxQuantity - matcher.getQuantity(existing);
+        long newQuantity = matcher.getQuantity(instance);
+        stacks.nonFull = -1;
+        if (remainingAllowedQuantity >= newQuantity) {
+            // If so, combine both instance quantities in place
+            long combinedQuantity = Math.addExact(matcher.getQuantity(existing), newQuantity);
+            setStack(stacks, position, matcher.withQuantity(instance, combinedQuantity));
+            return true;
+        } else {
+            // If not, split up into two separate instances where we fill the first one to the maximum amount.
+            long remainingQuantity = newQuantity - remainingAllowedQuantity;
+            setStack(stacks, position, matcher.withQuantity(existing, maxQuantity));
+            return addStack(stacks, matcher.withQuantity(instance, remainingQuantity));
         }
-        return super.add(instance);
     }
 
     @Override
@@ -135,50 +139,40 @@ public class IngredientCollectionQuantitativeGrouper<T, M, I extends IIngredient
 
     @Override
     public boolean remove(T instance) {
-        // If the instance already exists,
-        // and its quantity is equal or higher than the given instance quantity,
-        // subtract its quantity
-        List<T> existingInstances = Lists.newArrayList(iterator(instance, getQuantifierlessMatchCondition()));
-        if (existingInstances.isEmpty()) {
+        Stacks stacks = getStacks(instance, false);
+        if (stacks == null) {
             return false;
         }
 
-        // Sort matching instances by increasing quantities
+        // Fail if the given instance quantity is larger than the total existing quantity
         IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
-        existingInstances.sort((o1, o2) -> (int) (matcher.getQuantity(o1) - matcher.getQuantity(o2)));
-        boolean hasMaxInstance = existingInstances.size() > 1; // If at least one instance with max quantity exists
-
-        // Iterate through existing instances and remove until the desired amount is reached
         long toSubtract = matcher.getQuantity(instance);
-        Iterator<T> it = existingInstances.iterator();
-        while (it.hasNext()) {
-            T existing = it.next();
+        long available = 0;
+        IntIterator positions = stacks.iterator();
+        while (available < toSubtract && positions.hasNext()) {
+            long existingQuantity = matcher.getQuantity(getInnerCollection().get(positions.nextInt()));
+            available = existingQuantity >= toSubtract - available ? toSubtract : available + existingQuantity;
+        }
+        if (available < toSubtract) {
+            return false;
+        }
 
+        // Subtract from the non-full instance first, and then from the full instances, until the desired amount is reached
+        while (true) {
+            int position = stacks.pop();
+            T existing = getInnerCollection().get(position);
             long existingQuantity = matcher.getQuantity(existing);
             if (existingQuantity > toSubtract) {
-                // Remove the existing instance, as we consider instances as being immutable
-                super.remove(existing);
-                // Add a new instance with the reduced amount
-                super.add(matcher.withQuantity(instance, existingQuantity - toSubtract));
+                // Reduce the existing instance in place
+                setStack(stacks, position, matcher.withQuantity(existing, existingQuantity - toSubtract));
                 return true;
-            } else if (existingQuantity == toSubtract) {
-                // Remove the existing instance, as we consider instances as being immutable
-                super.remove(existing);
-                // Don't remove a new instance, as everything was removed
+            }
+            removeStack(instance, stacks, position);
+            toSubtract -= existingQuantity;
+            if (toSubtract == 0) {
                 return true;
-            } else if (!hasMaxInstance) {
-                // Fail if the given instance quantity was larger than the existing instance quantity,
-                // and we have no max instance.
-                return false;
-            } else {
-                // Remove the existing instance, as we consider instances as being immutable
-                super.remove(existing);
-                // Reduce what we have to subtract with as much as we can with the current existing instance.
-                // The next iteration is guaranteed to be able to handle the remaining quantity.
-                toSubtract -= existingQuantity;
             }
         }
-        throw new IllegalStateException("Failed to remove due to invalid instance grouping: " + existingInstances);
     }
 
     @Override
@@ -220,15 +214,16 @@ public class IngredientCollectionQuantitativeGrouper<T, M, I extends IIngredient
 
     @Override
     public long getQuantity(T instance) {
-        Iterator<T> it = iterator(instance, getQuantifierlessMatchCondition());
-        if (!it.hasNext()) {
+        Stacks stacks = getStacks(instance, false);
+        if (stacks == null) {
             // Fail if there are no matches
             return 0;
         }
         long quantity = 0L;
         IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
-        while (it.hasNext()) {
-            quantity += matcher.getQuantity(it.next());
+        IntIterator positions = stacks.iterator();
+        while (positions.hasNext()) {
+            quantity += matcher.getQuantity(getInnerCollection().get(positions.nextInt()));
         }
         return quantity;
     }
@@ -246,4 +241,167 @@ public class IngredientCollectionQuantitativeGrouper<T, M, I extends IIngredient
             this.remove(this.getComponent().getMatcher().withQuantity(instance, -modifyQuantity));
         }
     }
+
+    @Override
+    public void clear() {
+        super.clear();
+        stacksIndex.clear();
+        indexValid = true;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return invalidatingIterator(super.iterator());
+    }
+
+    @Override
+    public Iterator<T> iterator(T instance, M matchCondition) {
+        return invalidatingIterator(super.iterator(instance, matchCondition));
+    }
+
+    /**
+     * Wrap the given iterator so that removals through it will cause the index to be rebuilt.
+     * @param it An iterator over the inner collection.
+     * @return A wrapped iterator.
+     */
+    protected Iterator<T> invalidatingIterator(Iterator<T> it) {
+        return new ForwardingIterator<T>() {
+            @Override
+            protected Iterator<T> delegate() {
+                return it;
+            }
+
+            @Override
+            public void remove() {
+                super.remove();
+                indexValid = false;
+            }
+        };
+    }
+
+    protected T getPrototype(T instance) {
+        return getComponent().getMatcher().withQuantity(instance, 1);
+    }
+
+    /**
+     * Get the stack positions of the given instance, ignoring its quantity.
+     * @param instance An instance.
+     * @param create If an empty entry must be created if none exists yet.
+     * @return The stack positions, or null if none exist and create is false.
+     */
+    protected Stacks getStacks(T instance, boolean create) {
+        if (!indexValid) {
+            rebuildIndex();
+        }
+        T prototype = getPrototype(instance);
+        Stacks stacks = stacksIndex.get(prototype);
+        if (stacks == null && create) {
+            stacks = new Stacks();
+            stacksIndex.put(prototype, stacks);
+        }
+        return stacks;
+    }
+
+    protected void rebuildIndex() {
+        stacksIndex.clear();
+        indexValid = true;
+        for (int position = 0; position < getInnerCollection().size(); position++) {
+            T instance = getInnerCollection().get(position);
+            indexStack(getStacks(instance, true), position, instance);
+        }
+    }
+
+    protected void indexStack(Stacks stacks, int position, T instance) {
+        if (stacks.nonFull < 0 && getComponent().getMatcher().getQuantity(instance) < maxQuantity) {
+            stacks.nonFull = position;
+        } else {
+            stacks.others.add(position);
+        }
+    }
+
+    protected void setStack(Stacks stacks, int position, T instance) {
+        getInnerCollection().set(position, instance);
+        indexStack(stacks, position, instance);
+    }
+
+    protected boolean addStack(Stacks stacks, T instance) {
+        int position = getInnerCollection().size();
+        if (getInnerCollection().add(instance)) {
+            indexStack(stacks, position, instance);
+            return true;
+        }
+        return false;
+    }
+
+    protected void removeStack(T instance, Stacks stacks, int position) {
+        int lastPosition = getInnerCollection().size() - 1;
+        if (position < lastPosition) {
+            // Move the last instance into the removed position, so that no other positions have to be shifted
+            T last = getInnerCollection().get(lastPosition);
+            getInnerCollection().set(position, last);
+            getStacks(last, false).onMoved(lastPosition, position);
+        }
+        getInnerCollection().remove(lastPosition);
+        if (stacks.size() == 0) {
+            stacksIndex.remove(getPrototype(instance));
+        }
+    }
+
+    /**
+     * The positions in the inner collection of all instances that are equal when ignoring quantities.
+     */
+    protected static class Stacks {
+
+        /**
+         * The position of the instance that has not reached the max quantity, or -1.
+         * New quantities are added to this instance.
+         */
+        private int nonFull = -1;
+        /**
+         * The positions of all other instances, which will usually have the max quantity.
+         */
+        private final IntArrayList others = new IntArrayList();
+
+        public int size() {
+            return others.size() + (nonFull < 0 ? 0 : 1);
+        }
+
+        public int first() {
+            return nonFull < 0 ? others.getInt(0) : nonFull;
+        }
+
+        /**
+         * @return An iterator over all positions, starting with the non-full position.
+         */
+        public IntIterator iterator() {
+            return nonFull < 0 ? others.iterator() : IntIterators.concat(IntIterators.singleton(nonFull), others.iterator());
+        }
+
+        /**
+         * Remove and return the first position of {@link #iterator()}.
+         * @return A position.
+         */
+        public int pop() {
+            if (nonFull >= 0) {
+                int position = nonFull;
+                nonFull = -1;
+                return position;
+            }
+            return others.removeInt(others.size() - 1);
+        }
+
+        /**
+         * Update the given position after its instance was moved.
+         * @param from The old position.
+         * @param to The new position.
+         */
+        public void onMoved(int from, int to) {
+            if (nonFull == from) {
+                nonFull = to;
+            } else {
+                others.set(others.indexOf(from), to);
+            }
+        }
+
+    }
 }
@@ -0,0 +1,102 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponentCategoryType;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+
+/**
+ * The classified collection-like that was chosen for a match-based query on a multi-classified collection-like,
+ * together with the estimated costs of all candidate classified collections that were considered.
+ *
+ * @see IIngredientCollectionLikeMultiClassifiedTrait#planQuery(Object, Object)
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ * @param <L> The collection-like type that is being used to store classified partitions.
+ */
+public class IngredientCollectionQueryPlan<T, M, L extends IIngredientCollectionLike<T, M, ?>> {
+
+    @Nullable
+    private final IngredientComponentCategoryType<T, M, ?> categoryType;
+    private final L classifiedCollection;
+    private final int estimatedCost;
+    private final Map<IngredientComponentCategoryType<T, M, ?>, Integer> candidateCosts;
+    private final Map<IngredientComponentCategoryType<T, M, ?>, L> candidateCollections;
+
+    public IngredientCollectionQueryPlan(@Nullable IngredientComponentCategoryType<T, M, ?> categoryType,
+                                         L classifiedCollection, int estimatedCost,
+                                         Map<IngredientComponentCategoryType<T, M, ?>, Integer> candidateCosts,
+                                         Map<IngredientComponentCategoryType<T, M, ?>, L> candidateCollections) {
+        this.categoryType = categoryType;
+        this.classifiedCollection = classifiedCollection;
+        this.estimatedCost = estimatedCost;
+        this.candidateCosts = candidateCosts;
+        this.candidateCollections = candidateCollections;
+    }
+
+    /**
+     * @return The chosen category type, or null if the whole collection must be scanned.
+     */
+    @Nullable
+    public IngredientComponentCategoryType<T, M, ?> getCategoryType() {
+        return categoryType;
+    }
+
+    /**
+     * @return The chosen classified collection-like.
+     */
+    public L getClassifiedCollection() {
+        return classifiedCollection;
+    }
+
+    /**
+     * @return The estimated number of instances that will be visited.
+     */
+    public int getEstimatedCost() {
+        return estimatedCost;
+    }
+
+    /**
+     * @return The estimated costs of all considered category types.
+     */
+    public Map<IngredientComponentCategoryType<T, M, ?>, Integer> getCandidateCosts() {
+        return candidateCosts;
+    }
+
+    /**
+     * @return A human-readable explanation of this plan, for debugging purposes.
+     */
+    public String explain() {
+        StringBuilder sb = new StringBuilder();
+        if (categoryType == null) {
+            sb.append("Full scan of ").append(estimatedCost).append(" instances");
+        } else {
+            sb.append("Scan classified bucket of category ").append(categoryType.getName())
+                    .append(" with ").append(estimatedCost).append(" instances");
+        }
+        for (Map.Entry<IngredientComponentCategoryType<T, M, ?>, Integer> candidate : candidateCosts.entrySet()) {
+            sb.append("\n  Candidate ").append(candidate.getKey().getName())
+                    .append(": ").append(candidate.getValue()).append(" instances");
+            L collection = candidateCollections.get(candidate.getKey());
+            if (collection instanceof IIngredientCollectionLikeSingleClassifiedTrait) {
+                IIngredientCollectionLikeSingleClassifiedTrait<?, ?, ?, ?, ?> classified =
+                        (IIngredientCollectionLikeSingleClassifiedTrait<?, ?, ?, ?, ?>) collection;
+                sb.append(" (").append(classified.getClassifiedCollections().size()).append(" buckets, bucket sizes:");
+                int[] histogram = classified.getClassifiedSizeHistogram();
+                for (int i = 0; i < histogram.length; i++) {
+                    if (histogram[i] > 0) {
+                        sb.append(" [").append(i == 0 ? 1 : 1L << i).append("-").append((1L << (i + 1)) - 1)
+                                .append("]=").append(histogram[i]);
+                    }
+                }
+                sb.append(")");
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return explain();
+    }
+}
@@ -88,6 +88,37 @@ public class IngredientCollectionSingleClassified<T, M, C, L extends IIngredient
         return false;
     }
 
+    /**
+     * Add the given instances in parallel on the shared pool of {@link IngredientCollectionParallelHelpers},
+     * where each classified collection is filled by exactly one task.
+     * @param instances The instances that need to be added.
+     * @return If the collection was changed due to this addition.
+     */
+    public boolean addAllParallel(Iterable<? extends T> instances) {
+        return IngredientCollectionParallelHelpers.invoke(() -> addAllForked(instances)) > 0;
+    }
+
+    /**
+     * Add the given instances in parallel.
+     * This must be called from within the shared pool of {@link IngredientCollectionParallelHelpers}.
+     * @param instances The instances that need to be added.
+     * @return The number of instances that were added.
+     */
+    protected int addAllForked(Iterable<? extends T> instances) {
+        int added = IngredientCollectionParallelHelpers.<T, M, T, C, L, T>loadPartitioned(this, instances, instance -> instance,
+                (collection, partition) -> {
+                    int count = 0;
+                    for (T instance : partition) {
+                        if (collection.add(instance)) {
+                            count++;
+                        }
+                    }
+                    return count;
+                });
+        this.size += added;
+        return added;
+    }
+
     @Override
     public boolean remove(T instance) {
         C classifier = getClassifier(instance);
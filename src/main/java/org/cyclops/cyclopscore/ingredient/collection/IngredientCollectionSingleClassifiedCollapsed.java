@@ -28,6 +28,17 @@ public class IngredientCollectionSingleClassifiedCollapsed<T, M, C>
         super(component, collectionCreator, categoryType);
     }
 
+    /**
+     * Create a new instance where each classifier is backed by an {@link IngredientCollectionPrototypeMap}.
+     * @param component         A component type.
+     * @param categoryType      A category type using which this collection will classify instance.
+     */
+    public IngredientCollectionSingleClassifiedCollapsed(
+            IngredientComponent<T, M> component,
+            IngredientComponentCategoryType<T, M, C> categoryType) {
+        this(component, () -> new IngredientCollectionPrototypeMap<>(component), categoryType);
+    }
+
     @Override
     public int size() {
         return this.getClassifiedCollections().values().stream().mapToInt(IIngredientCollectionLike::size).sum();
@@ -41,6 +52,51 @@ public class IngredientCollectionSingleClassifiedCollapsed<T, M, C>
 
     @Override
     public void setQuantity(T instance, long quantity) {
-        getOrCreateClassifiedCollection(getClassifier(instance)).setQuantity(instance, quantity);
+        C classifier = getClassifier(instance);
+        if (quantity != 0) {
+            getOrCreateClassifiedCollection(classifier).setQuantity(instance, quantity);
+        } else {
+            IIngredientCollapsedCollectionMutable<T, M> collection = getClassifiedCollections().get(classifier);
+            if (collection != null) {
+                collection.setQuantity(instance, 0);
+                // Cleanup collections map if the collection becomes empty
+                if (collection.isEmpty()) {
+                    getClassifiedCollections().remove(classifier);
+                }
+            }
+        }
+    }
+
+    @Override
+    public long getTotalQuantity(T instance, M matchCondition) {
+        M matchConditionNoQuantity = withoutQuantityCondition(matchCondition);
+        if (appliesToClassifier(matchConditionNoQuantity)) {
+            // Only a single classified collection can match, which may have aggregates for the sub match condition
+            IIngredientCollapsedCollectionMutable<T, M> collection = getClassifiedCollections().get(getClassifier(instance));
+            return collection != null ? collection.getTotalQuantity(instance, getSubMatchCondition(matchConditionNoQuantity)) : 0;
+        }
+        long total = 0;
+        for (IIngredientCollapsedCollectionMutable<T, M> collection : getClassifiedCollections().values()) {
+            total += collection.getTotalQuantity(instance, matchConditionNoQuantity);
+        }
+        return total;
+    }
+
+    @Override
+    public int getPrototypeCount(T instance, M matchCondition) {
+        M matchConditionNoQuantity = withoutQuantityCondition(matchCondition);
+        if (appliesToClassifier(matchConditionNoQuantity)) {
+            IIngredientCollapsedCollectionMutable<T, M> collection = getClassifiedCollections().get(getClassifier(instance));
+            return collection != null ? collection.getPrototypeCount(instance, getSubMatchCondition(matchConditionNoQuantity)) : 0;
+        }
+        int count = 0;
+        for (IIngredientCollapsedCollectionMutable<T, M> collection : getClassifiedCollections().values()) {
+            count += collection.getPrototypeCount(instance, matchConditionNoQuantity);
+        }
+        return count;
+    }
+
+    protected M getSubMatchCondition(M matchCondition) {
+        return getComponent().getMatcher().withoutCondition(matchCondition, getCategoryType().getMatchCondition());
     }
 }
@@ -3,6 +3,7 @@ package org.cyclops.cyclopscore.ingredient.collection;
 import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
 
 import java.util.Iterator;
+import java.util.function.Consumer;
 
 /**
  * An ingredient collection that wraps over another ingredient collection.
@@ -73,6 +74,16 @@ public class IngredientCollectionWrapper<T, M, W extends IIngredientCollection<T
         return this.getInnerCollection().iterator();
     }
 
+    @Override
+    public void forEach(Consumer<? super T> consumer) {
+        this.getInnerCollection().forEach(consumer);
+    }
+
+    @Override
+    public void forEachMatching(T instance, M matchCondition, Consumer<? super T> consumer) {
+        this.getInnerCollection().forEachMatching(instance, matchCondition, consumer);
+    }
+
     @Override
     public int hashCode() {
         return getInnerCollection().hashCode();
@@ -1,5 +1,8 @@
 package org.cyclops.cyclopscore.ingredient.collection;
 
+import com.google.common.collect.Iterators;
+import com.google.common.io.ByteStreams;
+import net.minecraft.nbt.ByteArrayTag;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
@@ -8,6 +11,8 @@ import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
 import org.cyclops.commoncapabilities.api.ingredient.IIngredientSerializer;
 import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
 
+import javax.annotation.Nullable;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Iterator;
@@ -244,8 +249,27 @@ public final class IngredientCollections {
         return tag;
     }
 
+    /**
+     * Serialize the given collection to an NBT tag,
+     * where the ingredients are stored in the format of {@link IngredientCollectionCompactSerializer}.
+     * This is smaller and faster than {@link #serialize(IIngredientCollection)} for large collections.
+     *
+     * @param collection An ingredient collection.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @return An NBT tag.
+     */
+    public static <T, M> CompoundTag serializeCompact(IIngredientCollection<T, M> collection) {
+        CompoundTag tag = new CompoundTag();
+        tag.putString("component", collection.getComponent().getName().toString());
+        tag.put("ingredientsCompact", IngredientCollectionCompactSerializer.toTag(collection));
+        return tag;
+    }
+
     /**
      * Deserialize the given NBT tag to an ingredient array list.
+     * Tags from both {@link #serialize(IIngredientCollection)} and {@link #serializeCompact(IIngredientCollection)}
+     * are accepted.
      *
      * @param tag An NBT tag.
      * @param ingredientCollectionFactory A function that creates a {@link IIngredientCollectionMutable}
@@ -261,6 +285,10 @@ public final class IngredientCollections {
         if (!tag.contains("component", Tag.TAG_STRING)) {
             throw new IllegalArgumentException("No component type was found in the given tag");
         }
+        if (tag.contains("ingredientsCompact", Tag.TAG_BYTE_ARRAY)) {
+            return IngredientCollectionCompactSerializer.fromTag((ByteArrayTag) tag.get("ingredientsCompact"),
+                    ingredientCollectionFactory);
+        }
         if (!tag.contains("ingredients", Tag.TAG_LIST)) {
             throw new IllegalArgumentException("No ingredients list was found in the given tag");
         }
@@ -295,6 +323,69 @@ public final class IngredientCollections {
         return deserialize(tag, IngredientArrayList::new);
     }
 
+    /**
+     * Lazily iterate over the instances in the given NBT tag, without constructing a collection.
+     * Tags from both {@link #serialize(IIngredientCollection)} and {@link #serializeCompact(IIngredientCollection)}
+     * are accepted.
+     *
+     * Only instances that match the given instance will be returned.
+     * For compact tags, non-matching instances are skipped without being decoded.
+     *
+     * @param tag An NBT tag.
+     * @param component The component type, which must equal the serialized component.
+     * @param instance The instance to match with, or null if all instances must be returned.
+     * @param matchCondition The match condition.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @return An iterator over the instances.
+     * @throws IllegalArgumentException If the tag was invalid.
+     */
+    public static <T, M> Iterator<T> deserializeIterator(CompoundTag tag, IngredientComponent<T, M> component,
+                                                         @Nullable T instance, M matchCondition) {
+        // Validate tag
+        if (!tag.contains("component", Tag.TAG_STRING)) {
+            throw new IllegalArgumentException("No component type was found in the given tag");
+        }
+        if (!component.getName().toString().equals(tag.getString("component"))) {
+            throw new IllegalArgumentException("The serialized component " + tag.getString("component")
+                    + " does not match the component " + component.getName());
+        }
+        if (tag.contains("ingredientsCompact", Tag.TAG_BYTE_ARRAY)) {
+            byte[] bytes = ((ByteArrayTag) tag.get("ingredientsCompact")).getAsByteArray();
+            try {
+                return new IngredientCollectionCompactReader<>(ByteStreams.newDataInput(bytes), component, instance, matchCondition);
+            } catch (IOException | IllegalStateException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+        if (!tag.contains("ingredients", Tag.TAG_LIST)) {
+            throw new IllegalArgumentException("No ingredients list was found in the given tag");
+        }
+
+        // Instances are decoded one by one while iterating
+        IIngredientSerializer<T, M> serializer = component.getSerializer();
+        IIngredientMatcher<T, M> matcher = component.getMatcher();
+        Iterator<T> it = Iterators.transform(((ListTag) tag.get("ingredients")).iterator(), serializer::deserializeInstance);
+        if (instance == null) {
+            return it;
+        }
+        return Iterators.filter(it, i -> matcher.matches(instance, i, matchCondition));
+    }
+
+    /**
+     * Lazily iterate over all instances in the given NBT tag, without constructing a collection.
+     *
+     * @param tag An NBT tag.
+     * @param component The component type, which must equal the serialized component.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @return An iterator over the instances.
+     * @throws IllegalArgumentException If the tag was invalid.
+     */
+    public static <T, M> Iterator<T> deserializeIterator(CompoundTag tag, IngredientComponent<T, M> component) {
+        return deserializeIterator(tag, component, null, component.getMatcher().getAnyMatchCondition());
+    }
+
     /**
      * Helper interface for constructing an {@link IIngredientCollection} based on an {@link IngredientComponent}.
      * @param <C> The storage type.
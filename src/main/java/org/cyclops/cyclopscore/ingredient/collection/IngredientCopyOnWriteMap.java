@@ -0,0 +1,149 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A mutable ingredient map that is backed by an {@link IngredientPersistentMap}.
+ *
+ * Each modification replaces the backing persistent map in O(log n) time,
+ * so that {@link #snapshot()} can return the current state in O(1) time.
+ * Snapshots are never modified afterwards,
+ * so they can be iterated from other threads without copying or locking.
+ *
+ * Modifications to this map itself must still be done from a single thread at a time.
+ * Iterators, {@link #keySet()} and {@link #values()} operate on the snapshot at the time of calling.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ * @param <V> The type of mapped values.
+ * @author rubensworks
+ */
+public class IngredientCopyOnWriteMap<T, M, V> extends IngredientMapAdapter<T, M, V> {
+
+    private volatile IngredientPersistentMap<T, M, V> map;
+
+    public IngredientCopyOnWriteMap(IngredientComponent<T, M> component) {
+        super(component);
+        this.map = new IngredientPersistentMap<>(component);
+    }
+
+    public IngredientCopyOnWriteMap(IngredientComponent<T, M> component, IIngredientMap<? extends T, M, ? extends V> map) {
+        super(component);
+        this.map = new IngredientPersistentMap<>(component, map);
+    }
+
+    /**
+     * @return An immutable snapshot of the current state of this map.
+     */
+    public IngredientPersistentMap<T, M, V> snapshot() {
+        return this.map;
+    }
+
+    @Override
+    public void clear() {
+        if (!this.map.isEmpty()) {
+            this.map = new IngredientPersistentMap<>(getComponent());
+        }
+    }
+
+    @Nullable
+    @Override
+    public V put(T key, V value) {
+        IngredientPersistentMap<T, M, V> map = this.map;
+        V previous = map.get(key);
+        this.map = map.with(key, value);
+        return previous;
+    }
+
+    @Nullable
+    @Override
+    public V remove(T key) {
+        IngredientPersistentMap<T, M, V> map = this.map;
+        V previous = map.get(key);
+        this.map = map.without(key);
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return this.map.size();
+    }
+
+    @Override
+    public boolean containsKey(T instance) {
+        return this.map.containsKey(instance);
+    }
+
+    @Override
+    public boolean containsValue(V value) {
+        return this.map.containsValue(value);
+    }
+
+    @Nullable
+    @Override
+    public V get(T key) {
+        return this.map.get(key);
+    }
+
+    @Override
+    public IngredientSet<T, M> keySet() {
+        return this.map.keySet();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return this.map.values();
+    }
+
+    @Override
+    public Iterator<Map.Entry<T, V>> iterator() {
+        return new SnapshotIterator(this.map.iterator());
+    }
+
+    @Override
+    public int putAll(IIngredientMap<? extends T, M, ? extends V> map) {
+        // Iterate directly, as entrySet() would first collect all entries in a HashSet.
+        for (Map.Entry<? extends T, ? extends V> entry : map) {
+            put(entry.getKey(), entry.getValue());
+        }
+        return map.size();
+    }
+
+    /**
+     * An iterator over a snapshot, which removes entries from this map.
+     */
+    protected class SnapshotIterator implements Iterator<Map.Entry<T, V>> {
+
+        private final Iterator<Map.Entry<T, V>> iterator;
+        private Map.Entry<T, V> current;
+
+        public SnapshotIterator(Iterator<Map.Entry<T, V>> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public Map.Entry<T, V> next() {
+            return current = iterator.next();
+        }
+
+        @Override
+        public void remove() {
+            if (current == null) {
+                throw new IllegalStateException("The next method was not called yet");
+            }
+            IngredientCopyOnWriteMap.this.remove(current.getKey());
+            current = null;
+        }
+    }
+
+}
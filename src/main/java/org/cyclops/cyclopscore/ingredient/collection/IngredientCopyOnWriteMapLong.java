@@ -0,0 +1,83 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.collect.Iterators;
+import it.unimi.dsi.fastutil.objects.AbstractObject2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * An {@link IngredientCopyOnWriteMap} with long values.
+ *
+ * Just like {@link IngredientHashMapLong}, zero values are not stored.
+ * This can be passed to {@link IngredientCollectionPrototypeMap}
+ * to make {@link IngredientCollectionPrototypeMap#snapshot()} an O(1) operation,
+ * as done by {@link IngredientCollectionHelpers#createSnapshottableCollection(IngredientComponent)}.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ * @author rubensworks
+ */
+public class IngredientCopyOnWriteMapLong<T, M> extends IngredientCopyOnWriteMap<T, M, Long> implements IIngredientMapLongMutable<T, M> {
+
+    public IngredientCopyOnWriteMapLong(IngredientComponent<T, M> component) {
+        super(component);
+    }
+
+    public IngredientCopyOnWriteMapLong(IngredientComponent<T, M> component, IIngredientMap<? extends T, M, ? extends Long> map) {
+        super(component);
+        putAll(map);
+    }
+
+    @Override
+    public long getLong(T key) {
+        Long value = get(key);
+        return value == null ? 0 : value;
+    }
+
+    @Override
+    public long putLong(T key, long value) {
+        Long previous = put(key, value);
+        return previous == null ? 0 : previous;
+    }
+
+    @Override
+    public long addTo(T key, long increment) throws ArithmeticException {
+        long previous = getLong(key);
+        putLong(key, Math.addExact(previous, increment));
+        return previous;
+    }
+
+    @Override
+    public long removeLong(T key) {
+        Long previous = remove(key);
+        return previous == null ? 0 : previous;
+    }
+
+    @Nullable
+    @Override
+    public Long put(T key, Long value) {
+        if (value == null || value == 0) {
+            return remove(key);
+        }
+        return super.put(key, value);
+    }
+
+    @Override
+    public Iterator<Object2LongMap.Entry<T>> longIterator() {
+        return toLongIterator(iterator());
+    }
+
+    @Override
+    public Iterator<Object2LongMap.Entry<T>> longIterator(T instance, M matchCondition) {
+        return toLongIterator(iterator(instance, matchCondition));
+    }
+
+    protected Iterator<Object2LongMap.Entry<T>> toLongIterator(Iterator<Map.Entry<T, Long>> iterator) {
+        return Iterators.transform(iterator, entry -> new AbstractObject2LongMap.BasicEntry<>(entry.getKey(), entry.getValue()));
+    }
+
+}
@@ -0,0 +1,190 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.collect.Iterators;
+import it.unimi.dsi.fastutil.objects.AbstractObject2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMaps;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenCustomHashMap;
+import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * An ingredient map from instances to primitive longs that internally uses an open addressing hash map.
+ *
+ * Instances are hashed and compared using the component's matcher via an {@link IngredientHashStrategy},
+ * and values are stored unboxed.
+ *
+ * @see Object2LongOpenCustomHashMap
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ */
+public class IngredientHashMapLong<T, M> extends IngredientMapAdapter<T, M, Long> implements IIngredientMapLongMutable<T, M> {
+
+    private final Object2LongOpenCustomHashMap<T> map;
+
+    public IngredientHashMapLong(IngredientComponent<T, M> component) {
+        super(component);
+        this.map = new Object2LongOpenCustomHashMap<>(new IngredientHashStrategy<>(component));
+    }
+
+    public IngredientHashMapLong(IngredientComponent<T, M> component, int expectedSize) {
+        super(component);
+        this.map = new Object2LongOpenCustomHashMap<>(expectedSize, new IngredientHashStrategy<>(component));
+    }
+
+    public IngredientHashMapLong(IngredientComponent<T, M> component, IIngredientMap<? extends T, M, ? extends Long> map) {
+        this(component, map.size());
+        putAll(map);
+    }
+
+    @Override
+    public void clear() {
+        this.map.clear();
+    }
+
+    @Override
+    public long getLong(T key) {
+        return this.map.getLong(key);
+    }
+
+    @Override
+    public long putLong(T key, long value) {
+        if (value == 0) {
+            return this.map.removeLong(key);
+        }
+        return this.map.put(key, value);
+    }
+
+    @Override
+    public long addTo(T key, long increment) throws ArithmeticException {
+        long previous = this.map.addTo(key, increment);
+        long value = previous + increment;
+        // Same overflow check as Math#addExact
+        if (((previous ^ value) & (increment ^ value)) < 0) {
+            putLong(key, previous);
+            throw new ArithmeticException("long overflow");
+        }
+        if (value == 0) {
+            this.map.removeLong(key);
+        }
+        return previous;
+    }
+
+    @Override
+    public long removeLong(T key) {
+        return this.map.removeLong(key);
+    }
+
+    @Nullable
+    @Override
+    public Long put(T key, Long value) {
+        long previous = putLong(key, value);
+        return previous == 0 ? null : previous;
+    }
+
+    @Nullable
+    @Override
+    public Long remove(T key) {
+        long previous = removeLong(key);
+        return previous == 0 ? null : previous;
+    }
+
+    @Override
+    public int size() {
+        return this.map.size();
+    }
+
+    @Override
+    public boolean containsKey(T instance) {
+        return this.map.containsKey(instance);
+    }
+
+    @Override
+    public boolean containsValue(Long value) {
+        return value != null && this.map.containsValue(value.longValue());
+    }
+
+    @Nullable
+    @Override
+    public Long get(T key) {
+        long value = getLong(key);
+        return value == 0 ? null : value;
+    }
+
+    @Override
+    public IngredientSet<T, M> keySet() {
+        return new IngredientSet<>(getComponent(), new IngredientWrappedKeySetView<>(getComponent(), this.map.keySet()));
+    }
+
+    @Override
+    public Collection<Long> values() {
+        return this.map.values();
+    }
+
+    @Override
+    public Iterator<Object2LongMap.Entry<T>> longIterator() {
+        // Entries are copied, as the entries of the internal map become invalid after removals.
+        return Iterators.transform(this.map.object2LongEntrySet().iterator(),
+                entry -> new AbstractObject2LongMap.BasicEntry<>(entry.getKey(), entry.getLongValue()));
+    }
+
+    @Override
+    public Iterator<Object2LongMap.Entry<T>> longIterator(T instance, M matchCondition) {
+        return (Iterator) iterator(instance, matchCondition);
+    }
+
+    @Override
+    public Iterator<Map.Entry<T, Long>> iterator() {
+        return (Iterator) longIterator();
+    }
+
+    @Override
+    public void forEachLongEntry(ObjLongConsumer<? super T> consumer) {
+        // The fast iterable reuses a single entry object
+        for (Object2LongMap.Entry<T> entry : Object2LongMaps.fastIterable(this.map)) {
+            consumer.accept(entry.getKey(), entry.getLongValue());
+        }
+    }
+
+    @Override
+    public void forEachLongEntryMatching(T instance, M matchCondition, ObjLongConsumer<? super T> consumer) {
+        IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
+        if (Objects.equals(matcher.getAnyMatchCondition(), matchCondition)) {
+            forEachLongEntry(consumer);
+            return;
+        }
+        for (Object2LongMap.Entry<T> entry : Object2LongMaps.fastIterable(this.map)) {
+            if (matcher.matches(instance, entry.getKey(), matchCondition)) {
+                consumer.accept(entry.getKey(), entry.getLongValue());
+            }
+        }
+    }
+
+    @Override
+    public void forEachEntry(BiConsumer<? super T, ? super Long> consumer) {
+        forEachLongEntry(consumer::accept);
+    }
+
+    @Override
+    public void forEachEntryMatching(T instance, M matchCondition, BiConsumer<? super T, ? super Long> consumer) {
+        forEachLongEntryMatching(instance, matchCondition, consumer::accept);
+    }
+
+    @Override
+    public int putAll(IIngredientMap<? extends T, M, ? extends Long> map) {
+        // Iterate directly, as entrySet() would first collect all entries in a HashSet.
+        for (Map.Entry<? extends T, ? extends Long> entry : map) {
+            put(entry.getKey(), entry.getValue());
+        }
+        return map.size();
+    }
+
+}
@@ -0,0 +1,37 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import it.unimi.dsi.fastutil.Hash;
+import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+
+/**
+ * A fastutil hash strategy that hashes and compares instances using the matcher of an ingredient component.
+ *
+ * This has the same semantics as an {@link org.cyclops.commoncapabilities.api.ingredient.IngredientInstanceWrapper},
+ * without requiring instances to be wrapped.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ */
+public class IngredientHashStrategy<T, M> implements Hash.Strategy<T> {
+
+    private final IIngredientMatcher<T, M> matcher;
+
+    public IngredientHashStrategy(IngredientComponent<T, M> component) {
+        this.matcher = component.getMatcher();
+    }
+
+    @Override
+    public int hashCode(T instance) {
+        return instance == null ? 0 : matcher.hash(instance);
+    }
+
+    @Override
+    public boolean equals(T a, T b) {
+        // fastutil passes null to detect its null key
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a == b || matcher.matchesExactly(a, b);
+    }
+}
@@ -0,0 +1,174 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.collect.Iterators;
+import it.unimi.dsi.fastutil.objects.AbstractObject2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Exposes an ingredient map with boxed long values as an {@link IIngredientMapLongMutable}.
+ *
+ * All operations are delegated to the given map, so values are still boxed internally.
+ * Zero values are never stored in the given map.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ */
+public class IngredientMapLongBoxedAdapter<T, M> implements IIngredientMapLongMutable<T, M> {
+
+    private final IIngredientMapMutable<T, M, Long> map;
+
+    public IngredientMapLongBoxedAdapter(IIngredientMapMutable<T, M, Long> map) {
+        this.map = map;
+    }
+
+    @Override
+    public IngredientComponent<T, M> getComponent() {
+        return this.map.getComponent();
+    }
+
+    @Override
+    public long getLong(T key) {
+        Long value = this.map.get(key);
+        return value == null ? 0 : value;
+    }
+
+    @Override
+    public long putLong(T key, long value) {
+        if (value == 0) {
+            return removeLong(key);
+        }
+        Long previous = this.map.put(key, value);
+        return previous == null ? 0 : previous;
+    }
+
+    @Override
+    public long addTo(T key, long increment) throws ArithmeticException {
+        long previous = getLong(key);
+        putLong(key, Math.addExact(previous, increment));
+        return previous;
+    }
+
+    @Override
+    public long removeLong(T key) {
+        Long previous = this.map.remove(key);
+        return previous == null ? 0 : previous;
+    }
+
+    @Override
+    public Iterator<Object2LongMap.Entry<T>> longIterator() {
+        return toLongIterator(this.map.iterator());
+    }
+
+    @Override
+    public Iterator<Object2LongMap.Entry<T>> longIterator(T instance, M matchCondition) {
+        return toLongIterator(this.map.iterator(instance, matchCondition));
+    }
+
+    protected Iterator<Object2LongMap.Entry<T>> toLongIterator(Iterator<Map.Entry<T, Long>> it) {
+        return Iterators.transform(it, entry -> new AbstractObject2LongMap.BasicEntry<>(entry.getKey(), entry.getValue()));
+    }
+
+    @Override
+    public void clear() {
+        this.map.clear();
+    }
+
+    @Nullable
+    @Override
+    public Long put(T key, Long value) {
+        if (value == null || value == 0) {
+            return this.map.remove(key);
+        }
+        return this.map.put(key, value);
+    }
+
+    @Nullable
+    @Override
+    public Long remove(T key) {
+        return this.map.remove(key);
+    }
+
+    @Override
+    public int removeAll(T instance, M matchCondition) {
+        return this.map.removeAll(instance, matchCondition);
+    }
+
+    @Override
+    public int size() {
+        return this.map.size();
+    }
+
+    @Override
+    public boolean containsKey(T instance) {
+        return this.map.containsKey(instance);
+    }
+
+    @Override
+    public boolean containsValue(Long value) {
+        return this.map.containsValue(value);
+    }
+
+    @Nullable
+    @Override
+    public Long get(T key) {
+        return this.map.get(key);
+    }
+
+    @Override
+    public Collection<Long> getAll(T key, M matchCondition) {
+        return this.map.getAll(key, matchCondition);
+    }
+
+    @Override
+    public IngredientSet<T, M> keySet() {
+        return this.map.keySet();
+    }
+
+    @Override
+    public IngredientSet<T, M> keySet(T key, M matchCondition) {
+        return this.map.keySet(key, matchCondition);
+    }
+
+    @Override
+    public Collection<Long> values() {
+        return this.map.values();
+    }
+
+    @Override
+    public Set<Map.Entry<T, Long>> entrySet() {
+        return this.map.entrySet();
+    }
+
+    @Override
+    public Iterator<Map.Entry<T, Long>> iterator() {
+        return this.map.iterator();
+    }
+
+    @Override
+    public Iterator<Map.Entry<T, Long>> iterator(T instance, M matchCondition) {
+        return this.map.iterator(instance, matchCondition);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof IIngredientMap && IngredientCollections.equalsMap(this, (IIngredientMap<?, ?, ?>) obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return IngredientCollections.hash(this);
+    }
+
+    @Override
+    public String toString() {
+        return IngredientCollections.toString(this);
+    }
+
+}
@@ -0,0 +1,104 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponentCategoryType;
+
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * An ingredient map to primitive longs that classifies instances in smaller maps
+ * based on all category types of a component type.
+ *
+ * @see IngredientMapMultiClassified
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ */
+public class IngredientMapLongMultiClassified<T, M> extends IngredientMapMultiClassified<T, M, Long>
+        implements IIngredientMapLongMutable<T, M> {
+
+    /**
+     * Create a new instance.
+     * @param component A component type.
+     * @param mapCreator A callback for creating new internal long maps for a single classifier.
+     */
+    public IngredientMapLongMultiClassified(IngredientComponent<T, M> component,
+                                            Supplier<IIngredientMapLongMutable<T, M>> mapCreator) {
+        super(component, mapCreator::get);
+    }
+
+    @Override
+    protected <C> IngredientMapSingleClassified<T, M, Long, C> createSingleClassified(IngredientComponent<T, M> component,
+                                                                                     Supplier<IIngredientMapMutable<T, M, Long>> mapCreator,
+                                                                                     IngredientComponentCategoryType<T, M, C> categoryType) {
+        return new IngredientMapLongSingleClassified<>(component,
+                () -> (IIngredientMapLongMutable<T, M>) mapCreator.get(), categoryType);
+    }
+
+    @Override
+    public long getLong(T key) {
+        return ((IIngredientMapLong<T, M>) getFirstSingleClassified()).getLong(key);
+    }
+
+    @Override
+    public long putLong(T key, long value) {
+        long previous = 0;
+        for (IngredientMapSingleClassified<T, M, Long, ?> singleClassified : getClassifiedCollections().values()) {
+            previous = ((IIngredientMapLongMutable<T, M>) singleClassified).putLong(key, value);
+        }
+        return previous;
+    }
+
+    @Override
+    public long addTo(T key, long increment) throws ArithmeticException {
+        // Fail early, so that an overflow does not leave the classified maps in an inconsistent state.
+        long previous = getLong(key);
+        Math.addExact(previous, increment);
+        for (IngredientMapSingleClassified<T, M, Long, ?> singleClassified : getClassifiedCollections().values()) {
+            ((IIngredientMapLongMutable<T, M>) singleClassified).addTo(key, increment);
+        }
+        return previous;
+    }
+
+    @Override
+    public long removeLong(T key) {
+        long previous = 0;
+        for (IngredientMapSingleClassified<T, M, Long, ?> singleClassified : getClassifiedCollections().values()) {
+            previous = ((IIngredientMapLongMutable<T, M>) singleClassified).removeLong(key);
+        }
+        return previous;
+    }
+
+    @Nullable
+    @Override
+    public Long put(T key, Long value) {
+        long previous = putLong(key, value);
+        return previous == 0 ? null : previous;
+    }
+
+    @Override
+    public Iterator<Object2LongMap.Entry<T>> longIterator() {
+        // The entries of the classified long maps are long entries
+        return (Iterator) iterator();
+    }
+
+    @Override
+    public Iterator<Object2LongMap.Entry<T>> longIterator(T instance, M matchCondition) {
+        return (Iterator) iterator(instance, matchCondition);
+    }
+
+    @Override
+    public void forEachLongEntry(ObjLongConsumer<? super T> consumer) {
+        ((IIngredientMapLong<T, M>) getFirstSingleClassified()).forEachLongEntry(consumer);
+    }
+
+    @Override
+    public void forEachLongEntryMatching(T instance, M matchCondition, ObjLongConsumer<? super T> consumer) {
+        ((IIngredientMapLong<T, M>) getBestClassifiedCollection(instance, matchCondition))
+                .forEachLongEntryMatching(instance, matchCondition, consumer);
+    }
+
+}
@@ -0,0 +1,273 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * A long-valued ingredient map that wraps another long-valued map,
+ * and maintains an {@link IngredientQuantityIndex} over its values.
+ *
+ * This allows entries to be queried by quantity range, by rank, or as top-K in O(log n + k) time,
+ * instead of sorting all entries.
+ * Modifications take O(log n) additional time.
+ *
+ * This can be passed to {@link IngredientCollectionPrototypeMap} to index the counts of all prototypes.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ * @author rubensworks
+ */
+public class IngredientMapLongQuantityIndexed<T, M> extends IngredientMapAdapter<T, M, Long>
+        implements IIngredientMapLongMutable<T, M> {
+
+    private final IIngredientMapLongMutable<T, M> map;
+    private final IngredientQuantityIndex<T, M> index;
+
+    public IngredientMapLongQuantityIndexed(IngredientComponent<T, M> component) {
+        this(component, new IngredientHashMapLong<>(component));
+    }
+
+    /**
+     * Create a new instance.
+     * @param component The ingredient component.
+     * @param map The map to wrap, which must not be modified directly afterwards.
+     */
+    public IngredientMapLongQuantityIndexed(IngredientComponent<T, M> component, IIngredientMapLongMutable<T, M> map) {
+        super(component);
+        this.map = map;
+        this.index = new IngredientQuantityIndex<>(component);
+        Iterator<Object2LongMap.Entry<T>> it = map.longIterator();
+        while (it.hasNext()) {
+            Object2LongMap.Entry<T> entry = it.next();
+            this.index.add(entry.getKey(), entry.getLongValue());
+        }
+    }
+
+    /**
+     * @return The quantity index, which must not be modified directly.
+     */
+    public IngredientQuantityIndex<T, M> getQuantityIndex() {
+        return index;
+    }
+
+    /**
+     * @param minQuantity The minimal quantity, inclusive.
+     * @param maxQuantity The maximal quantity, inclusive.
+     * @return An iterator over all entries within the given quantity range, in ascending order of quantity.
+     */
+    public Iterator<Object2LongMap.Entry<T>> longIterator(long minQuantity, long maxQuantity) {
+        return index.iterator(minQuantity, maxQuantity);
+    }
+
+    /**
+     * @param minQuantity The minimal quantity, inclusive.
+     * @param maxQuantity The maximal quantity, inclusive.
+     * @return An iterator over all entries within the given quantity range, in descending order of quantity.
+     */
+    public Iterator<Object2LongMap.Entry<T>> descendingLongIterator(long minQuantity, long maxQuantity) {
+        return index.descendingIterator(minQuantity, maxQuantity);
+    }
+
+    /**
+     * @param k The maximum number of entries.
+     * @return The k entries with the highest values, in descending order.
+     */
+    public List<Object2LongMap.Entry<T>> getTop(int k) {
+        return index.getTop(k);
+    }
+
+    /**
+     * @param key An instance.
+     * @return The number of entries with a lower value, or with an equal value that is ordered before the given key,
+     *         or -1 if the key is not present.
+     */
+    public int getRank(T key) {
+        long value = map.getLong(key);
+        if (value == 0) {
+            return -1;
+        }
+        return index.getRank(key, value);
+    }
+
+    @Override
+    public long getLong(T key) {
+        return map.getLong(key);
+    }
+
+    @Override
+    public long putLong(T key, long value) {
+        long previous = map.putLong(key, value);
+        onChanged(key, previous, value);
+        return previous;
+    }
+
+    @Override
+    public long addTo(T key, long increment) throws ArithmeticException {
+        long previous = map.addTo(key, increment);
+        onChanged(key, previous, previous + increment);
+        return previous;
+    }
+
+    @Override
+    public long removeLong(T key) {
+        long previous = map.removeLong(key);
+        onChanged(key, previous, 0);
+        return previous;
+    }
+
+    protected void onChanged(T key, long previous, long value) {
+        if (previous != value) {
+            if (previous != 0) {
+                index.remove(key, previous);
+            }
+            if (value != 0) {
+                index.add(key, value);
+            }
+        }
+    }
+
+    @Nullable
+    @Override
+    public Long put(T key, Long value) {
+        long previous = putLong(key, value);
+        return previous == 0 ? null : previous;
+    }
+
+    @Nullable
+    @Override
+    public Long remove(T key) {
+        long previous = removeLong(key);
+        return previous == 0 ? null : previous;
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+        index.clear();
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean containsKey(T instance) {
+        return map.containsKey(instance);
+    }
+
+    @Override
+    public boolean containsValue(Long value) {
+        return value != null && value != 0 && index.count(value, value) > 0;
+    }
+
+    @Nullable
+    @Override
+    public Long get(T key) {
+        return map.get(key);
+    }
+
+    @Override
+    public IngredientSet<T, M> keySet() {
+        // Don't expose a live key set, as removals through it would bypass the index.
+        return new IngredientSet<>(getComponent(), Collections.unmodifiableSet(map.keySet().getCollection()));
+    }
+
+    @Override
+    public Collection<Long> values() {
+        return Collections.unmodifiableCollection(map.values());
+    }
+
+    @Override
+    public Iterator<Object2LongMap.Entry<T>> longIterator() {
+        return new IndexUpdatingIterator<>(map.longIterator());
+    }
+
+    @Override
+    public Iterator<Object2LongMap.Entry<T>> longIterator(T instance, M matchCondition) {
+        return new IndexUpdatingIterator<>(map.longIterator(instance, matchCondition));
+    }
+
+    @Override
+    public Iterator<Map.Entry<T, Long>> iterator() {
+        return new IndexUpdatingIterator<>(map.iterator());
+    }
+
+    @Override
+    public Iterator<Map.Entry<T, Long>> iterator(T instance, M matchCondition) {
+        return new IndexUpdatingIterator<>(map.iterator(instance, matchCondition));
+    }
+
+    @Override
+    public void forEachLongEntry(ObjLongConsumer<? super T> consumer) {
+        map.forEachLongEntry(consumer);
+    }
+
+    @Override
+    public void forEachLongEntryMatching(T instance, M matchCondition, ObjLongConsumer<? super T> consumer) {
+        map.forEachLongEntryMatching(instance, matchCondition, consumer);
+    }
+
+    @Override
+    public void forEachEntry(BiConsumer<? super T, ? super Long> consumer) {
+        map.forEachEntry(consumer);
+    }
+
+    @Override
+    public void forEachEntryMatching(T instance, M matchCondition, BiConsumer<? super T, ? super Long> consumer) {
+        map.forEachEntryMatching(instance, matchCondition, consumer);
+    }
+
+    @Override
+    public int putAll(IIngredientMap<? extends T, M, ? extends Long> map) {
+        // Iterate directly, as entrySet() would first collect all entries in a HashSet.
+        for (Map.Entry<? extends T, ? extends Long> entry : map) {
+            put(entry.getKey(), entry.getValue());
+        }
+        return map.size();
+    }
+
+    /**
+     * An iterator that removes entries from the index when they are removed from the wrapped map.
+     * @param <E> The entry type.
+     */
+    protected class IndexUpdatingIterator<E extends Map.Entry<T, Long>> implements Iterator<E> {
+
+        private final Iterator<E> iterator;
+        private T currentKey;
+        private long currentValue;
+
+        public IndexUpdatingIterator(Iterator<E> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public E next() {
+            E next = iterator.next();
+            // Read the value now, as entries of the wrapped map may become invalid after removal
+            currentKey = next.getKey();
+            currentValue = next.getValue();
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            iterator.remove();
+            index.remove(currentKey, currentValue);
+        }
+    }
+}
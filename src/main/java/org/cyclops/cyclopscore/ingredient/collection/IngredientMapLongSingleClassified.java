@@ -0,0 +1,147 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponentCategoryType;
+
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * An ingredient map to primitive longs that classifies instances in smaller maps based on a category type.
+ *
+ * @see IngredientMapSingleClassified
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ * @param <C> The category type.
+ */
+public class IngredientMapLongSingleClassified<T, M, C> extends IngredientMapSingleClassified<T, M, Long, C>
+        implements IIngredientMapLongMutable<T, M> {
+
+    /**
+     * Create a new instance.
+     * @param component A component type.
+     * @param mapCreator A callback for creating new internal long maps for a single classifier.
+     * @param categoryType A category type using which this collection will classify instance.
+     */
+    public IngredientMapLongSingleClassified(IngredientComponent<T, M> component,
+                                             Supplier<IIngredientMapLongMutable<T, M>> mapCreator,
+                                             IngredientComponentCategoryType<T, M, C> categoryType) {
+        super(component, mapCreator::get, categoryType);
+    }
+
+    @Nullable
+    protected IIngredientMapLongMutable<T, M> getClassifiedMap(C classifier) {
+        return (IIngredientMapLongMutable<T, M>) getClassifiedCollections().get(classifier);
+    }
+
+    protected void onValueChanged(C classifier, IIngredientMapLongMutable<T, M> map, long previous, long value) {
+        if (previous == 0 && value != 0) {
+            setSize(size() + 1);
+        } else if (previous != 0 && value == 0) {
+            setSize(size() - 1);
+        }
+        // Cleanup maps map if the map becomes empty
+        if (value == 0 && map.isEmpty()) {
+            getClassifiedCollections().remove(classifier);
+        }
+    }
+
+    @Override
+    public long getLong(T key) {
+        IIngredientMapLongMutable<T, M> map = getClassifiedMap(getClassifier(key));
+        return map != null ? map.getLong(key) : 0;
+    }
+
+    @Override
+    public long putLong(T key, long value) {
+        C classifier = getClassifier(key);
+        IIngredientMapLongMutable<T, M> map = value == 0 ? getClassifiedMap(classifier)
+                : (IIngredientMapLongMutable<T, M>) getOrCreateClassifiedCollection(classifier);
+        if (map == null) {
+            return 0;
+        }
+        long previous = map.putLong(key, value);
+        onValueChanged(classifier, map, previous, value);
+        return previous;
+    }
+
+    @Override
+    public long addTo(T key, long increment) throws ArithmeticException {
+        C classifier = getClassifier(key);
+        IIngredientMapLongMutable<T, M> map = (IIngredientMapLongMutable<T, M>) getOrCreateClassifiedCollection(classifier);
+        long previous;
+        try {
+            previous = map.addTo(key, increment);
+        } catch (ArithmeticException e) {
+            if (map.isEmpty()) {
+                getClassifiedCollections().remove(classifier);
+            }
+            throw e;
+        }
+        onValueChanged(classifier, map, previous, previous + increment);
+        return previous;
+    }
+
+    @Override
+    public long removeLong(T key) {
+        C classifier = getClassifier(key);
+        IIngredientMapLongMutable<T, M> map = getClassifiedMap(classifier);
+        if (map == null) {
+            return 0;
+        }
+        long previous = map.removeLong(key);
+        onValueChanged(classifier, map, previous, 0);
+        return previous;
+    }
+
+    @Nullable
+    @Override
+    public Long put(T key, Long value) {
+        long previous = putLong(key, value);
+        return previous == 0 ? null : previous;
+    }
+
+    @Override
+    public Iterator<Object2LongMap.Entry<T>> longIterator() {
+        // The entries of the classified long maps are long entries
+        return (Iterator) iterator();
+    }
+
+    @Override
+    public Iterator<Object2LongMap.Entry<T>> longIterator(T instance, M matchCondition) {
+        return (Iterator) iterator(instance, matchCondition);
+    }
+
+    @Override
+    public void forEachLongEntry(ObjLongConsumer<? super T> consumer) {
+        for (IIngredientMapMutable<T, M, Long> map : getClassifiedCollections().values()) {
+            ((IIngredientMapLong<T, M>) map).forEachLongEntry(consumer);
+        }
+    }
+
+    @Override
+    public void forEachLongEntryMatching(T instance, M matchCondition, ObjLongConsumer<? super T> consumer) {
+        if (Objects.equals(getComponent().getMatcher().getAnyMatchCondition(), matchCondition)) {
+            forEachLongEntry(consumer);
+        } else if (appliesToClassifier(matchCondition)) {
+            IIngredientMapLongMutable<T, M> map = getClassifiedMap(getClassifier(instance));
+            if (map != null) {
+                if (Objects.equals(getCategoryType().getMatchCondition(), matchCondition)) {
+                    map.forEachLongEntry(consumer);
+                } else {
+                    M subMatchCondition = getComponent().getMatcher().withoutCondition(matchCondition, getCategoryType().getMatchCondition());
+                    map.forEachLongEntryMatching(instance, subMatchCondition, consumer);
+                }
+            }
+        } else {
+            for (IIngredientMapMutable<T, M, Long> map : getClassifiedCollections().values()) {
+                ((IIngredientMapLong<T, M>) map).forEachLongEntryMatching(instance, matchCondition, consumer);
+            }
+        }
+    }
+
+}
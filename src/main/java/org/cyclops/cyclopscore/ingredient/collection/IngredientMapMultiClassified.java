@@ -8,12 +8,13 @@ import org.cyclops.commoncapabilities.api.ingredient.IngredientComponentCategory
 import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -37,11 +38,25 @@ public class IngredientMapMultiClassified<T, M, V> extends IngredientMapAdapter<
         super(component);
         this.classifiedMaps = Maps.newIdentityHashMap();
         for (IngredientComponentCategoryType<T, M, ?> categoryType : component.getCategoryTypes()) {
-            this.classifiedMaps.put(categoryType,
-                    new IngredientMapSingleClassified<>(component, mapCreator, categoryType));
+            this.classifiedMaps.put(categoryType, createSingleClassified(component, mapCreator, categoryType));
         }
     }
 
+    /**
+     * Create the single-classified map for the given category type.
+     * This is called from the constructor, so it must not depend on the state of this instance.
+     * @param component A component type.
+     * @param mapCreator A callback for creating new internal maps for a single classifier.
+     * @param categoryType A category type.
+     * @param <C> The category type.
+     * @return A new single-classified map.
+     */
+    protected <C> IngredientMapSingleClassified<T, M, V, C> createSingleClassified(IngredientComponent<T, M> component,
+                                                                                  Supplier<IIngredientMapMutable<T, M, V>> mapCreator,
+                                                                                  IngredientComponentCategoryType<T, M, C> categoryType) {
+        return new IngredientMapSingleClassified<>(component, mapCreator, categoryType);
+    }
+
     @Override
     public void clear() {
         for (IIngredientMapMutable<T, M, V> singleClassified : classifiedMaps.values()) {
@@ -63,30 +78,40 @@ public class IngredientMapMultiClassified<T, M, V> extends IngredientMapAdapter<
      * A multi-threaded putAll implementation.
      * This will create workers for adding the given instances to all classified collections.
      * @param executorService An optional executor service.
-     *                        If none is provided, a new temporary one will be created
-     *                        for the duration of this method call.
+     *                        If none is provided, {@link #putAllParallel(IIngredientMap)} will be used.
      * @param map The map entries that needs to be added.
      * @return The amount of entries that were added.
      */
     public int putAllThreaded(@Nullable ExecutorService executorService, IIngredientMap<? extends T, M, ? extends V> map) {
-        boolean newExecutorService = false;
         if (executorService == null) {
-            executorService = Executors.newFixedThreadPool(this.classifiedMaps.size());
-            newExecutorService = true;
+            return putAllParallel(map);
         }
         try {
-            int ret =  executorService.invokeAll(this.classifiedMaps.values().stream()
+            return executorService.invokeAll(this.classifiedMaps.values().stream()
                     .map(c -> (Callable<Integer>) () -> c.putAll(map)).collect(Collectors.toList())).get(0).get();
-            if (newExecutorService) {
-                executorService.shutdown();
-            }
-            return ret;
         } catch (InterruptedException | ExecutionException e) {
             e.printStackTrace();
             return 0;
         }
     }
 
+    /**
+     * Put all entries of the given map in parallel on the shared pool of {@link IngredientCollectionParallelHelpers}.
+     * All classified maps are filled concurrently,
+     * and within each of them, the entries are partitioned by classifier value
+     * so that each classified sub-map is filled by exactly one task.
+     * @param map The map entries that need to be added.
+     * @return The amount of entries from the given map of which the key was not present in this map yet.
+     */
+    public int putAllParallel(IIngredientMap<? extends T, M, ? extends V> map) {
+        List<Integer> added = IngredientCollectionParallelHelpers.invoke(() -> IngredientCollectionParallelHelpers.invokeAll(
+                this.classifiedMaps.values().stream()
+                        .map(c -> (Callable<Integer>) () -> c.putAllForked(map))
+                        .collect(Collectors.toList())));
+        // All classified maps contain the same keys, so they all grow equally
+        return added.isEmpty() ? 0 : added.get(0);
+    }
+
     @Nullable
     @Override
     public V remove(T key) {
@@ -107,7 +132,7 @@ public class IngredientMapMultiClassified<T, M, V> extends IngredientMapAdapter<
 
         // Pick the best classified collection for the given condition,
         // and iterate over all matching elements.
-        IngredientMapSingleClassified<T, M, V, ?> classifiedCollection = getBestClassifiedCollection(matchCondition);
+        IngredientMapSingleClassified<T, M, V, ?> classifiedCollection = getBestClassifiedCollection(instance, matchCondition);
 
         // Determine all other classified collections
         Set<IngredientMapSingleClassified<T, M, V, ?>> otherClassifiedCollections = Sets.newIdentityHashSet();
@@ -137,7 +162,7 @@ public class IngredientMapMultiClassified<T, M, V> extends IngredientMapAdapter<
 
     @Override
     public boolean containsKey(T instance, M matchCondition) {
-        return getBestClassifiedCollection(matchCondition).containsKey(instance, matchCondition);
+        return getBestClassifiedCollection(instance, matchCondition).containsKey(instance, matchCondition);
     }
 
     @Override
@@ -153,7 +178,7 @@ public class IngredientMapMultiClassified<T, M, V> extends IngredientMapAdapter<
 
     @Override
     public Collection<V> getAll(T key, M matchCondition) {
-        return getBestClassifiedCollection(matchCondition).getAll(key, matchCondition);
+        return getBestClassifiedCollection(key, matchCondition).getAll(key, matchCondition);
     }
 
     @Override
@@ -163,7 +188,7 @@ public class IngredientMapMultiClassified<T, M, V> extends IngredientMapAdapter<
 
     @Override
     public IngredientSet<T, M> keySet(T instance, M matchCondition) {
-        return getBestClassifiedCollection(matchCondition).keySet(instance, matchCondition);
+        return getBestClassifiedCollection(instance, matchCondition).keySet(instance, matchCondition);
     }
 
     @Override
@@ -196,4 +221,14 @@ public class IngredientMapMultiClassified<T, M, V> extends IngredientMapAdapter<
     public Map<IngredientComponentCategoryType<T, M, ?>, IngredientMapSingleClassified<T, M, V, ?>> getClassifiedCollections() {
         return this.classifiedMaps;
     }
+
+    @Override
+    public void forEachEntry(BiConsumer<? super T, ? super V> consumer) {
+        getFirstSingleClassified().forEachEntry(consumer);
+    }
+
+    @Override
+    public void forEachEntryMatching(T instance, M matchCondition, BiConsumer<? super T, ? super V> consumer) {
+        getBestClassifiedCollection(instance, matchCondition).forEachEntryMatching(instance, matchCondition, consumer);
+    }
 }
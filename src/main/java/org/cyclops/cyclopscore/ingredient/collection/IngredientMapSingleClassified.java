@@ -12,6 +12,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
 /**
@@ -92,6 +93,35 @@ public class IngredientMapSingleClassified<T, M, V, C> extends IngredientMapAdap
         return previousValue;
     }
 
+    /**
+     * Put all entries of the given map in parallel on the shared pool of {@link IngredientCollectionParallelHelpers},
+     * where each classified map is filled by exactly one task.
+     * @param map The map entries that need to be added.
+     * @return The amount of entries from the given map of which the key was not present in this map yet.
+     */
+    public int putAllParallel(IIngredientMap<? extends T, M, ? extends V> map) {
+        return IngredientCollectionParallelHelpers.invoke(() -> putAllForked(map));
+    }
+
+    /**
+     * Put all entries of the given map in parallel.
+     * This must be called from within the shared pool of {@link IngredientCollectionParallelHelpers}.
+     * @param map The map entries that need to be added.
+     * @return The number of new keys.
+     */
+    protected int putAllForked(IIngredientMap<? extends T, M, ? extends V> map) {
+        int added = IngredientCollectionParallelHelpers.<T, M, Map.Entry<T, V>, C, IIngredientMapMutable<T, M, V>, Map.Entry<? extends T, ? extends V>>loadPartitioned(
+                this, map, Map.Entry::getKey, (classifiedMap, partition) -> {
+                    int sizeBefore = classifiedMap.size();
+                    for (Map.Entry<? extends T, ? extends V> entry : partition) {
+                        classifiedMap.put(entry.getKey(), entry.getValue());
+                    }
+                    return classifiedMap.size() - sizeBefore;
+                });
+        this.size += added;
+        return added;
+    }
+
     @Nullable
     @Override
     public V remove(T key) {
@@ -240,4 +270,32 @@ public class IngredientMapSingleClassified<T, M, V, C> extends IngredientMapAdap
         return new FilteredIngredientCollectionLikeSingleClassifiedIterator<>(this, getComponent().getMatcher(), instance, matchCondition);
     }
 
+    @Override
+    public void forEachEntry(BiConsumer<? super T, ? super V> consumer) {
+        for (IIngredientMapMutable<T, M, V> map : this.classifiedMaps.values()) {
+            map.forEachEntry(consumer);
+        }
+    }
+
+    @Override
+    public void forEachEntryMatching(T instance, M matchCondition, BiConsumer<? super T, ? super V> consumer) {
+        if (Objects.equals(getComponent().getMatcher().getAnyMatchCondition(), matchCondition)) {
+            forEachEntry(consumer);
+        } else if (appliesToClassifier(matchCondition)) {
+            IIngredientMapMutable<T, M, V> map = this.classifiedMaps.get(getClassifier(instance));
+            if (map != null) {
+                if (Objects.equals(getCategoryType().getMatchCondition(), matchCondition)) {
+                    map.forEachEntry(consumer);
+                } else {
+                    M subMatchCondition = getComponent().getMatcher().withoutCondition(matchCondition, getCategoryType().getMatchCondition());
+                    map.forEachEntryMatching(instance, subMatchCondition, consumer);
+                }
+            }
+        } else {
+            for (IIngredientMapMutable<T, M, V> map : this.classifiedMaps.values()) {
+                map.forEachEntryMatching(instance, matchCondition, consumer);
+            }
+        }
+    }
+
 }
@@ -0,0 +1,108 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.collect.Iterators;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenCustomHashMap;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+
+import javax.annotation.Nullable;
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * An ingredient map collection that internally uses an open addressing hash map to store instances.
+ *
+ * Contrary to {@link IngredientHashMap}, instances are not wrapped,
+ * but are hashed and compared using the component's matcher via an {@link IngredientHashStrategy}.
+ * This means that lookups do not allocate, and that the map requires significantly less memory per entry,
+ * which makes it a good choice as map creator for large classified maps.
+ *
+ * @see Object2ObjectOpenCustomHashMap
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ * @param <V> The type of mapped values.
+ */
+public class IngredientOpenHashMap<T, M, V> extends IngredientMapAdapter<T, M, V> {
+
+    private final Object2ObjectOpenCustomHashMap<T, V> map;
+
+    public IngredientOpenHashMap(IngredientComponent<T, M> component) {
+        super(component);
+        this.map = new Object2ObjectOpenCustomHashMap<>(new IngredientHashStrategy<>(component));
+    }
+
+    public IngredientOpenHashMap(IngredientComponent<T, M> component, int expectedSize) {
+        super(component);
+        this.map = new Object2ObjectOpenCustomHashMap<>(expectedSize, new IngredientHashStrategy<>(component));
+    }
+
+    public IngredientOpenHashMap(IngredientComponent<T, M> component, IIngredientMap<? extends T, M, ? extends V> map) {
+        this(component, map.size());
+        putAll(map);
+    }
+
+    @Override
+    public void clear() {
+        this.map.clear();
+    }
+
+    @Nullable
+    @Override
+    public V put(T key, V value) {
+        return this.map.put(key, value);
+    }
+
+    @Nullable
+    @Override
+    public V remove(T key) {
+        return this.map.remove(key);
+    }
+
+    @Override
+    public int size() {
+        return this.map.size();
+    }
+
+    @Override
+    public boolean containsKey(T instance) {
+        return this.map.containsKey(instance);
+    }
+
+    @Override
+    public boolean containsValue(V value) {
+        return this.map.containsValue(value);
+    }
+
+    @Nullable
+    @Override
+    public V get(T key) {
+        return this.map.get(key);
+    }
+
+    @Override
+    public IngredientSet<T, M> keySet() {
+        return new IngredientSet<>(getComponent(), new IngredientWrappedKeySetView<>(getComponent(), this.map.keySet()));
+    }
+
+    @Override
+    public Collection<V> values() {
+        return this.map.values();
+    }
+
+    @Override
+    public Iterator<Map.Entry<T, V>> iterator() {
+        return Iterators.transform(this.map.object2ObjectEntrySet().iterator(),
+                entry -> new AbstractMap.SimpleEntry<>(entry.getKey(), entry.getValue()));
+    }
+
+    @Override
+    public int putAll(IIngredientMap<? extends T, M, ? extends V> map) {
+        // Iterate directly, as entrySet() would first collect all entries in a HashSet.
+        for (Map.Entry<? extends T, ? extends V> entry : map) {
+            put(entry.getKey(), entry.getValue());
+        }
+        return map.size();
+    }
+
+}
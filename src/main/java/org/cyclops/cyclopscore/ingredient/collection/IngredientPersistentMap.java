@@ -0,0 +1,575 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+
+import javax.annotation.Nullable;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable ingredient map that is backed by a hash array mapped trie.
+ *
+ * Modifications such as {@link #with(Object, Object)} and {@link #without(Object)} return a new map in O(log n) time,
+ * which shares all unmodified parts of the trie with this map.
+ * This makes it cheap to keep many versions of a map around,
+ * and allows them to be read from any thread without copying or locking.
+ *
+ * Keys are hashed and compared using the matcher of the ingredient component.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ * @param <V> The type of mapped values.
+ * @author rubensworks
+ */
+public class IngredientPersistentMap<T, M, V> implements IIngredientMap<T, M, V> {
+
+    private static final int BITS_PER_LEVEL = 5;
+    private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+    // 7 levels of bitmap nodes for 32-bit hashes, and a final level of collision nodes.
+    private static final int MAX_DEPTH = 8;
+
+    private final IngredientComponent<T, M> component;
+    private final Node<T, V> root;
+    private final int size;
+
+    public IngredientPersistentMap(IngredientComponent<T, M> component) {
+        this(component, BitmapNode.empty(), 0);
+    }
+
+    public IngredientPersistentMap(IngredientComponent<T, M> component, IIngredientMap<? extends T, M, ? extends V> map) {
+        this.component = component;
+        IIngredientMatcher<T, M> matcher = component.getMatcher();
+        Node<T, V> root = BitmapNode.empty();
+        int size = 0;
+        boolean[] added = new boolean[1];
+        for (Map.Entry<? extends T, ? extends V> entry : map) {
+            added[0] = false;
+            root = root.put(matcher, new Entry<T, V>(entry.getKey(), entry.getValue(), matcher.hash(entry.getKey())), 0, added);
+            if (added[0]) {
+                size++;
+            }
+        }
+        this.root = root;
+        this.size = size;
+    }
+
+    private IngredientPersistentMap(IngredientComponent<T, M> component, Node<T, V> root, int size) {
+        this.component = component;
+        this.root = root;
+        this.size = size;
+    }
+
+    @Override
+    public IngredientComponent<T, M> getComponent() {
+        return component;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Create a map with the given key mapped to the given value.
+     * @param key An instance.
+     * @param value A value.
+     * @return A new map, or this map if the key was already mapped to the given value.
+     */
+    public IngredientPersistentMap<T, M, V> with(T key, V value) {
+        boolean[] added = new boolean[1];
+        Node<T, V> newRoot = root.put(getComponent().getMatcher(), new Entry<>(key, value, getComponent().getMatcher().hash(key)), 0, added);
+        if (newRoot == root) {
+            return this;
+        }
+        return new IngredientPersistentMap<>(getComponent(), newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Create a map without the given key.
+     * @param key An instance.
+     * @return A new map, or this map if the key was not present.
+     */
+    public IngredientPersistentMap<T, M, V> without(T key) {
+        Node<T, V> newRoot = root.remove(getComponent().getMatcher(), key, getComponent().getMatcher().hash(key), 0);
+        if (newRoot == root) {
+            return this;
+        }
+        return new IngredientPersistentMap<>(getComponent(), newRoot == null ? BitmapNode.empty() : newRoot, size - 1);
+    }
+
+    @Nullable
+    protected Entry<T, V> getEntry(T key) {
+        return root.find(getComponent().getMatcher(), key, getComponent().getMatcher().hash(key), 0);
+    }
+
+    @Override
+    public boolean containsKey(T instance) {
+        return getEntry(instance) != null;
+    }
+
+    @Override
+    public boolean containsValue(V value) {
+        for (Map.Entry<T, V> entry : this) {
+            if (Objects.equals(entry.getValue(), value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Nullable
+    @Override
+    public V get(T key) {
+        Entry<T, V> entry = getEntry(key);
+        return entry == null ? null : entry.getValue();
+    }
+
+    @Override
+    public Collection<V> getAll(T key, M matchCondition) {
+        if (Objects.equals(getComponent().getMatcher().getAnyMatchCondition(), matchCondition)) {
+            return this.values();
+        }
+        List<V> values = Lists.newArrayList();
+        Iterator<Map.Entry<T, V>> it = iterator(key, matchCondition);
+        while (it.hasNext()) {
+            values.add(it.next().getValue());
+        }
+        return values;
+    }
+
+    @Override
+    public IngredientSet<T, M> keySet() {
+        return new IngredientSet<>(getComponent(),
+                Collections.unmodifiableSet(new IngredientWrappedKeySetView<>(getComponent(), new KeySet())));
+    }
+
+    @Override
+    public IngredientSet<T, M> keySet(T key, M matchCondition) {
+        if (Objects.equals(getComponent().getMatcher().getAnyMatchCondition(), matchCondition)) {
+            return this.keySet();
+        }
+        IngredientHashSet<T, M> filteredKeys = new IngredientHashSet<>(getComponent());
+        Iterator<Map.Entry<T, V>> it = iterator(key, matchCondition);
+        while (it.hasNext()) {
+            filteredKeys.add(it.next().getKey());
+        }
+        return filteredKeys;
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return Iterators.transform(IngredientPersistentMap.this.iterator(), Map.Entry::getValue);
+            }
+
+            @Override
+            public int size() {
+                return IngredientPersistentMap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<T, V>> entrySet() {
+        return new AbstractSet<Map.Entry<T, V>>() {
+            @Override
+            public Iterator<Map.Entry<T, V>> iterator() {
+                return IngredientPersistentMap.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return IngredientPersistentMap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Iterator<Map.Entry<T, V>> iterator() {
+        return new EntryIterator<>(root);
+    }
+
+    @Override
+    public Iterator<Map.Entry<T, V>> iterator(T instance, M matchCondition) {
+        IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
+        if (Objects.equals(matcher.getAnyMatchCondition(), matchCondition)) {
+            return this.iterator();
+        }
+        if (Objects.equals(matcher.getExactMatchCondition(), matchCondition)) {
+            Entry<T, V> entry = getEntry(instance);
+            return entry == null ? Collections.emptyIterator() : Iterators.<Map.Entry<T, V>>singletonIterator(entry);
+        }
+        return new FilteredIngredientMapIterator<>(this.iterator(), matcher, instance, matchCondition);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this || obj instanceof IIngredientMap && IngredientCollections.equalsMap(this, (IIngredientMap<?, ?, ?>) obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return IngredientCollections.hash(this);
+    }
+
+    @Override
+    public String toString() {
+        return IngredientCollections.toString(this);
+    }
+
+    protected static int getBit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & LEVEL_MASK);
+    }
+
+    protected static <T, V> Node<T, V> createNode(Entry<T, V> entry1, Entry<T, V> entry2, int shift) {
+        if (entry1.hash == entry2.hash) {
+            return new CollisionNode<>(entry1.hash, new Object[]{entry1, entry2});
+        }
+        int fragment1 = (entry1.hash >>> shift) & LEVEL_MASK;
+        int fragment2 = (entry2.hash >>> shift) & LEVEL_MASK;
+        if (fragment1 == fragment2) {
+            return new BitmapNode<>(1 << fragment1, new Object[]{createNode(entry1, entry2, shift + BITS_PER_LEVEL)});
+        }
+        return new BitmapNode<>((1 << fragment1) | (1 << fragment2),
+                fragment1 < fragment2 ? new Object[]{entry1, entry2} : new Object[]{entry2, entry1});
+    }
+
+    /**
+     * An immutable map entry that caches the hash of its key.
+     * @param <T> The instance type.
+     * @param <V> The type of mapped values.
+     */
+    protected static class Entry<T, V> extends AbstractMap.SimpleImmutableEntry<T, V> {
+
+        private final int hash;
+
+        public Entry(T key, V value, int hash) {
+            super(key, value);
+            this.hash = hash;
+        }
+
+        public boolean matches(IIngredientMatcher<T, ?> matcher, T key, int hash) {
+            return this.hash == hash && (getKey() == key || matcher.matchesExactly(getKey(), key));
+        }
+    }
+
+    /**
+     * A trie node, which contains entries and sub-nodes.
+     * Nodes are never modified after creation.
+     * @param <T> The instance type.
+     * @param <V> The type of mapped values.
+     */
+    protected static abstract class Node<T, V> {
+
+        protected final Object[] array;
+
+        protected Node(Object[] array) {
+            this.array = array;
+        }
+
+        @Nullable
+        public abstract Entry<T, V> find(IIngredientMatcher<T, ?> matcher, T key, int hash, int shift);
+
+        /**
+         * @param matcher The matcher.
+         * @param entry The entry to put.
+         * @param shift The hash shift at the level of this node.
+         * @param added Will be set to true if the entry's key was not present yet.
+         * @return A new node, or this node if nothing was changed.
+         */
+        public abstract Node<T, V> put(IIngredientMatcher<T, ?> matcher, Entry<T, V> entry, int shift, boolean[] added);
+
+        /**
+         * @param matcher The matcher.
+         * @param key The key to remove.
+         * @param hash The hash of the key.
+         * @param shift The hash shift at the level of this node.
+         * @return A new node, this node if nothing was changed, or null if the node became empty.
+         */
+        @Nullable
+        public abstract Node<T, V> remove(IIngredientMatcher<T, ?> matcher, T key, int hash, int shift);
+
+        /**
+         * @return The single entry of this node if it has no other entries or sub-nodes, otherwise null.
+         */
+        @Nullable
+        public Entry<T, V> getSingleEntry() {
+            return array.length == 1 && array[0] instanceof Entry ? (Entry<T, V>) array[0] : null;
+        }
+    }
+
+    /**
+     * A node that stores up to 32 entries or sub-nodes, indexed by a bitmap over a fragment of the key hashes.
+     * @param <T> The instance type.
+     * @param <V> The type of mapped values.
+     */
+    protected static class BitmapNode<T, V> extends Node<T, V> {
+
+        private static final BitmapNode<?, ?> EMPTY = new BitmapNode<>(0, new Object[0]);
+
+        private final int bitmap;
+
+        public BitmapNode(int bitmap, Object[] array) {
+            super(array);
+            this.bitmap = bitmap;
+        }
+
+        public static <T, V> BitmapNode<T, V> empty() {
+            return (BitmapNode<T, V>) EMPTY;
+        }
+
+        protected int getIndex(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Nullable
+        @Override
+        public Entry<T, V> find(IIngredientMatcher<T, ?> matcher, T key, int hash, int shift) {
+            int bit = getBit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            Object child = array[getIndex(bit)];
+            if (child instanceof Node) {
+                return ((Node<T, V>) child).find(matcher, key, hash, shift + BITS_PER_LEVEL);
+            }
+            Entry<T, V> entry = (Entry<T, V>) child;
+            return entry.matches(matcher, key, hash) ? entry : null;
+        }
+
+        @Override
+        public Node<T, V> put(IIngredientMatcher<T, ?> matcher, Entry<T, V> entry, int shift, boolean[] added) {
+            int bit = getBit(entry.hash, shift);
+            int index = getIndex(bit);
+            if ((bitmap & bit) == 0) {
+                added[0] = true;
+                Object[] newArray = new Object[array.length + 1];
+                System.arraycopy(array, 0, newArray, 0, index);
+                newArray[index] = entry;
+                System.arraycopy(array, index, newArray, index + 1, array.length - index);
+                return new BitmapNode<>(bitmap | bit, newArray);
+            }
+
+            Object child = array[index];
+            Object newChild;
+            if (child instanceof Node) {
+                newChild = ((Node<T, V>) child).put(matcher, entry, shift + BITS_PER_LEVEL, added);
+            } else {
+                Entry<T, V> existing = (Entry<T, V>) child;
+                if (existing.matches(matcher, entry.getKey(), entry.hash)) {
+                    newChild = existing.getValue() == entry.getValue() ? existing : entry;
+                } else {
+                    added[0] = true;
+                    newChild = createNode(existing, entry, shift + BITS_PER_LEVEL);
+                }
+            }
+            if (newChild == child) {
+                return this;
+            }
+            Object[] newArray = array.clone();
+            newArray[index] = newChild;
+            return new BitmapNode<>(bitmap, newArray);
+        }
+
+        @Nullable
+        @Override
+        public Node<T, V> remove(IIngredientMatcher<T, ?> matcher, T key, int hash, int shift) {
+            int bit = getBit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = getIndex(bit);
+            Object child = array[index];
+            Object newChild;
+            if (child instanceof Node) {
+                Node<T, V> newNode = ((Node<T, V>) child).remove(matcher, key, hash, shift + BITS_PER_LEVEL);
+                if (newNode == child) {
+                    return this;
+                }
+                // Pull up sub-nodes that only contain a single entry, to keep the trie shallow
+                Entry<T, V> singleEntry = newNode == null ? null : newNode.getSingleEntry();
+                newChild = singleEntry != null ? singleEntry : newNode;
+            } else {
+                if (!((Entry<T, V>) child).matches(matcher, key, hash)) {
+                    return this;
+                }
+                newChild = null;
+            }
+
+            if (newChild == null) {
+                if (array.length == 1) {
+                    return null;
+                }
+                Object[] newArray = new Object[array.length - 1];
+                System.arraycopy(array, 0, newArray, 0, index);
+                System.arraycopy(array, index + 1, newArray, index, array.length - index - 1);
+                return new BitmapNode<>(bitmap & ~bit, newArray);
+            }
+            Object[] newArray = array.clone();
+            newArray[index] = newChild;
+            return new BitmapNode<>(bitmap, newArray);
+        }
+    }
+
+    /**
+     * A node that stores entries of different keys with the same full hash.
+     * @param <T> The instance type.
+     * @param <V> The type of mapped values.
+     */
+    protected static class CollisionNode<T, V> extends Node<T, V> {
+
+        private final int hash;
+
+        public CollisionNode(int hash, Object[] array) {
+            super(array);
+            this.hash = hash;
+        }
+
+        protected int getIndex(IIngredientMatcher<T, ?> matcher, T key, int hash) {
+            if (hash == this.hash) {
+                for (int i = 0; i < array.length; i++) {
+                    if (((Entry<T, V>) array[i]).matches(matcher, key, hash)) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        @Nullable
+        @Override
+        public Entry<T, V> find(IIngredientMatcher<T, ?> matcher, T key, int hash, int shift) {
+            int index = getIndex(matcher, key, hash);
+            return index < 0 ? null : (Entry<T, V>) array[index];
+        }
+
+        @Override
+        public Node<T, V> put(IIngredientMatcher<T, ?> matcher, Entry<T, V> entry, int shift, boolean[] added) {
+            if (entry.hash != this.hash) {
+                // Nest this node in a bitmap node, so that the entry can be placed next to it
+                return new BitmapNode<T, V>(getBit(this.hash, shift), new Object[]{this})
+                        .put(matcher, entry, shift, added);
+            }
+            int index = getIndex(matcher, entry.getKey(), entry.hash);
+            if (index < 0) {
+                added[0] = true;
+                Object[] newArray = new Object[array.length + 1];
+                System.arraycopy(array, 0, newArray, 0, array.length);
+                newArray[array.length] = entry;
+                return new CollisionNode<>(hash, newArray);
+            }
+            if (((Entry<T, V>) array[index]).getValue() == entry.getValue()) {
+                return this;
+            }
+            Object[] newArray = array.clone();
+            newArray[index] = entry;
+            return new CollisionNode<>(hash, newArray);
+        }
+
+        @Nullable
+        @Override
+        public Node<T, V> remove(IIngredientMatcher<T, ?> matcher, T key, int hash, int shift) {
+            int index = getIndex(matcher, key, hash);
+            if (index < 0) {
+                return this;
+            }
+            if (array.length == 1) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 1];
+            System.arraycopy(array, 0, newArray, 0, index);
+            System.arraycopy(array, index + 1, newArray, index, array.length - index - 1);
+            return new CollisionNode<>(hash, newArray);
+        }
+    }
+
+    /**
+     * A depth-first iterator over all entries in a trie.
+     * @param <T> The instance type.
+     * @param <V> The type of mapped values.
+     */
+    protected static class EntryIterator<T, V> implements Iterator<Map.Entry<T, V>> {
+
+        private final Object[][] arrays = new Object[MAX_DEPTH][];
+        private final int[] indexes = new int[MAX_DEPTH];
+        private int depth;
+        private Entry<T, V> next;
+
+        public EntryIterator(Node<T, V> root) {
+            this.arrays[0] = root.array;
+            this.depth = 0;
+            this.next = findNext();
+        }
+
+        @Nullable
+        protected Entry<T, V> findNext() {
+            while (depth >= 0) {
+                Object[] array = arrays[depth];
+                if (indexes[depth] < array.length) {
+                    Object child = array[indexes[depth]++];
+                    if (child instanceof Node) {
+                        depth++;
+                        arrays[depth] = ((Node<?, ?>) child).array;
+                        indexes[depth] = 0;
+                    } else {
+                        return (Entry<T, V>) child;
+                    }
+                } else {
+                    arrays[depth] = null;
+                    depth--;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<T, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException("Tried reading a finished EntryIterator");
+            }
+            Entry<T, V> current = next;
+            next = findNext();
+            return current;
+        }
+    }
+
+    /**
+     * An unwrapped view over the keys of this map.
+     */
+    protected class KeySet extends AbstractSet<T> {
+
+        @Override
+        public int size() {
+            return IngredientPersistentMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return IngredientPersistentMap.this.containsKey((T) o);
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return Iterators.transform(IngredientPersistentMap.this.iterator(), Map.Entry::getKey);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Iterators;
+import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * An immutable variant of {@link IngredientCollectionPrototypeMap},
+ * which stores the quantities of prototypes in an {@link IngredientPersistentMap}.
+ *
+ * Modifications such as {@link #withAdded(Object)} return a new collection in O(log n) time,
+ * which shares its unmodified parts with this collection.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ * @author rubensworks
+ */
+public class IngredientPersistentPrototypeMap<T, M> implements IIngredientCollapsedCollection<T, M> {
+
+    private final IngredientPersistentMap<T, M, Long> ingredients;
+    private final boolean negativeQuantities;
+
+    public IngredientPersistentPrototypeMap(IngredientComponent<T, M> component) {
+        this(component, false);
+    }
+
+    public IngredientPersistentPrototypeMap(IngredientComponent<T, M> component, boolean negativeQuantities) {
+        this(new IngredientPersistentMap<>(component), negativeQuantities);
+    }
+
+    /**
+     * Create a new instance.
+     * @param ingredients A map from prototypes (instances with quantity 1) to non-zero quantities.
+     * @param negativeQuantities If negative quantities are allowed.
+     */
+    public IngredientPersistentPrototypeMap(IngredientPersistentMap<T, M, Long> ingredients, boolean negativeQuantities) {
+        this.ingredients = ingredients;
+        this.negativeQuantities = negativeQuantities;
+        if (getComponent().getPrimaryQuantifier() == null) {
+            throw new IllegalArgumentException("Quantitative grouping requires a primary quantifier on the component type.");
+        }
+    }
+
+    @Override
+    public IngredientComponent<T, M> getComponent() {
+        return ingredients.getComponent();
+    }
+
+    @Override
+    public int size() {
+        return ingredients.size();
+    }
+
+    /**
+     * @return The map from prototypes to their quantities.
+     */
+    public IngredientPersistentMap<T, M, Long> getPrototypeMap() {
+        return ingredients;
+    }
+
+    /**
+     * @return If negative quantities are allowed in this collection.
+     */
+    public boolean isNegativeQuantities() {
+        return negativeQuantities;
+    }
+
+    protected T getPrototype(T instance) {
+        return getComponent().getMatcher().withQuantity(instance, 1);
+    }
+
+    /**
+     * Get the quantity of the given instance.
+     * @param instance An instance, its quantity will be ignored.
+     * @return The quantity.
+     */
+    public long getQuantity(T instance) {
+        Long quantity = ingredients.get(getPrototype(instance));
+        return quantity == null ? 0 : quantity;
+    }
+
+    /**
+     * Create a collection in which the given instance has the given quantity.
+     * @param instance An instance, its quantity will be ignored.
+     * @param quantity The new quantity.
+     * @return A new collection, or this collection if nothing changed.
+     */
+    public IngredientPersistentPrototypeMap<T, M> withQuantity(T instance, long quantity) {
+        T prototype = getPrototype(instance);
+        IngredientPersistentMap<T, M, Long> newIngredients = quantity == 0
+                ? ingredients.without(prototype) : ingredients.with(prototype, quantity);
+        if (newIngredients == ingredients) {
+            return this;
+        }
+        return new IngredientPersistentPrototypeMap<>(newIngredients, negativeQuantities);
+    }
+
+    /**
+     * Create a collection in which the given instance is added.
+     * @param instance An instance.
+     * @return A new collection, or this collection if nothing changed.
+     * @throws ArithmeticException If the quantity would overflow.
+     */
+    public IngredientPersistentPrototypeMap<T, M> withAdded(T instance) throws ArithmeticException {
+        long quantity = getComponent().getMatcher().getQuantity(instance);
+        if (quantity == 0) {
+            return this;
+        }
+        return withQuantity(instance, Math.addExact(getQuantity(instance), quantity));
+    }
+
+    /**
+     * Create a collection in which the given instance is removed.
+     * @param instance An instance.
+     * @return A new collection, or this collection if the instance could not be removed.
+     */
+    public IngredientPersistentPrototypeMap<T, M> withRemoved(T instance) {
+        long existingValue = getQuantity(instance);
+        long currentValue = getComponent().getMatcher().getQuantity(instance);
+        if (currentValue <= existingValue || isNegativeQuantities()) {
+            return withQuantity(instance, existingValue - currentValue);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean contains(T instance) {
+        return getQuantity(instance) == getComponent().getMatcher().getQuantity(instance);
+    }
+
+    @Override
+    public boolean contains(T instance, M matchCondition) {
+        IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
+
+        // If we have an exact match condition, we can avoid iteration.
+        if (matcher.getExactMatchCondition().equals(matchCondition)) {
+            return contains(instance);
+        }
+
+        Iterator<Map.Entry<T, Long>> it = ingredients.iterator(getPrototype(instance), matchCondition);
+        boolean exactMatch = matcher.hasCondition(matchCondition, getComponent().getPrimaryQuantifier().getMatchCondition());
+        long currentValue = matcher.getQuantity(instance);
+        while (it.hasNext()) {
+            long existingValue = it.next().getValue();
+            if (exactMatch ? currentValue == existingValue : currentValue <= existingValue) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int count(T instance, M matchCondition) {
+        return Iterators.size(iterator(instance, matchCondition));
+    }
+
+    /**
+     * @return An iterator over all available counted prototypes.
+     *         This will contain all non-zero quantity instances, but with a quantity of 1.
+     */
+    public Iterator<Map.Entry<T, Long>> prototypeIterator() {
+        return ingredients.iterator();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return Iterators.transform(ingredients.iterator(), new QuantityApplier<>(getComponent()));
+    }
+
+    @Override
+    public Iterator<T> iterator(T instance, M matchCondition) {
+        IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
+        if (!matcher.hasCondition(matchCondition, getComponent().getPrimaryQuantifier().getMatchCondition())) {
+            return Iterators.transform(ingredients.iterator(getPrototype(instance), matchCondition), new QuantityApplier<>(getComponent()));
+        }
+        return new FilteredIngredientCollectionIterator<>(this, matcher, instance, matchCondition);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj == this || obj instanceof IngredientPersistentPrototypeMap
+                && this.ingredients.equals(((IngredientPersistentPrototypeMap<?, ?>) obj).ingredients);
+    }
+
+    @Override
+    public int hashCode() {
+        return IngredientCollections.hash(this);
+    }
+
+    @Override
+    public String toString() {
+        return IngredientCollections.toString(this);
+    }
+
+    protected static class QuantityApplier<T, M> implements Function<Map.Entry<T, Long>, T> {
+
+        private final IIngredientMatcher<T, M> matcher;
+
+        public QuantityApplier(IngredientComponent<T, M> component) {
+            this.matcher = component.getMatcher();
+        }
+
+        @Override
+        public T apply(Map.Entry<T, Long> input) {
+            long quantity = Math.min(matcher.getMaximumQuantity(), input.getValue());
+            return matcher.withQuantity(input.getKey(), quantity);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenCustomHashMap;
+import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+
+/**
+ * A bounded cache that deduplicates prototypes,
+ * so that equal prototypes can share a single canonical instance.
+ *
+ * Prototypes are instances with a quantity of 1,
+ * and are compared using {@link IIngredientMatcher#hash(Object)} and {@link IIngredientMatcher#matchesExactly(Object, Object)}.
+ * When the maximum size is exceeded, the least recently interned prototype is evicted.
+ *
+ * Canonical instances are copies that are owned by this cache, so they must never be modified.
+ * A single interner can be shared by multiple collections, and is thread-safe.
+ * All calls synchronize on the interner itself, as even cache hits update the eviction order,
+ * so heavily concurrent interning from many threads will contend on this lock.
+ * {@link IngredientCollectionPrototypeMap} therefore only interns prototypes when it stores a new entry.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ * @author rubensworks
+ */
+public class IngredientPrototypeInterner<T, M> {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 4096;
+
+    private final IngredientComponent<T, M> component;
+    private final int maximumSize;
+    private final Object2ObjectLinkedOpenCustomHashMap<T, T> prototypes;
+    private long hits;
+    private long misses;
+
+    public IngredientPrototypeInterner(IngredientComponent<T, M> component) {
+        this(component, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Create a new interner.
+     * @param component The component type.
+     * @param maximumSize The maximum number of canonical prototypes to keep.
+     */
+    public IngredientPrototypeInterner(IngredientComponent<T, M> component, int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("The maximum size of an interner must be positive, got " + maximumSize);
+        }
+        this.component = component;
+        this.maximumSize = maximumSize;
+        this.prototypes = new Object2ObjectLinkedOpenCustomHashMap<>(new IngredientHashStrategy<>(component));
+    }
+
+    public IngredientComponent<T, M> getComponent() {
+        return component;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Get the canonical prototype of the given instance.
+     * If no equal prototype was cached yet, a copy of the prototype of the instance will become the canonical one.
+     * @param instance An instance, its quantity is ignored.
+     * @return The canonical prototype, with a quantity of 1, which must not be modified.
+     */
+    public synchronized T intern(T instance) {
+        IIngredientMatcher<T, M> matcher = component.getMatcher();
+        T prototype = matcher.getQuantity(instance) == 1 ? instance : matcher.withQuantity(instance, 1);
+        T canonical = prototypes.getAndMoveToLast(prototype);
+        if (canonical != null) {
+            hits++;
+            return canonical;
+        }
+        misses++;
+        canonical = matcher.copy(prototype);
+        prototypes.put(canonical, canonical);
+        if (prototypes.size() > maximumSize) {
+            prototypes.removeFirst();
+        }
+        return canonical;
+    }
+
+    /**
+     * @return The number of cached canonical prototypes.
+     */
+    public synchronized int size() {
+        return prototypes.size();
+    }
+
+    /**
+     * @return The number of {@link #intern(Object)} calls that returned an already cached prototype.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return The number of {@link #intern(Object)} calls that created a new canonical prototype.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Remove all cached prototypes and reset the statistics.
+     * Previously returned canonical instances remain valid.
+     */
+    public synchronized void clear() {
+        prototypes.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+}
@@ -0,0 +1,339 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.collect.Lists;
+import it.unimi.dsi.fastutil.objects.AbstractObject2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * An ordered index of instances by quantity.
+ *
+ * Entries are ordered by quantity, and entries with equal quantities are ordered by the component's matcher.
+ * This is backed by a treap in which each node knows the size of its subtree,
+ * so that range iteration, top-K and rank queries only take O(log n + k) time.
+ *
+ * This index is not thread-safe, and iterators become invalid when the index is modified.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ * @author rubensworks
+ */
+public class IngredientQuantityIndex<T, M> {
+
+    private final IIngredientMatcher<T, M> matcher;
+    private final Random random = new Random();
+    private Node<T> root;
+
+    public IngredientQuantityIndex(IngredientComponent<T, M> component) {
+        this.matcher = component.getMatcher();
+    }
+
+    /**
+     * @return The number of entries.
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * @return If there are no entries.
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public void clear() {
+        root = null;
+    }
+
+    /**
+     * Add an entry.
+     * Each instance must only be added once.
+     * @param instance An instance.
+     * @param quantity Its quantity.
+     */
+    public void add(T instance, long quantity) {
+        root = insert(root, new Node<>(instance, quantity, random.nextInt()));
+    }
+
+    /**
+     * Remove an entry.
+     * @param instance An instance.
+     * @param quantity The quantity with which it was added.
+     * @return If the entry was removed.
+     */
+    public boolean remove(T instance, long quantity) {
+        int sizeBefore = size();
+        root = remove(root, instance, quantity);
+        return size() != sizeBefore;
+    }
+
+    /**
+     * @param instance An instance.
+     * @param quantity The quantity with which it was added.
+     * @return The number of entries that are ordered before the given entry.
+     */
+    public int getRank(T instance, long quantity) {
+        int rank = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int c = compare(instance, quantity, node);
+            if (c <= 0) {
+                if (c == 0) {
+                    return rank + size(node.left);
+                }
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * @param rank A rank, starting from zero.
+     * @return The entry at the given rank.
+     * @throws IndexOutOfBoundsException If the rank is negative or not smaller than the size.
+     */
+    public Object2LongMap.Entry<T> get(int rank) throws IndexOutOfBoundsException {
+        if (rank < 0 || rank >= size()) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " out of bounds for size " + size());
+        }
+        Node<T> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (rank < leftSize) {
+                node = node.left;
+            } else if (rank == leftSize) {
+                return node.toEntry();
+            } else {
+                rank -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * @param quantity A quantity.
+     * @return The number of entries with a quantity strictly lower than the given quantity.
+     */
+    public int countBelow(long quantity) {
+        int count = 0;
+        Node<T> node = root;
+        while (node != null) {
+            if (node.quantity < quantity) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param minQuantity The minimal quantity, inclusive.
+     * @param maxQuantity The maximal quantity, inclusive.
+     * @return The number of entries within the given quantity range.
+     */
+    public int count(long minQuantity, long maxQuantity) {
+        if (minQuantity > maxQuantity) {
+            return 0;
+        }
+        int countUpToMax = maxQuantity == Long.MAX_VALUE ? size() : countBelow(maxQuantity + 1);
+        return countUpToMax - countBelow(minQuantity);
+    }
+
+    /**
+     * @param minQuantity The minimal quantity, inclusive.
+     * @param maxQuantity The maximal quantity, inclusive.
+     * @return An iterator over all entries within the given quantity range, in ascending order.
+     */
+    public Iterator<Object2LongMap.Entry<T>> iterator(long minQuantity, long maxQuantity) {
+        return new RangeIterator<>(root, minQuantity, maxQuantity, false);
+    }
+
+    /**
+     * @param minQuantity The minimal quantity, inclusive.
+     * @param maxQuantity The maximal quantity, inclusive.
+     * @return An iterator over all entries within the given quantity range, in descending order.
+     */
+    public Iterator<Object2LongMap.Entry<T>> descendingIterator(long minQuantity, long maxQuantity) {
+        return new RangeIterator<>(root, minQuantity, maxQuantity, true);
+    }
+
+    /**
+     * @param k The maximum number of entries.
+     * @return The k entries with the highest quantity, in descending order.
+     */
+    public List<Object2LongMap.Entry<T>> getTop(int k) {
+        List<Object2LongMap.Entry<T>> top = Lists.newArrayListWithCapacity(Math.min(k, size()));
+        Iterator<Object2LongMap.Entry<T>> it = descendingIterator(Long.MIN_VALUE, Long.MAX_VALUE);
+        while (top.size() < k && it.hasNext()) {
+            top.add(it.next());
+        }
+        return top;
+    }
+
+    protected int compare(T instance, long quantity, Node<T> node) {
+        int c = Long.compare(quantity, node.quantity);
+        return c != 0 ? c : matcher.compare(instance, node.instance);
+    }
+
+    protected static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    protected static <T> Node<T> update(Node<T> node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        return node;
+    }
+
+    protected Node<T> insert(Node<T> node, Node<T> newNode) {
+        if (node == null) {
+            return newNode;
+        }
+        if (newNode.priority > node.priority) {
+            split(node, newNode);
+            return update(newNode);
+        }
+        if (compare(newNode.instance, newNode.quantity, node) < 0) {
+            node.left = insert(node.left, newNode);
+        } else {
+            node.right = insert(node.right, newNode);
+        }
+        return update(node);
+    }
+
+    /**
+     * Split the given subtree into the left and right children of the given pivot node.
+     * @param node A subtree.
+     * @param pivot A node that is not part of the subtree.
+     */
+    protected void split(Node<T> node, Node<T> pivot) {
+        if (node == null) {
+            pivot.left = null;
+            pivot.right = null;
+        } else if (compare(pivot.instance, pivot.quantity, node) > 0) {
+            split(node.right, pivot);
+            node.right = pivot.left;
+            pivot.left = update(node);
+        } else {
+            split(node.left, pivot);
+            node.left = pivot.right;
+            pivot.right = update(node);
+        }
+    }
+
+    protected Node<T> remove(Node<T> node, T instance, long quantity) {
+        if (node == null) {
+            return null;
+        }
+        int c = compare(instance, quantity, node);
+        if (c == 0) {
+            return merge(node.left, node.right);
+        }
+        if (c < 0) {
+            node.left = remove(node.left, instance, quantity);
+        } else {
+            node.right = remove(node.right, instance, quantity);
+        }
+        return update(node);
+    }
+
+    protected static <T> Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+    protected static class Node<T> {
+
+        private final T instance;
+        private final long quantity;
+        private final int priority;
+        private int size;
+        private Node<T> left;
+        private Node<T> right;
+
+        public Node(T instance, long quantity, int priority) {
+            this.instance = instance;
+            this.quantity = quantity;
+            this.priority = priority;
+            this.size = 1;
+        }
+
+        public Object2LongMap.Entry<T> toEntry() {
+            return new AbstractObject2LongMap.BasicEntry<>(instance, quantity);
+        }
+    }
+
+    /**
+     * An in-order iterator over the nodes within a quantity range,
+     * which only visits the nodes on the path to the start of the range, and the nodes within the range.
+     * @param <T> The instance type.
+     */
+    protected static class RangeIterator<T> implements Iterator<Object2LongMap.Entry<T>> {
+
+        private final long minQuantity;
+        private final long maxQuantity;
+        private final boolean descending;
+        private final Deque<Node<T>> stack = new ArrayDeque<>();
+
+        public RangeIterator(Node<T> root, long minQuantity, long maxQuantity, boolean descending) {
+            this.minQuantity = minQuantity;
+            this.maxQuantity = maxQuantity;
+            this.descending = descending;
+            Node<T> node = root;
+            while (node != null) {
+                if (descending ? node.quantity <= maxQuantity : node.quantity >= minQuantity) {
+                    stack.push(node);
+                    node = descending ? node.right : node.left;
+                } else {
+                    node = descending ? node.left : node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            Node<T> next = stack.peek();
+            return next != null && (descending ? next.quantity >= minQuantity : next.quantity <= maxQuantity);
+        }
+
+        @Override
+        public Object2LongMap.Entry<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("Tried reading a finished RangeIterator");
+            }
+            Node<T> current = stack.pop();
+            Node<T> node = descending ? current.left : current.right;
+            while (node != null) {
+                stack.push(node);
+                node = descending ? node.right : node.left;
+            }
+            return current.toEntry();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.collect.Iterators;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientInstanceWrapper;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * A view over a set of unwrapped instances that exposes them as {@link IngredientInstanceWrapper}s,
+ * so that it can back an {@link IngredientSet}.
+ *
+ * Instances are only wrapped when they are being iterated.
+ * The given set must compare instances using the component's matcher, such as via an {@link IngredientHashStrategy}.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ */
+public class IngredientWrappedKeySetView<T, M> extends AbstractSet<IngredientInstanceWrapper<T, M>> {
+
+    private final IngredientComponent<T, M> component;
+    private final Set<T> keys;
+
+    public IngredientWrappedKeySetView(IngredientComponent<T, M> component, Set<T> keys) {
+        this.component = component;
+        this.keys = keys;
+    }
+
+    @Override
+    public int size() {
+        return this.keys.size();
+    }
+
+    @Override
+    public void clear() {
+        this.keys.clear();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof IngredientInstanceWrapper
+                && ((IngredientInstanceWrapper<?, ?>) o).getComponent() == this.component
+                && this.keys.contains(((IngredientInstanceWrapper<?, ?>) o).getInstance());
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return contains(o) && this.keys.remove(((IngredientInstanceWrapper<?, ?>) o).getInstance());
+    }
+
+    @Override
+    public Iterator<IngredientInstanceWrapper<T, M>> iterator() {
+        return Iterators.transform(this.keys.iterator(), this.component::wrap);
+    }
+}
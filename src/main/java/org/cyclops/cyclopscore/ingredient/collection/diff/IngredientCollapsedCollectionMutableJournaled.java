@@ -0,0 +1,61 @@
+package org.cyclops.cyclopscore.ingredient.collection.diff;
+
+import org.cyclops.cyclopscore.ingredient.collection.IIngredientCollapsedCollectionMutable;
+
+/**
+ * A collapsed mutable ingredient collection that records all changes to its inner collection
+ * in an {@link IngredientCollectionChangeJournal}.
+ *
+ * This can for example be used as backing collection of an
+ * {@link org.cyclops.cyclopscore.ingredient.storage.IngredientComponentStorageCollectionWrapper},
+ * so that all changes to the storage are journaled.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ * @author rubensworks
+ */
+public class IngredientCollapsedCollectionMutableJournaled<T, M>
+        extends IngredientCollectionMutableJournaled<T, M, IIngredientCollapsedCollectionMutable<T, M>>
+        implements IIngredientCollapsedCollectionMutable<T, M> {
+
+    public IngredientCollapsedCollectionMutableJournaled(IIngredientCollapsedCollectionMutable<T, M> innerCollection) {
+        super(innerCollection);
+    }
+
+    public IngredientCollapsedCollectionMutableJournaled(IIngredientCollapsedCollectionMutable<T, M> innerCollection,
+                                                         IngredientCollectionChangeJournal<T, M> journal) {
+        super(innerCollection, journal);
+    }
+
+    @Override
+    protected long getRemovalQuantity(T instance) {
+        // Iterated instances may have a capped quantity, while the whole prototype is removed.
+        return getInnerCollection().getQuantity(instance);
+    }
+
+    @Override
+    public long getQuantity(T instance) {
+        return getInnerCollection().getQuantity(instance);
+    }
+
+    @Override
+    public long getTotalQuantity(T instance, M matchCondition) {
+        return getInnerCollection().getTotalQuantity(instance, matchCondition);
+    }
+
+    @Override
+    public int getPrototypeCount(T instance, M matchCondition) {
+        return getInnerCollection().getPrototypeCount(instance, matchCondition);
+    }
+
+    @Override
+    public void setQuantity(T instance, long quantity) {
+        long previousQuantity = getInnerCollection().getQuantity(instance);
+        getInnerCollection().setQuantity(instance, quantity);
+        try {
+            getJournal().onChanged(instance, Math.subtractExact(quantity, previousQuantity));
+        } catch (ArithmeticException e) {
+            getJournal().invalidate();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.cyclops.cyclopscore.ingredient.collection.diff;
+
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+import org.cyclops.cyclopscore.ingredient.collection.IIngredientMapLongMutable;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientHashMapLong;
+
+import java.util.Iterator;
+
+/**
+ * Records the net quantity changes per prototype of an ingredient collection or storage,
+ * so that a diff can be derived from only the changes since the last diff,
+ * via {@link IngredientCollectionDiffManager#onChange(IngredientCollectionChangeJournal, java.util.function.Supplier)}.
+ *
+ * Additions and removals of the same prototype cancel each other out.
+ * If the changes can not be tracked anymore, the journal can be invalidated,
+ * after which the next diff will fall back to a full rescan.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ * @author rubensworks
+ */
+public class IngredientCollectionChangeJournal<T, M> {
+
+    private final IngredientComponent<T, M> ingredientComponent;
+    private final IIngredientMapLongMutable<T, M> changes;
+    private boolean invalidated;
+
+    public IngredientCollectionChangeJournal(IngredientComponent<T, M> ingredientComponent) {
+        this.ingredientComponent = ingredientComponent;
+        this.changes = new IngredientHashMapLong<>(ingredientComponent);
+        this.invalidated = false;
+    }
+
+    public IngredientComponent<T, M> getComponent() {
+        return ingredientComponent;
+    }
+
+    /**
+     * Record the addition of the given instance.
+     * @param instance An instance.
+     */
+    public void onAdded(T instance) {
+        onChanged(instance, ingredientComponent.getMatcher().getQuantity(instance));
+    }
+
+    /**
+     * Record the removal of the given instance.
+     * @param instance An instance.
+     */
+    public void onRemoved(T instance) {
+        onChanged(instance, -ingredientComponent.getMatcher().getQuantity(instance));
+    }
+
+    /**
+     * Record a quantity change of the given instance.
+     * @param instance An instance, its quantity will be ignored.
+     * @param quantityDelta The quantity that was added, or removed if negative.
+     */
+    public void onChanged(T instance, long quantityDelta) {
+        IIngredientMatcher<T, M> matcher = ingredientComponent.getMatcher();
+        if (quantityDelta != 0 && !this.invalidated && !matcher.isEmpty(instance)) {
+            try {
+                this.changes.addTo(matcher.withQuantity(instance, 1), quantityDelta);
+            } catch (ArithmeticException e) {
+                invalidate();
+            }
+        }
+    }
+
+    /**
+     * Mark this journal as incomplete, so that the next diff will be calculated with a full rescan.
+     */
+    public void invalidate() {
+        this.invalidated = true;
+        this.changes.clear();
+    }
+
+    /**
+     * @return If this journal does not contain all changes since the last diff.
+     */
+    public boolean isInvalidated() {
+        return invalidated;
+    }
+
+    /**
+     * @return If no net changes were recorded.
+     */
+    public boolean isEmpty() {
+        return this.changes.isEmpty();
+    }
+
+    /**
+     * @return An iterator over all prototypes with a non-zero net quantity change.
+     */
+    public Iterator<Object2LongMap.Entry<T>> iterator() {
+        return this.changes.longIterator();
+    }
+
+    /**
+     * Remove all recorded changes, and reset the invalidation state.
+     */
+    public void clear() {
+        this.changes.clear();
+        this.invalidated = false;
+    }
+
+}
@@ -0,0 +1,125 @@
+package org.cyclops.cyclopscore.ingredient.collection.diff;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.EncoderException;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.network.codec.StreamCodec;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+import org.cyclops.cyclopscore.ingredient.collection.IIngredientCollection;
+import org.cyclops.cyclopscore.ingredient.collection.IIngredientCollectionMutable;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionCompactReader;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionCompactSerializer;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientLinkedList;
+import org.cyclops.cyclopscore.nbt.path.stream.NbtPathStreamEvaluator;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Network codec for {@link IngredientCollectionDiff}.
+ *
+ * A diff is encoded as a flags byte,
+ * followed by the additions and deletions (if present) in the headerless format of
+ * {@link IngredientCollectionCompactSerializer#writeInstances}.
+ * The component type is not encoded, as it must be known by both sides.
+ *
+ * @author rubensworks
+ */
+public final class IngredientCollectionDiffCodec {
+
+    protected static final int FLAG_ADDITIONS = 1;
+    protected static final int FLAG_DELETIONS = 2;
+    protected static final int FLAG_COMPLETELY_EMPTY = 4;
+
+    IngredientCollectionDiffCodec() {
+
+    }
+
+    /**
+     * Create a stream codec for diffs of the given component type.
+     * @param component The component type.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @return A stream codec.
+     */
+    public static <T, M> StreamCodec<ByteBuf, IngredientCollectionDiff<T, M>> streamCodec(IngredientComponent<T, M> component) {
+        return StreamCodec.of((buffer, diff) -> encode(buffer, diff), buffer -> decode(buffer, component));
+    }
+
+    /**
+     * Write the given diff to the given buffer.
+     * @param buffer A buffer.
+     * @param diff A diff.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     */
+    public static <T, M> void encode(ByteBuf buffer, IngredientCollectionDiff<T, M> diff) {
+        int flags = (diff.hasAdditions() ? FLAG_ADDITIONS : 0)
+                | (diff.hasDeletions() ? FLAG_DELETIONS : 0)
+                | (diff.isCompletelyEmpty() ? FLAG_COMPLETELY_EMPTY : 0);
+        buffer.writeByte(flags);
+        ByteBufOutputStream output = new ByteBufOutputStream(buffer);
+        try {
+            if (diff.hasAdditions()) {
+                IngredientCollectionCompactSerializer.writeInstances(diff.getAdditions(), output);
+            }
+            if (diff.hasDeletions()) {
+                IngredientCollectionCompactSerializer.writeInstances(diff.getDeletions(), output);
+            }
+        } catch (IOException e) {
+            throw new EncoderException(e);
+        }
+    }
+
+    /**
+     * Read a diff from the given buffer,
+     * where at most {@link NbtPathStreamEvaluator#DEFAULT_MAX_BYTES} bytes of prototype NBT may be decoded.
+     * @param buffer A buffer.
+     * @param component The component type.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @return A diff.
+     */
+    public static <T, M> IngredientCollectionDiff<T, M> decode(ByteBuf buffer, IngredientComponent<T, M> component) {
+        return decode(buffer, component, NbtPathStreamEvaluator.createDefaultAccounter());
+    }
+
+    /**
+     * Read a diff from the given buffer.
+     * @param buffer A buffer.
+     * @param component The component type.
+     * @param accounter The accounter for the prototype NBT of both the additions and deletions.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @return A diff.
+     */
+    public static <T, M> IngredientCollectionDiff<T, M> decode(ByteBuf buffer, IngredientComponent<T, M> component,
+                                                               NbtAccounter accounter) {
+        int flags = buffer.readUnsignedByte();
+        ByteBufInputStream input = new ByteBufInputStream(buffer);
+        try {
+            IIngredientCollection<T, M> additions = (flags & FLAG_ADDITIONS) != 0 ? readInstances(input, component, accounter) : null;
+            IIngredientCollection<T, M> deletions = (flags & FLAG_DELETIONS) != 0 ? readInstances(input, component, accounter) : null;
+            return new IngredientCollectionDiff<>(additions, deletions, (flags & FLAG_COMPLETELY_EMPTY) != 0);
+        } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+            throw new DecoderException(e);
+        }
+    }
+
+    protected static <T, M> IIngredientCollection<T, M> readInstances(DataInput input, IngredientComponent<T, M> component,
+                                                                      NbtAccounter accounter)
+            throws IOException {
+        IIngredientCollectionMutable<T, M> collection = new IngredientLinkedList<>(component);
+        IngredientCollectionCompactReader<T, M> reader = new IngredientCollectionCompactReader<>(input, component,
+                null, component.getMatcher().getAnyMatchCondition(), false, accounter);
+        while (reader.hasNext()) {
+            collection.add(reader.next());
+        }
+        return collection;
+    }
+
+}
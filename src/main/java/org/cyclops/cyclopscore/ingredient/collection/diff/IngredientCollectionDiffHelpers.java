@@ -1,15 +1,18 @@
 package org.cyclops.cyclopscore.ingredient.collection.diff;
 
+import com.google.common.collect.Lists;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
 import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
 import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
 import org.cyclops.cyclopscore.ingredient.collection.IIngredientCollapsedCollectionMutable;
 import org.cyclops.cyclopscore.ingredient.collection.IIngredientCollectionMutable;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientArrayList;
 import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionPrototypeMap;
 import org.cyclops.cyclopscore.ingredient.collection.IngredientLinkedList;
 
 import javax.annotation.Nullable;
 import java.util.Iterator;
-import java.util.Map;
+import java.util.List;
 
 /**
  * Helper methods for ingredient collection diffs.
@@ -23,6 +26,8 @@ public class IngredientCollectionDiffHelpers {
      * and produce a diff.
      * Additionally, this will populate <var>newInstancesCache</var>
      * with all instances from <var>newInstances</var>.
+     * If <var>newInstancesCache</var> has an interner, instances are not copied,
+     * as the interner already stores copies of new prototypes.
      *
      * @param ingredientComponent   The ingredient component type.
      * @param oldInstancesCache     The collection of instances to take the difference from.
@@ -42,11 +47,14 @@ public class IngredientCollectionDiffHelpers {
         // Remove new instances from last instance collection
         // In the meantime, also construct the instance collection for next iteration
         IIngredientMatcher<T, M> matcher = ingredientComponent.getMatcher();
+        boolean copy = newInstancesCache.getInterner() == null;
         boolean completelyEmpty = !newInstances.hasNext();
         while (newInstances.hasNext()) {
             T newInstance = newInstances.next();
             if (!matcher.isEmpty(newInstance)) {
-                newInstance = matcher.copy(newInstance);
+                if (copy) {
+                    newInstance = matcher.copy(newInstance);
+                }
                 if (oldInstancesCache != null) {
                     oldInstancesCache.remove(newInstance);
                 }
@@ -58,10 +66,10 @@ public class IngredientCollectionDiffHelpers {
         IIngredientCollectionMutable<T, M> additions = new IngredientLinkedList<>(ingredientComponent);
         IIngredientCollectionMutable<T, M> deletions = new IngredientLinkedList<>(ingredientComponent);
         if (oldInstancesCache != null) {
-            Iterator<Map.Entry<T, Long>> quantitativeIterator = oldInstancesCache.prototypeIterator();
+            Iterator<Object2LongMap.Entry<T>> quantitativeIterator = oldInstancesCache.prototypeLongIterator();
             while (quantitativeIterator.hasNext()) {
-                Map.Entry<T, Long> entry = quantitativeIterator.next();
-                long count = entry.getValue() == null ? 0 : entry.getValue();
+                Object2LongMap.Entry<T> entry = quantitativeIterator.next();
+                long count = entry.getLongValue();
                 if (count < 0) {
                     additions.add(ingredientComponent.getMatcher().withQuantity(entry.getKey(), -count));
                 } else if (count > 0) {
@@ -69,12 +77,64 @@ public class IngredientCollectionDiffHelpers {
                 }
             }
         } else {
-            additions = newInstancesCache;
+            // Copy, as the cache may be modified afterwards when it is used for the next diff
+            additions = new IngredientArrayList<>(ingredientComponent, newInstancesCache);
         }
 
         return new IngredientCollectionDiff<>(additions, deletions, completelyEmpty);
     }
 
+    /**
+     * Calculate a diff from the changes recorded in the given journal,
+     * and apply these changes to <var>instancesCache</var>.
+     *
+     * This only takes time proportional to the number of changed prototypes in the journal.
+     *
+     * @param ingredientComponent   The ingredient component type.
+     * @param instancesCache        The collection of instances at the time the journal was last cleared.
+     *                              This will be updated to contain the current instances.
+     *                              This map MUST accept negative instances.
+     * @param journal               The journal with all changes since <var>instancesCache</var> was last updated.
+     *                              It may not be invalidated.
+     * @param <T>                   The instance type.
+     * @param <M>                   The matching condition parameter.
+     * @return The resulting diff corresponding to the journal.
+     * @throws ArithmeticException If a quantity in <var>instancesCache</var> would overflow,
+     *                             in which case <var>instancesCache</var> is not modified.
+     */
+    public static <T, M> IngredientCollectionDiff<T, M> getDiff(IngredientComponent<T, M> ingredientComponent,
+                                                                IngredientCollectionPrototypeMap<T, M> instancesCache,
+                                                                IngredientCollectionChangeJournal<T, M> journal) {
+        if (journal.isInvalidated()) {
+            throw new IllegalArgumentException("Can not calculate a diff from an invalidated journal");
+        }
+        IIngredientMatcher<T, M> matcher = ingredientComponent.getMatcher();
+        IIngredientCollectionMutable<T, M> additions = new IngredientLinkedList<>(ingredientComponent);
+        IIngredientCollectionMutable<T, M> deletions = new IngredientLinkedList<>(ingredientComponent);
+        List<Object2LongMap.Entry<T>> entries = Lists.newArrayList(journal.iterator());
+
+        // Calculate all new quantities before modifying the cache, so that an overflow leaves it unchanged
+        long[] quantities = new long[entries.size()];
+        for (int i = 0; i < quantities.length; i++) {
+            Object2LongMap.Entry<T> entry = entries.get(i);
+            quantities[i] = Math.addExact(instancesCache.getQuantity(entry.getKey()), entry.getLongValue());
+        }
+
+        for (int i = 0; i < quantities.length; i++) {
+            Object2LongMap.Entry<T> entry = entries.get(i);
+            T prototype = entry.getKey();
+            long count = entry.getLongValue();
+            instancesCache.setQuantity(prototype, quantities[i]);
+            if (count > 0) {
+                additions.add(matcher.withQuantity(prototype, count));
+            } else {
+                deletions.add(matcher.withQuantity(prototype, -count));
+            }
+        }
+
+        return new IngredientCollectionDiff<>(additions, deletions, instancesCache.isEmpty());
+    }
+
     /**
      * Apply the given diff to the given collection.
      * @param ingredientComponent   The ingredient component type.
@@ -3,13 +3,26 @@ package org.cyclops.cyclopscore.ingredient.collection.diff;
 import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
 import org.cyclops.cyclopscore.ingredient.collection.IIngredientCollection;
 import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionPrototypeMap;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientHashMapLong;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientPrototypeInterner;
 
+import javax.annotation.Nullable;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.function.Supplier;
 
 /**
  * Observes an {@link IIngredientCollection} to calculate diffs
  * each time {@link #onChange(Iterator)} is called.
  *
+ * Alternatively, diffs can be calculated incrementally from an {@link IngredientCollectionChangeJournal}
+ * via {@link #onChange(IngredientCollectionChangeJournal, Supplier)},
+ * which only takes time proportional to the number of changes.
+ *
+ * Optionally, an {@link IngredientPrototypeInterner} can be given,
+ * which can be shared between managers observing equal instances,
+ * so that their cached prototypes are deduplicated.
+ *
  * @param <T> The instance type.
  * @param <M> The matching condition parameter.
  * @author rubensworks
@@ -17,13 +30,26 @@ import java.util.Iterator;
 public class IngredientCollectionDiffManager<T, M> {
 
     private final IngredientComponent<T, M> ingredientComponent;
+    @Nullable
+    private final IngredientPrototypeInterner<T, M> interner;
     private IngredientCollectionPrototypeMap<T, M> instancesCache;
 
     public IngredientCollectionDiffManager(IngredientComponent<T, M> ingredientComponent) {
+        this(ingredientComponent, null);
+    }
+
+    public IngredientCollectionDiffManager(IngredientComponent<T, M> ingredientComponent,
+                                           @Nullable IngredientPrototypeInterner<T, M> interner) {
         this.ingredientComponent = ingredientComponent;
+        this.interner = interner;
         this.instancesCache = null;
     }
 
+    @Nullable
+    public IngredientPrototypeInterner<T, M> getInterner() {
+        return interner;
+    }
+
     /**
      * Calculates the diff between the given instances
      * and the instances from the last call of this method.
@@ -36,11 +62,40 @@ public class IngredientCollectionDiffManager<T, M> {
      */
     public IngredientCollectionDiff<T, M> onChange(Iterator<T> newInstances) {
         IngredientCollectionPrototypeMap<T, M> newInstancesCache = new IngredientCollectionPrototypeMap<>(
-                ingredientComponent, true);
+                ingredientComponent, true, new IngredientHashMapLong<>(ingredientComponent), Collections.emptyList(), interner);
         IngredientCollectionDiff<T, M> diff = IngredientCollectionDiffHelpers
                 .getDiff(ingredientComponent, instancesCache, newInstancesCache, newInstances);
         this.instancesCache = newInstancesCache;
         return diff;
     }
 
+    /**
+     * Calculates the diff from the changes recorded in the given journal
+     * since the last call of this method or {@link #onChange(Iterator)}.
+     * Afterwards, the journal will be cleared.
+     *
+     * When no diff was calculated before, if the journal was invalidated,
+     * or if a cached quantity would overflow, this will fall back to a full rescan via {@link #onChange(Iterator)}.
+     *
+     * @param journal The journal of the observed collection.
+     * @param newInstances A provider for all current instances, only called when falling back to a full rescan.
+     * @return The diff.
+     */
+    public IngredientCollectionDiff<T, M> onChange(IngredientCollectionChangeJournal<T, M> journal,
+                                                   Supplier<Iterator<T>> newInstances) {
+        IngredientCollectionDiff<T, M> diff;
+        if (this.instancesCache == null || journal.isInvalidated()) {
+            diff = onChange(newInstances.get());
+        } else {
+            try {
+                diff = IngredientCollectionDiffHelpers.getDiff(ingredientComponent, this.instancesCache, journal);
+            } catch (ArithmeticException e) {
+                // The cache was left unchanged, so a full rescan is still consistent
+                diff = onChange(newInstances.get());
+            }
+        }
+        journal.clear();
+        return diff;
+    }
+
 }
@@ -0,0 +1,63 @@
+package org.cyclops.cyclopscore.ingredient.collection.diff;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+
+/**
+ * A diff that is sent by an {@link IngredientCollectionDiffSender}
+ * to an {@link IngredientCollectionDiffReceiver}.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ * @author rubensworks
+ */
+public class IngredientCollectionDiffMessage<T, M> {
+
+    private final int sequence;
+    private final boolean resync;
+    private final IngredientCollectionDiff<T, M> diff;
+
+    /**
+     * Create a new message.
+     * @param sequence The sequence number, which is incremented by one for each message.
+     * @param resync If the receiver must clear its collection before applying the diff.
+     * @param diff The diff.
+     */
+    public IngredientCollectionDiffMessage(int sequence, boolean resync, IngredientCollectionDiff<T, M> diff) {
+        this.sequence = sequence;
+        this.resync = resync;
+        this.diff = diff;
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    public boolean isResync() {
+        return resync;
+    }
+
+    public IngredientCollectionDiff<T, M> getDiff() {
+        return diff;
+    }
+
+    /**
+     * Create a stream codec for messages of the given component type.
+     * @param component The component type.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @return A stream codec.
+     */
+    public static <T, M> StreamCodec<ByteBuf, IngredientCollectionDiffMessage<T, M>> streamCodec(IngredientComponent<T, M> component) {
+        return StreamCodec.of(
+                (buffer, message) -> {
+                    buffer.writeInt(message.getSequence());
+                    buffer.writeBoolean(message.isResync());
+                    IngredientCollectionDiffCodec.encode(buffer, message.getDiff());
+                },
+                buffer -> new IngredientCollectionDiffMessage<>(buffer.readInt(), buffer.readBoolean(),
+                        IngredientCollectionDiffCodec.decode(buffer, component))
+        );
+    }
+}
@@ -0,0 +1,71 @@
+package org.cyclops.cyclopscore.ingredient.collection.diff;
+
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+import org.cyclops.cyclopscore.ingredient.collection.IIngredientCollectionMutable;
+
+/**
+ * Applies the {@link IngredientCollectionDiffMessage}s of an {@link IngredientCollectionDiffSender} to a collection.
+ *
+ * When a message is received out of sequence, all messages will be ignored
+ * until a resync message is received.
+ * In that case, {@link #onMessage(IngredientCollectionDiffMessage)} returns true once,
+ * so that a resync can be requested from the sender.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ * @author rubensworks
+ */
+public class IngredientCollectionDiffReceiver<T, M> {
+
+    private final IngredientComponent<T, M> ingredientComponent;
+    private final IIngredientCollectionMutable<T, M> collection;
+    private int expectedSequence;
+    private boolean resyncRequired;
+
+    /**
+     * Create a new receiver.
+     * @param ingredientComponent The ingredient component type.
+     * @param collection The collection to apply diffs to.
+     */
+    public IngredientCollectionDiffReceiver(IngredientComponent<T, M> ingredientComponent,
+                                            IIngredientCollectionMutable<T, M> collection) {
+        this.ingredientComponent = ingredientComponent;
+        this.collection = collection;
+        this.expectedSequence = 0;
+        this.resyncRequired = true;
+    }
+
+    public IIngredientCollectionMutable<T, M> getCollection() {
+        return collection;
+    }
+
+    /**
+     * @return If messages are being ignored until the next resync message.
+     */
+    public boolean isResyncRequired() {
+        return resyncRequired;
+    }
+
+    /**
+     * Handle the given message.
+     * @param message A message.
+     * @return If a resync must be requested from the sender,
+     *         which is only returned once for each missed message.
+     */
+    public boolean onMessage(IngredientCollectionDiffMessage<T, M> message) {
+        if (message.isResync()) {
+            collection.clear();
+            resyncRequired = false;
+        } else if (resyncRequired) {
+            return false;
+        } else if (message.getSequence() != expectedSequence) {
+            resyncRequired = true;
+            return true;
+        }
+
+        IngredientCollectionDiffHelpers.applyDiff(ingredientComponent, message.getDiff(), collection);
+        expectedSequence = message.getSequence() + 1;
+        return false;
+    }
+
+}
@@ -0,0 +1,253 @@
+package org.cyclops.cyclopscore.ingredient.collection.diff;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.EncoderException;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.network.codec.StreamCodec;
+import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientArrayList;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientHashMap;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientPrototypeInterner;
+
+import javax.annotation.Nullable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Calculates diffs of an observed collection via an {@link IngredientCollectionDiffManager},
+ * and turns them into {@link IngredientCollectionDiffMessage}s for an {@link IngredientCollectionDiffReceiver}.
+ *
+ * Every message has a sequence number, so that the receiver can detect lost or reordered messages.
+ * In that case, the receiver requests a resync, after which {@link #requestResync()} must be called,
+ * so that the next messages contain the full collection.
+ * The first messages are always a full resync.
+ *
+ * Diffs of which the encoded size exceeds the maximum message size are split over multiple messages,
+ * of which the sizes are calculated without encoding the diff itself.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ * @author rubensworks
+ */
+public class IngredientCollectionDiffSender<T, M> {
+
+    private final IngredientComponent<T, M> ingredientComponent;
+    private final StreamCodec<ByteBuf, IngredientCollectionDiffMessage<T, M>> codec;
+    private final int maxMessageSize;
+    @Nullable
+    private final IngredientPrototypeInterner<T, M> interner;
+    private IngredientCollectionDiffManager<T, M> diffManager;
+    private boolean resync;
+    private int nextSequence;
+
+    /**
+     * Create a new sender.
+     * @param ingredientComponent The ingredient component type.
+     * @param maxMessageSize The maximum encoded size of a message in bytes.
+     */
+    public IngredientCollectionDiffSender(IngredientComponent<T, M> ingredientComponent, int maxMessageSize) {
+        this(ingredientComponent, maxMessageSize, null);
+    }
+
+    /**
+     * Create a new sender.
+     * @param ingredientComponent The ingredient component type.
+     * @param maxMessageSize The maximum encoded size of a message in bytes.
+     * @param interner An optional interner for cached prototypes,
+     *                 which can be shared between the senders of all players observing the same collection.
+     */
+    public IngredientCollectionDiffSender(IngredientComponent<T, M> ingredientComponent, int maxMessageSize,
+                                          @Nullable IngredientPrototypeInterner<T, M> interner) {
+        this.ingredientComponent = ingredientComponent;
+        this.codec = IngredientCollectionDiffMessage.streamCodec(ingredientComponent);
+        this.maxMessageSize = maxMessageSize;
+        this.interner = interner;
+        this.diffManager = new IngredientCollectionDiffManager<>(ingredientComponent, interner);
+        this.resync = true;
+        this.nextSequence = 0;
+    }
+
+    public StreamCodec<ByteBuf, IngredientCollectionDiffMessage<T, M>> getCodec() {
+        return codec;
+    }
+
+    /**
+     * Make the next messages contain the full collection,
+     * for example because the receiver requested a resync.
+     */
+    public void requestResync() {
+        this.diffManager = new IngredientCollectionDiffManager<>(ingredientComponent, interner);
+        this.resync = true;
+    }
+
+    /**
+     * Calculate the messages for the given current instances.
+     * @param newInstances All current instances.
+     * @return The messages to send, which may be empty if nothing changed.
+     * @see IngredientCollectionDiffManager#onChange(Iterator)
+     */
+    public List<IngredientCollectionDiffMessage<T, M>> onChange(Iterator<T> newInstances) {
+        return createMessages(diffManager.onChange(newInstances));
+    }
+
+    /**
+     * Calculate the messages from the changes recorded in the given journal.
+     * @param journal The journal of the observed collection.
+     * @param newInstances A provider for all current instances, only called when falling back to a full rescan.
+     * @return The messages to send, which may be empty if nothing changed.
+     * @see IngredientCollectionDiffManager#onChange(IngredientCollectionChangeJournal, Supplier)
+     */
+    public List<IngredientCollectionDiffMessage<T, M>> onChange(IngredientCollectionChangeJournal<T, M> journal,
+                                                                Supplier<Iterator<T>> newInstances) {
+        return createMessages(diffManager.onChange(journal, newInstances));
+    }
+
+    protected List<IngredientCollectionDiffMessage<T, M>> createMessages(IngredientCollectionDiff<T, M> diff) {
+        if (!resync && !diff.hasAdditions() && !diff.hasDeletions()) {
+            return Collections.emptyList();
+        }
+
+        List<IngredientCollectionDiff<T, M>> parts = split(diff);
+        List<IngredientCollectionDiffMessage<T, M>> messages = Lists.newArrayListWithExpectedSize(parts.size());
+        for (IngredientCollectionDiff<T, M> part : parts) {
+            // Only the first message of a resync must clear the receiver's collection
+            messages.add(new IngredientCollectionDiffMessage<>(nextSequence++, resync, part));
+            resync = false;
+        }
+        return messages;
+    }
+
+    /**
+     * Split the given diff into parts that each fit in a single message.
+     * Parts are filled greedily, first with the additions and then with the deletions, in iteration order.
+     * The encoded size of each part is calculated incrementally,
+     * for which the NBT of each distinct prototype is only serialized once.
+     * Instances that do not fit in a message on their own are sent in a separate part.
+     * The parts contain copies of the instances, so they are not affected by later changes to the given diff.
+     * @param diff A diff.
+     * @return The parts, at least one.
+     */
+    protected List<IngredientCollectionDiff<T, M>> split(IngredientCollectionDiff<T, M> diff) {
+        List<IngredientCollectionDiff<T, M>> parts = Lists.newArrayList();
+        IngredientHashMap<T, M, Integer> prototypeSizes = new IngredientHashMap<>(ingredientComponent);
+        Part part = new Part();
+        if (diff.hasAdditions()) {
+            for (T instance : diff.getAdditions()) {
+                part = add(parts, part, instance, true, prototypeSizes, diff.isCompletelyEmpty());
+            }
+        }
+        if (diff.hasDeletions()) {
+            for (T instance : diff.getDeletions()) {
+                part = add(parts, part, instance, false, prototypeSizes, diff.isCompletelyEmpty());
+            }
+        }
+        parts.add(part.toDiff(diff.isCompletelyEmpty()));
+        return parts;
+    }
+
+    protected Part add(List<IngredientCollectionDiff<T, M>> parts, Part part, T instance, boolean addition,
+                       IngredientHashMap<T, M, Integer> prototypeSizes, boolean completelyEmpty) {
+        IIngredientMatcher<T, M> matcher = ingredientComponent.getMatcher();
+        T prototype = matcher.withQuantity(instance, 1);
+        long quantity = matcher.getQuantity(instance);
+        if (!part.isEmpty() && part.getSizeWith(prototype, quantity, addition, prototypeSizes) > maxMessageSize) {
+            parts.add(part.toDiff(completelyEmpty));
+            part = new Part();
+        }
+        part.add(instance, prototype, quantity, addition, prototypeSizes);
+        return part;
+    }
+
+    protected int getPrototypeSize(T prototype, IngredientHashMap<T, M, Integer> prototypeSizes) {
+        Integer size = prototypeSizes.get(prototype);
+        if (size == null) {
+            DataOutputStream output = new DataOutputStream(ByteStreams.nullOutputStream());
+            try {
+                NbtIo.writeAnyTag(ingredientComponent.getSerializer().serializeInstance(prototype), output);
+            } catch (IOException e) {
+                throw new EncoderException(e);
+            }
+            size = output.size();
+            prototypeSizes.put(prototype, size);
+        }
+        return size;
+    }
+
+    protected static int getVarLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * A part of a diff that is being filled, which tracks its encoded size
+     * in the format of {@link IngredientCollectionDiffCodec}.
+     */
+    protected class Part {
+
+        // The sequence number, the resync flag and the diff flags
+        private static final int HEADER_SIZE = Integer.BYTES + 2;
+
+        private final List<T> additions = Lists.newArrayList();
+        private final List<T> deletions = Lists.newArrayList();
+        private final IngredientHashMap<T, M, Integer> additionPrototypes = new IngredientHashMap<>(ingredientComponent);
+        private final IngredientHashMap<T, M, Integer> deletionPrototypes = new IngredientHashMap<>(ingredientComponent);
+        private int entriesSize = 0;
+
+        public boolean isEmpty() {
+            return additions.isEmpty() && deletions.isEmpty();
+        }
+
+        /**
+         * Calculate the encoded size of this part in a message when the given instance would be added.
+         * @param prototype The instance with quantity 1.
+         * @param quantity The instance quantity.
+         * @param addition If the instance is an addition, otherwise it is a deletion.
+         * @param prototypeSizes The cached serialized prototype sizes.
+         * @return The size in bytes.
+         */
+        public int getSizeWith(T prototype, long quantity, boolean addition, IngredientHashMap<T, M, Integer> prototypeSizes) {
+            return HEADER_SIZE
+                    + getVarLongSize(additions.size() + (addition ? 1 : 0))
+                    + getVarLongSize(deletions.size() + (addition ? 0 : 1))
+                    + entriesSize + getEntrySize(prototype, quantity, addition, prototypeSizes);
+        }
+
+        protected int getEntrySize(T prototype, long quantity, boolean addition, IngredientHashMap<T, M, Integer> prototypeSizes) {
+            IngredientHashMap<T, M, Integer> prototypes = addition ? additionPrototypes : deletionPrototypes;
+            Integer index = prototypes.get(prototype);
+            if (index == null) {
+                return getVarLongSize(prototypes.size()) + getPrototypeSize(prototype, prototypeSizes) + getVarLongSize(quantity);
+            }
+            return getVarLongSize(index) + getVarLongSize(quantity);
+        }
+
+        public void add(T instance, T prototype, long quantity, boolean addition, IngredientHashMap<T, M, Integer> prototypeSizes) {
+            entriesSize += getEntrySize(prototype, quantity, addition, prototypeSizes);
+            IngredientHashMap<T, M, Integer> prototypes = addition ? additionPrototypes : deletionPrototypes;
+            if (!prototypes.containsKey(prototype)) {
+                prototypes.put(prototype, prototypes.size());
+            }
+            (addition ? additions : deletions).add(instance);
+        }
+
+        public IngredientCollectionDiff<T, M> toDiff(boolean completelyEmpty) {
+            return new IngredientCollectionDiff<>(
+                    additions.isEmpty() ? null : new IngredientArrayList<>(ingredientComponent, additions),
+                    deletions.isEmpty() ? null : new IngredientArrayList<>(ingredientComponent, deletions),
+                    completelyEmpty);
+        }
+
+    }
+
+}
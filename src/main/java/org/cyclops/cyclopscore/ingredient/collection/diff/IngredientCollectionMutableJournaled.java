@@ -0,0 +1,156 @@
+package org.cyclops.cyclopscore.ingredient.collection.diff;
+
+import org.cyclops.cyclopscore.ingredient.collection.IIngredientCollectionMutable;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionMutableWrapper;
+
+import java.util.Iterator;
+
+/**
+ * A mutable ingredient collection that records all changes to its inner collection
+ * in an {@link IngredientCollectionChangeJournal}.
+ *
+ * All changes must go through this wrapper, changes made directly to the inner collection are not recorded.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ * @param <W> The inner collection type.
+ * @author rubensworks
+ */
+public class IngredientCollectionMutableJournaled<T, M, W extends IIngredientCollectionMutable<T, M>>
+        extends IngredientCollectionMutableWrapper<T, M, W> {
+
+    private final IngredientCollectionChangeJournal<T, M> journal;
+
+    public IngredientCollectionMutableJournaled(W innerCollection) {
+        this(innerCollection, new IngredientCollectionChangeJournal<>(innerCollection.getComponent()));
+    }
+
+    public IngredientCollectionMutableJournaled(W innerCollection, IngredientCollectionChangeJournal<T, M> journal) {
+        super(innerCollection);
+        this.journal = journal;
+    }
+
+    /**
+     * @return The journal in which all changes are recorded.
+     */
+    public IngredientCollectionChangeJournal<T, M> getJournal() {
+        return journal;
+    }
+
+    /**
+     * Determine the quantity that will be removed when the given instance
+     * is removed from an iterator of the inner collection.
+     * @param instance An instance from the inner collection.
+     * @return The quantity that is removed.
+     */
+    protected long getRemovalQuantity(T instance) {
+        return getComponent().getMatcher().getQuantity(instance);
+    }
+
+    @Override
+    public boolean add(T instance) {
+        if (getInnerCollection().add(instance)) {
+            this.journal.onAdded(instance);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean addAll(Iterable<? extends T> instances) {
+        boolean changed = false;
+        for (T instance : instances) {
+            changed |= add(instance);
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean remove(T instance) {
+        if (getInnerCollection().remove(instance)) {
+            this.journal.onRemoved(instance);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int removeAll(T instance, M matchCondition) {
+        Iterator<T> it = iterator(instance, matchCondition);
+        int count = 0;
+        while (it.hasNext()) {
+            it.next();
+            it.remove();
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public int removeAll(Iterable<? extends T> instances) {
+        int removed = 0;
+        for (T instance : instances) {
+            if (remove(instance)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public int removeAll(Iterable<? extends T> instances, M matchCondition) {
+        int removed = 0;
+        for (T instance : instances) {
+            removed += removeAll(instance, matchCondition);
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        for (T instance : getInnerCollection()) {
+            this.journal.onChanged(instance, -getRemovalQuantity(instance));
+        }
+        getInnerCollection().clear();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new JournaledIterator(getInnerCollection().iterator());
+    }
+
+    @Override
+    public Iterator<T> iterator(T instance, M matchCondition) {
+        return new JournaledIterator(getInnerCollection().iterator(instance, matchCondition));
+    }
+
+    /**
+     * An iterator that records removals in the journal.
+     */
+    protected class JournaledIterator implements Iterator<T> {
+
+        private final Iterator<T> iterator;
+        private T last;
+
+        public JournaledIterator(Iterator<T> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+            return last = iterator.next();
+        }
+
+        @Override
+        public void remove() {
+            long quantity = getRemovalQuantity(last);
+            iterator.remove();
+            journal.onChanged(last, -quantity);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.cyclops.cyclopscore.ingredient.storage;
+
+import org.cyclops.commoncapabilities.api.ingredient.storage.IIngredientComponentStorageSlotted;
+
+/**
+ * A slotted storage that maintains an index of which slots contain which instances,
+ * so that slots can be looked up without iterating over all slots.
+ *
+ * {@link IngredientStorageHelpers} will use this to only visit relevant slots when moving instances.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ */
+public interface IIngredientComponentStorageSlottedIndexed<T, M> extends IIngredientComponentStorageSlotted<T, M> {
+
+    /**
+     * Get the slots that contain instances that match the given prototype, ignoring quantities.
+     * @param prototype An instance.
+     * @param matchCondition A match condition.
+     * @return The matching slots, in ascending order.
+     */
+    public int[] getSlotsMatching(T prototype, M matchCondition);
+
+    /**
+     * @return All non-empty slots, in ascending order.
+     */
+    public int[] getSlotsNonEmpty();
+
+    /**
+     * Get the slots into which the given instance could be inserted,
+     * which are the slots containing an instance that is equal ignoring quantity, and the empty slots.
+     * @param instance An instance.
+     * @return The slots, in ascending order.
+     */
+    public int[] getSlotsInsertable(T instance);
+
+}
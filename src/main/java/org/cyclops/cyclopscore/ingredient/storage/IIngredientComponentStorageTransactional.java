@@ -0,0 +1,41 @@
+package org.cyclops.cyclopscore.ingredient.storage;
+
+import org.cyclops.commoncapabilities.api.ingredient.storage.IIngredientComponentStorage;
+
+/**
+ * A storage whose non-simulated changes can be undone.
+ *
+ * All changes after {@link #beginTransaction()} are kept by {@link #commitTransaction()},
+ * or undone by {@link #rollbackTransaction()}.
+ * Transactions can be nested, in which case a commit or rollback only applies to the innermost transaction.
+ *
+ * {@link IngredientStorageHelpers} will use this to move instances without first simulating each movement.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ */
+public interface IIngredientComponentStorageTransactional<T, M> extends IIngredientComponentStorage<T, M> {
+
+    /**
+     * Start a new transaction.
+     */
+    public void beginTransaction();
+
+    /**
+     * Keep all changes of the innermost transaction, and end it.
+     * @throws IllegalStateException If no transaction is active.
+     */
+    public void commitTransaction() throws IllegalStateException;
+
+    /**
+     * Undo all changes of the innermost transaction, and end it.
+     * @throws IllegalStateException If no transaction is active.
+     */
+    public void rollbackTransaction() throws IllegalStateException;
+
+    /**
+     * @return If a transaction is active.
+     */
+    public boolean isTransactionActive();
+
+}
@@ -1,24 +1,33 @@
 package org.cyclops.cyclopscore.ingredient.storage;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
 import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
 import org.cyclops.commoncapabilities.api.ingredient.storage.IIngredientComponentStorage;
 import org.cyclops.cyclopscore.ingredient.collection.IIngredientCollapsedCollectionMutable;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionPrototypeMap;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientHashMapLong;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientPrototypeInterner;
 
 import javax.annotation.Nonnull;
+import java.util.Collections;
 import java.util.Iterator;
 
 /**
  * An implementation of {@link IIngredientComponentStorage}
  * that internally uses a {@link IIngredientCollapsedCollectionMutable} to store instances.
+ *
+ * The given collection must not be modified directly during a transaction.
+ *
  * @param <T> The instance type.
  * @param <M> The matching condition parameter.
  */
-public class IngredientComponentStorageCollectionWrapper<T, M> implements IIngredientComponentStorage<T, M> {
+public class IngredientComponentStorageCollectionWrapper<T, M> implements IIngredientComponentStorageTransactional<T, M> {
 
     private final IIngredientCollapsedCollectionMutable<T, M> ingredientCollection;
     private final long maxQuantity;
     private final long rateLimit;
+    private final IngredientComponentStorageTransactionLog<Pair<T, Long>> transactionLog;
 
     private long quantity;
 
@@ -31,10 +40,24 @@ public class IngredientComponentStorageCollectionWrapper<T, M> implements IIngre
         this.ingredientCollection = ingredientCollection;
         this.maxQuantity = maxQuantity;
         this.rateLimit = rateLimit;
+        this.transactionLog = new IngredientComponentStorageTransactionLog<>();
 
         this.quantity = 0;
     }
 
+    /**
+     * Create a new storage backed by an {@link IngredientCollectionPrototypeMap}
+     * of which the prototypes are deduplicated by the given interner.
+     * @param interner An interner, which can be shared between storages.
+     * @param maxQuantity The maximum quantity.
+     * @param rateLimit The rate limit per insertion/extraction.
+     */
+    public IngredientComponentStorageCollectionWrapper(IngredientPrototypeInterner<T, M> interner,
+                                                       long maxQuantity, long rateLimit) {
+        this(new IngredientCollectionPrototypeMap<>(interner.getComponent(), false,
+                new IngredientHashMapLong<>(interner.getComponent()), Collections.emptyList(), interner), maxQuantity, rateLimit);
+    }
+
     @Override
     public IngredientComponent<T, M> getComponent() {
         return this.ingredientCollection.getComponent();
@@ -70,12 +93,14 @@ public class IngredientComponentStorageCollectionWrapper<T, M> implements IIngre
         T insertingIngredient = rateLimit(ingredient, getMaxQuantity() - this.quantity);
         IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
         if (!matcher.isEmpty(insertingIngredient)) {
+            long previousQuantity = transactionLog.isActive() ? this.ingredientCollection.getQuantity(insertingIngredient) : 0;
             boolean added = this.ingredientCollection.add(insertingIngredient);
             if (added) {
                 if (simulate) {
                     this.ingredientCollection.remove(insertingIngredient);
                 } else {
                     this.quantity += matcher.getQuantity(insertingIngredient);
+                    transactionLog.add(Pair.of(insertingIngredient, previousQuantity));
                 }
                 return matcher.withQuantity(insertingIngredient, matcher.getQuantity(ingredient) - matcher.getQuantity(insertingIngredient));
             }
@@ -103,8 +128,7 @@ public class IngredientComponentStorageCollectionWrapper<T, M> implements IIngre
         }
 
         if (!simulate) {
-            this.ingredientCollection.remove(toExtract);
-            this.quantity -= matcher.getQuantity(toExtract);
+            removeInstance(toExtract);
         }
         return toExtract;
     }
@@ -122,13 +146,41 @@ public class IngredientComponentStorageCollectionWrapper<T, M> implements IIngre
         toExtract = this.rateLimit(toExtract, maxQuantity);
 
         if (!simulate) {
-            this.ingredientCollection.remove(toExtract);
-            this.quantity -= getComponent().getMatcher().getQuantity(toExtract);
+            removeInstance(toExtract);
         }
 
         return toExtract;
     }
 
+    protected void removeInstance(T instance) {
+        IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
+        if (transactionLog.isActive() && !matcher.isEmpty(instance)) {
+            transactionLog.add(Pair.of(instance, this.ingredientCollection.getQuantity(instance)));
+        }
+        this.ingredientCollection.remove(instance);
+        this.quantity -= matcher.getQuantity(instance);
+    }
+
+    @Override
+    public void beginTransaction() {
+        transactionLog.begin(this.quantity);
+    }
+
+    @Override
+    public void commitTransaction() throws IllegalStateException {
+        transactionLog.commit();
+    }
+
+    @Override
+    public void rollbackTransaction() throws IllegalStateException {
+        this.quantity = transactionLog.rollback(change -> this.ingredientCollection.setQuantity(change.getLeft(), change.getRight()));
+    }
+
+    @Override
+    public boolean isTransactionActive() {
+        return transactionLog.isActive();
+    }
+
     long getQuantity() {
         return quantity;
     }
@@ -1,5 +1,6 @@
 package org.cyclops.cyclopscore.ingredient.storage;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
 import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
 import org.cyclops.commoncapabilities.api.ingredient.storage.IIngredientComponentStorageSlotted;
@@ -11,14 +12,19 @@ import java.util.Iterator;
 /**
  * An implementation of {@link IIngredientComponentStorageSlotted}
  * that internally uses a {@link IIngredientListMutable} to store instances.
+ *
+ * The given list must not be modified directly during a transaction.
+ *
  * @param <T> The instance type.
  * @param <M> The matching condition parameter.
  */
-public class IngredientComponentStorageSlottedCollectionWrapper<T, M> implements IIngredientComponentStorageSlotted<T, M> {
+public class IngredientComponentStorageSlottedCollectionWrapper<T, M>
+        implements IIngredientComponentStorageSlotted<T, M>, IIngredientComponentStorageTransactional<T, M> {
 
     private final IIngredientListMutable<T, M> ingredientCollection;
     private final long maxSlotQuantity;
     private final long rateLimit;
+    private final IngredientComponentStorageTransactionLog<Pair<Integer, T>> transactionLog;
 
     private long quantity;
 
@@ -27,6 +33,7 @@ public class IngredientComponentStorageSlottedCollectionWrapper<T, M> implements
         this.ingredientCollection = ingredientCollection;
         this.maxSlotQuantity = maxSlotQuantity;
         this.rateLimit = rateLimit;
+        this.transactionLog = new IngredientComponentStorageTransactionLog<>();
 
         this.quantity = 0;
     }
@@ -46,6 +53,41 @@ public class IngredientComponentStorageSlottedCollectionWrapper<T, M> implements
         return this.maxSlotQuantity;
     }
 
+    /**
+     * Set the contents of the given slot, without any checks.
+     * @param slot A slot.
+     * @param contents The new slot contents.
+     */
+    protected void setSlotContents(int slot, T contents) {
+        ingredientCollection.set(slot, contents);
+    }
+
+    private void updateSlotContents(int slot, T contents, long quantityChange) {
+        transactionLog.add(Pair.of(slot, ingredientCollection.get(slot)));
+        setSlotContents(slot, contents);
+        this.quantity += quantityChange;
+    }
+
+    @Override
+    public void beginTransaction() {
+        transactionLog.begin(this.quantity);
+    }
+
+    @Override
+    public void commitTransaction() throws IllegalStateException {
+        transactionLog.commit();
+    }
+
+    @Override
+    public void rollbackTransaction() throws IllegalStateException {
+        this.quantity = transactionLog.rollback(change -> setSlotContents(change.getLeft(), change.getRight()));
+    }
+
+    @Override
+    public boolean isTransactionActive() {
+        return transactionLog.isActive();
+    }
+
     T rateLimit(T instance, long allowedQuantity) {
         IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
         long quantity = matcher.getQuantity(instance);
@@ -67,9 +109,8 @@ public class IngredientComponentStorageSlottedCollectionWrapper<T, M> implements
                 long addQuantity = Math.min(getMaxQuantity(slot) - matcher.getQuantity(contained),
                         matcher.getQuantity(insertingIngredient));
                 if (!simulate) {
-                    ingredientCollection.set(slot, matcher.withQuantity(ingredient,
-                            matcher.getQuantity(contained) + addQuantity));
-                    this.quantity += addQuantity;
+                    updateSlotContents(slot, matcher.withQuantity(ingredient,
+                            matcher.getQuantity(contained) + addQuantity), addQuantity);
                 }
                 return matcher.withQuantity(insertingIngredient, matcher.getQuantity(ingredient) - addQuantity);
             }
@@ -85,9 +126,8 @@ public class IngredientComponentStorageSlottedCollectionWrapper<T, M> implements
             T extractingIngredient = rateLimit(contained, maxQuantity);
             if (!simulate) {
                 long removeQuantity = matcher.getQuantity(extractingIngredient);
-                ingredientCollection.set(slot, matcher.withQuantity(contained,
-                        matcher.getQuantity(contained) - removeQuantity));
-                this.quantity -= removeQuantity;
+                updateSlotContents(slot, matcher.withQuantity(contained,
+                        matcher.getQuantity(contained) - removeQuantity), -removeQuantity);
             }
             return extractingIngredient;
         }
@@ -137,9 +177,8 @@ public class IngredientComponentStorageSlottedCollectionWrapper<T, M> implements
                 if (matcher.matches(prototype, extractingIngredient, matchCondition)) {
                     if (!simulate) {
                         long removeQuantity = matcher.getQuantity(extractingIngredient);
-                        ingredientCollection.set(slot, matcher.withQuantity(contained,
-                                matcher.getQuantity(contained) - removeQuantity));
-                        this.quantity -= removeQuantity;
+                        updateSlotContents(slot, matcher.withQuantity(contained,
+                                matcher.getQuantity(contained) - removeQuantity), -removeQuantity);
                     }
                     return extractingIngredient;
                 }
@@ -0,0 +1,195 @@
+package org.cyclops.cyclopscore.ingredient.storage;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
+import org.cyclops.cyclopscore.ingredient.collection.IIngredientListMutable;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientHashMap;
+
+import javax.annotation.Nonnull;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A {@link IngredientComponentStorageSlottedCollectionWrapper} that maintains an index from prototypes to slots,
+ * and a set of empty slots.
+ *
+ * Slotless inserts and extracts only visit the relevant slots,
+ * and {@link IngredientStorageHelpers} uses this index to skip irrelevant slots when moving instances.
+ *
+ * The given list must not be modified directly after this storage was created.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ */
+public class IngredientComponentStorageSlottedIndexedCollectionWrapper<T, M> extends IngredientComponentStorageSlottedCollectionWrapper<T, M>
+        implements IIngredientComponentStorageSlottedIndexed<T, M> {
+
+    private static final int[] NO_SLOTS = new int[0];
+
+    private final IngredientHashMap<T, M, IntSortedSet> prototypeSlots;
+    private final IntSortedSet emptySlots;
+    private final IntSortedSet nonEmptySlots;
+
+    public IngredientComponentStorageSlottedIndexedCollectionWrapper(IIngredientListMutable<T, M> ingredientCollection,
+                                                                     long maxSlotQuantity, long rateLimit) {
+        super(ingredientCollection, maxSlotQuantity, rateLimit);
+        this.prototypeSlots = new IngredientHashMap<>(getComponent());
+        this.emptySlots = new IntRBTreeSet();
+        this.nonEmptySlots = new IntRBTreeSet();
+        IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
+        for (int slot = 0; slot < getSlots(); slot++) {
+            onSlotChanged(slot, matcher.getEmptyInstance(), getSlotContents(slot));
+        }
+    }
+
+    protected T getPrototype(T instance) {
+        return getComponent().getMatcher().withQuantity(instance, 1);
+    }
+
+    /**
+     * Update the index after the contents of the given slot have changed.
+     * @param slot A slot.
+     * @param before The previous slot contents.
+     * @param after The new slot contents.
+     */
+    protected void onSlotChanged(int slot, T before, T after) {
+        IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
+        boolean emptyBefore = matcher.isEmpty(before);
+        boolean emptyAfter = matcher.isEmpty(after);
+        if (!emptyBefore && !emptyAfter && matcher.matches(before, after, matcher.getExactMatchNoQuantityCondition())) {
+            return;
+        }
+
+        if (emptyBefore) {
+            emptySlots.remove(slot);
+        } else {
+            T prototype = getPrototype(before);
+            IntSortedSet slots = prototypeSlots.get(prototype);
+            if (slots != null) {
+                slots.remove(slot);
+                if (slots.isEmpty()) {
+                    prototypeSlots.remove(prototype);
+                }
+            }
+            nonEmptySlots.remove(slot);
+        }
+
+        if (emptyAfter) {
+            emptySlots.add(slot);
+        } else {
+            T prototype = getPrototype(after);
+            IntSortedSet slots = prototypeSlots.get(prototype);
+            if (slots == null) {
+                slots = new IntRBTreeSet();
+                prototypeSlots.put(prototype, slots);
+            }
+            slots.add(slot);
+            nonEmptySlots.add(slot);
+        }
+    }
+
+    @Override
+    public int[] getSlotsMatching(T prototype, M matchCondition) {
+        IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
+        M matchConditionNoQuantity = matcher.withoutCondition(matchCondition,
+                getComponent().getPrimaryQuantifier().getMatchCondition());
+        if (Objects.equals(matchConditionNoQuantity, matcher.getExactMatchNoQuantityCondition())) {
+            IntSortedSet slots = prototypeSlots.get(getPrototype(prototype));
+            return slots == null ? NO_SLOTS : slots.toIntArray();
+        }
+        if (Objects.equals(matchConditionNoQuantity, matcher.getAnyMatchCondition())) {
+            return getSlotsNonEmpty();
+        }
+
+        // Only the distinct prototypes have to be matched, not all slots.
+        IntSortedSet slots = new IntRBTreeSet();
+        Iterator<Map.Entry<T, IntSortedSet>> it = prototypeSlots.iterator(getPrototype(prototype), matchConditionNoQuantity);
+        while (it.hasNext()) {
+            slots.addAll(it.next().getValue());
+        }
+        return slots.toIntArray();
+    }
+
+    @Override
+    public int[] getSlotsNonEmpty() {
+        return nonEmptySlots.toIntArray();
+    }
+
+    @Override
+    public int[] getSlotsInsertable(T instance) {
+        IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
+        IntSortedSet matchingSlots = matcher.isEmpty(instance) ? null : prototypeSlots.get(getPrototype(instance));
+        if (matchingSlots == null) {
+            return emptySlots.toIntArray();
+        }
+
+        // Merge both sorted sets, so that slots are visited in the same order as a linear scan would.
+        IntArrayList slots = new IntArrayList(matchingSlots.size() + emptySlots.size());
+        IntIterator itMatching = matchingSlots.iterator();
+        IntIterator itEmpty = emptySlots.iterator();
+        int nextMatching = itMatching.hasNext() ? itMatching.nextInt() : Integer.MAX_VALUE;
+        int nextEmpty = itEmpty.hasNext() ? itEmpty.nextInt() : Integer.MAX_VALUE;
+        while (nextMatching != Integer.MAX_VALUE || nextEmpty != Integer.MAX_VALUE) {
+            if (nextMatching < nextEmpty) {
+                slots.add(nextMatching);
+                nextMatching = itMatching.hasNext() ? itMatching.nextInt() : Integer.MAX_VALUE;
+            } else {
+                slots.add(nextEmpty);
+                nextEmpty = itEmpty.hasNext() ? itEmpty.nextInt() : Integer.MAX_VALUE;
+            }
+        }
+        return slots.toIntArray();
+    }
+
+    @Override
+    protected void setSlotContents(int slot, T contents) {
+        T before = getSlotContents(slot);
+        super.setSlotContents(slot, contents);
+        onSlotChanged(slot, before, contents);
+    }
+
+    @Override
+    public T insert(@Nonnull T ingredient, boolean simulate) {
+        IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
+        long givenQuantity = matcher.getQuantity(ingredient);
+        for (int slot : getSlotsInsertable(ingredient)) {
+            T insertRemaining = this.insert(slot, ingredient, true);
+            if (matcher.getQuantity(insertRemaining) != givenQuantity) {
+                return simulate ? insertRemaining : this.insert(slot, ingredient, false);
+            }
+        }
+        return ingredient;
+    }
+
+    @Override
+    public T extract(@Nonnull T prototype, M matchCondition, boolean simulate) {
+        IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
+        long quantity = matcher.getQuantity(prototype);
+        for (int slot : getSlotsMatching(prototype, matchCondition)) {
+            T contained = getSlotContents(slot);
+            if (matcher.matches(contained, prototype, matchCondition)) {
+                T extractingIngredient = this.extract(slot, quantity, true);
+                if (matcher.matches(prototype, extractingIngredient, matchCondition)) {
+                    return simulate ? extractingIngredient : this.extract(slot, quantity, false);
+                }
+            }
+        }
+        return matcher.getEmptyInstance();
+    }
+
+    @Override
+    public T extract(long maxQuantity, boolean simulate) {
+        IIngredientMatcher<T, M> matcher = getComponent().getMatcher();
+        for (int slot : getSlotsNonEmpty()) {
+            T extracted = this.extract(slot, maxQuantity, true);
+            if (!matcher.isEmpty(extracted)) {
+                return simulate ? extracted : this.extract(slot, maxQuantity, false);
+            }
+        }
+        return matcher.getEmptyInstance();
+    }
+}
@@ -0,0 +1,84 @@
+package org.cyclops.cyclopscore.ingredient.storage;
+
+import com.google.common.collect.Lists;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An undo log for {@link IIngredientComponentStorageTransactional} implementations.
+ *
+ * Changes are only recorded while a transaction is active,
+ * and are discarded once the outermost transaction is committed.
+ *
+ * @param <E> The type of undo entries.
+ */
+public class IngredientComponentStorageTransactionLog<E> {
+
+    private final List<E> entries = Lists.newArrayList();
+    private final IntArrayList entryMarks = new IntArrayList();
+    private final LongArrayList quantityMarks = new LongArrayList();
+
+    /**
+     * @return If a transaction is active.
+     */
+    public boolean isActive() {
+        return !entryMarks.isEmpty();
+    }
+
+    /**
+     * Start a new transaction.
+     * @param quantity The current total quantity of the storage, which will be returned on rollback.
+     */
+    public void begin(long quantity) {
+        entryMarks.add(entries.size());
+        quantityMarks.add(quantity);
+    }
+
+    /**
+     * Record a change, if a transaction is active.
+     * @param entry The information required to undo the change.
+     */
+    public void add(E entry) {
+        if (isActive()) {
+            entries.add(entry);
+        }
+    }
+
+    /**
+     * End the innermost transaction, and keep its changes.
+     * @throws IllegalStateException If no transaction is active.
+     */
+    public void commit() throws IllegalStateException {
+        checkActive();
+        entryMarks.removeInt(entryMarks.size() - 1);
+        quantityMarks.removeLong(quantityMarks.size() - 1);
+        if (!isActive()) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * End the innermost transaction, and undo its changes in reverse order.
+     * @param undo The callback that undoes a single change.
+     * @return The total quantity of the storage when the transaction was started.
+     * @throws IllegalStateException If no transaction is active.
+     */
+    public long rollback(Consumer<E> undo) throws IllegalStateException {
+        checkActive();
+        int mark = entryMarks.removeInt(entryMarks.size() - 1);
+        for (int i = entries.size() - 1; i >= mark; i--) {
+            undo.accept(entries.remove(i));
+        }
+        return quantityMarks.removeLong(quantityMarks.size() - 1);
+    }
+
+    protected void checkActive() throws IllegalStateException {
+        if (!isActive()) {
+            throw new IllegalStateException("No transaction is active");
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+package org.cyclops.cyclopscore.ingredient.storage;
+
+/**
+ * A request to move instances that match a prototype,
+ * which can be passed to {@link IngredientStorageHelpers#moveIngredientsBatch}.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ */
+public class IngredientMoveRequest<T, M> {
+
+    private final T instance;
+    private final M matchCondition;
+    private final long maxQuantity;
+
+    /**
+     * Create a new request.
+     * @param instance The prototype instance, its quantity is ignored.
+     * @param matchCondition The match condition, its quantity condition is ignored.
+     * @param maxQuantity The maximum total quantity to move.
+     */
+    public IngredientMoveRequest(T instance, M matchCondition, long maxQuantity) {
+        this.instance = instance;
+        this.matchCondition = matchCondition;
+        this.maxQuantity = maxQuantity;
+    }
+
+    public T getInstance() {
+        return instance;
+    }
+
+    public M getMatchCondition() {
+        return matchCondition;
+    }
+
+    public long getMaxQuantity() {
+        return maxQuantity;
+    }
+}
@@ -1,5 +1,8 @@
 package org.cyclops.cyclopscore.ingredient.storage;
 
+import com.google.common.collect.Lists;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntIterators;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.Tag;
 import org.cyclops.commoncapabilities.api.ingredient.IIngredientMatcher;
@@ -14,10 +17,17 @@ import org.cyclops.cyclopscore.ingredient.collection.IngredientCollections;
 
 import javax.annotation.Nullable;
 import java.util.Iterator;
+import java.util.List;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 /**
  * Helper methods for moving ingredients between {@link IIngredientComponentStorage}'s.
+ *
+ * If both storages are {@link IIngredientComponentStorageTransactional},
+ * non-simulated movements are done directly within a transaction, and rolled back if needed.
+ * Otherwise, each movement is first simulated.
  */
 public final class IngredientStorageHelpers {
 
@@ -87,6 +97,13 @@ public final class IngredientStorageHelpers {
                                            long maxQuantity, boolean simulate)
             throws InconsistentIngredientInsertionException {
         IIngredientMatcher<T, M> matcher = source.getComponent().getMatcher();
+        if (!simulate && isTransactional(source, destination)) {
+            return moveTransactional((IIngredientComponentStorageTransactional<T, M>) source,
+                    (IIngredientComponentStorageTransactional<T, M>) destination,
+                    () -> source.extract(maxQuantity, false), extracted -> true,
+                    extracted -> source.extract(extracted, matcher.getExactMatchNoQuantityCondition(), false),
+                    extracted -> destination.insert(extracted, false), false);
+        }
         T extractedSimulated = source.extract(maxQuantity, true);
         long movableQuantity = insertIngredientQuantity(destination, extractedSimulated, true);
         if (movableQuantity > 0) {
@@ -173,8 +190,16 @@ public final class IngredientStorageHelpers {
                                            T instance, M matchCondition, boolean simulate)
             throws InconsistentIngredientInsertionException{
         IIngredientMatcher<T, M> matcher = source.getComponent().getMatcher();
-        Iterator<T> it = source.iterator(instance, matcher.withoutCondition(matchCondition,
-                source.getComponent().getPrimaryQuantifier().getMatchCondition()));
+        M matchConditionNoQuantity = matcher.withoutCondition(matchCondition,
+                source.getComponent().getPrimaryQuantifier().getMatchCondition());
+        Iterator<T> it;
+        if (!simulate && isTransactional(source, destination)) {
+            // Failed movements are rolled back, which may invalidate the iterator.
+            it = new IngredientStorageRestartingIterator<>(source.getComponent(),
+                    () -> source.iterator(instance, matchConditionNoQuantity));
+        } else {
+            it = source.iterator(instance, matchConditionNoQuantity);
+        }
         M matchConditionExact;
         if (matcher.hasCondition(matchCondition, source.getComponent().getPrimaryQuantifier().getMatchCondition())) {
             matchConditionExact = matcher.getExactMatchCondition();
@@ -214,6 +239,31 @@ public final class IngredientStorageHelpers {
                                            boolean simulate)
             throws InconsistentIngredientInsertionException{
         IIngredientMatcher<T, M> matcher = source.getComponent().getMatcher();
+        if (!simulate && isTransactional(source, destination)) {
+            // Failed movements are rolled back, which may invalidate the iterator.
+            Iterator<T> it = new IngredientStorageRestartingIterator<>(source.getComponent(), source::iterator);
+            while (it.hasNext()) {
+                T instance = it.next();
+                if (predicate.test(instance)) {
+                    if (matcher.getQuantity(instance) > maxQuantity) {
+                        instance = matcher.withQuantity(instance, maxQuantity);
+                    } else if (exactQuantity && matcher.getQuantity(instance) < maxQuantity) {
+                        continue;
+                    }
+                    T prototype = instance;
+                    T moved = moveTransactional((IIngredientComponentStorageTransactional<T, M>) source,
+                            (IIngredientComponentStorageTransactional<T, M>) destination,
+                            () -> source.extract(prototype, matcher.getExactMatchNoQuantityCondition(), false),
+                            extracted -> !exactQuantity || matcher.getQuantity(extracted) == maxQuantity,
+                            extracted -> source.extract(extracted, matcher.getExactMatchNoQuantityCondition(), false),
+                            extracted -> destination.insert(extracted, false), exactQuantity);
+                    if (!matcher.isEmpty(moved)) {
+                        return moved;
+                    }
+                }
+            }
+            return matcher.getEmptyInstance();
+        }
         for (T extractedSimulated : source) {
             if (predicate.test(extractedSimulated)) {
                 if (matcher.getQuantity(extractedSimulated) > maxQuantity) {
@@ -238,6 +288,146 @@ public final class IngredientStorageHelpers {
         return matcher.getEmptyInstance();
     }
 
+    /**
+     * Move instances for multiple requests from source to destination, in a single pass over the source.
+     *
+     * Each source instance is assigned to the first request that matches it and that has not been completed yet,
+     * so requests are filled in the given order.
+     * If the source is slotted, its (non-empty) slots are visited instead of its instances.
+     *
+     * Note: When simulating with storages that are not {@link IIngredientComponentStorageTransactional},
+     * each source instance or slot will only be moved once,
+     * and destination capacity that would be taken by earlier movements is not taken into account.
+     *
+     * @param source A source storage to extract from.
+     * @param destination A destination storage to insert to.
+     * @param requests The move requests.
+     * @param simulate If the movement should be simulated.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @return The moved quantity for each request, in the same order as the requests.
+     * @throws InconsistentIngredientInsertionException When ingredients are lost due to inconsistent simulation.
+     */
+    public static <T, M> long[] moveIngredientsBatch(IIngredientComponentStorage<T, M> source,
+                                                     IIngredientComponentStorage<T, M> destination,
+                                                     List<IngredientMoveRequest<T, M>> requests, boolean simulate)
+            throws InconsistentIngredientInsertionException {
+        if (simulate && isTransactional(source, destination)) {
+            // Move for real, so that all movements take each other into account, and undo everything afterwards.
+            IIngredientComponentStorageTransactional<T, M> sourceTransactional = (IIngredientComponentStorageTransactional<T, M>) source;
+            IIngredientComponentStorageTransactional<T, M> destinationTransactional = (IIngredientComponentStorageTransactional<T, M>) destination;
+            sourceTransactional.beginTransaction();
+            destinationTransactional.beginTransaction();
+            try {
+                return moveIngredientsBatch(source, destination, requests, false);
+            } finally {
+                destinationTransactional.rollbackTransaction();
+                sourceTransactional.rollbackTransaction();
+            }
+        }
+
+        IngredientComponent<T, M> component = source.getComponent();
+        IIngredientMatcher<T, M> matcher = component.getMatcher();
+        long[] moved = new long[requests.size()];
+        List<M> matchConditions = Lists.newArrayListWithCapacity(requests.size());
+        int pending = 0;
+        for (IngredientMoveRequest<T, M> request : requests) {
+            matchConditions.add(matcher.withoutCondition(request.getMatchCondition(),
+                    component.getPrimaryQuantifier().getMatchCondition()));
+            if (request.getMaxQuantity() > 0) {
+                pending++;
+            }
+        }
+
+        if (source instanceof IIngredientComponentStorageSlotted) {
+            IIngredientComponentStorageSlotted<T, M> sourceSlotted = (IIngredientComponentStorageSlotted<T, M>) source;
+            IntIterator slots = getSourceSlots(sourceSlotted);
+            while (pending > 0 && slots.hasNext()) {
+                int slot = slots.nextInt();
+                pending -= moveIngredientsBatchInstance(source, slot, destination, sourceSlotted.getSlotContents(slot),
+                        requests, matchConditions, moved, simulate);
+            }
+        } else if (pending > 0) {
+            // The source will be modified during iteration
+            Iterator<T> it = new IngredientStorageRestartingIterator<>(component, source::iterator);
+            while (pending > 0 && it.hasNext()) {
+                pending -= moveIngredientsBatchInstance(source, -1, destination, it.next(),
+                        requests, matchConditions, moved, simulate);
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Move the given source instance for all matching requests, until the instance is exhausted,
+     * or the destination does not accept any more.
+     * @param source A source storage to extract from.
+     * @param sourceSlot The source slot of the instance, or -1 if the source is slotless.
+     * @param destination A destination storage to insert to.
+     * @param instance The source instance.
+     * @param requests The move requests.
+     * @param matchConditions The match conditions of the requests, without quantity condition.
+     * @param moved The moved quantities of the requests, which will be updated.
+     * @param simulate If the movement should be simulated.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @return The number of requests that were completed.
+     * @throws InconsistentIngredientInsertionException When ingredients are lost due to inconsistent simulation.
+     */
+    protected static <T, M> int moveIngredientsBatchInstance(IIngredientComponentStorage<T, M> source, int sourceSlot,
+                                                             IIngredientComponentStorage<T, M> destination, T instance,
+                                                             List<IngredientMoveRequest<T, M>> requests, List<M> matchConditions,
+                                                             long[] moved, boolean simulate)
+            throws InconsistentIngredientInsertionException {
+        IIngredientMatcher<T, M> matcher = source.getComponent().getMatcher();
+        int completed = 0;
+        int requestIndex = getBatchRequestIndex(matcher, requests, matchConditions, moved, instance);
+        while (requestIndex >= 0) {
+            long maxQuantity = requests.get(requestIndex).getMaxQuantity();
+            long movedQuantity;
+            do {
+                // Each movement may be limited by rate limits or by a single destination slot
+                T prototype = matcher.withQuantity(instance, maxQuantity - moved[requestIndex]);
+                movedQuantity = matcher.getQuantity(sourceSlot >= 0
+                        ? moveIngredientsSlotted(source, sourceSlot, destination, -1, prototype, matcher.getExactMatchNoQuantityCondition(), simulate)
+                        : moveIngredient(source, destination, prototype, matcher.getExactMatchNoQuantityCondition(), simulate));
+                moved[requestIndex] += movedQuantity;
+            } while (!simulate && movedQuantity > 0 && moved[requestIndex] < maxQuantity);
+
+            if (moved[requestIndex] < maxQuantity) {
+                // The instance is exhausted, or the destination does not accept it anymore
+                break;
+            }
+            completed++;
+            if (simulate) {
+                // Simulated movements did not reduce the instance, so it should not be moved again
+                break;
+            }
+
+            // Try moving the remainder for the next matching request
+            if (sourceSlot >= 0) {
+                instance = ((IIngredientComponentStorageSlotted<T, M>) source).getSlotContents(sourceSlot);
+            }
+            requestIndex = getBatchRequestIndex(matcher, requests, matchConditions, moved, instance);
+        }
+        return completed;
+    }
+
+    protected static <T, M> int getBatchRequestIndex(IIngredientMatcher<T, M> matcher,
+                                                     List<IngredientMoveRequest<T, M>> requests, List<M> matchConditions,
+                                                     long[] moved, T instance) {
+        if (!matcher.isEmpty(instance)) {
+            for (int i = 0; i < moved.length; i++) {
+                IngredientMoveRequest<T, M> request = requests.get(i);
+                if (moved[i] < request.getMaxQuantity()
+                        && matcher.matches(request.getInstance(), instance, matchConditions.get(i))) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
     /**
      * Move ingredients from source to target with optional source and target slots,
      * based on an ingredient prototype and match condition.
@@ -292,8 +482,18 @@ public final class IngredientStorageHelpers {
                 return matcher.getEmptyInstance();
             }
 
-            // Extract from source slot (simulated)
             long prototypeQuantity = matcher.getQuantity(instance);
+            if (!simulate && isTransactional(source, destination)) {
+                return moveTransactional((IIngredientComponentStorageTransactional<T, M>) source,
+                        (IIngredientComponentStorageTransactional<T, M>) destination,
+                        () -> sourceSlotted.extract(sourceSlot, prototypeQuantity, false),
+                        extracted -> matcher.matches(instance, extracted, matchCondition),
+                        extracted -> sourceSlotted.extract(sourceSlot, matcher.getQuantity(extracted), false),
+                        extracted -> destinationSlotted.insert(destinationSlot, extracted, false),
+                        matcher.hasCondition(matchCondition, source.getComponent().getPrimaryQuantifier().getMatchCondition()));
+            }
+
+            // Extract from source slot (simulated)
             T extractedSimulated = sourceSlotted.extract(sourceSlot, prototypeQuantity, true);
             if (!matcher.isEmpty(extractedSimulated) && matcher.matches(instance, extractedSimulated, matchCondition)) {
                 // Insert into target slot  (simulated)
@@ -310,9 +510,9 @@ public final class IngredientStorageHelpers {
             if (source instanceof IIngredientComponentStorageSlotted) {
                 // Recursively call movement logic for each slot in the source if slotted.
                 IIngredientComponentStorageSlotted<T, M> sourceSlotted = (IIngredientComponentStorageSlotted<T, M>) source;
-                int slots = sourceSlotted.getSlots();
-                for (int slot = 0; slot < slots; slot++) {
-                    T moved = moveIngredientsSlotted(source, slot, destination, destinationSlot, instance, matchCondition, simulate);
+                IntIterator slots = getSourceSlots(sourceSlotted, instance, matchCondition);
+                while (slots.hasNext()) {
+                    T moved = moveIngredientsSlotted(source, slots.nextInt(), destination, destinationSlot, instance, matchCondition, simulate);
                     if (!matcher.isEmpty(moved)) {
                         return moved;
                     }
@@ -380,9 +580,9 @@ public final class IngredientStorageHelpers {
             if (destination instanceof IIngredientComponentStorageSlotted) {
                 // Recursively call movement logic for each slot in the destination if slotted.
                 IIngredientComponentStorageSlotted<T, M> destinationSlotted = (IIngredientComponentStorageSlotted<T, M>) destination;
-                int slots = destinationSlotted.getSlots();
-                for (int slot = 0; slot < slots; slot++) {
-                    T moved = moveIngredientsSlotted(source, sourceSlot, destination, slot, instance, matchCondition, simulate);
+                IntIterator slots = getDestinationSlots((IIngredientComponentStorageSlotted<T, M>) source, sourceSlot, destinationSlotted);
+                while (slots.hasNext()) {
+                    T moved = moveIngredientsSlotted(source, sourceSlot, destination, slots.nextInt(), instance, matchCondition, simulate);
                     if (!matcher.isEmpty(moved)) {
                         return moved;
                     }
@@ -397,6 +597,15 @@ public final class IngredientStorageHelpers {
                 }
 
                 long prototypeQuantity = matcher.getQuantity(instance);
+                if (!simulate && isTransactional(source, destination)) {
+                    return moveTransactional((IIngredientComponentStorageTransactional<T, M>) source,
+                            (IIngredientComponentStorageTransactional<T, M>) destination,
+                            () -> sourceSlotted.extract(sourceSlot, prototypeQuantity, false),
+                            extracted -> matcher.matches(instance, extracted, matchCondition),
+                            extracted -> sourceSlotted.extract(sourceSlot, matcher.getQuantity(extracted), false),
+                            extracted -> destination.insert(extracted, false),
+                            matcher.hasCondition(matchCondition, source.getComponent().getPrimaryQuantifier().getMatchCondition()));
+                }
                 T sourceInstance = sourceSlotted.extract(sourceSlot, prototypeQuantity, true);
                 if (!matcher.isEmpty(sourceInstance) && matcher.matches(instance, sourceInstance, matchCondition)) {
                     T inserted = insertIngredient(destination, sourceInstance, true);
@@ -461,6 +670,16 @@ public final class IngredientStorageHelpers {
                 return matcher.getEmptyInstance();
             }
 
+            if (!simulate && isTransactional(source, destination)) {
+                return moveTransactional((IIngredientComponentStorageTransactional<T, M>) source,
+                        (IIngredientComponentStorageTransactional<T, M>) destination,
+                        () -> sourceSlotted.extract(sourceSlot, maxQuantity, false),
+                        extracted -> predicate.test(extracted) && (!exactQuantity || matcher.getQuantity(extracted) == maxQuantity),
+                        extracted -> sourceSlotted.extract(sourceSlot, matcher.getQuantity(extracted), false),
+                        extracted -> destinationSlotted.insert(destinationSlot, extracted, false),
+                        exactQuantity);
+            }
+
             // Extract from source slot (simulated)
             T extractedSimulated = sourceSlotted.extract(sourceSlot, maxQuantity, true);
             if (!matcher.isEmpty(extractedSimulated) && predicate.test(extractedSimulated)
@@ -477,9 +696,9 @@ public final class IngredientStorageHelpers {
             if (source instanceof IIngredientComponentStorageSlotted) {
                 // Recursively call movement logic for each slot in the source if slotted.
                 IIngredientComponentStorageSlotted<T, M> sourceSlotted = (IIngredientComponentStorageSlotted<T, M>) source;
-                int slots = sourceSlotted.getSlots();
-                for (int slot = 0; slot < slots; slot++) {
-                    T moved = moveIngredientsSlotted(source, slot, destination, destinationSlot, predicate, maxQuantity, exactQuantity, simulate);
+                IntIterator slots = getSourceSlots(sourceSlotted);
+                while (slots.hasNext()) {
+                    T moved = moveIngredientsSlotted(source, slots.nextInt(), destination, destinationSlot, predicate, maxQuantity, exactQuantity, simulate);
                     if (!matcher.isEmpty(moved)) {
                         return moved;
                     }
@@ -543,9 +762,9 @@ public final class IngredientStorageHelpers {
             if (destination instanceof IIngredientComponentStorageSlotted) {
                 // Recursively call movement logic for each slot in the destination if slotted.
                 IIngredientComponentStorageSlotted<T, M> destinationSlotted = (IIngredientComponentStorageSlotted<T, M>) destination;
-                int slots = destinationSlotted.getSlots();
-                for (int slot = 0; slot < slots; slot++) {
-                    T moved = moveIngredientsSlotted(source, sourceSlot, destination, slot, predicate, maxQuantity, exactQuantity, simulate);
+                IntIterator slots = getDestinationSlots((IIngredientComponentStorageSlotted<T, M>) source, sourceSlot, destinationSlotted);
+                while (slots.hasNext()) {
+                    T moved = moveIngredientsSlotted(source, sourceSlot, destination, slots.nextInt(), predicate, maxQuantity, exactQuantity, simulate);
                     if (!matcher.isEmpty(moved)) {
                         return moved;
                     }
@@ -559,6 +778,15 @@ public final class IngredientStorageHelpers {
                     return matcher.getEmptyInstance();
                 }
 
+                if (!simulate && isTransactional(source, destination)) {
+                    return moveTransactional((IIngredientComponentStorageTransactional<T, M>) source,
+                            (IIngredientComponentStorageTransactional<T, M>) destination,
+                            () -> sourceSlotted.extract(sourceSlot, maxQuantity, false),
+                            extracted -> predicate.test(extracted) && (!exactQuantity || matcher.getQuantity(extracted) == maxQuantity),
+                            extracted -> sourceSlotted.extract(sourceSlot, matcher.getQuantity(extracted), false),
+                            extracted -> destination.insert(extracted, false),
+                            exactQuantity);
+                }
                 T sourceInstance = sourceSlotted.extract(sourceSlot, maxQuantity, true);
                 if (!matcher.isEmpty(sourceInstance) && predicate.test(sourceInstance)) {
                     T inserted = insertIngredient(destination, sourceInstance, true);
@@ -572,6 +800,145 @@ public final class IngredientStorageHelpers {
         return matcher.getEmptyInstance();
     }
 
+    /**
+     * Get the source slots that could contain instances matching the given prototype.
+     * @param sourceSlotted A slotted storage.
+     * @param instance The prototype instance.
+     * @param matchCondition The match condition.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @return The slots, in ascending order.
+     *         If the storage is indexed, only the matching slots are returned, otherwise all slots are returned.
+     */
+    protected static <T, M> IntIterator getSourceSlots(IIngredientComponentStorageSlotted<T, M> sourceSlotted,
+                                                       T instance, M matchCondition) {
+        if (sourceSlotted instanceof IIngredientComponentStorageSlottedIndexed) {
+            return IntIterators.wrap(((IIngredientComponentStorageSlottedIndexed<T, M>) sourceSlotted)
+                    .getSlotsMatching(instance, matchCondition));
+        }
+        return IntIterators.fromTo(0, sourceSlotted.getSlots());
+    }
+
+    /**
+     * Get the source slots that could contain any instance.
+     * @param sourceSlotted A slotted storage.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @return The slots, in ascending order.
+     *         If the storage is indexed, only the non-empty slots are returned, otherwise all slots are returned.
+     */
+    protected static <T, M> IntIterator getSourceSlots(IIngredientComponentStorageSlotted<T, M> sourceSlotted) {
+        if (sourceSlotted instanceof IIngredientComponentStorageSlottedIndexed) {
+            return IntIterators.wrap(((IIngredientComponentStorageSlottedIndexed<T, M>) sourceSlotted).getSlotsNonEmpty());
+        }
+        return IntIterators.fromTo(0, sourceSlotted.getSlots());
+    }
+
+    /**
+     * Get the destination slots into which the contents of the given source slot could be inserted.
+     * @param sourceSlotted A slotted source storage.
+     * @param sourceSlot A source slot.
+     * @param destinationSlotted A slotted destination storage.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @return The slots, in ascending order.
+     *         If the destination is indexed, only the slots that can accept the source contents are returned,
+     *         otherwise all slots are returned.
+     */
+    protected static <T, M> IntIterator getDestinationSlots(IIngredientComponentStorageSlotted<T, M> sourceSlotted, int sourceSlot,
+                                                            IIngredientComponentStorageSlotted<T, M> destinationSlotted) {
+        if (destinationSlotted instanceof IIngredientComponentStorageSlottedIndexed) {
+            if (sourceSlot >= sourceSlotted.getSlots()) {
+                return IntIterators.EMPTY_ITERATOR;
+            }
+            T sourceInstance = sourceSlotted.getSlotContents(sourceSlot);
+            if (sourceSlotted.getComponent().getMatcher().isEmpty(sourceInstance)) {
+                return IntIterators.EMPTY_ITERATOR;
+            }
+            return IntIterators.wrap(((IIngredientComponentStorageSlottedIndexed<T, M>) destinationSlotted)
+                    .getSlotsInsertable(sourceInstance));
+        }
+        return IntIterators.fromTo(0, destinationSlotted.getSlots());
+    }
+
+    /**
+     * @param source A source storage.
+     * @param destination A destination storage.
+     * @return If movements between the given storages can be done within transactions.
+     */
+    public static boolean isTransactional(IIngredientComponentStorage<?, ?> source,
+                                          IIngredientComponentStorage<?, ?> destination) {
+        return source instanceof IIngredientComponentStorageTransactional
+                && destination instanceof IIngredientComponentStorageTransactional;
+    }
+
+    /**
+     * Move an instance from source to destination within a transaction on both storages,
+     * instead of simulating the movement first.
+     *
+     * If the destination only accepts part of the extracted instance,
+     * the transaction is rolled back, and only the accepted quantity is moved.
+     *
+     * @param source A source storage to extract from.
+     * @param destination A destination storage to insert to.
+     * @param extractor Extracts the instance to move from the source, non-simulated.
+     * @param extractedFilter If the extracted instance may be moved.
+     * @param reextractor Extracts at most the given instance from the source, non-simulated.
+     * @param inserter Inserts the given instance into the destination, non-simulated, and returns the remainder.
+     * @param exactQuantity If only the complete extracted quantity may be moved.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @return The moved ingredient.
+     */
+    protected static <T, M> T moveTransactional(IIngredientComponentStorageTransactional<T, M> source,
+                                                IIngredientComponentStorageTransactional<T, M> destination,
+                                                Supplier<T> extractor, Predicate<T> extractedFilter,
+                                                UnaryOperator<T> reextractor, UnaryOperator<T> inserter,
+                                                boolean exactQuantity) {
+        IIngredientMatcher<T, M> matcher = source.getComponent().getMatcher();
+        source.beginTransaction();
+        destination.beginTransaction();
+        boolean committed = false;
+        try {
+            T extracted = extractor.get();
+            if (!matcher.isEmpty(extracted) && extractedFilter.test(extracted)) {
+                long extractedQuantity = matcher.getQuantity(extracted);
+                long movedQuantity = extractedQuantity - matcher.getQuantity(inserter.apply(extracted));
+                if (movedQuantity == extractedQuantity) {
+                    committed = true;
+                    destination.commitTransaction();
+                    source.commitTransaction();
+                    return extracted;
+                }
+
+                if (movedQuantity > 0 && !exactQuantity) {
+                    // Undo everything, and only move what the destination accepted,
+                    // so that the remainder does not have to be inserted back into the source.
+                    destination.rollbackTransaction();
+                    source.rollbackTransaction();
+                    source.beginTransaction();
+                    destination.beginTransaction();
+                    T movable = matcher.withQuantity(extracted, movedQuantity);
+                    T reextracted = reextractor.apply(movable);
+                    if (!matcher.isEmpty(reextracted) && matcher.getQuantity(reextracted) <= movedQuantity
+                            && matcher.matches(movable, reextracted, matcher.getExactMatchNoQuantityCondition())
+                            && matcher.isEmpty(inserter.apply(reextracted))) {
+                        committed = true;
+                        destination.commitTransaction();
+                        source.commitTransaction();
+                        return reextracted;
+                    }
+                }
+            }
+        } finally {
+            if (!committed) {
+                destination.rollbackTransaction();
+                source.rollbackTransaction();
+            }
+        }
+        return matcher.getEmptyInstance();
+    }
+
     protected static <T, M> T moveEffectiveSourceExactDestinationExact(IIngredientComponentStorageSlotted<T, M> sourceSlotted, int sourceSlot,
                                                                        IIngredientComponentStorageSlotted<T, M> destinationSlotted, int destinationSlot,
                                                                        T extractedSimulated, T remaining, boolean simulate)
@@ -713,6 +1080,14 @@ public final class IngredientStorageHelpers {
                                           T instance, M matchCondition, boolean simulate)
             throws InconsistentIngredientInsertionException {
         IIngredientMatcher<T, M> matcher = source.getComponent().getMatcher();
+        if (!simulate && isTransactional(source, destination)) {
+            return moveTransactional((IIngredientComponentStorageTransactional<T, M>) source,
+                    (IIngredientComponentStorageTransactional<T, M>) destination,
+                    () -> source.extract(instance, matchCondition, false), extracted -> true,
+                    extracted -> source.extract(extracted, matcher.getExactMatchNoQuantityCondition(), false),
+                    extracted -> destination.insert(extracted, false),
+                    matcher.hasCondition(matchCondition, source.getComponent().getPrimaryQuantifier().getMatchCondition()));
+        }
         T extractedSimulated = source.extract(instance, matchCondition, true);
         if (!matcher.isEmpty(extractedSimulated)) {
             long movableQuantity = insertIngredientQuantity(destination, extractedSimulated, true);
@@ -862,6 +1237,25 @@ public final class IngredientStorageHelpers {
         return tag;
     }
 
+    /**
+     * Serialize the given storage to an NBT tag,
+     * where the ingredients are stored in the compact format of {@link IngredientCollections#serializeCompact}.
+     *
+     * The max quantity and whether or not it is slotted will be stored as well.
+     * The result can be deserialized using {@link #deserialize(CompoundTag, long)}.
+     *
+     * @param storage An ingredient storage.
+     * @param <T> The instance type.
+     * @param <M> The matching condition parameter.
+     * @return An NBT tag.
+     */
+    public static <T, M> CompoundTag serializeCompact(IIngredientComponentStorage<T, M> storage) {
+        CompoundTag tag = IngredientCollections.serializeCompact(new IngredientArrayList<>(storage.getComponent(), storage.iterator()));
+        tag.putLong("maxQuantity", storage.getMaxQuantity());
+        tag.putBoolean("slotted", storage instanceof IIngredientComponentStorageSlotted);
+        return tag;
+    }
+
     /**
      * Deserialize the storage from the given NBT tag.
      *
@@ -0,0 +1,94 @@
+package org.cyclops.cyclopscore.ingredient.storage;
+
+import com.google.common.collect.Lists;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenCustomHashMap;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientHashStrategy;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+/**
+ * An iterator over the instances of a storage that may be modified during iteration,
+ * such as by movements or by rolled back transactions, which can invalidate regular storage iterators.
+ *
+ * Instances are buffered in chunks of doubling size.
+ * For each next chunk, the storage is iterated again from the start,
+ * skipping the instances that were already returned.
+ * So only the returned instances are kept, instead of a copy of the whole storage,
+ * and as long as the storage iteration order is stable,
+ * the number of visited instances stays linear in the number of returned instances.
+ *
+ * Instances are compared exactly, including their quantity,
+ * so instances of which the quantity was changed in the meantime will be returned again.
+ * Equal instances are counted, so that storages that contain the same instance multiple times
+ * return it that many times, unless some of those were removed in the meantime.
+ *
+ * @param <T> The instance type.
+ * @param <M> The matching condition parameter.
+ * @author rubensworks
+ */
+public class IngredientStorageRestartingIterator<T, M> implements Iterator<T> {
+
+    private final Supplier<Iterator<T>> iteratorSupplier;
+    private final Object2IntOpenCustomHashMap<T> returnedCounts;
+    private final List<T> chunk;
+    private int chunkIndex;
+    private int chunkSize;
+    private boolean exhausted;
+
+    /**
+     * @param component The component type.
+     * @param iteratorSupplier A supplier for new iterators over the current instances of the storage.
+     */
+    public IngredientStorageRestartingIterator(IngredientComponent<T, M> component, Supplier<Iterator<T>> iteratorSupplier) {
+        this.iteratorSupplier = iteratorSupplier;
+        this.returnedCounts = new Object2IntOpenCustomHashMap<>(new IngredientHashStrategy<>(component));
+        this.chunk = Lists.newArrayList();
+        this.chunkIndex = 0;
+        this.chunkSize = 1;
+        this.exhausted = false;
+    }
+
+    /**
+     * Fill the chunk with the next instances that were not returned yet.
+     */
+    protected void fillChunk() {
+        chunk.clear();
+        chunkIndex = 0;
+        Object2IntOpenCustomHashMap<T> skipCounts = returnedCounts.clone();
+        Iterator<T> it = iteratorSupplier.get();
+        while (chunk.size() < chunkSize && it.hasNext()) {
+            T instance = it.next();
+            int skipCount = skipCounts.getInt(instance);
+            if (skipCount > 0) {
+                skipCounts.put(instance, skipCount - 1);
+            } else {
+                chunk.add(instance);
+            }
+        }
+        exhausted = !it.hasNext();
+        chunkSize *= 2;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (chunkIndex >= chunk.size() && !exhausted) {
+            fillChunk();
+        }
+        return chunkIndex < chunk.size();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T instance = chunk.get(chunkIndex++);
+        returnedCounts.addTo(instance, 1);
+        return instance;
+    }
+
+}
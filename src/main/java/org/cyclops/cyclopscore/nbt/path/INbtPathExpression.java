@@ -2,6 +2,8 @@ package org.cyclops.cyclopscore.nbt.path;
 
 import net.minecraft.nbt.ByteTag;
 import net.minecraft.nbt.Tag;
+import org.cyclops.cyclopscore.nbt.path.compile.INbtPathCompiledNode;
+import org.cyclops.cyclopscore.nbt.path.compile.NbtPathCompiledNodeAdapter;
 import org.cyclops.cyclopscore.nbt.path.navigate.INbtPathNavigation;
 import org.cyclops.cyclopscore.nbt.path.parse.NbtPathExpressionExecutionContext;
 
@@ -37,9 +39,11 @@ public interface INbtPathExpression {
      * @return True if there is at least one match.
      */
     public default boolean test(Stream<Tag> nbts) {
+        // Lazy contexts avoid evaluating intermediary lists, as list tags are always truthy
         return this.match(nbts.limit(1))
-                .getMatches()
+                .getLazyContexts()
                 .findAny()
+                .map(NbtPathExpressionExecutionContext::getCurrentTag)
                 .filter(tag -> tag.getId() != Tag.TAG_BYTE || ((ByteTag) tag).getAsByte() == (byte) 1) // Filter truthy values
                 .isPresent();
     }
@@ -60,6 +64,17 @@ public interface INbtPathExpression {
      */
     public NbtPathExpressionMatches matchContexts(Stream<NbtPathExpressionExecutionContext> executionContexts);
 
+    /**
+     * Create a compiled node for this expression that passes its results to the given node.
+     * By default, this falls back to {@link #matchContexts(Stream)}.
+     * @param next The next node.
+     * @return A compiled node.
+     * @see NbtPath#compile(INbtPathExpression)
+     */
+    public default INbtPathCompiledNode compile(INbtPathCompiledNode next) {
+        return new NbtPathCompiledNodeAdapter(this, next);
+    }
+
     /**
      * Create a navigation for this expression with the given navigation as child.
      * If no child is passed, the created navigation is a leaf.
@@ -5,8 +5,22 @@ package org.cyclops.cyclopscore.nbt.path;
  */
 public class NbtParseException extends Exception {
 
+    private final int position;
+
     public NbtParseException(String msg) {
+        this(msg, -1);
+    }
+
+    public NbtParseException(String msg, int position) {
         super(msg);
+        this.position = position;
+    }
+
+    /**
+     * @return The position in the expression string at which parsing failed, or -1 if unknown.
+     */
+    public int getPosition() {
+        return position;
     }
 
 }
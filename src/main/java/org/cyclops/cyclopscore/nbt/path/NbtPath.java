@@ -1,64 +1,79 @@
 package org.cyclops.cyclopscore.nbt.path;
 
-import com.google.common.collect.Lists;
-import org.cyclops.cyclopscore.nbt.path.parse.*;
-
-import java.util.List;
+import org.cyclops.cyclopscore.nbt.path.compile.NbtPathCompiledExpression;
+import org.cyclops.cyclopscore.nbt.path.parse.NbtPathParser;
 
 /**
- * Utility class for parsing NBT path expressions.
+ * Utility class for parsing and compiling NBT path expressions.
  */
 public class NbtPath {
 
-    private static final List<INbtPathExpressionParseHandler> PARSE_HANDLERS = Lists.newArrayList(
-            new NbtPathExpressionParseHandlerRoot(),
-            new NbtPathExpressionParseHandlerLength(),
-            new NbtPathExpressionParseHandlerChild(),
-            new NbtPathExpressionParseHandlerChildBrackets(),
-            new NbtPathExpressionParseHandlerParent(),
-            new NbtPathExpressionParseHandlerAllChildren(),
-            new NbtPathExpressionParseHandlerCurrent(),
-            new NbtPathExpressionParseHandlerListElement(),
-            new NbtPathExpressionParseHandlerListSlice(),
-            new NbtPathExpressionParseHandlerUnion(),
-            new NbtPathExpressionParseHandlerBooleanRelationalLessThan(),
-            new NbtPathExpressionParseHandlerBooleanRelationalLessThanOrEqual(),
-            new NbtPathExpressionParseHandlerBooleanRelationalGreaterThan(),
-            new NbtPathExpressionParseHandlerBooleanRelationalGreaterThanOrEqual(),
-            new NbtPathExpressionParseHandlerBooleanRelationalEqual(),
-            new NbtPathExpressionParseHandlerStringEqual(),
-            new NbtPathExpressionParseHandlerFilterExpression()
-    );
+    public static final int DEFAULT_PARSE_CACHE_CAPACITY = 1024;
+    private static volatile NbtPathParseCache parseCache = new NbtPathParseCache(DEFAULT_PARSE_CACHE_CAPACITY);
 
     /**
      * Parse an NBT path expression string into an in-memory representation.
      * @param nbtPathExpression An NBT path expression string
      * @return An in-memory representation of the given expression.
-     * @throws NbtParseException An exception that can be thrown if parsing failed.
+     * @throws NbtParseException An exception that can be thrown if parsing failed,
+     *                           with the position of the failure.
+     * @see NbtPathParser
      */
     public static INbtPathExpression parse(String nbtPathExpression) throws NbtParseException {
-        List<INbtPathExpression> expressions = Lists.newArrayList();
+        return NbtPathParser.parse(nbtPathExpression);
+    }
+
+    /**
+     * Parse an NBT path expression string into an in-memory representation,
+     * or get it from a shared cache if the same string was parsed before.
+     * This should be preferred over {@link #parse(String)} for strings that are parsed repeatedly,
+     * such as paths from configs or packets.
+     * @param nbtPathExpression An NBT path expression string
+     * @return An in-memory representation of the given expression.
+     * @throws NbtParseException An exception that can be thrown if parsing failed now or before.
+     */
+    public static INbtPathExpression parseCached(String nbtPathExpression) throws NbtParseException {
+        return parseCache.parse(nbtPathExpression);
+    }
 
-        int pos = 0;
-        while (pos < nbtPathExpression.length()) {
-            boolean handled = false;
-            for (INbtPathExpressionParseHandler parseHandler : NbtPath.PARSE_HANDLERS) {
-                INbtPathExpressionParseHandler.HandleResult handleResult = parseHandler.handlePrefixOf(nbtPathExpression, pos);
-                if (handleResult.isValid()) {
-                    pos += handleResult.getConsumedExpressionLength();
-                    expressions.add(handleResult.getPrefixExpression());
-                    handled = true;
-                    break;
-                }
-            }
+    /**
+     * @return The shared cache of {@link #parseCached(String)}.
+     */
+    public static NbtPathParseCache getParseCache() {
+        return parseCache;
+    }
 
-            if (!handled) {
-                throw new NbtParseException(String.format("Failed to parse expression at pos '%s'",
-                        pos, nbtPathExpression));
-            }
+    /**
+     * Replace the shared cache of {@link #parseCached(String)} by an empty cache with the given capacity.
+     * @param capacity The maximum number of cached expressions.
+     */
+    public static void setParseCacheCapacity(int capacity) {
+        parseCache = new NbtPathParseCache(capacity);
+    }
+
+    /**
+     * Compile the given expression into an equivalent expression
+     * that is executed without streams and intermediary execution contexts.
+     * This is useful for expressions that are executed many times.
+     * @param expression An expression.
+     * @return The compiled expression.
+     */
+    public static INbtPathExpression compile(INbtPathExpression expression) {
+        if (expression instanceof NbtPathCompiledExpression) {
+            return expression;
         }
+        return new NbtPathCompiledExpression(expression);
+    }
 
-        return new NbtPathExpressionList(expressions.toArray(new INbtPathExpression[0]));
+    /**
+     * Parse and compile an NBT path expression string.
+     * @param nbtPathExpression An NBT path expression string
+     * @return A compiled in-memory representation of the given expression.
+     * @throws NbtParseException An exception that can be thrown if parsing failed.
+     * @see #compile(INbtPathExpression)
+     */
+    public static INbtPathExpression compile(String nbtPathExpression) throws NbtParseException {
+        return compile(parse(nbtPathExpression));
     }
 
 }
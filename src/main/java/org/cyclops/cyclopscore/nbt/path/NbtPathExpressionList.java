@@ -1,5 +1,6 @@
 package org.cyclops.cyclopscore.nbt.path;
 
+import org.cyclops.cyclopscore.nbt.path.compile.INbtPathCompiledNode;
 import org.cyclops.cyclopscore.nbt.path.navigate.INbtPathNavigation;
 import org.cyclops.cyclopscore.nbt.path.parse.NbtPathExpressionExecutionContext;
 
@@ -21,26 +22,29 @@ public class NbtPathExpressionList implements INbtPathExpression {
     public NbtPathExpressionMatches matchContexts(Stream<NbtPathExpressionExecutionContext> executionContexts) {
         NbtPathExpressionMatches matches = new NbtPathExpressionMatches(executionContexts);
         for (INbtPathExpression subExpression : subExpressions) {
-            matches = subExpression.matchContexts(matches.getContexts());
+            matches = subExpression.matchContexts(matches.getLazyContexts());
         }
         return matches;
     }
 
+    @Override
+    public INbtPathCompiledNode compile(INbtPathCompiledNode next) {
+        INbtPathCompiledNode current = next;
+        for (int i = subExpressions.length - 1; i >= 0; i--) {
+            current = subExpressions[i].compile(current);
+        }
+        return current;
+    }
+
     public INbtPathExpression[] getSubExpressions() {
         return subExpressions;
     }
 
     @Override
     public INbtPathNavigation asNavigation(@Nullable INbtPathNavigation child) throws NbtParseException {
-        INbtPathNavigation current = null;
+        INbtPathNavigation current = child;
         for (int i = subExpressions.length - 1; i >= 0; i--) {
-            if (current != null) {
-                // Inner node
-                current = subExpressions[i].asNavigation(current);
-            } else {
-                // Leaf
-                current = subExpressions[i].asNavigation(null);
-            }
+            current = subExpressions[i].asNavigation(current);
         }
         return current;
     }
@@ -2,6 +2,7 @@ package org.cyclops.cyclopscore.nbt.path;
 
 import net.minecraft.nbt.Tag;
 import org.cyclops.cyclopscore.nbt.path.parse.NbtPathExpressionExecutionContext;
+import org.cyclops.cyclopscore.nbt.path.parse.NbtPathLazyListTag;
 
 import java.util.stream.Stream;
 
@@ -19,7 +20,27 @@ public class NbtPathExpressionMatches {
         this.matches = matches;
     }
 
+    /**
+     * @return The contexts, of which the current tags and the tags of all parent contexts are fully evaluated,
+     *         so that they no longer depend on the source tags.
+     */
     public Stream<NbtPathExpressionExecutionContext> getContexts() {
+        return matches.peek(context -> {
+            for (NbtPathExpressionExecutionContext current = context; current != null; current = current.getParentContext()) {
+                if (current.getCurrentTag() instanceof NbtPathLazyListTag) {
+                    ((NbtPathLazyListTag) current.getCurrentTag()).materialize();
+                }
+            }
+        });
+    }
+
+    /**
+     * Get the contexts, of which list tags may still be {@link NbtPathLazyListTag}s.
+     * This should only be used for passing contexts to subsequent expressions,
+     * which is why it is not exposed outside of this package.
+     * @return The contexts.
+     */
+    Stream<NbtPathExpressionExecutionContext> getLazyContexts() {
         return matches;
     }
 
@@ -0,0 +1,105 @@
+package org.cyclops.cyclopscore.nbt.path;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+
+import javax.annotation.Nullable;
+
+/**
+ * A thread-safe, size-bounded cache of parsed NBT path expressions.
+ *
+ * The least recently used expressions are evicted first.
+ * Parse failures are cached as well, so that invalid expressions are not parsed repeatedly.
+ * @see NbtPath#parseCached(String)
+ */
+public class NbtPathParseCache {
+
+    private final int capacity;
+    private final LoadingCache<String, Result> cache;
+
+    public NbtPathParseCache(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("The capacity of an NBT path parse cache can not be negative, got " + capacity);
+        }
+        this.capacity = capacity;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(capacity)
+                .recordStats()
+                .build(new CacheLoader<String, Result>() {
+                    @Override
+                    public Result load(String key) {
+                        try {
+                            return new Result(NbtPath.parse(key), null);
+                        } catch (NbtParseException e) {
+                            return new Result(null, e);
+                        }
+                    }
+                });
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Parse an NBT path expression string, or get it from the cache.
+     * @param nbtPathExpression An NBT path expression string
+     * @return An in-memory representation of the given expression.
+     * @throws NbtParseException An exception that can be thrown if parsing failed now or before.
+     */
+    public INbtPathExpression parse(String nbtPathExpression) throws NbtParseException {
+        Result result = cache.getUnchecked(nbtPathExpression);
+        if (result.getExpression() == null) {
+            NbtParseException error = result.getError();
+            throw new NbtParseException(error.getMessage(), error.getPosition());
+        }
+        return result.getExpression();
+    }
+
+    /**
+     * @return The hit, miss and eviction statistics of this cache.
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    /**
+     * @return The number of cached expressions, including failures.
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * Remove all cached expressions.
+     */
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    protected static class Result {
+
+        @Nullable
+        private final INbtPathExpression expression;
+        @Nullable
+        private final NbtParseException error;
+
+        public Result(@Nullable INbtPathExpression expression, @Nullable NbtParseException error) {
+            this.expression = expression;
+            this.error = error;
+        }
+
+        @Nullable
+        public INbtPathExpression getExpression() {
+            return expression;
+        }
+
+        @Nullable
+        public NbtParseException getError() {
+            return error;
+        }
+    }
+
+}
@@ -0,0 +1,24 @@
+package org.cyclops.cyclopscore.nbt.path.compile;
+
+import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
+
+/**
+ * A node in a compiled NBT path expression.
+ *
+ * Nodes are chained, where each node passes its results to the next node,
+ * so that a whole expression is executed depth-first without intermediary streams or collections.
+ * @see INbtPathExpression#compile(INbtPathCompiledNode)
+ */
+@FunctionalInterface
+public interface INbtPathCompiledNode {
+
+    /**
+     * Execute this node on the context at the given depth of the stack,
+     * and pass all resulting contexts to the next node.
+     * @param stack The execution stack.
+     * @param depth The depth of the current context in the stack.
+     * @return False if execution must be stopped, because no more results are needed.
+     */
+    public boolean execute(NbtPathExecutionStack stack, int depth);
+
+}
@@ -0,0 +1,113 @@
+package org.cyclops.cyclopscore.nbt.path.compile;
+
+import com.google.common.collect.Lists;
+import net.minecraft.nbt.ByteTag;
+import net.minecraft.nbt.Tag;
+import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
+import org.cyclops.cyclopscore.nbt.path.NbtParseException;
+import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionMatches;
+import org.cyclops.cyclopscore.nbt.path.navigate.INbtPathNavigation;
+import org.cyclops.cyclopscore.nbt.path.parse.NbtPathExpressionExecutionContext;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * An NBT path expression that was compiled into a chain of {@link INbtPathCompiledNode}s.
+ *
+ * It produces the same results as the original expression,
+ * but executes depth-first over a {@link NbtPathExecutionStack} instead of via streams,
+ * and {@link #test(Tag)} stops at the first match.
+ */
+public class NbtPathCompiledExpression implements INbtPathExpression {
+
+    /**
+     * A terminal node that adds each context to the results of the stack.
+     */
+    public static final INbtPathCompiledNode NODE_COLLECT = (stack, depth) -> {
+        stack.addResult(depth);
+        return true;
+    };
+    /**
+     * A terminal node that sets the test result of the stack for the first context, and stops execution.
+     */
+    public static final INbtPathCompiledNode NODE_TEST = (stack, depth) -> {
+        stack.setTestResult(isTruthy(stack.getTag(depth)));
+        return false;
+    };
+
+    private final INbtPathExpression expression;
+    private final INbtPathCompiledNode matchNode;
+    private final INbtPathCompiledNode testNode;
+
+    public NbtPathCompiledExpression(INbtPathExpression expression) {
+        this.expression = expression;
+        this.matchNode = expression.compile(NODE_COLLECT);
+        this.testNode = expression.compile(NODE_TEST);
+    }
+
+    /**
+     * @return The original expression.
+     */
+    public INbtPathExpression getExpression() {
+        return expression;
+    }
+
+    /**
+     * @param tag A tag.
+     * @return If the given tag is considered true as result of a test.
+     */
+    public static boolean isTruthy(Tag tag) {
+        return tag.getId() != Tag.TAG_BYTE || ((ByteTag) tag).getAsByte() == (byte) 1;
+    }
+
+    @Override
+    public NbtPathExpressionMatches match(Stream<Tag> nbts) {
+        NbtPathExecutionStack stack = new NbtPathExecutionStack();
+        List<NbtPathExpressionExecutionContext> results = Lists.newArrayList();
+        stack.setResults(results);
+        nbts.forEachOrdered(nbt -> stack.executeRoot(nbt, matchNode));
+        return new NbtPathExpressionMatches(results.stream());
+    }
+
+    @Override
+    public NbtPathExpressionMatches match(Tag nbt) {
+        NbtPathExecutionStack stack = new NbtPathExecutionStack();
+        List<NbtPathExpressionExecutionContext> results = Lists.newArrayList();
+        stack.setResults(results);
+        stack.executeRoot(nbt, matchNode);
+        return new NbtPathExpressionMatches(results.stream());
+    }
+
+    @Override
+    public boolean test(Stream<Tag> nbts) {
+        return nbts.findFirst().map(this::test).orElse(false);
+    }
+
+    @Override
+    public boolean test(Tag nbt) {
+        NbtPathExecutionStack stack = new NbtPathExecutionStack();
+        stack.executeRoot(nbt, testNode);
+        return stack.getTestResult();
+    }
+
+    @Override
+    public NbtPathExpressionMatches matchContexts(Stream<NbtPathExpressionExecutionContext> executionContexts) {
+        NbtPathExecutionStack stack = new NbtPathExecutionStack();
+        List<NbtPathExpressionExecutionContext> results = Lists.newArrayList();
+        stack.setResults(results);
+        executionContexts.forEachOrdered(executionContext -> stack.execute(executionContext, matchNode));
+        return new NbtPathExpressionMatches(results.stream());
+    }
+
+    @Override
+    public INbtPathCompiledNode compile(INbtPathCompiledNode next) {
+        return expression.compile(next);
+    }
+
+    @Override
+    public INbtPathNavigation asNavigation(@Nullable INbtPathNavigation child) throws NbtParseException {
+        return expression.asNavigation(child);
+    }
+}
@@ -0,0 +1,36 @@
+package org.cyclops.cyclopscore.nbt.path.compile;
+
+import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
+import org.cyclops.cyclopscore.nbt.path.parse.NbtPathExpressionExecutionContext;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * A compiled node that executes an expression via {@link INbtPathExpression#matchContexts(Stream)}.
+ * This is used as fallback for expressions that can not be compiled.
+ */
+public class NbtPathCompiledNodeAdapter implements INbtPathCompiledNode {
+
+    private final INbtPathExpression expression;
+    private final INbtPathCompiledNode next;
+
+    public NbtPathCompiledNodeAdapter(INbtPathExpression expression, INbtPathCompiledNode next) {
+        this.expression = expression;
+        this.next = next;
+    }
+
+    @Override
+    public boolean execute(NbtPathExecutionStack stack, int depth) {
+        Iterator<NbtPathExpressionExecutionContext> it = expression
+                .matchContexts(Stream.of(stack.toContext(depth)))
+                .getContexts()
+                .iterator();
+        while (it.hasNext()) {
+            if (!stack.execute(it.next(), next)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
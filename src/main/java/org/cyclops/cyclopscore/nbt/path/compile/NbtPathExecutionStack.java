@@ -0,0 +1,176 @@
+package org.cyclops.cyclopscore.nbt.path.compile;
+
+import net.minecraft.nbt.Tag;
+import org.cyclops.cyclopscore.nbt.path.parse.NbtPathExpressionExecutionContext;
+import org.cyclops.cyclopscore.nbt.path.parse.NbtPathLazyListTag;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The mutable state of a single execution of a compiled NBT path expression.
+ *
+ * The tags of the current execution context and all of its parent contexts are stored in an array,
+ * where the root context is at {@link #getRootDepth()}.
+ * This replaces the linked {@link NbtPathExpressionExecutionContext}s of the stream-based execution,
+ * so that no objects have to be created for intermediary contexts.
+ *
+ * A stack must only be used by a single thread.
+ */
+public class NbtPathExecutionStack {
+
+    private Tag[] tags;
+    private int rootDepth;
+    private boolean testResult;
+    @Nullable
+    private List<NbtPathExpressionExecutionContext> results;
+
+    public NbtPathExecutionStack() {
+        this.tags = new Tag[16];
+        this.rootDepth = 0;
+    }
+
+    /**
+     * @param depth A depth.
+     * @return The tag of the context at the given depth.
+     */
+    public Tag getTag(int depth) {
+        return tags[depth];
+    }
+
+    /**
+     * @return The depth of the root context.
+     */
+    public int getRootDepth() {
+        return rootDepth;
+    }
+
+    /**
+     * @param depth A depth.
+     * @return The depth of the parent context, or -1 if the context at the given depth is the root.
+     */
+    public int getParentDepth(int depth) {
+        return depth > rootDepth ? depth - 1 : -1;
+    }
+
+    /**
+     * Execute the given node on the given tag as root context.
+     * @param tag A tag.
+     * @param node A node.
+     * @return False if execution was stopped.
+     */
+    public boolean executeRoot(Tag tag, INbtPathCompiledNode node) {
+        tags[rootDepth] = tag;
+        return node.execute(this, rootDepth);
+    }
+
+    /**
+     * Execute the given node on the given tag as a child context of the context at the given depth.
+     * @param depth The depth of the parent context.
+     * @param tag A tag.
+     * @param node A node.
+     * @return False if execution was stopped.
+     */
+    public boolean push(int depth, Tag tag, INbtPathCompiledNode node) {
+        int childDepth = depth + 1;
+        ensureCapacity(childDepth + 1);
+        // Contexts above the current one may still be used by callers after a parent navigation
+        Tag previous = tags[childDepth];
+        tags[childDepth] = tag;
+        boolean result = node.execute(this, childDepth);
+        tags[childDepth] = previous;
+        return result;
+    }
+
+    /**
+     * Execute the given node on the given context, including its parent contexts.
+     * @param context A context.
+     * @param node A node.
+     * @return False if execution was stopped.
+     */
+    public boolean execute(NbtPathExpressionExecutionContext context, INbtPathCompiledNode node) {
+        int length = 0;
+        for (NbtPathExpressionExecutionContext current = context; current != null; current = current.getParentContext()) {
+            length++;
+        }
+        int depth = rootDepth + length - 1;
+        ensureCapacity(depth + 1);
+        Tag[] previous = Arrays.copyOfRange(tags, rootDepth, depth + 1);
+        int i = depth;
+        for (NbtPathExpressionExecutionContext current = context; current != null; current = current.getParentContext()) {
+            tags[i--] = current.getCurrentTag();
+        }
+        boolean result = node.execute(this, depth);
+        System.arraycopy(previous, 0, tags, rootDepth, previous.length);
+        return result;
+    }
+
+    /**
+     * Test the given tag as root context of a nested execution, such as within a filter.
+     * The nested execution happens on top of the current contexts, which will not be reachable from it.
+     * @param depth The depth of the current context.
+     * @param tag A tag.
+     * @param testNode A node that ends in {@link NbtPathCompiledExpression#NODE_TEST}.
+     * @return The test result.
+     */
+    public boolean test(int depth, Tag tag, INbtPathCompiledNode testNode) {
+        int previousRootDepth = this.rootDepth;
+        boolean previousTestResult = this.testResult;
+        this.rootDepth = depth + 1;
+        this.testResult = false;
+        push(depth, tag, testNode);
+        boolean result = this.testResult;
+        this.rootDepth = previousRootDepth;
+        this.testResult = previousTestResult;
+        return result;
+    }
+
+    public boolean getTestResult() {
+        return testResult;
+    }
+
+    public void setTestResult(boolean testResult) {
+        this.testResult = testResult;
+    }
+
+    public void setResults(@Nullable List<NbtPathExpressionExecutionContext> results) {
+        this.results = results;
+    }
+
+    /**
+     * Add the context at the given depth to the results.
+     * @param depth A depth.
+     */
+    public void addResult(int depth) {
+        if (results == null) {
+            throw new IllegalStateException("No results list was set on this execution stack");
+        }
+        results.add(toContext(depth));
+    }
+
+    /**
+     * Create an execution context for the given depth, including all of its parent contexts.
+     * Lazy list tags are materialized, as their evaluation may depend on this stack.
+     * @param depth A depth.
+     * @return An execution context.
+     */
+    public NbtPathExpressionExecutionContext toContext(int depth) {
+        NbtPathExpressionExecutionContext context = null;
+        for (int i = rootDepth; i <= depth; i++) {
+            Tag tag = tags[i];
+            if (tag instanceof NbtPathLazyListTag) {
+                ((NbtPathLazyListTag) tag).materialize();
+            }
+            context = new NbtPathExpressionExecutionContext(tag, context);
+        }
+        return context;
+    }
+
+    protected void ensureCapacity(int capacity) {
+        if (capacity > tags.length) {
+            tags = Arrays.copyOf(tags, Math.max(capacity, tags.length * 2));
+        }
+    }
+
+}
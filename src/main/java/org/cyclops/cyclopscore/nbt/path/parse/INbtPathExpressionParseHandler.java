@@ -6,7 +6,9 @@ import javax.annotation.Nullable;
 
 /**
  * Handles a string representation of an NBT path expression.
+ * @deprecated Expressions are parsed by {@link NbtPathParser}, this is only kept for compatibility.
  */
+@Deprecated
 public interface INbtPathExpressionParseHandler {
 
     /**
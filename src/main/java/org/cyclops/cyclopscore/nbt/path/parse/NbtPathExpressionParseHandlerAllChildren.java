@@ -5,6 +5,7 @@ import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
 import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
 import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionMatches;
+import org.cyclops.cyclopscore.nbt.path.compile.INbtPathCompiledNode;
 import org.cyclops.cyclopscore.nbt.path.navigate.INbtPathNavigation;
 import org.cyclops.cyclopscore.nbt.path.navigate.NbtPathNavigationLeafWildcard;
 import org.cyclops.cyclopscore.nbt.path.navigate.NbtPathNavigationLinkWildcard;
@@ -15,19 +16,10 @@ import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 /**
- * A handler that handles follows all child links of a tag via "*".
+ * Expressions that follow all child links of a tag via "*".
+ * These are produced by {@link NbtPathParser}.
  */
-public class NbtPathExpressionParseHandlerAllChildren implements INbtPathExpressionParseHandler {
-
-    @Nullable
-    @Override
-    public HandleResult handlePrefixOf(String nbtPathExpression, int pos) {
-        if (nbtPathExpression.charAt(pos) != '*') {
-            return HandleResult.INVALID;
-        }
-
-        return new HandleResult(NbtPathExpressionParseHandlerAllChildren.Expression.INSTANCE, 1);
-    }
+public class NbtPathExpressionParseHandlerAllChildren {
 
     public static class Expression implements INbtPathExpression {
 
@@ -53,6 +45,28 @@ public class NbtPathExpressionParseHandlerAllChildren implements INbtPathExpress
             );
         }
 
+        @Override
+        public INbtPathCompiledNode compile(INbtPathCompiledNode next) {
+            return (stack, depth) -> {
+                Tag nbt = stack.getTag(depth);
+                if (nbt.getId() == Tag.TAG_LIST) {
+                    for (Tag subTag : (ListTag) nbt) {
+                        if (!stack.push(depth, subTag, next)) {
+                            return false;
+                        }
+                    }
+                } else if (nbt.getId() == Tag.TAG_COMPOUND) {
+                    CompoundTag tag = (CompoundTag) nbt;
+                    for (String key : tag.getAllKeys()) {
+                        if (!stack.push(depth, tag.get(key), next)) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            };
+        }
+
         @Override
         public INbtPathNavigation asNavigation(@Nullable INbtPathNavigation child) {
             return child == null ? NbtPathNavigationLeafWildcard.INSTANCE : new NbtPathNavigationLinkWildcard(child);
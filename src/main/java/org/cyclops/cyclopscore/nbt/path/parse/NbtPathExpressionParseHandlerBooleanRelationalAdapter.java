@@ -5,40 +5,31 @@ import net.minecraft.nbt.Tag;
 import net.minecraft.nbt.NumericTag;
 import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
 import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionMatches;
+import org.cyclops.cyclopscore.nbt.path.compile.INbtPathCompiledNode;
 
-import javax.annotation.Nullable;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 /**
- * An abstract handler that handles boolean relational expressions.
+ * An abstract base for boolean relational expressions, which compare numeric tags with a number.
+ * These are produced by {@link NbtPathParser}.
  */
-public abstract class NbtPathExpressionParseHandlerBooleanRelationalAdapter implements INbtPathExpressionParseHandler {
+public abstract class NbtPathExpressionParseHandlerBooleanRelationalAdapter {
 
-    private final Pattern regex;
+    private final String relation;
 
     protected NbtPathExpressionParseHandlerBooleanRelationalAdapter(String relation) {
-        this.regex = Pattern.compile("^ *" + relation + " *([0-9]+(.[0-9]+)?)");
+        this.relation = relation;
     }
 
-    protected abstract boolean getRelationalValue(double left, double right);
-
-    @Nullable
-    @Override
-    public HandleResult handlePrefixOf(String nbtPathExpression, int pos) {
-        Matcher matcher = this.regex
-                .matcher(nbtPathExpression)
-                .region(pos, nbtPathExpression.length());
-        if (!matcher.find()) {
-            return HandleResult.INVALID;
-        }
-
-        String targetDoubleString = matcher.group(1);
-        double targetDouble = Double.parseDouble(targetDoubleString);
-        return new HandleResult(new Expression(targetDouble, this), matcher.group().length());
+    /**
+     * @return The relation operator, such as "&lt;".
+     */
+    public String getRelation() {
+        return relation;
     }
 
+    protected abstract boolean getRelationalValue(double left, double right);
+
     public static class Expression implements INbtPathExpression {
 
         private final double targetDouble;
@@ -69,5 +60,15 @@ public abstract class NbtPathExpressionParseHandlerBooleanRelationalAdapter impl
             );
         }
 
+        @Override
+        public INbtPathCompiledNode compile(INbtPathCompiledNode next) {
+            return (stack, depth) -> {
+                Tag nbt = stack.getTag(depth);
+                boolean value = nbt instanceof NumericTag
+                        && this.handler.getRelationalValue(((NumericTag) nbt).getAsDouble(), getTargetDouble());
+                return stack.push(depth, ByteTag.valueOf(value ? (byte) 1 : (byte) 0), next);
+            };
+        }
+
     }
 }
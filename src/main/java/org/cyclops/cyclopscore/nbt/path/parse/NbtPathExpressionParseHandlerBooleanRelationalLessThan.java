@@ -1,7 +1,7 @@
 package org.cyclops.cyclopscore.nbt.path.parse;
 
 /**
- * A handler that handles boolean expressions in the form of " &lt; 10".
+ * Boolean relational expressions in the form of " &lt; 10".
  */
 public class NbtPathExpressionParseHandlerBooleanRelationalLessThan extends NbtPathExpressionParseHandlerBooleanRelationalAdapter {
 
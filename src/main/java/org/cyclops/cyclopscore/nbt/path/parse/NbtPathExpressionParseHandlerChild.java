@@ -4,40 +4,20 @@ import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.Tag;
 import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
 import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionMatches;
+import org.cyclops.cyclopscore.nbt.path.compile.INbtPathCompiledNode;
 import org.cyclops.cyclopscore.nbt.path.navigate.INbtPathNavigation;
 import org.cyclops.cyclopscore.nbt.path.navigate.NbtPathNavigationAdapter;
 
 import javax.annotation.Nullable;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 /**
- * A handler that handles child path expressions in the form of ".childName",
- * where the matched string represents the child name that should be navigated in.
+ * Child path expressions in the form of ".childName" or [&quot;childName&quot;],
+ * where the child name is the child that should be navigated in.
+ * These are produced by {@link NbtPathParser}.
  */
-public class NbtPathExpressionParseHandlerChild implements INbtPathExpressionParseHandler {
-
-    private static final Pattern REGEX_CHILDNAME = Pattern.compile("^[a-zA-Z_0-9]+");
-
-    @Nullable
-    @Override
-    public HandleResult handlePrefixOf(String nbtPathExpression, int pos) {
-        if (nbtPathExpression.charAt(pos) != '.' || nbtPathExpression.length() <= pos + 1) {
-            return HandleResult.INVALID;
-        }
-
-        Matcher matcher = REGEX_CHILDNAME
-                .matcher(nbtPathExpression)
-                .region(pos + 1, nbtPathExpression.length());
-        if (!matcher.find()) {
-            return HandleResult.INVALID;
-        }
-
-        String childName = matcher.group();
-        return new HandleResult(new Expression(childName), 1 + childName.length());
-    }
+public class NbtPathExpressionParseHandlerChild {
 
     public static class Expression implements INbtPathExpression {
 
@@ -47,7 +27,7 @@ public class NbtPathExpressionParseHandlerChild implements INbtPathExpressionPar
             this.childName = childName;
         }
 
-        String getChildName() {
+        public String getChildName() {
             return childName;
         }
 
@@ -69,6 +49,20 @@ public class NbtPathExpressionParseHandlerChild implements INbtPathExpressionPar
             );
         }
 
+        @Override
+        public INbtPathCompiledNode compile(INbtPathCompiledNode next) {
+            return (stack, depth) -> {
+                Tag nbt = stack.getTag(depth);
+                if (nbt.getId() == Tag.TAG_COMPOUND) {
+                    Tag childTag = ((CompoundTag) nbt).get(childName);
+                    if (childTag != null) {
+                        return stack.push(depth, childTag, next);
+                    }
+                }
+                return true;
+            };
+        }
+
         @Override
         public INbtPathNavigation asNavigation(@Nullable INbtPathNavigation child) {
             return new NbtPathNavigationAdapter(getChildName(), child);
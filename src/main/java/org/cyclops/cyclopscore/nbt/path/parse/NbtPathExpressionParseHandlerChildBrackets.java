@@ -9,7 +9,9 @@ import javax.annotation.Nullable;
  * where the matched string represents the child name that should be navigated in.
  * This works just like {@link NbtPathExpressionParseHandlerChild},
  * but allows special characters to be used.
+ * @deprecated Expressions are parsed by {@link NbtPathParser}, this is only kept for compatibility.
  */
+@Deprecated
 public class NbtPathExpressionParseHandlerChildBrackets implements INbtPathExpressionParseHandler {
     @Nullable
     @Override
@@ -2,24 +2,15 @@ package org.cyclops.cyclopscore.nbt.path.parse;
 
 import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
 import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionMatches;
+import org.cyclops.cyclopscore.nbt.path.compile.INbtPathCompiledNode;
 
-import javax.annotation.Nullable;
 import java.util.stream.Stream;
 
 /**
- * A handler that picks the current position in the NBT tree via "@".
+ * Expressions that pick the current position in the NBT tree via "@".
+ * These are produced by {@link NbtPathParser}.
  */
-public class NbtPathExpressionParseHandlerCurrent implements INbtPathExpressionParseHandler {
-
-    @Nullable
-    @Override
-    public HandleResult handlePrefixOf(String nbtPathExpression, int pos) {
-        if (nbtPathExpression.charAt(pos) != '@') {
-            return HandleResult.INVALID;
-        }
-
-        return new HandleResult(Expression.INSTANCE, 1);
-    }
+public class NbtPathExpressionParseHandlerCurrent {
 
     public static class Expression implements INbtPathExpression {
 
@@ -29,5 +20,10 @@ public class NbtPathExpressionParseHandlerCurrent implements INbtPathExpressionP
         public NbtPathExpressionMatches matchContexts(Stream<NbtPathExpressionExecutionContext> executionContexts) {
             return new NbtPathExpressionMatches(executionContexts);
         }
+
+        @Override
+        public INbtPathCompiledNode compile(INbtPathCompiledNode next) {
+            return next;
+        }
     }
 }
@@ -1,46 +1,24 @@
 package org.cyclops.cyclopscore.nbt.path.parse;
 
+import com.google.common.collect.Iterators;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
 import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
-import org.cyclops.cyclopscore.nbt.path.NbtParseException;
-import org.cyclops.cyclopscore.nbt.path.NbtPath;
 import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionMatches;
+import org.cyclops.cyclopscore.nbt.path.compile.INbtPathCompiledNode;
+import org.cyclops.cyclopscore.nbt.path.compile.NbtPathCompiledExpression;
 
 import javax.annotation.Nullable;
+import java.util.Iterator;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 /**
- * A handler that handles filter expressions in the form of "[?(expression)]", such as "[?(@.childName)]" or "[?(@.childName &lt; 10)]".
+ * Filter expressions in the form of "[?(expression)]", such as "[?(@.childName)]" or "[?(@.childName &lt; 10)]".
+ * These are produced by {@link NbtPathParser}.
  */
-public class NbtPathExpressionParseHandlerFilterExpression implements INbtPathExpressionParseHandler {
-
-    private static final Pattern REGEX_EXPRESSION = Pattern.compile("^\\[\\?\\(([^\\)^\\(]+)\\)\\]");
-
-    @Nullable
-    @Override
-    public HandleResult handlePrefixOf(String nbtPathExpression, int pos) {
-        Matcher matcher = REGEX_EXPRESSION
-                .matcher(nbtPathExpression)
-                .region(pos, nbtPathExpression.length());
-        if (!matcher.find()) {
-            return HandleResult.INVALID;
-        }
-
-        String expressionString = matcher.group(1);
-        try {
-            INbtPathExpression expression = NbtPath.parse(expressionString);
-            return new HandleResult(new Expression(expression),
-                    5 + expressionString.length());
-        } catch (NbtParseException e) {
-            return HandleResult.INVALID;
-        }
-    }
+public class NbtPathExpressionParseHandlerFilterExpression {
 
     public static class Expression implements INbtPathExpression {
 
@@ -59,21 +37,11 @@ public class NbtPathExpressionParseHandlerFilterExpression implements INbtPathEx
             return new NbtPathExpressionMatches(executionContexts
                     .map(executionContext -> {
                         Tag nbt = executionContext.getCurrentTag();
-                        if (nbt.getId() == Tag.TAG_LIST) {
-                            ListTag tag = (ListTag) nbt;
-                            ListTag newTagList = new ListTag();
-                            StreamSupport.stream(tag.spliterator(), false)
-                                    .filter(subTag -> getExpression().test(subTag))
-                                    .forEach(newTagList::add);
-                            return new NbtPathExpressionExecutionContext(newTagList, executionContext);
-                        } else if (nbt.getId() == Tag.TAG_COMPOUND) {
-                            CompoundTag tag = (CompoundTag) nbt;
-                            ListTag newTagList = new ListTag();
-                            tag.getAllKeys().stream()
-                                    .map(tag::get)
-                                    .filter(subTag -> getExpression().test(subTag))
-                                    .forEach(newTagList::add);
-                            return new NbtPathExpressionExecutionContext(newTagList, executionContext);
+                        Iterator<Tag> children = getChildren(nbt);
+                        if (children != null) {
+                            // Children are only tested when the list is used by subsequent expressions
+                            return new NbtPathExpressionExecutionContext(
+                                    new NbtPathLazyListTag(children, subTag -> getExpression().test(subTag)), executionContext);
                         }
                         return null;
                     })
@@ -81,5 +49,30 @@ public class NbtPathExpressionParseHandlerFilterExpression implements INbtPathEx
             );
         }
 
+        @Override
+        public INbtPathCompiledNode compile(INbtPathCompiledNode next) {
+            INbtPathCompiledNode testNode = getExpression().compile(NbtPathCompiledExpression.NODE_TEST);
+            return (stack, depth) -> {
+                Iterator<Tag> children = getChildren(stack.getTag(depth));
+                if (children != null) {
+                    // The list is materialized by the stack if it becomes part of a result
+                    return stack.push(depth, new NbtPathLazyListTag(children,
+                            subTag -> stack.test(depth, subTag, testNode)), next);
+                }
+                return true;
+            };
+        }
+
+        @Nullable
+        protected static Iterator<Tag> getChildren(Tag nbt) {
+            if (nbt.getId() == Tag.TAG_LIST) {
+                return ((ListTag) nbt).iterator();
+            } else if (nbt.getId() == Tag.TAG_COMPOUND) {
+                CompoundTag tag = (CompoundTag) nbt;
+                return Iterators.transform(tag.getAllKeys().iterator(), tag::get);
+            }
+            return null;
+        }
+
     }
 }
@@ -6,26 +6,17 @@ import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
 import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
 import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionMatches;
+import org.cyclops.cyclopscore.nbt.path.compile.INbtPathCompiledNode;
 
-import javax.annotation.Nullable;
 import java.util.Objects;
 import java.util.stream.Stream;
 
 /**
- * A handler that handles child path expressions for ".length",
+ * Child path expressions for ".length",
  * to retrieve the length of lists and tag compounds.
+ * These are produced by {@link NbtPathParser}.
  */
-public class NbtPathExpressionParseHandlerLength implements INbtPathExpressionParseHandler {
-
-    @Nullable
-    @Override
-    public HandleResult handlePrefixOf(String nbtPathExpression, int pos) {
-        if (!nbtPathExpression.substring(pos, Math.min(pos + 7, nbtPathExpression.length())).equals(".length")) {
-            return HandleResult.INVALID;
-        }
-
-        return new HandleResult(Expression.INSTANCE, 7);
-    }
+public class NbtPathExpressionParseHandlerLength {
 
     public static class Expression implements INbtPathExpression {
 
@@ -49,5 +40,18 @@ public class NbtPathExpressionParseHandlerLength implements INbtPathExpressionPa
             );
         }
 
+        @Override
+        public INbtPathCompiledNode compile(INbtPathCompiledNode next) {
+            return (stack, depth) -> {
+                Tag nbt = stack.getTag(depth);
+                if (nbt.getId() == Tag.TAG_LIST) {
+                    return stack.push(depth, IntTag.valueOf(((ListTag) nbt).size()), next);
+                } else if (nbt.getId() == Tag.TAG_COMPOUND) {
+                    return stack.push(depth, IntTag.valueOf(((CompoundTag) nbt).getAllKeys().size()), next);
+                }
+                return true;
+            };
+        }
+
     }
 }
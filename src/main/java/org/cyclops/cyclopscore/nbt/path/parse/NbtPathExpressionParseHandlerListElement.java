@@ -4,35 +4,17 @@ import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
 import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
 import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionMatches;
+import org.cyclops.cyclopscore.nbt.path.compile.INbtPathCompiledNode;
 
-import javax.annotation.Nullable;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 /**
- * A handler that handles list element expressions in the form of "[10]",
- * where the matched string represents the list element index that should be navigated in.
+ * List element expressions in the form of "[10]",
+ * where the index represents the list element that should be navigated in.
+ * These are produced by {@link NbtPathParser}.
  */
-public class NbtPathExpressionParseHandlerListElement implements INbtPathExpressionParseHandler {
-
-    private static final Pattern REGEX_ELEMENTINDEX = Pattern.compile("^\\[([0-9]+)\\]");
-
-    @Nullable
-    @Override
-    public HandleResult handlePrefixOf(String nbtPathExpression, int pos) {
-        Matcher matcher = REGEX_ELEMENTINDEX
-                .matcher(nbtPathExpression)
-                .region(pos, nbtPathExpression.length());
-        if (!matcher.find()) {
-            return HandleResult.INVALID;
-        }
-
-        String childIndexString = matcher.group(1);
-        int childIndex = Integer.parseInt(childIndexString);
-        return new HandleResult(new Expression(childIndex), 2 + childIndexString.length());
-    }
+public class NbtPathExpressionParseHandlerListElement {
 
     public static class Expression implements INbtPathExpression {
 
@@ -53,7 +35,7 @@ public class NbtPathExpressionParseHandlerListElement implements INbtPathExpress
                         Tag nbt = executionContext.getCurrentTag();
                         if (nbt.getId() == Tag.TAG_LIST) {
                             ListTag tag = (ListTag) nbt;
-                            if (childIndex < tag.size()) {
+                            if (NbtPathLazyListTag.hasElement(tag, childIndex)) {
                                 Tag childTag = tag.get(getChildIndex());
                                 return new NbtPathExpressionExecutionContext(childTag, executionContext);
                             }
@@ -64,5 +46,19 @@ public class NbtPathExpressionParseHandlerListElement implements INbtPathExpress
             );
         }
 
+        @Override
+        public INbtPathCompiledNode compile(INbtPathCompiledNode next) {
+            return (stack, depth) -> {
+                Tag nbt = stack.getTag(depth);
+                if (nbt.getId() == Tag.TAG_LIST) {
+                    ListTag tag = (ListTag) nbt;
+                    if (NbtPathLazyListTag.hasElement(tag, childIndex)) {
+                        return stack.push(depth, tag.get(getChildIndex()), next);
+                    }
+                }
+                return true;
+            };
+        }
+
     }
 }
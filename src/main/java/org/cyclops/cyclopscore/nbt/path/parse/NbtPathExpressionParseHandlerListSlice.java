@@ -4,44 +4,17 @@ import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
 import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
 import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionMatches;
+import org.cyclops.cyclopscore.nbt.path.compile.INbtPathCompiledNode;
 
-import javax.annotation.Nullable;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
- * A handler that handles list slice expressions in the form of "[start:end:step]" such as "[2:3:2]".
+ * List slice expressions in the form of "[start:end:step]" such as "[2:3:2]".
+ * These are produced by {@link NbtPathParser}.
  */
-public class NbtPathExpressionParseHandlerListSlice implements INbtPathExpressionParseHandler {
-
-    private static final Pattern REGEX_RANGE = Pattern.compile("^\\[([0-9]*):([0-9]*)(:([0-9]+))?\\]");
-
-    @Nullable
-    @Override
-    public HandleResult handlePrefixOf(String nbtPathExpression, int pos) {
-        Matcher matcher = REGEX_RANGE
-                .matcher(nbtPathExpression)
-                .region(pos, nbtPathExpression.length());
-        if (!matcher.find()) {
-            return HandleResult.INVALID;
-        }
-
-        String startString = matcher.group(1);
-        String endString = matcher.group(2);
-        String stepString = matcher.groupCount() >= 4 ? matcher.group(4) : null;
-        int start = !startString.isEmpty() ? Integer.parseInt(startString) : 0;
-        int end = !endString.isEmpty() ? Integer.parseInt(endString) : -1;
-        int step = stepString != null ? Integer.parseInt(matcher.group(4)) : 1;
-        if (step == 0) {
-            return HandleResult.INVALID;
-        }
-
-        return new HandleResult(new Expression(start, end, step),
-                3 + startString.length() + endString.length() + (stepString == null ? 0 : 1 + stepString.length()));
-    }
+public class NbtPathExpressionParseHandlerListSlice {
 
     public static IntStream newStartEndStepStream(int start, int end, int step) {
         end -= start - 1;
@@ -74,6 +47,11 @@ public class NbtPathExpressionParseHandlerListSlice implements INbtPathExpressio
             return step;
         }
 
+        protected boolean hasIndex(ListTag tag, int index) {
+            // Negative indexes occur on overflow
+            return index >= 0 && (getEnd() < 0 || index <= getEnd()) && NbtPathLazyListTag.hasElement(tag, index);
+        }
+
         @Override
         public NbtPathExpressionMatches matchContexts(Stream<NbtPathExpressionExecutionContext> executionContexts) {
             return new NbtPathExpressionMatches(executionContexts
@@ -81,10 +59,8 @@ public class NbtPathExpressionParseHandlerListSlice implements INbtPathExpressio
                         Tag nbt = executionContext.getCurrentTag();
                         if (nbt.getId() == Tag.TAG_LIST) {
                             ListTag tag = (ListTag) nbt;
-                            int start = getStart();
-                            int actualEnd = getEnd() > -1 ? Math.min(tag.size() - 1, getEnd()) : tag.size() - 1;
-                            int step = getStep();
-                            return NbtPathExpressionParseHandlerListSlice.newStartEndStepStream(start, actualEnd, step)
+                            // Same indexes as newStartEndStepStream, without requiring the size of lazy lists
+                            return IntStream.iterate(getStart(), i -> hasIndex(tag, i), i -> i + getStep())
                                     .mapToObj(i -> new NbtPathExpressionExecutionContext(tag.get(i), executionContext));
                         }
                         return null;
@@ -93,5 +69,21 @@ public class NbtPathExpressionParseHandlerListSlice implements INbtPathExpressio
             );
         }
 
+        @Override
+        public INbtPathCompiledNode compile(INbtPathCompiledNode next) {
+            return (stack, depth) -> {
+                Tag nbt = stack.getTag(depth);
+                if (nbt.getId() == Tag.TAG_LIST) {
+                    ListTag tag = (ListTag) nbt;
+                    for (int i = getStart(); hasIndex(tag, i); i += getStep()) {
+                        if (!stack.push(depth, tag.get(i), next)) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            };
+        }
+
     }
 }
@@ -2,26 +2,16 @@ package org.cyclops.cyclopscore.nbt.path.parse;
 
 import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
 import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionMatches;
+import org.cyclops.cyclopscore.nbt.path.compile.INbtPathCompiledNode;
 
-import javax.annotation.Nullable;
 import java.util.Objects;
 import java.util.stream.Stream;
 
 /**
- * A handler that picks the parent of the NBT tree in the current execution context via "..".
+ * Expressions that pick the parent of the NBT tree in the current execution context via "..".
+ * These are produced by {@link NbtPathParser}.
  */
-public class NbtPathExpressionParseHandlerParent implements INbtPathExpressionParseHandler {
-
-    @Nullable
-    @Override
-    public HandleResult handlePrefixOf(String nbtPathExpression, int pos) {
-        if (nbtPathExpression.length() <= pos + 1
-                || nbtPathExpression.charAt(pos) != '.' || nbtPathExpression.charAt(pos + 1) != '.') {
-            return HandleResult.INVALID;
-        }
-
-        return new HandleResult(Expression.INSTANCE, 2);
-    }
+public class NbtPathExpressionParseHandlerParent {
 
     public static class Expression implements INbtPathExpression {
 
@@ -34,5 +24,13 @@ public class NbtPathExpressionParseHandlerParent implements INbtPathExpressionPa
                     .filter(Objects::nonNull)
             );
         }
+
+        @Override
+        public INbtPathCompiledNode compile(INbtPathCompiledNode next) {
+            return (stack, depth) -> {
+                int parentDepth = stack.getParentDepth(depth);
+                return parentDepth < 0 || next.execute(stack, parentDepth);
+            };
+        }
     }
 }
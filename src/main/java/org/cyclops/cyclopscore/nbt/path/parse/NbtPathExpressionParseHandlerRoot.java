@@ -2,25 +2,17 @@ package org.cyclops.cyclopscore.nbt.path.parse;
 
 import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
 import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionMatches;
+import org.cyclops.cyclopscore.nbt.path.compile.INbtPathCompiledNode;
 import org.cyclops.cyclopscore.nbt.path.navigate.INbtPathNavigation;
 
 import javax.annotation.Nullable;
 import java.util.stream.Stream;
 
 /**
- * A handler that picks the root of the NBT tree via "$".
+ * Expressions that pick the root of the NBT tree via "$".
+ * These are produced by {@link NbtPathParser}.
  */
-public class NbtPathExpressionParseHandlerRoot implements INbtPathExpressionParseHandler {
-
-    @Nullable
-    @Override
-    public HandleResult handlePrefixOf(String nbtPathExpression, int pos) {
-        if (nbtPathExpression.charAt(pos) != '$') {
-            return HandleResult.INVALID;
-        }
-
-        return new HandleResult(Expression.INSTANCE, 1);
-    }
+public class NbtPathExpressionParseHandlerRoot {
 
     public static class Expression implements INbtPathExpression {
 
@@ -31,6 +23,11 @@ public class NbtPathExpressionParseHandlerRoot implements INbtPathExpressionPars
             return new NbtPathExpressionMatches(executionContexts.map(NbtPathExpressionExecutionContext::getRootContext));
         }
 
+        @Override
+        public INbtPathCompiledNode compile(INbtPathCompiledNode next) {
+            return (stack, depth) -> next.execute(stack, stack.getRootDepth());
+        }
+
         @Override
         public INbtPathNavigation asNavigation(@Nullable INbtPathNavigation child) {
             return child;
@@ -5,46 +5,15 @@ import net.minecraft.nbt.StringTag;
 import net.minecraft.nbt.Tag;
 import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
 import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionMatches;
-import org.cyclops.cyclopscore.nbt.path.parse.NbtPathStringParser.StringParseResult;
+import org.cyclops.cyclopscore.nbt.path.compile.INbtPathCompiledNode;
 
 import java.util.stream.Stream;
 
 /**
- * A handler that handles boolean expressions in the form of " == "abc"".
+ * Boolean expressions in the form of " == "abc"".
+ * These are produced by {@link NbtPathParser}.
  */
-public class NbtPathExpressionParseHandlerStringEqual implements INbtPathExpressionParseHandler {
-    /**
-     * Skips all consecutive spaces.
-     * @param string Source string
-     * @param pos Index of the first potential space
-     * @return Index of first encountered non space character
-     */
-    private static int skipSpaces(String string, int pos) {
-        while (pos < string.length() && string.charAt(pos) == ' ') {
-            pos++;
-        }
-        return pos;
-    }
-
-    @Override
-    public HandleResult handlePrefixOf(String nbtPathExpression, int pos) {
-        int currentPos = skipSpaces(nbtPathExpression, pos);
-        if ((currentPos + 1) >= nbtPathExpression.length()) {
-            return HandleResult.INVALID;
-        }
-        if (nbtPathExpression.charAt(currentPos) != '=' || nbtPathExpression.charAt(currentPos + 1) != '=') {
-            return HandleResult.INVALID;
-        }
-        currentPos = skipSpaces(nbtPathExpression, currentPos + 2);
-        StringParseResult parseResult = NbtPathStringParser.parse(nbtPathExpression, currentPos);
-        if (!parseResult.isSuccess()) {
-            return HandleResult.INVALID;
-        }
-        return new HandleResult(
-            new Expression(parseResult.getResult()),
-            currentPos - pos + parseResult.getConsumed()
-        );
-    }
+public class NbtPathExpressionParseHandlerStringEqual {
 
     public static class Expression implements INbtPathExpression {
 
@@ -74,5 +43,14 @@ public class NbtPathExpressionParseHandlerStringEqual implements INbtPathExpress
             );
         }
 
+        @Override
+        public INbtPathCompiledNode compile(INbtPathCompiledNode next) {
+            return (stack, depth) -> {
+                Tag nbt = stack.getTag(depth);
+                boolean value = nbt.getId() == Tag.TAG_STRING && getTargetString().equals(((StringTag) nbt).getAsString());
+                return stack.push(depth, ByteTag.valueOf(value ? (byte) 1 : (byte) 0), next);
+            };
+        }
+
     }
 }
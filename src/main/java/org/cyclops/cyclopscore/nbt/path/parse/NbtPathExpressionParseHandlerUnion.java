@@ -1,60 +1,25 @@
 package org.cyclops.cyclopscore.nbt.path.parse;
 
-import com.google.common.collect.Lists;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
 import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
 import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionMatches;
+import org.cyclops.cyclopscore.nbt.path.compile.INbtPathCompiledNode;
 import org.cyclops.cyclopscore.nbt.path.navigate.INbtPathNavigation;
 import org.cyclops.cyclopscore.nbt.path.navigate.NbtPathNavigationAdapter;
 
 import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 /**
- * A handler that handles union expressions in the form of "[10,12]" or "[10,]" or "[,12]",
- * where the matches indicate the children or list elements that should be matched.
+ * Union expressions in the form of "[10,12]" or "[a,b]",
+ * where the entries indicate the children or list elements that should be matched.
+ * These are produced by {@link NbtPathParser}.
  */
-public class NbtPathExpressionParseHandlerUnion implements INbtPathExpressionParseHandler {
-
-    private static final Pattern REGEX_BRACKETS = Pattern.compile("^\\[([^\\]]+(,[^\\]]+)+)]");
-
-    @Nullable
-    @Override
-    public HandleResult handlePrefixOf(String nbtPathExpression, int pos) {
-        Matcher matcher = REGEX_BRACKETS
-                .matcher(nbtPathExpression)
-                .region(pos, nbtPathExpression.length());
-        if (!matcher.find()) {
-            return HandleResult.INVALID;
-        }
-
-        String[] contents = matcher.group(1).split(",");
-
-        List<String> childNames = Lists.newArrayList();
-        List<Integer> childIndexes = Lists.newArrayList();
-        int expressionLength = 1;
-        for (String match : contents) {
-            expressionLength += 1 + match.length();
-            try {
-                childIndexes.add(Integer.parseInt(match));
-                if (!childNames.isEmpty()) {
-                    return HandleResult.INVALID;
-                }
-            } catch (NumberFormatException e) {
-                childNames.add(match);
-                if (!childIndexes.isEmpty()) {
-                    return HandleResult.INVALID;
-                }
-            }
-        }
-        return new HandleResult(new Expression(childNames, childIndexes), expressionLength);
-    }
+public class NbtPathExpressionParseHandlerUnion {
 
     public static class Expression implements INbtPathExpression {
 
@@ -100,6 +65,31 @@ public class NbtPathExpressionParseHandlerUnion implements INbtPathExpressionPar
             );
         }
 
+        @Override
+        public INbtPathCompiledNode compile(INbtPathCompiledNode next) {
+            return (stack, depth) -> {
+                Tag nbt = stack.getTag(depth);
+                if (!getChildIndexes().isEmpty() && nbt.getId() == Tag.TAG_LIST) {
+                    ListTag tag = (ListTag) nbt;
+                    for (Integer childIndex : getChildIndexes()) {
+                        Tag subTag = tag.get(childIndex);
+                        if (subTag.getId() != 0 && !stack.push(depth, subTag, next)) {
+                            return false;
+                        }
+                    }
+                } else if (!getChildNames().isEmpty() && nbt.getId() == Tag.TAG_COMPOUND) {
+                    CompoundTag tag = (CompoundTag) nbt;
+                    for (String childName : getChildNames()) {
+                        Tag subTag = tag.get(childName);
+                        if (subTag != null && !stack.push(depth, subTag, next)) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            };
+        }
+
         @Override
         public INbtPathNavigation asNavigation(@Nullable INbtPathNavigation child) {
             if (!getChildNames().isEmpty()) {
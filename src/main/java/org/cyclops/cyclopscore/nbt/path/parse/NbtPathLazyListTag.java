@@ -0,0 +1,302 @@
+package org.cyclops.cyclopscore.nbt.path.parse;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.StreamTagVisitor;
+import net.minecraft.nbt.Tag;
+import net.minecraft.nbt.TagVisitor;
+
+import javax.annotation.Nullable;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+
+/**
+ * A list tag that lazily contains the tags of a source iterator that match a predicate,
+ * such as the result of a filter expression.
+ *
+ * Tags are only evaluated when they are requested via {@link #get(int)}, {@link #iterator()} or {@link #isEmpty()},
+ * so that subsequent expressions that only need the first elements,
+ * or that do not need the elements at all such as tests, can stop early.
+ * Evaluated tags are added to this list tag itself,
+ * so that it behaves as a regular list tag once it has been {@link #materialize() materialized}.
+ * Index-based getters such as {@link #getInt(int)} only evaluate up to the given index.
+ * All other operations that access the tags, such as {@link #size()}, {@link #copy()} and {@link #write(DataOutput)},
+ * and all mutations except {@link #clear()} materialize it first.
+ *
+ * The predicate may depend on the state of the execution that created this list,
+ * in which case it must be materialized before that execution ends.
+ */
+public class NbtPathLazyListTag extends ListTag {
+
+    @Nullable
+    private Iterator<Tag> source;
+    @Nullable
+    private Predicate<Tag> predicate;
+
+    public NbtPathLazyListTag(Iterator<Tag> source, Predicate<Tag> predicate) {
+        this.source = source;
+        this.predicate = predicate;
+    }
+
+    /**
+     * @return If all tags have been evaluated.
+     */
+    public boolean isMaterialized() {
+        return source == null;
+    }
+
+    /**
+     * Evaluate tags of the source until the next matching tag was added.
+     * @return If a tag was added.
+     */
+    protected boolean evaluateNext() {
+        while (source != null) {
+            if (!source.hasNext()) {
+                source = null;
+                predicate = null;
+                return false;
+            }
+            Tag tag = source.next();
+            if (predicate.test(tag)) {
+                // Bypass the overridden mutators, as those materialize first
+                if (!super.addTag(super.size(), tag)) {
+                    throw new UnsupportedOperationException(String.format("Trying to add tag of type %d to list of %d",
+                            tag.getId(), super.getElementType()));
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Evaluate tags until the given index is present.
+     * @param index An index.
+     * @return If the given index is present.
+     */
+    public boolean hasElement(int index) {
+        while (super.size() <= index && evaluateNext()) {
+            // Continue evaluating
+        }
+        return index < super.size();
+    }
+
+    /**
+     * Evaluate all remaining tags.
+     * @return This list tag.
+     */
+    public NbtPathLazyListTag materialize() {
+        while (evaluateNext()) {
+            // Continue evaluating
+        }
+        return this;
+    }
+
+    @Override
+    public int size() {
+        materialize();
+        return super.size();
+    }
+
+    @Override
+    public Tag get(int index) {
+        hasElement(index);
+        return super.get(index);
+    }
+
+    @Override
+    public CompoundTag getCompound(int index) {
+        hasElement(index);
+        return super.getCompound(index);
+    }
+
+    @Override
+    public ListTag getList(int index) {
+        hasElement(index);
+        return super.getList(index);
+    }
+
+    @Override
+    public short getShort(int index) {
+        hasElement(index);
+        return super.getShort(index);
+    }
+
+    @Override
+    public int getInt(int index) {
+        hasElement(index);
+        return super.getInt(index);
+    }
+
+    @Override
+    public int[] getIntArray(int index) {
+        hasElement(index);
+        return super.getIntArray(index);
+    }
+
+    @Override
+    public long[] getLongArray(int index) {
+        hasElement(index);
+        return super.getLongArray(index);
+    }
+
+    @Override
+    public double getDouble(int index) {
+        hasElement(index);
+        return super.getDouble(index);
+    }
+
+    @Override
+    public float getFloat(int index) {
+        hasElement(index);
+        return super.getFloat(index);
+    }
+
+    @Override
+    public String getString(int index) {
+        hasElement(index);
+        return super.getString(index);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !hasElement(0);
+    }
+
+    @Override
+    public Iterator<Tag> iterator() {
+        return new Iterator<Tag>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return hasElement(index);
+            }
+
+            @Override
+            public Tag next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return NbtPathLazyListTag.super.get(index++);
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<Tag> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED);
+    }
+
+    @Override
+    public byte getElementType() {
+        materialize();
+        return super.getElementType();
+    }
+
+    @Override
+    public Tag set(int index, Tag tag) {
+        materialize();
+        return super.set(index, tag);
+    }
+
+    @Override
+    public void add(int index, Tag tag) {
+        materialize();
+        super.add(index, tag);
+    }
+
+    @Override
+    public Tag remove(int index) {
+        materialize();
+        return super.remove(index);
+    }
+
+    @Override
+    public boolean setTag(int index, Tag tag) {
+        materialize();
+        return super.setTag(index, tag);
+    }
+
+    @Override
+    public boolean addTag(int index, Tag tag) {
+        materialize();
+        return super.addTag(index, tag);
+    }
+
+    @Override
+    public void clear() {
+        // Remaining tags do not have to be evaluated
+        source = null;
+        predicate = null;
+        super.clear();
+    }
+
+    @Override
+    public ListTag copy() {
+        materialize();
+        return super.copy();
+    }
+
+    @Override
+    public void write(DataOutput output) throws IOException {
+        materialize();
+        super.write(output);
+    }
+
+    @Override
+    public int sizeInBytes() {
+        materialize();
+        return super.sizeInBytes();
+    }
+
+    @Override
+    public void accept(TagVisitor visitor) {
+        materialize();
+        super.accept(visitor);
+    }
+
+    @Override
+    public StreamTagVisitor.ValueResult accept(StreamTagVisitor visitor) {
+        materialize();
+        return super.accept(visitor);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        materialize();
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        materialize();
+        return super.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        materialize();
+        return super.toString();
+    }
+
+    /**
+     * Check if the given list tag has the given index,
+     * without evaluating further than needed if it is lazy.
+     * @param tag A list tag.
+     * @param index An index.
+     * @return If the index is present.
+     */
+    public static boolean hasElement(ListTag tag, int index) {
+        if (tag instanceof NbtPathLazyListTag) {
+            return ((NbtPathLazyListTag) tag).hasElement(index);
+        }
+        return index < tag.size();
+    }
+
+}
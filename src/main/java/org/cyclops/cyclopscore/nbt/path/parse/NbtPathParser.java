@@ -0,0 +1,254 @@
+package org.cyclops.cyclopscore.nbt.path.parse;
+
+import com.google.common.collect.Lists;
+import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
+import org.cyclops.cyclopscore.nbt.path.NbtParseException;
+import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionList;
+
+import java.util.List;
+
+/**
+ * A recursive-descent parser for NBT path expression strings,
+ * which produces the expressions of the NbtPathExpressionParseHandler* classes in a single pass.
+ *
+ * Next to simple steps, list elements, slices, unions, filters and relations,
+ * this supports nested filter expressions such as "[?(@.a[?(@.b)])]",
+ * grouped sub-expressions in parentheses such as "[?((@.a).b)]",
+ * and unions of quoted child names such as "["a","b"]".
+ */
+public class NbtPathParser {
+
+    private static final NbtPathExpressionParseHandlerBooleanRelationalAdapter RELATIONAL_LESS_THAN =
+            new NbtPathExpressionParseHandlerBooleanRelationalLessThan();
+    private static final NbtPathExpressionParseHandlerBooleanRelationalAdapter RELATIONAL_LESS_THAN_OR_EQUAL =
+            new NbtPathExpressionParseHandlerBooleanRelationalLessThanOrEqual();
+    private static final NbtPathExpressionParseHandlerBooleanRelationalAdapter RELATIONAL_GREATER_THAN =
+            new NbtPathExpressionParseHandlerBooleanRelationalGreaterThan();
+    private static final NbtPathExpressionParseHandlerBooleanRelationalAdapter RELATIONAL_GREATER_THAN_OR_EQUAL =
+            new NbtPathExpressionParseHandlerBooleanRelationalGreaterThanOrEqual();
+    private static final NbtPathExpressionParseHandlerBooleanRelationalAdapter RELATIONAL_EQUAL =
+            new NbtPathExpressionParseHandlerBooleanRelationalEqual();
+
+    /**
+     * Parse an NBT path expression string.
+     * @param nbtPathExpression An NBT path expression string.
+     * @return An in-memory representation of the given expression.
+     * @throws NbtParseException If parsing failed, with the position of the failure.
+     */
+    public static NbtPathExpressionList parse(String nbtPathExpression) throws NbtParseException {
+        NbtPathTokenizer tokenizer = new NbtPathTokenizer(nbtPathExpression);
+        NbtPathExpressionList expression = parsePath(tokenizer);
+        if (!tokenizer.isEnd()) {
+            throw tokenizer.error("Unexpected ')'");
+        }
+        return expression;
+    }
+
+    /**
+     * Parse a sequence of expressions until the end or a closing parenthesis.
+     * @param tokenizer The tokenizer.
+     * @return The expression list, which may be empty.
+     * @throws NbtParseException If parsing failed.
+     */
+    protected static NbtPathExpressionList parsePath(NbtPathTokenizer tokenizer) throws NbtParseException {
+        List<INbtPathExpression> expressions = Lists.newArrayList();
+        while (!tokenizer.isEnd() && tokenizer.peek() != ')') {
+            expressions.add(parseStep(tokenizer));
+        }
+        return new NbtPathExpressionList(expressions.toArray(new INbtPathExpression[0]));
+    }
+
+    protected static NbtPathExpressionList parseNonEmptyPath(NbtPathTokenizer tokenizer, String name) throws NbtParseException {
+        int start = tokenizer.getPos();
+        NbtPathExpressionList expression = parsePath(tokenizer);
+        if (expression.getSubExpressions().length == 0) {
+            throw tokenizer.error("Empty " + name, start);
+        }
+        tokenizer.expect(')');
+        return expression;
+    }
+
+    protected static INbtPathExpression parseStep(NbtPathTokenizer tokenizer) throws NbtParseException {
+        switch (tokenizer.peek()) {
+            case '$':
+                tokenizer.advance();
+                return NbtPathExpressionParseHandlerRoot.Expression.INSTANCE;
+            case '@':
+                tokenizer.advance();
+                return NbtPathExpressionParseHandlerCurrent.Expression.INSTANCE;
+            case '*':
+                tokenizer.advance();
+                return NbtPathExpressionParseHandlerAllChildren.Expression.INSTANCE;
+            case '.':
+                return parseDot(tokenizer);
+            case '[':
+                return parseBrackets(tokenizer);
+            case '(':
+                tokenizer.advance();
+                return parseNonEmptyPath(tokenizer, "group");
+            case ' ':
+            case '<':
+            case '>':
+            case '=':
+                return parseRelational(tokenizer);
+            default:
+                throw tokenizer.error("Unexpected character '" + (char) tokenizer.peek() + "'");
+        }
+    }
+
+    /**
+     * Parse ".childName", ".length" or "..".
+     */
+    protected static INbtPathExpression parseDot(NbtPathTokenizer tokenizer) throws NbtParseException {
+        tokenizer.advance();
+        if (tokenizer.tryConsume('.')) {
+            return NbtPathExpressionParseHandlerParent.Expression.INSTANCE;
+        }
+        String childName = tokenizer.readName();
+        if (childName.equals("length")) {
+            return NbtPathExpressionParseHandlerLength.Expression.INSTANCE;
+        }
+        return new NbtPathExpressionParseHandlerChild.Expression(childName);
+    }
+
+    /**
+     * Parse child names, filters, list elements, list slices and unions in brackets.
+     */
+    protected static INbtPathExpression parseBrackets(NbtPathTokenizer tokenizer) throws NbtParseException {
+        tokenizer.advance();
+
+        // Quoted child names
+        if (tokenizer.peek() == '"') {
+            List<String> childNames = Lists.newArrayList(tokenizer.readString());
+            while (tokenizer.tryConsume(',')) {
+                childNames.add(tokenizer.readString());
+            }
+            tokenizer.expect(']');
+            if (childNames.size() == 1) {
+                return new NbtPathExpressionParseHandlerChild.Expression(childNames.get(0));
+            }
+            return new NbtPathExpressionParseHandlerUnion.Expression(childNames, Lists.newArrayList());
+        }
+
+        // Filter expression
+        if (tokenizer.tryConsume('?')) {
+            tokenizer.expect('(');
+            INbtPathExpression expression = parseNonEmptyPath(tokenizer, "filter expression");
+            tokenizer.expect(']');
+            return new NbtPathExpressionParseHandlerFilterExpression.Expression(expression);
+        }
+
+        // Unquoted items
+        List<String> items = Lists.newArrayList();
+        List<Integer> itemPositions = Lists.newArrayList();
+        do {
+            int itemPosition = tokenizer.getPos();
+            String item = tokenizer.readBracketItem();
+            if (item.isEmpty()) {
+                throw tokenizer.error("Expected a list index, list slice or child name", itemPosition);
+            }
+            items.add(item);
+            itemPositions.add(itemPosition);
+        } while (tokenizer.tryConsume(','));
+        tokenizer.expect(']');
+
+        if (items.size() == 1) {
+            return parseListIndexOrSlice(tokenizer, items.get(0), itemPositions.get(0));
+        }
+        return parseUnion(tokenizer, items, itemPositions);
+    }
+
+    protected static INbtPathExpression parseListIndexOrSlice(NbtPathTokenizer tokenizer, String item, int position)
+            throws NbtParseException {
+        String[] parts = item.split(":", -1);
+        for (String part : parts) {
+            if (!isDigits(part)) {
+                throw tokenizer.error("Invalid list index or list slice '" + item + "'", position);
+            }
+        }
+        if (parts.length == 1) {
+            if (parts[0].isEmpty()) {
+                throw tokenizer.error("Expected a list index", position);
+            }
+            return new NbtPathExpressionParseHandlerListElement.Expression(parseInt(tokenizer, parts[0], position));
+        }
+        if (parts.length > 3 || (parts.length == 3 && parts[2].isEmpty())) {
+            throw tokenizer.error("Invalid list slice '" + item + "'", position);
+        }
+        int start = !parts[0].isEmpty() ? parseInt(tokenizer, parts[0], position) : 0;
+        int end = !parts[1].isEmpty() ? parseInt(tokenizer, parts[1], position) : -1;
+        int step = parts.length == 3 ? parseInt(tokenizer, parts[2], position) : 1;
+        if (step == 0) {
+            throw tokenizer.error("The step of a list slice can not be zero", position);
+        }
+        return new NbtPathExpressionParseHandlerListSlice.Expression(start, end, step);
+    }
+
+    protected static INbtPathExpression parseUnion(NbtPathTokenizer tokenizer, List<String> items, List<Integer> itemPositions)
+            throws NbtParseException {
+        List<String> childNames = Lists.newArrayList();
+        List<Integer> childIndexes = Lists.newArrayList();
+        for (int i = 0; i < items.size(); i++) {
+            String item = items.get(i);
+            Integer childIndex;
+            try {
+                childIndex = Integer.parseInt(item);
+            } catch (NumberFormatException e) {
+                childIndex = null;
+            }
+            if (childIndex != null ? !childNames.isEmpty() : !childIndexes.isEmpty()) {
+                throw tokenizer.error("A union can not combine list indexes and child names", itemPositions.get(i));
+            }
+            if (childIndex != null) {
+                childIndexes.add(childIndex);
+            } else {
+                childNames.add(item);
+            }
+        }
+        return new NbtPathExpressionParseHandlerUnion.Expression(childNames, childIndexes);
+    }
+
+    /**
+     * Parse a relational expression such as " &lt; 10", " == 10" or " == "abc"".
+     */
+    protected static INbtPathExpression parseRelational(NbtPathTokenizer tokenizer) throws NbtParseException {
+        tokenizer.skipSpaces();
+        NbtPathExpressionParseHandlerBooleanRelationalAdapter handler;
+        if (tokenizer.tryConsume("<=")) {
+            handler = RELATIONAL_LESS_THAN_OR_EQUAL;
+        } else if (tokenizer.tryConsume("<")) {
+            handler = RELATIONAL_LESS_THAN;
+        } else if (tokenizer.tryConsume(">=")) {
+            handler = RELATIONAL_GREATER_THAN_OR_EQUAL;
+        } else if (tokenizer.tryConsume(">")) {
+            handler = RELATIONAL_GREATER_THAN;
+        } else if (tokenizer.tryConsume("==")) {
+            handler = RELATIONAL_EQUAL;
+        } else {
+            throw tokenizer.error("Expected a relational operator");
+        }
+        tokenizer.skipSpaces();
+        if (handler == RELATIONAL_EQUAL && tokenizer.peek() == '"') {
+            return new NbtPathExpressionParseHandlerStringEqual.Expression(tokenizer.readString());
+        }
+        return new NbtPathExpressionParseHandlerBooleanRelationalAdapter.Expression(tokenizer.readNumber(), handler);
+    }
+
+    protected static boolean isDigits(String string) {
+        for (int i = 0; i < string.length(); i++) {
+            if (!NbtPathTokenizer.isDigit(string.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected static int parseInt(NbtPathTokenizer tokenizer, String digits, int position) throws NbtParseException {
+        try {
+            return Integer.parseInt(digits);
+        } catch (NumberFormatException e) {
+            throw tokenizer.error("Number '" + digits + "' is too large", position);
+        }
+    }
+
+}
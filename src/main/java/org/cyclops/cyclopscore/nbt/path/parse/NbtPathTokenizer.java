@@ -0,0 +1,199 @@
+package org.cyclops.cyclopscore.nbt.path.parse;
+
+import org.cyclops.cyclopscore.nbt.path.NbtParseException;
+import org.cyclops.cyclopscore.nbt.path.parse.NbtPathStringParser.StringParseResult;
+
+/**
+ * A tokenizer for NBT path expression strings.
+ *
+ * Tokens are read on demand by {@link NbtPathParser}, which determines the kind of token that is expected,
+ * so that every character is read only once.
+ */
+public class NbtPathTokenizer {
+
+    public static final int END = -1;
+
+    private final String source;
+    private int pos;
+
+    public NbtPathTokenizer(String source) {
+        this.source = source;
+        this.pos = 0;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public int getPos() {
+        return pos;
+    }
+
+    public boolean isEnd() {
+        return pos >= source.length();
+    }
+
+    /**
+     * @return The current character, or {@link #END} if the end was reached.
+     */
+    public int peek() {
+        return isEnd() ? END : source.charAt(pos);
+    }
+
+    /**
+     * Skip the current character.
+     */
+    public void advance() {
+        pos++;
+    }
+
+    /**
+     * Consume the given character if it is the current character.
+     * @param character A character.
+     * @return If the character was consumed.
+     */
+    public boolean tryConsume(char character) {
+        if (peek() == character) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consume the given token if the remaining string starts with it.
+     * @param token A token.
+     * @return If the token was consumed.
+     */
+    public boolean tryConsume(String token) {
+        if (source.startsWith(token, pos)) {
+            pos += token.length();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consume the given character.
+     * @param character A character.
+     * @throws NbtParseException If the current character is different.
+     */
+    public void expect(char character) throws NbtParseException {
+        if (!tryConsume(character)) {
+            throw error("Expected '" + character + "'");
+        }
+    }
+
+    /**
+     * Skip all consecutive spaces.
+     */
+    public void skipSpaces() {
+        while (peek() == ' ') {
+            pos++;
+        }
+    }
+
+    /**
+     * @param character A character.
+     * @return If the character can be used in child names, such as ".childName".
+     */
+    public static boolean isNameCharacter(int character) {
+        return (character >= 'a' && character <= 'z')
+                || (character >= 'A' && character <= 'Z')
+                || (character >= '0' && character <= '9')
+                || character == '_';
+    }
+
+    /**
+     * @param character A character.
+     * @return If the character is a digit.
+     */
+    public static boolean isDigit(int character) {
+        return character >= '0' && character <= '9';
+    }
+
+    /**
+     * Read a child name, consisting of letters, digits and underscores.
+     * @return The name.
+     * @throws NbtParseException If no name is present.
+     */
+    public String readName() throws NbtParseException {
+        int start = pos;
+        while (isNameCharacter(peek())) {
+            pos++;
+        }
+        if (start == pos) {
+            throw error("Expected a child name");
+        }
+        return source.substring(start, pos);
+    }
+
+    /**
+     * Read a non-negative decimal number, such as "10" or "10.5".
+     * @return The number.
+     * @throws NbtParseException If no number is present.
+     */
+    public double readNumber() throws NbtParseException {
+        int start = pos;
+        while (isDigit(peek())) {
+            pos++;
+        }
+        if (start == pos) {
+            throw error("Expected a number");
+        }
+        if (peek() == '.' && pos + 1 < source.length() && isDigit(source.charAt(pos + 1))) {
+            pos++;
+            while (isDigit(peek())) {
+                pos++;
+            }
+        }
+        return Double.parseDouble(source.substring(start, pos));
+    }
+
+    /**
+     * Read a string in double quotes.
+     * @return The unescaped string.
+     * @throws NbtParseException If no valid string is present.
+     * @see NbtPathStringParser
+     */
+    public String readString() throws NbtParseException {
+        StringParseResult parseResult = NbtPathStringParser.parse(source, pos);
+        if (!parseResult.isSuccess()) {
+            throw error("Expected a valid string in double quotes");
+        }
+        pos += parseResult.getConsumed();
+        return parseResult.getResult();
+    }
+
+    /**
+     * Read all characters until the next ',' or ']'.
+     * @return The read characters, which may be empty.
+     */
+    public String readBracketItem() {
+        int start = pos;
+        while (!isEnd() && peek() != ',' && peek() != ']') {
+            pos++;
+        }
+        return source.substring(start, pos);
+    }
+
+    /**
+     * Create an exception for the current position.
+     * @param reason The reason of the failure.
+     * @return An exception.
+     */
+    public NbtParseException error(String reason) {
+        return error(reason, pos);
+    }
+
+    /**
+     * Create an exception for the given position.
+     * @param reason The reason of the failure.
+     * @param pos A position in the expression string.
+     * @return An exception.
+     */
+    public NbtParseException error(String reason, int pos) {
+        return new NbtParseException(String.format("Failed to parse expression at pos '%s': %s", pos, reason), pos);
+    }
+
+}
@@ -0,0 +1,104 @@
+package org.cyclops.cyclopscore.nbt.path.query;
+
+import com.google.common.collect.Lists;
+import org.cyclops.cyclopscore.nbt.path.compile.NbtPathCompiledExpression;
+import org.cyclops.cyclopscore.nbt.path.compile.NbtPathExecutionStack;
+import org.cyclops.cyclopscore.nbt.path.parse.NbtPathExpressionExecutionContext;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * The mutable state of a single execution of an {@link NbtPathQuerySet},
+ * which keeps track of the results of each query separately.
+ *
+ * A stack must only be used by a single thread.
+ */
+public class NbtPathQueryExecutionStack extends NbtPathExecutionStack {
+
+    @Nullable
+    private final List<NbtPathExpressionExecutionContext>[] queryResults;
+    private final boolean[] queryTestResults;
+    private final boolean[] queryDone;
+    private int remainingQueries;
+
+    /**
+     * Create a new stack.
+     * @param queries The number of queries.
+     * @param collect If the matches of each query must be collected, otherwise only test results are determined.
+     */
+    @SuppressWarnings("unchecked")
+    public NbtPathQueryExecutionStack(int queries, boolean collect) {
+        if (collect) {
+            this.queryResults = new List[queries];
+            for (int i = 0; i < queries; i++) {
+                this.queryResults[i] = Lists.newArrayList();
+            }
+        } else {
+            this.queryResults = null;
+        }
+        this.queryTestResults = new boolean[queries];
+        this.queryDone = new boolean[queries];
+        this.remainingQueries = collect ? -1 : queries;
+    }
+
+    /**
+     * @return If the matches of each query are collected, otherwise only test results are determined.
+     */
+    public boolean isCollecting() {
+        return queryResults != null;
+    }
+
+    /**
+     * @param query A query index.
+     * @return If the given query needs no further matches.
+     */
+    public boolean isQueryDone(int query) {
+        return queryDone[query];
+    }
+
+    /**
+     * @return If no query needs further matches, in which case the traversal can be stopped.
+     */
+    public boolean isAllDone() {
+        return remainingQueries == 0;
+    }
+
+    /**
+     * Add the context at the given depth to the results of the given query.
+     * @param query A query index.
+     * @param depth A depth.
+     */
+    public void addQueryResult(int query, int depth) {
+        if (queryResults == null) {
+            throw new IllegalStateException("This execution stack does not collect results");
+        }
+        queryResults[query].add(toContext(depth));
+    }
+
+    /**
+     * Set the test result of the given query based on its first match at the given depth,
+     * after which the query is done.
+     * @param query A query index.
+     * @param depth A depth.
+     */
+    public void setQueryTestResult(int query, int depth) {
+        if (!queryDone[query]) {
+            queryTestResults[query] = NbtPathCompiledExpression.isTruthy(getTag(depth));
+            queryDone[query] = true;
+            remainingQueries--;
+        }
+    }
+
+    public List<NbtPathExpressionExecutionContext> getQueryResults(int query) {
+        if (queryResults == null) {
+            throw new IllegalStateException("This execution stack does not collect results");
+        }
+        return queryResults[query];
+    }
+
+    public boolean[] getQueryTestResults() {
+        return queryTestResults;
+    }
+
+}
@@ -0,0 +1,130 @@
+package org.cyclops.cyclopscore.nbt.path.query;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import org.cyclops.cyclopscore.nbt.path.compile.INbtPathCompiledNode;
+import org.cyclops.cyclopscore.nbt.path.compile.NbtPathExecutionStack;
+import org.cyclops.cyclopscore.nbt.path.navigate.INbtPathNavigation;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+
+/**
+ * A node in the deterministic trie of an {@link NbtPathQuerySet}.
+ *
+ * Each node corresponds to a tag that is reached by following child keys from the root,
+ * and determines the single next node for each child,
+ * so that every tag is visited at most once for all queries together.
+ * The queries for which all child key steps were consumed at this node
+ * execute their remaining compiled sub-expressions on the tag of this node.
+ *
+ * As a navigation, this represents the union of the child key prefixes of all queries.
+ */
+public class NbtPathQueryNode implements INbtPathCompiledNode, INbtPathNavigation {
+
+    private final Map<String, NbtPathQueryNode> children;
+    private final String[] childKeys;
+    private final NbtPathQueryNode[] childNodes;
+    @Nullable
+    private final NbtPathQueryNode wildcardChild;
+    private final int[] terminalQueries;
+    private final INbtPathCompiledNode[] terminalNodes;
+
+    /**
+     * Create a new node.
+     * @param children The children for specific keys, which must already include the queries of the wildcard child.
+     * @param wildcardChild The child for all other keys and list elements.
+     * @param terminalQueries The indexes of queries that end at this node.
+     * @param terminalNodes The compiled remainder of each query that ends at this node.
+     */
+    public NbtPathQueryNode(Map<String, NbtPathQueryNode> children, @Nullable NbtPathQueryNode wildcardChild,
+                            int[] terminalQueries, INbtPathCompiledNode[] terminalNodes) {
+        this.children = children;
+        this.childKeys = children.keySet().toArray(new String[0]);
+        this.childNodes = new NbtPathQueryNode[childKeys.length];
+        for (int i = 0; i < childKeys.length; i++) {
+            this.childNodes[i] = children.get(childKeys[i]);
+        }
+        this.wildcardChild = wildcardChild;
+        this.terminalQueries = terminalQueries;
+        this.terminalNodes = terminalNodes;
+    }
+
+    /**
+     * @param key A child key.
+     * @return The node for the given child key, or null if no query continues via that key.
+     */
+    @Nullable
+    public NbtPathQueryNode getChild(String key) {
+        NbtPathQueryNode child = children.get(key);
+        return child != null ? child : wildcardChild;
+    }
+
+    /**
+     * @return If any query ends at this node.
+     */
+    public boolean hasTerminals() {
+        return terminalQueries.length > 0;
+    }
+
+    /**
+     * @return If any query continues to the children of this node.
+     */
+    public boolean hasChildren() {
+        return childKeys.length > 0 || wildcardChild != null;
+    }
+
+    @Override
+    public boolean isLeafKey(String key) {
+        NbtPathQueryNode child = getChild(key);
+        return child != null && child.hasTerminals();
+    }
+
+    @Nullable
+    @Override
+    public INbtPathNavigation getNext(String key) {
+        NbtPathQueryNode child = getChild(key);
+        return child != null && child.hasChildren() ? child : null;
+    }
+
+    @Override
+    public boolean execute(NbtPathExecutionStack stack, int depth) {
+        NbtPathQueryExecutionStack queryStack = (NbtPathQueryExecutionStack) stack;
+        for (int i = 0; i < terminalQueries.length; i++) {
+            // The result of a single query never stops the traversal for the other queries
+            if (!queryStack.isQueryDone(terminalQueries[i])) {
+                terminalNodes[i].execute(stack, depth);
+            }
+        }
+        if (queryStack.isAllDone()) {
+            return false;
+        }
+
+        Tag nbt = stack.getTag(depth);
+        if (nbt.getId() == Tag.TAG_COMPOUND) {
+            CompoundTag tag = (CompoundTag) nbt;
+            if (wildcardChild != null) {
+                for (String key : tag.getAllKeys()) {
+                    if (!stack.push(depth, tag.get(key), getChild(key))) {
+                        return false;
+                    }
+                }
+            } else {
+                for (int i = 0; i < childKeys.length; i++) {
+                    Tag childTag = tag.get(childKeys[i]);
+                    if (childTag != null && !stack.push(depth, childTag, childNodes[i])) {
+                        return false;
+                    }
+                }
+            }
+        } else if (nbt.getId() == Tag.TAG_LIST && wildcardChild != null) {
+            for (Tag subTag : (ListTag) nbt) {
+                if (!stack.push(depth, subTag, wildcardChild)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,226 @@
+package org.cyclops.cyclopscore.nbt.path.query;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import net.minecraft.nbt.Tag;
+import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
+import org.cyclops.cyclopscore.nbt.path.NbtParseException;
+import org.cyclops.cyclopscore.nbt.path.NbtPath;
+import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionList;
+import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionMatches;
+import org.cyclops.cyclopscore.nbt.path.compile.INbtPathCompiledNode;
+import org.cyclops.cyclopscore.nbt.path.compile.NbtPathCompiledExpression;
+import org.cyclops.cyclopscore.nbt.path.parse.NbtPathExpressionParseHandlerAllChildren;
+import org.cyclops.cyclopscore.nbt.path.parse.NbtPathExpressionParseHandlerChild;
+import org.cyclops.cyclopscore.nbt.path.parse.NbtPathExpressionParseHandlerCurrent;
+import org.cyclops.cyclopscore.nbt.path.parse.NbtPathExpressionParseHandlerRoot;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A set of NBT path expressions that are evaluated together in a single traversal of a tag.
+ *
+ * The leading child key ("a" or ["a"]) and wildcard ("*") steps of all queries
+ * are merged into a deterministic trie of {@link NbtPathQueryNode}s,
+ * so that every tag along these steps is visited at most once, regardless of the number of queries.
+ * The remaining steps of each query are compiled, and executed at the node where its leading steps end.
+ *
+ * The matches of each query are the same as when evaluating that query separately.
+ * A query set is immutable, and can be evaluated by multiple threads.
+ */
+public class NbtPathQuerySet {
+
+    private final List<INbtPathExpression> queries;
+    private final NbtPathQueryNode root;
+
+    /**
+     * Create a new query set.
+     * @param queries The queries, which are identified by their index in this list.
+     */
+    public NbtPathQuerySet(List<? extends INbtPathExpression> queries) {
+        this.queries = Lists.newArrayList(queries);
+        TrieNode trieRoot = new TrieNode();
+        for (int i = 0; i < this.queries.size(); i++) {
+            insert(trieRoot, i, this.queries.get(i));
+        }
+        this.root = determinize(Sets.newLinkedHashSet(Lists.newArrayList(trieRoot)), Maps.newHashMap());
+    }
+
+    /**
+     * Parse the given NBT path expression strings into a query set.
+     * @param nbtPathExpressions NBT path expression strings.
+     * @return A query set.
+     * @throws NbtParseException An exception that can be thrown if parsing of any expression failed.
+     */
+    public static NbtPathQuerySet parse(List<String> nbtPathExpressions) throws NbtParseException {
+        List<INbtPathExpression> queries = Lists.newArrayListWithExpectedSize(nbtPathExpressions.size());
+        for (String nbtPathExpression : nbtPathExpressions) {
+            queries.add(NbtPath.parseCached(nbtPathExpression));
+        }
+        return new NbtPathQuerySet(queries);
+    }
+
+    /**
+     * @return The number of queries.
+     */
+    public int size() {
+        return queries.size();
+    }
+
+    /**
+     * @param query A query index.
+     * @return The query expression.
+     */
+    public INbtPathExpression getQuery(int query) {
+        return queries.get(query);
+    }
+
+    /**
+     * @return The root of the trie.
+     */
+    public NbtPathQueryNode getRoot() {
+        return root;
+    }
+
+    /**
+     * Find the matches of all queries for the given NBT tag.
+     * @param nbt An NBT tag.
+     * @return The matches of each query, in the order of the queries.
+     */
+    public List<NbtPathExpressionMatches> match(Tag nbt) {
+        NbtPathQueryExecutionStack stack = new NbtPathQueryExecutionStack(queries.size(), true);
+        stack.executeRoot(nbt, root);
+        List<NbtPathExpressionMatches> matches = Lists.newArrayListWithExpectedSize(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            matches.add(new NbtPathExpressionMatches(stack.getQueryResults(i).stream()));
+        }
+        return matches;
+    }
+
+    /**
+     * Test all queries against the given NBT tag.
+     * The traversal stops as soon as the first match of every query was found.
+     * @param nbt An NBT tag.
+     * @return The test result of each query, in the order of the queries.
+     * @see INbtPathExpression#test(Tag)
+     */
+    public boolean[] test(Tag nbt) {
+        NbtPathQueryExecutionStack stack = new NbtPathQueryExecutionStack(queries.size(), false);
+        stack.executeRoot(nbt, root);
+        return stack.getQueryTestResults();
+    }
+
+    protected static void flatten(INbtPathExpression expression, List<INbtPathExpression> steps) {
+        if (expression instanceof NbtPathCompiledExpression) {
+            flatten(((NbtPathCompiledExpression) expression).getExpression(), steps);
+        } else if (expression instanceof NbtPathExpressionList) {
+            for (INbtPathExpression subExpression : ((NbtPathExpressionList) expression).getSubExpressions()) {
+                flatten(subExpression, steps);
+            }
+        } else {
+            steps.add(expression);
+        }
+    }
+
+    protected static void insert(TrieNode trieRoot, int query, INbtPathExpression expression) {
+        List<INbtPathExpression> steps = Lists.newArrayList();
+        flatten(expression, steps);
+
+        // Consume the leading steps that can be represented in the trie
+        TrieNode current = trieRoot;
+        int i = 0;
+        for (; i < steps.size(); i++) {
+            INbtPathExpression step = steps.get(i);
+            if (step instanceof NbtPathExpressionParseHandlerCurrent.Expression
+                    || (step instanceof NbtPathExpressionParseHandlerRoot.Expression && current == trieRoot)) {
+                continue;
+            }
+            if (step instanceof NbtPathExpressionParseHandlerChild.Expression) {
+                String key = ((NbtPathExpressionParseHandlerChild.Expression) step).getChildName();
+                current = current.children.computeIfAbsent(key, k -> new TrieNode());
+            } else if (step instanceof NbtPathExpressionParseHandlerAllChildren.Expression) {
+                if (current.wildcardChild == null) {
+                    current.wildcardChild = new TrieNode();
+                }
+                current = current.wildcardChild;
+            } else {
+                break;
+            }
+        }
+
+        INbtPathCompiledNode terminal = createTerminalNode(query);
+        if (i < steps.size()) {
+            terminal = new NbtPathExpressionList(steps.subList(i, steps.size()).toArray(new INbtPathExpression[0]))
+                    .compile(terminal);
+        }
+        current.terminalQueries.add(query);
+        current.terminalNodes.add(terminal);
+    }
+
+    protected static INbtPathCompiledNode createTerminalNode(int query) {
+        return (stack, depth) -> {
+            NbtPathQueryExecutionStack queryStack = (NbtPathQueryExecutionStack) stack;
+            if (queryStack.isCollecting()) {
+                queryStack.addQueryResult(query, depth);
+                return true;
+            }
+            queryStack.setQueryTestResult(query, depth);
+            return false;
+        };
+    }
+
+    /**
+     * Create a deterministic node for the given set of trie nodes,
+     * where a tag can be reached via both a specific key and a wildcard.
+     * @param trieNodes The trie nodes that are reached by the same tag.
+     * @param nodes Already created nodes, for sharing equal sets.
+     * @return The deterministic node.
+     */
+    protected static NbtPathQueryNode determinize(Set<TrieNode> trieNodes, Map<Set<TrieNode>, NbtPathQueryNode> nodes) {
+        NbtPathQueryNode node = nodes.get(trieNodes);
+        if (node != null) {
+            return node;
+        }
+
+        List<Integer> terminalQueries = Lists.newArrayList();
+        List<INbtPathCompiledNode> terminalNodes = Lists.newArrayList();
+        Set<TrieNode> wildcardTrieNodes = Sets.newLinkedHashSet();
+        Map<String, Set<TrieNode>> childTrieNodes = Maps.newLinkedHashMap();
+        for (TrieNode trieNode : trieNodes) {
+            terminalQueries.addAll(trieNode.terminalQueries);
+            terminalNodes.addAll(trieNode.terminalNodes);
+            if (trieNode.wildcardChild != null) {
+                wildcardTrieNodes.add(trieNode.wildcardChild);
+            }
+            for (Map.Entry<String, TrieNode> entry : trieNode.children.entrySet()) {
+                childTrieNodes.computeIfAbsent(entry.getKey(), k -> Sets.newLinkedHashSet()).add(entry.getValue());
+            }
+        }
+
+        Map<String, NbtPathQueryNode> children = Maps.newLinkedHashMap();
+        for (Map.Entry<String, Set<TrieNode>> entry : childTrieNodes.entrySet()) {
+            entry.getValue().addAll(wildcardTrieNodes);
+            children.put(entry.getKey(), determinize(entry.getValue(), nodes));
+        }
+        NbtPathQueryNode wildcardChild = wildcardTrieNodes.isEmpty() ? null : determinize(wildcardTrieNodes, nodes);
+
+        node = new NbtPathQueryNode(children, wildcardChild,
+                terminalQueries.stream().mapToInt(Integer::intValue).toArray(),
+                terminalNodes.toArray(new INbtPathCompiledNode[0]));
+        nodes.put(trieNodes, node);
+        return node;
+    }
+
+    protected static class TrieNode {
+        private final Map<String, TrieNode> children = Maps.newLinkedHashMap();
+        @Nullable
+        private TrieNode wildcardChild;
+        private final List<Integer> terminalQueries = Lists.newArrayList();
+        private final List<INbtPathCompiledNode> terminalNodes = Lists.newArrayList();
+    }
+
+}
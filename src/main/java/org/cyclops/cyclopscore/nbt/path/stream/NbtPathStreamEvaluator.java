@@ -0,0 +1,360 @@
+package org.cyclops.cyclopscore.nbt.path.stream;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.EndTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.Tag;
+import net.minecraft.nbt.TagTypes;
+import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
+import org.cyclops.cyclopscore.nbt.path.NbtParseException;
+import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionMatches;
+import org.cyclops.cyclopscore.nbt.path.navigate.INbtPathNavigation;
+
+import javax.annotation.Nullable;
+import java.io.DataInput;
+import java.io.IOException;
+
+/**
+ * Evaluates an NBT path expression directly on binary NBT,
+ * without deserializing the whole tag first.
+ *
+ * If the expression can be expressed as a navigation ({@link INbtPathExpression#asNavigation()}),
+ * only the subtrees that are reachable via that navigation are materialized,
+ * and the bytes of all other subtrees are skipped.
+ * The expression is then evaluated on the resulting partial tag,
+ * which produces the same matches as evaluating it on the full tag.
+ * Otherwise, the whole tag is materialized.
+ *
+ * The input is always consumed until the end of the tag,
+ * so that subsequent data can still be read.
+ */
+public class NbtPathStreamEvaluator {
+
+    /**
+     * The key via which list elements are looked up in a navigation.
+     * As navigations are key-based, list elements can only be reached via wildcards.
+     */
+    public static final String LIST_ELEMENT_KEY = "*";
+    /**
+     * The default maximum number of materialized bytes, which equals the limit of NBT in network packets.
+     */
+    public static final long DEFAULT_MAX_BYTES = 2097152L;
+
+    private final INbtPathExpression expression;
+    @Nullable
+    private final INbtPathNavigation navigation;
+    private final boolean navigable;
+
+    public NbtPathStreamEvaluator(INbtPathExpression expression) {
+        this.expression = expression;
+        INbtPathNavigation navigation = null;
+        boolean navigable;
+        try {
+            navigation = expression.asNavigation();
+            navigable = true;
+        } catch (NbtParseException | UnsupportedOperationException e) {
+            navigable = false;
+        }
+        this.navigation = navigation;
+        this.navigable = navigable;
+    }
+
+    public INbtPathExpression getExpression() {
+        return expression;
+    }
+
+    /**
+     * @return If subtrees can be skipped for this expression, otherwise the whole tag is always materialized.
+     */
+    public boolean isNavigable() {
+        return navigable && navigation != null;
+    }
+
+    /**
+     * Read the partial tag that is needed to evaluate the expression.
+     * @param input The input to read from.
+     * @param named If the root tag is preceded by a name, as in files, instead of unnamed as in network buffers.
+     * @param accounter The accounter for materialized tags.
+     * @return The partial tag.
+     * @throws IOException If an I/O error occurred.
+     */
+    public Tag read(DataInput input, boolean named, NbtAccounter accounter) throws IOException {
+        return read(input, named, navigation, accounter);
+    }
+
+    /**
+     * Find all matches in the given binary NBT,
+     * where at most {@link #DEFAULT_MAX_BYTES} bytes may be materialized.
+     * @param input The input to read from.
+     * @param named If the root tag is preceded by a name.
+     * @return The matches, of which the contexts only contain the materialized parts of their parents.
+     * @throws IOException If an I/O error occurred.
+     */
+    public NbtPathExpressionMatches match(DataInput input, boolean named) throws IOException {
+        return match(input, named, createDefaultAccounter());
+    }
+
+    /**
+     * Find all matches in the given binary NBT.
+     * @param input The input to read from.
+     * @param named If the root tag is preceded by a name.
+     * @param accounter The accounter for materialized tags.
+     * @return The matches, of which the contexts only contain the materialized parts of their parents.
+     * @throws IOException If an I/O error occurred.
+     */
+    public NbtPathExpressionMatches match(DataInput input, boolean named, NbtAccounter accounter) throws IOException {
+        return expression.match(read(input, named, accounter));
+    }
+
+    /**
+     * Test if the given binary NBT matches with the expression,
+     * where at most {@link #DEFAULT_MAX_BYTES} bytes may be materialized.
+     * @param input The input to read from.
+     * @param named If the root tag is preceded by a name.
+     * @return True if there is at least one match.
+     * @throws IOException If an I/O error occurred.
+     */
+    public boolean test(DataInput input, boolean named) throws IOException {
+        return test(input, named, createDefaultAccounter());
+    }
+
+    /**
+     * Test if the given binary NBT matches with the expression.
+     * @param input The input to read from.
+     * @param named If the root tag is preceded by a name.
+     * @param accounter The accounter for materialized tags.
+     * @return True if there is at least one match.
+     * @throws IOException If an I/O error occurred.
+     */
+    public boolean test(DataInput input, boolean named, NbtAccounter accounter) throws IOException {
+        return expression.test(read(input, named, accounter));
+    }
+
+    /**
+     * Find all matches in the unnamed binary NBT at the reader index of the given buffer,
+     * where at most {@link #DEFAULT_MAX_BYTES} bytes may be materialized.
+     * @param buffer The buffer to read from.
+     * @return The matches.
+     * @throws IOException If an I/O error occurred.
+     */
+    public NbtPathExpressionMatches match(ByteBuf buffer) throws IOException {
+        return match(buffer, createDefaultAccounter());
+    }
+
+    /**
+     * Find all matches in the unnamed binary NBT at the reader index of the given buffer.
+     * @param buffer The buffer to read from.
+     * @param accounter The accounter for materialized tags.
+     * @return The matches.
+     * @throws IOException If an I/O error occurred.
+     */
+    public NbtPathExpressionMatches match(ByteBuf buffer, NbtAccounter accounter) throws IOException {
+        return match(new ByteBufInputStream(buffer), false, accounter);
+    }
+
+    /**
+     * Test if the unnamed binary NBT at the reader index of the given buffer matches with the expression,
+     * where at most {@link #DEFAULT_MAX_BYTES} bytes may be materialized.
+     * @param buffer The buffer to read from.
+     * @return True if there is at least one match.
+     * @throws IOException If an I/O error occurred.
+     */
+    public boolean test(ByteBuf buffer) throws IOException {
+        return test(buffer, createDefaultAccounter());
+    }
+
+    /**
+     * Test if the unnamed binary NBT at the reader index of the given buffer matches with the expression.
+     * @param buffer The buffer to read from.
+     * @param accounter The accounter for materialized tags.
+     * @return True if there is at least one match.
+     * @throws IOException If an I/O error occurred.
+     */
+    public boolean test(ByteBuf buffer, NbtAccounter accounter) throws IOException {
+        return test(new ByteBufInputStream(buffer), false, accounter);
+    }
+
+    /**
+     * @return A new accounter that allows {@link #DEFAULT_MAX_BYTES} bytes to be materialized.
+     */
+    public static NbtAccounter createDefaultAccounter() {
+        return NbtAccounter.create(DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Read a tag, of which only the subtrees that are reachable via the given navigation are materialized.
+     * @param input The input to read from.
+     * @param named If the root tag is preceded by a name.
+     * @param navigation A navigation, or null if the whole tag must be materialized.
+     * @param accounter The accounter for materialized tags.
+     * @return The partial tag.
+     * @throws IOException If an I/O error occurred.
+     */
+    public static Tag read(DataInput input, boolean named, @Nullable INbtPathNavigation navigation,
+                           NbtAccounter accounter) throws IOException {
+        byte type = input.readByte();
+        if (type == Tag.TAG_END) {
+            return EndTag.INSTANCE;
+        }
+        if (named) {
+            skipString(input);
+        }
+        if (navigation == null || !isContainer(type)) {
+            return TagTypes.getType(type).load(input, accounter);
+        }
+        return readPartial(input, type, navigation, accounter);
+    }
+
+    protected static Tag readPartial(DataInput input, byte type, INbtPathNavigation navigation,
+                                     NbtAccounter accounter) throws IOException {
+        accounter.pushDepth();
+        try {
+            if (type == Tag.TAG_COMPOUND) {
+                CompoundTag compound = new CompoundTag();
+                byte childType;
+                while ((childType = input.readByte()) != Tag.TAG_END) {
+                    String key = input.readUTF();
+                    Tag childTag = readChild(input, childType, key, navigation, accounter);
+                    if (childTag != null) {
+                        compound.put(key, childTag);
+                    }
+                }
+                return compound;
+            } else {
+                ListTag list = new ListTag();
+                byte elementType = input.readByte();
+                int size = input.readInt();
+                for (int i = 0; i < size; i++) {
+                    Tag element = readChild(input, elementType, LIST_ELEMENT_KEY, navigation, accounter);
+                    // Skipped elements are dropped, so the indexes of later elements shift down.
+                    // This is only valid because navigations reach list elements via wildcards and never by index.
+                    if (element != null) {
+                        list.add(element);
+                    }
+                }
+                return list;
+            }
+        } finally {
+            accounter.popDepth();
+        }
+    }
+
+    @Nullable
+    protected static Tag readChild(DataInput input, byte type, String key, INbtPathNavigation navigation,
+                                   NbtAccounter accounter) throws IOException {
+        if (navigation.isLeafKey(key)) {
+            return TagTypes.getType(type).load(input, accounter);
+        }
+        INbtPathNavigation next = navigation.getNext(key);
+        if (next != null && isContainer(type)) {
+            return readPartial(input, type, next, accounter);
+        }
+        skip(input, type, accounter);
+        return null;
+    }
+
+    protected static boolean isContainer(byte type) {
+        return type == Tag.TAG_COMPOUND || type == Tag.TAG_LIST;
+    }
+
+    /**
+     * Skip the payload of a tag of the given type,
+     * where the nesting depth is bounded by a default accounter.
+     * @param input The input to read from.
+     * @param type A tag type.
+     * @throws IOException If an I/O error occurred.
+     */
+    public static void skip(DataInput input, byte type) throws IOException {
+        skip(input, type, createDefaultAccounter());
+    }
+
+    /**
+     * Skip the payload of a tag of the given type.
+     * Skipped bytes are not counted, but nested containers are, so that deeply nested input can not overflow the stack.
+     * @param input The input to read from.
+     * @param type A tag type.
+     * @param accounter The accounter for the nesting depth.
+     * @throws IOException If an I/O error occurred.
+     */
+    public static void skip(DataInput input, byte type, NbtAccounter accounter) throws IOException {
+        switch (type) {
+            case Tag.TAG_END:
+                break;
+            case Tag.TAG_BYTE:
+                skipFully(input, 1);
+                break;
+            case Tag.TAG_SHORT:
+                skipFully(input, 2);
+                break;
+            case Tag.TAG_INT:
+            case Tag.TAG_FLOAT:
+                skipFully(input, 4);
+                break;
+            case Tag.TAG_LONG:
+            case Tag.TAG_DOUBLE:
+                skipFully(input, 8);
+                break;
+            case Tag.TAG_BYTE_ARRAY:
+                skipFully(input, input.readInt());
+                break;
+            case Tag.TAG_STRING:
+                skipString(input);
+                break;
+            case Tag.TAG_LIST:
+                accounter.pushDepth();
+                try {
+                    byte elementType = input.readByte();
+                    int size = input.readInt();
+                    for (int i = 0; i < size; i++) {
+                        skip(input, elementType, accounter);
+                    }
+                } finally {
+                    accounter.popDepth();
+                }
+                break;
+            case Tag.TAG_COMPOUND:
+                accounter.pushDepth();
+                try {
+                    byte childType;
+                    while ((childType = input.readByte()) != Tag.TAG_END) {
+                        skipString(input);
+                        skip(input, childType, accounter);
+                    }
+                } finally {
+                    accounter.popDepth();
+                }
+                break;
+            case Tag.TAG_INT_ARRAY:
+                skipFully(input, (long) input.readInt() * 4);
+                break;
+            case Tag.TAG_LONG_ARRAY:
+                skipFully(input, (long) input.readInt() * 8);
+                break;
+            default:
+                throw new IOException("Invalid NBT tag type " + type);
+        }
+    }
+
+    protected static void skipString(DataInput input) throws IOException {
+        skipFully(input, input.readUnsignedShort());
+    }
+
+    protected static void skipFully(DataInput input, long length) throws IOException {
+        if (length < 0) {
+            throw new IOException("Invalid NBT length " + length);
+        }
+        while (length > 0) {
+            int skipped = input.skipBytes((int) Math.min(length, Integer.MAX_VALUE));
+            if (skipped <= 0) {
+                // Some inputs only skip buffered bytes, so force progress by reading
+                input.readByte();
+                skipped = 1;
+            }
+            length -= skipped;
+        }
+    }
+
+}
@@ -27,4 +27,17 @@ public class IngredientComponentStubs {
                             ComplexStack.Tag.class, true, ComplexStack::getTag, ComplexStack.Match.TAG, false)
             )).setTranslationKey("recipecomponent.cyclopscore.complex");
 
+    public static IngredientComponent<ComplexStack, Integer> COMPLEX_SERIALIZABLE =
+            new IngredientComponent<>("cyclopscore:complex_serializable", new IngredientMatcherComplex(),
+                    new IngredientSerializerComplex(), Lists.newArrayList(
+                    new IngredientComponentCategoryType<>(ResourceLocation.parse("cyclopscore:complex_serializable/group"),
+                            ComplexStack.Group.class, true, ComplexStack::getGroup, ComplexStack.Match.GROUP, false),
+                    new IngredientComponentCategoryType<>(ResourceLocation.parse("cyclopscore:complex_serializable/meta"),
+                            Integer.class, false, ComplexStack::getMeta, ComplexStack.Match.META, false),
+                    new IngredientComponentCategoryType<>(ResourceLocation.parse("cyclopscore:complex_serializable/amount"),
+                            Integer.class, false, ComplexStack::getAmount, ComplexStack.Match.AMOUNT, true),
+                    new IngredientComponentCategoryType<>(ResourceLocation.parse("cyclopscore:complex_serializable/tag"),
+                            ComplexStack.Tag.class, true, ComplexStack::getTag, ComplexStack.Match.TAG, false)
+            )).setTranslationKey("recipecomponent.cyclopscore.complex_serializable");
+
 }
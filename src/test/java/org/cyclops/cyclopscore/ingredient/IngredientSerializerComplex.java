@@ -0,0 +1,41 @@
+package org.cyclops.cyclopscore.ingredient;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
+import org.cyclops.commoncapabilities.api.ingredient.IIngredientSerializer;
+
+public class IngredientSerializerComplex implements IIngredientSerializer<ComplexStack, Integer> {
+
+    @Override
+    public Tag serializeInstance(ComplexStack instance) {
+        CompoundTag tag = new CompoundTag();
+        tag.putString("group", instance.getGroup().name());
+        tag.putInt("meta", instance.getMeta());
+        tag.putInt("amount", instance.getAmount());
+        if (instance.getTag() != null) {
+            tag.putString("tag", instance.getTag().name());
+        }
+        return tag;
+    }
+
+    @Override
+    public ComplexStack deserializeInstance(Tag tag) throws IllegalArgumentException {
+        if (!(tag instanceof CompoundTag)) {
+            throw new IllegalArgumentException("This deserializer only accepts CompoundTag");
+        }
+        CompoundTag compoundTag = (CompoundTag) tag;
+        return new ComplexStack(ComplexStack.Group.valueOf(compoundTag.getString("group")), compoundTag.getInt("meta"),
+                compoundTag.getInt("amount"),
+                compoundTag.contains("tag") ? ComplexStack.Tag.valueOf(compoundTag.getString("tag")) : null);
+    }
+
+    @Override
+    public Tag serializeCondition(Integer matchCondition) {
+        return null;
+    }
+
+    @Override
+    public Integer deserializeCondition(Tag tag) throws IllegalArgumentException {
+        return null;
+    }
+}
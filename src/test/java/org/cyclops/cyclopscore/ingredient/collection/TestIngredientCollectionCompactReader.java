@@ -0,0 +1,121 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import net.minecraft.nbt.NbtAccounter;
+import org.cyclops.cyclopscore.ingredient.ComplexStack;
+import org.cyclops.cyclopscore.ingredient.IngredientComponentStubs;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.stream.StreamSupport;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TestIngredientCollectionCompactReader {
+
+    private static final ComplexStack CA01_ = new ComplexStack(ComplexStack.Group.A, 0, 1, null);
+    private static final ComplexStack CA05_ = new ComplexStack(ComplexStack.Group.A, 0, 5, null);
+    private static final ComplexStack CB02_ = new ComplexStack(ComplexStack.Group.B, 0, 2, null);
+    private static final ComplexStack CA91B = new ComplexStack(ComplexStack.Group.A, 9, 1, ComplexStack.Tag.B);
+
+    private IngredientArrayList<ComplexStack, Integer> list;
+    private byte[] bytes;
+
+    @Before
+    public void beforeEach() {
+        list = new IngredientArrayList<>(IngredientComponentStubs.COMPLEX_SERIALIZABLE, CA01_, CB02_, CA91B, CA05_);
+        bytes = IngredientCollectionCompactSerializer.toBytes(list);
+    }
+
+    protected IngredientCollectionCompactReader<ComplexStack, Integer> createReader(ComplexStack instance, int matchCondition) throws IOException {
+        return new IngredientCollectionCompactReader<>(ByteStreams.newDataInput(bytes),
+                IngredientComponentStubs.COMPLEX_SERIALIZABLE, instance, matchCondition);
+    }
+
+    @Test
+    public void testIterateAll() throws IOException {
+        IngredientCollectionCompactReader<ComplexStack, Integer> reader = new IngredientCollectionCompactReader<>(
+                ByteStreams.newDataInput(bytes), IngredientComponentStubs.COMPLEX_SERIALIZABLE);
+        assertThat(reader.getRemaining(), is(4L));
+        assertThat(reader.next(), is(CA01_));
+        assertThat(reader.getRemaining(), is(3L));
+        assertThat(Lists.newArrayList(reader), is(Lists.newArrayList(CB02_, CA91B, CA05_)));
+        assertThat(reader.getRemaining(), is(0L));
+        assertThat(reader.hasNext(), is(false));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testAccounterLimit() throws IOException {
+        IngredientCollectionCompactReader<ComplexStack, Integer> reader = new IngredientCollectionCompactReader<>(
+                ByteStreams.newDataInput(bytes), IngredientComponentStubs.COMPLEX_SERIALIZABLE, null,
+                ComplexStack.Match.ANY, true, NbtAccounter.create(8));
+        Lists.newArrayList(reader);
+    }
+
+    @Test
+    public void testIterateMatchGroup() throws IOException {
+        assertThat(Lists.newArrayList(createReader(CA05_, ComplexStack.Match.GROUP)), is(Lists.newArrayList(CA01_, CA91B, CA05_)));
+        assertThat(Lists.newArrayList(createReader(CB02_, ComplexStack.Match.GROUP)), is(Lists.newArrayList(CB02_)));
+    }
+
+    @Test
+    public void testIterateMatchExact() throws IOException {
+        assertThat(Lists.newArrayList(createReader(CA05_, ComplexStack.Match.EXACT)), is(Lists.newArrayList(CA05_)));
+        assertThat(Lists.newArrayList(createReader(CA01_, ComplexStack.Match.EXACT)), is(Lists.newArrayList(CA01_)));
+        assertThat(Lists.newArrayList(createReader(CA01_, ComplexStack.Match.AMOUNT)), is(Lists.newArrayList(CA01_, CA91B)));
+    }
+
+    @Test
+    public void testIterateMatchExactSkipsPrototypes() throws IOException {
+        byte[] trailed = Arrays.copyOf(bytes, bytes.length + 1);
+        trailed[bytes.length] = 42;
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(trailed));
+        IngredientCollectionCompactReader<ComplexStack, Integer> reader = new IngredientCollectionCompactReader<>(
+                input, IngredientComponentStubs.COMPLEX_SERIALIZABLE, CA01_, ComplexStack.Match.EXACT);
+        assertThat(Lists.newArrayList(reader), is(Lists.newArrayList(CA01_)));
+        assertThat(input.readByte(), is((byte) 42));
+    }
+
+    @Test
+    public void testSpliterator() throws IOException {
+        assertThat(StreamSupport.stream(createReader(null, ComplexStack.Match.ANY).spliterator(), false).count(), is(4L));
+        assertThat(StreamSupport.stream(createReader(CA01_, ComplexStack.Match.GROUP).spliterator(), false).count(), is(3L));
+    }
+
+    @Test
+    public void testDeserializeIteratorCompact() {
+        assertThat(Lists.newArrayList(IngredientCollections.deserializeIterator(IngredientCollections.serializeCompact(list),
+                IngredientComponentStubs.COMPLEX_SERIALIZABLE)), is(Lists.newArrayList(CA01_, CB02_, CA91B, CA05_)));
+        assertThat(Lists.newArrayList(IngredientCollections.deserializeIterator(IngredientCollections.serializeCompact(list),
+                IngredientComponentStubs.COMPLEX_SERIALIZABLE, CA01_, ComplexStack.Match.META)), is(Lists.newArrayList(CA01_, CB02_, CA05_)));
+    }
+
+    @Test
+    public void testDeserializeIteratorList() {
+        assertThat(Lists.newArrayList(IngredientCollections.deserializeIterator(IngredientCollections.serialize(list),
+                IngredientComponentStubs.COMPLEX_SERIALIZABLE)), is(Lists.newArrayList(CA01_, CB02_, CA91B, CA05_)));
+        assertThat(Lists.newArrayList(IngredientCollections.deserializeIterator(IngredientCollections.serialize(list),
+                IngredientComponentStubs.COMPLEX_SERIALIZABLE, CA01_, ComplexStack.Match.META)), is(Lists.newArrayList(CA01_, CB02_, CA05_)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDeserializeIteratorWrongComponent() {
+        IngredientCollections.deserializeIterator(IngredientCollections.serializeCompact(list), IngredientComponentStubs.SIMPLE);
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testTruncated() throws IOException {
+        IngredientCollectionCompactReader<ComplexStack, Integer> reader = new IngredientCollectionCompactReader<>(
+                new DataInputStream(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 1))),
+                IngredientComponentStubs.COMPLEX_SERIALIZABLE);
+        Lists.newArrayList(reader);
+    }
+
+}
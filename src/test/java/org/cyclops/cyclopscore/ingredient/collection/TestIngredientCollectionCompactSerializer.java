@@ -0,0 +1,117 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
+import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
+import org.cyclops.cyclopscore.ingredient.ComplexStack;
+import org.cyclops.cyclopscore.ingredient.IngredientComponentStubs;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TestIngredientCollectionCompactSerializer {
+
+    private static final IngredientComponent<ComplexStack, Integer> COMPLEX = IngredientComponentStubs.COMPLEX_SERIALIZABLE;
+
+    private static final ComplexStack CA01_ = new ComplexStack(ComplexStack.Group.A, 0, 1, null);
+    private static final ComplexStack CA05_ = new ComplexStack(ComplexStack.Group.A, 0, 5, null);
+    private static final ComplexStack CA06_ = new ComplexStack(ComplexStack.Group.A, 0, 6, null);
+    private static final ComplexStack CB02_ = new ComplexStack(ComplexStack.Group.B, 0, 2, null);
+    private static final ComplexStack CA91B = new ComplexStack(ComplexStack.Group.A, 9, 1, ComplexStack.Tag.B);
+    private static final ComplexStack CA9300B = new ComplexStack(ComplexStack.Group.A, 9, 300, ComplexStack.Tag.B);
+
+    @Test
+    public void testRoundTripSimple() throws IOException {
+        IngredientArrayList<Integer, Boolean> list = new IngredientArrayList<>(IngredientComponentStubs.SIMPLE, 1, 5, 5, 0, 1000);
+        byte[] bytes = IngredientCollectionCompactSerializer.toBytes(list);
+        assertThat(IngredientCollectionCompactSerializer.readInto(ByteStreams.newDataInput(bytes),
+                new IngredientArrayList<>(IngredientComponentStubs.SIMPLE)), is(list));
+    }
+
+    @Test
+    public void testRoundTripComplex() throws IOException {
+        IngredientArrayList<ComplexStack, Integer> list = new IngredientArrayList<>(COMPLEX, CA01_, CB02_, CA91B, CA05_, CA9300B);
+        byte[] bytes = IngredientCollectionCompactSerializer.toBytes(list);
+        assertThat(IngredientCollectionCompactSerializer.readInto(ByteStreams.newDataInput(bytes),
+                new IngredientArrayList<>(COMPLEX)), is(list));
+    }
+
+    @Test
+    public void testRoundTripEmpty() throws IOException {
+        IngredientArrayList<ComplexStack, Integer> list = new IngredientArrayList<>(COMPLEX);
+        byte[] bytes = IngredientCollectionCompactSerializer.toBytes(list);
+        assertThat(IngredientCollectionCompactSerializer.readInto(ByteStreams.newDataInput(bytes),
+                new IngredientArrayList<>(COMPLEX)).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testPrototypesSerializedOnce() {
+        int sizeSingle = IngredientCollectionCompactSerializer.toBytes(new IngredientArrayList<>(COMPLEX, CA01_)).length;
+        int sizeDouble = IngredientCollectionCompactSerializer.toBytes(new IngredientArrayList<>(COMPLEX, CA01_, CA05_)).length;
+        // One byte for the prototype index, and one byte for the quantity
+        assertThat(sizeDouble, is(sizeSingle + 2));
+    }
+
+    @Test
+    public void testReadIntoCollapsed() throws IOException {
+        IngredientArrayList<ComplexStack, Integer> list = new IngredientArrayList<>(COMPLEX, CA01_, CB02_, CA05_);
+        byte[] bytes = IngredientCollectionCompactSerializer.toBytes(list);
+        IngredientCollectionPrototypeMap<ComplexStack, Integer> collection = IngredientCollectionCompactSerializer.readInto(
+                ByteStreams.newDataInput(bytes), new IngredientCollectionPrototypeMap<>(COMPLEX));
+        assertThat(collection.size(), is(2));
+        assertThat(collection.contains(CA06_), is(true));
+        assertThat(collection.contains(CB02_), is(true));
+    }
+
+    @Test
+    public void testByteBuf() throws IOException {
+        IngredientArrayList<ComplexStack, Integer> list = new IngredientArrayList<>(COMPLEX, CA01_, CB02_, CA9300B);
+        ByteBuf buffer = Unpooled.buffer();
+        IngredientCollectionCompactSerializer.write(list, buffer);
+        assertThat(IngredientCollectionCompactSerializer.readInto(new ByteBufInputStream(buffer),
+                new IngredientArrayList<>(COMPLEX)), is(list));
+        assertThat(buffer.readableBytes(), is(0));
+    }
+
+    @Test
+    public void testTag() throws IOException {
+        IngredientArrayList<ComplexStack, Integer> list = new IngredientArrayList<>(COMPLEX, CA01_, CB02_, CA9300B);
+        assertThat(IngredientCollectionCompactSerializer.readInto(
+                ByteStreams.newDataInput(IngredientCollectionCompactSerializer.toTag(list).getAsByteArray()),
+                new IngredientArrayList<>(COMPLEX)), is(list));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReadIntoWrongComponent() throws IOException {
+        byte[] bytes = IngredientCollectionCompactSerializer.toBytes(new IngredientArrayList<>(COMPLEX, CA01_));
+        IngredientCollectionCompactSerializer.readInto(ByteStreams.newDataInput(bytes),
+                new IngredientArrayList<>(IngredientComponentStubs.SIMPLE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReadInvalidVersion() throws IOException {
+        byte[] bytes = IngredientCollectionCompactSerializer.toBytes(new IngredientArrayList<>(COMPLEX, CA01_));
+        bytes[0] = 100;
+        IngredientCollectionCompactSerializer.readInto(ByteStreams.newDataInput(bytes), new IngredientArrayList<>(COMPLEX));
+    }
+
+    @Test
+    public void testVarLong() throws IOException {
+        long[] values = new long[]{0, 1, 127, 128, 300, Integer.MAX_VALUE, Long.MAX_VALUE, -1};
+        int[] sizes = new int[]{1, 1, 1, 2, 2, 5, 9, 10};
+        for (int i = 0; i < values.length; i++) {
+            ByteArrayDataOutput output = ByteStreams.newDataOutput();
+            IngredientCollectionCompactSerializer.writeVarLong(output, values[i]);
+            byte[] bytes = output.toByteArray();
+            assertThat(bytes.length, is(sizes[i]));
+            assertThat(IngredientCollectionCompactSerializer.readVarLong(ByteStreams.newDataInput(bytes)), is(values[i]));
+        }
+    }
+
+}
@@ -12,6 +12,7 @@ import org.junit.runners.Parameterized;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -300,6 +301,24 @@ public class TestIngredientCollectionComplexParameterized {
         assertThat(Sets.newHashSet(collection.iterator(CA01B, ComplexStack.Match.GROUP | ComplexStack.Match.AMOUNT | ComplexStack.Match.TAG)), is(Sets.newHashSet(CA91B)));
     }
 
+    @Test
+    public void testForEachMatching() {
+        for (int matchCondition = ComplexStack.Match.ANY; matchCondition <= ComplexStack.Match.EXACT; matchCondition++) {
+            List<ComplexStack> instances = Lists.newArrayList();
+            collection.forEachMatching(CA01B, matchCondition, instances::add);
+            assertThat(instances.size(), is(collection.count(CA01B, matchCondition)));
+            assertThat(Sets.newHashSet(instances), is(Sets.newHashSet(collection.iterator(CA01B, matchCondition))));
+        }
+    }
+
+    @Test
+    public void testForEach() {
+        List<ComplexStack> instances = Lists.newArrayList();
+        collection.forEach(instances::add);
+        assertThat(Sets.newHashSet(instances), is(Sets.newHashSet(CA01_, CB02_, CA91B)));
+        assertThat(instances.size(), is(3));
+    }
+
     @Test
     public void testRemoveAllExact() {
         Assert.assertThat(collection.size(), is(3));
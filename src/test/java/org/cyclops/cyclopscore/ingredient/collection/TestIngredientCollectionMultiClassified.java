@@ -56,6 +56,70 @@ public class TestIngredientCollectionMultiClassified {
         assertThat(collection.size(), is(4));
     }
 
+    @Test
+    public void testAddAllParallel() {
+        assertThat(collection.addAllParallel(Lists.newArrayList(CA01_, CB02_, CA01B)), is(true));
+        assertThat(collection.size(), is(4));
+        assertThat(Sets.newHashSet(collection), is(Sets.newHashSet(CA01_, CB02_, CA91B, CA01B)));
+        for (IngredientCollectionSingleClassified<ComplexStack, Integer, ?, ?> singleClassified : collection.getClassifiedCollections().values()) {
+            assertThat(singleClassified.size(), is(4));
+            assertThat(Sets.newHashSet(singleClassified), is(Sets.newHashSet(CA01_, CB02_, CA91B, CA01B)));
+        }
+        assertThat(collection.contains(CA01B, ComplexStack.Match.EXACT), is(true));
+    }
+
+    @Test
+    public void testAddAllParallelExisting() {
+        assertThat(collection.addAllParallel(Lists.newArrayList(CA01_, CB02_)), is(false));
+        assertThat(collection.size(), is(3));
+    }
+
+    @Test
+    public void testAddAllThreadedSharedPool() {
+        assertThat(collection.addAllThreaded(null, Lists.newArrayList(CA01B)), is(true));
+        assertThat(collection.size(), is(4));
+        assertThat(collection.contains(CA01B), is(true));
+    }
+
+    @Test
+    public void testPlanQueryAny() {
+        IngredientCollectionQueryPlan<ComplexStack, Integer, IngredientCollectionSingleClassified<ComplexStack, Integer, ?, ?>> plan =
+                collection.planQuery(null, ComplexStack.Match.ANY);
+        assertThat(plan.getCategoryType(), nullValue());
+        assertThat(plan.getEstimatedCost(), is(3));
+    }
+
+    @Test
+    public void testPlanQuerySelective() {
+        // Many instances in group A, but only one with meta 5
+        for (int i = 10; i < 30; i++) {
+            collection.add(new ComplexStack(ComplexStack.Group.A, i, 1, null));
+        }
+        ComplexStack CA51_ = new ComplexStack(ComplexStack.Group.A, 5, 1, null);
+        collection.add(CA51_);
+
+        IngredientCollectionQueryPlan<ComplexStack, Integer, IngredientCollectionSingleClassified<ComplexStack, Integer, ?, ?>> plan =
+                collection.planQuery(CA51_, ComplexStack.Match.GROUP | ComplexStack.Match.META);
+        assertThat(plan.getCategoryType(), is(IngredientComponentStubs.COMPLEX.getCategoryTypes().get(1)));
+        assertThat(plan.getEstimatedCost(), is(1));
+        assertThat(plan.getCandidateCosts().get(IngredientComponentStubs.COMPLEX.getCategoryTypes().get(0)), is(23));
+        assertThat(plan.explain().isEmpty(), is(false));
+
+        assertThat(Sets.newHashSet(collection.iterator(CA51_, ComplexStack.Match.GROUP | ComplexStack.Match.META)), is(Sets.newHashSet(CA51_)));
+        assertThat(collection.count(CA51_, ComplexStack.Match.GROUP | ComplexStack.Match.META), is(1));
+        assertThat(collection.removeAll(CA51_, ComplexStack.Match.GROUP | ComplexStack.Match.META), is(1));
+        assertThat(collection.size(), is(23));
+        assertThat(collection.contains(CA51_), is(false));
+    }
+
+    @Test
+    public void testPlanQueryGroupSmallest() {
+        IngredientCollectionQueryPlan<ComplexStack, Integer, IngredientCollectionSingleClassified<ComplexStack, Integer, ?, ?>> plan =
+                collection.planQuery(CB02_, ComplexStack.Match.GROUP | ComplexStack.Match.META);
+        assertThat(plan.getCategoryType(), is(IngredientComponentStubs.COMPLEX.getCategoryTypes().get(0)));
+        assertThat(plan.getEstimatedCost(), is(1));
+    }
+
     @Test
     public void testEquals() {
         assertThat(collection.equals(collection), is(true));
@@ -0,0 +1,170 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.cyclops.cyclopscore.ingredient.ComplexStack;
+import org.cyclops.cyclopscore.ingredient.IngredientComponentStubs;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TestIngredientCollectionPrototypeConcurrentMap {
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 10000;
+
+    private static final ComplexStack CA01_ = new ComplexStack(ComplexStack.Group.A, 0, 1, null);
+    private static final ComplexStack CA02_ = new ComplexStack(ComplexStack.Group.A, 0, 2, null);
+    private static final ComplexStack CA05_ = new ComplexStack(ComplexStack.Group.A, 0, 5, null);
+    private static final ComplexStack CB01_ = new ComplexStack(ComplexStack.Group.B, 0, 1, null);
+    private static final ComplexStack CB02_ = new ComplexStack(ComplexStack.Group.B, 0, 2, null);
+    private static final ComplexStack CA91B = new ComplexStack(ComplexStack.Group.A, 9, 1, ComplexStack.Tag.B);
+
+    private IngredientCollectionPrototypeConcurrentMap<ComplexStack, Integer> collection;
+
+    @Before
+    public void beforeEach() {
+        collection = new IngredientCollectionPrototypeConcurrentMap<>(IngredientComponentStubs.COMPLEX);
+    }
+
+    @Test
+    public void addRemove() {
+        assertThat(collection.isEmpty(), is(true));
+
+        assertThat(collection.add(CA01_), is(true));
+        assertThat(collection.add(CA01_), is(true));
+        assertThat(collection.contains(CA02_), is(true));
+        assertThat(collection.size(), is(1));
+
+        assertThat(collection.remove(CA05_), is(false));
+        assertThat(collection.remove(CA01_), is(true));
+        assertThat(collection.contains(CA01_), is(true));
+        assertThat(collection.remove(CA01_), is(true));
+        assertThat(collection.isEmpty(), is(true));
+    }
+
+    @Test
+    public void removeNegative() {
+        IngredientCollectionPrototypeConcurrentMap<ComplexStack, Integer> collection = new IngredientCollectionPrototypeConcurrentMap<>(IngredientComponentStubs.COMPLEX, true);
+        assertThat(collection.isNegativeQuantities(), is(true));
+        assertThat(collection.remove(CA05_), is(true));
+        assertThat(collection.getQuantity(CA05_), is(-5L));
+        assertThat(collection.add(CA05_), is(true));
+        assertThat(collection.isEmpty(), is(true));
+    }
+
+    @Test
+    public void setGetQuantity() {
+        collection.setQuantity(CA01_, 10);
+        assertThat(collection.getQuantity(CA05_), is(10L));
+        collection.setQuantity(CA01_, 0);
+        assertThat(collection.getQuantity(CA05_), is(0L));
+        assertThat(collection.isEmpty(), is(true));
+    }
+
+    @Test
+    public void iterator() {
+        collection.add(CA02_);
+        collection.add(CB02_);
+        collection.add(CA91B);
+        assertThat(Sets.newHashSet(collection), is(Sets.newHashSet(CA02_, CB02_, CA91B)));
+        assertThat(Sets.newHashSet(collection.iterator(CA01_, ComplexStack.Match.GROUP)), is(Sets.newHashSet(CA02_, CA91B)));
+    }
+
+    @Test
+    public void iteratorRemove() {
+        collection.add(CA02_);
+        collection.add(CB02_);
+        Iterator<ComplexStack> it = collection.iterator(CA01_, ComplexStack.Match.GROUP);
+        it.next();
+        it.remove();
+        assertThat(Sets.newHashSet(collection), is(Sets.newHashSet(CB02_)));
+    }
+
+    @Test
+    public void concurrentAddConverges() throws Exception {
+        runConcurrently(thread -> {
+            for (int i = 0; i < ITERATIONS; i++) {
+                collection.add(i % 2 == 0 ? CA01_ : CB01_);
+                collection.add(CA91B);
+            }
+        });
+
+        assertThat(collection.getQuantity(CA01_), is((long) THREADS * ITERATIONS / 2));
+        assertThat(collection.getQuantity(CB01_), is((long) THREADS * ITERATIONS / 2));
+        assertThat(collection.getQuantity(CA91B), is((long) THREADS * ITERATIONS));
+        assertThat(collection.size(), is(3));
+    }
+
+    @Test
+    public void concurrentAddRemoveConverges() throws Exception {
+        runConcurrently(thread -> {
+            for (int i = 0; i < ITERATIONS; i++) {
+                collection.add(CA02_);
+                collection.add(CB01_);
+                // Only remove what this thread added before, so that removals never fail
+                assertThat(collection.remove(CA01_), is(true));
+                assertThat(collection.remove(CB01_), is(true));
+            }
+        });
+
+        assertThat(collection.getQuantity(CA01_), is((long) THREADS * ITERATIONS));
+        assertThat(collection.getQuantity(CB01_), is(0L));
+        assertThat(collection.size(), is(1));
+    }
+
+    @Test
+    public void concurrentIterate() throws Exception {
+        for (int i = 0; i < 64; i++) {
+            collection.add(new ComplexStack(ComplexStack.Group.A, i, 1, null));
+        }
+        runConcurrently(thread -> {
+            for (int i = 0; i < ITERATIONS / 100; i++) {
+                if (thread % 2 == 0) {
+                    collection.add(new ComplexStack(ComplexStack.Group.B, i, 1, null));
+                } else {
+                    for (ComplexStack instance : collection) {
+                        assertThat(collection.getComponent().getMatcher().isEmpty(instance), is(false));
+                    }
+                }
+            }
+        });
+
+        assertThat(collection.count(CA01_, ComplexStack.Match.GROUP), is(64));
+    }
+
+    protected void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = Lists.newArrayList();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS), is(true));
+    }
+
+    protected static interface ThreadTask {
+        public void run(int thread);
+    }
+
+}
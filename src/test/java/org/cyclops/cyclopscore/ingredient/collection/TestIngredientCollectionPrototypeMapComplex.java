@@ -9,7 +9,9 @@ import org.junit.Test;
 
 import java.util.AbstractMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Random;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -113,6 +115,22 @@ public class TestIngredientCollectionPrototypeMapComplex {
         assertThat(new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX, true).isNegativeQuantities(), is(true));
     }
 
+    @Test
+    @SuppressWarnings("deprecation")
+    public void boxedMap() {
+        IngredientHashMap<ComplexStack, Integer, Long> map = new IngredientHashMap<>(IngredientComponentStubs.COMPLEX);
+        IngredientCollectionPrototypeMap<ComplexStack, Integer> collection = new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX, true, map);
+
+        assertThat(collection.add(CA05_), is(true));
+        assertThat(collection.add(CA01_), is(true));
+        assertThat(map.get(CA01_), is(6L));
+
+        assertThat(collection.remove(CA05_), is(true));
+        assertThat(collection.remove(CA01_), is(true));
+        assertThat(map.isEmpty(), is(true));
+        assertThat(collection.isEmpty(), is(true));
+    }
+
     @Test
     public void removeNegativeSame() {
         IngredientCollectionPrototypeMap<ComplexStack, Integer> collection = new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX, true);
@@ -269,4 +287,163 @@ public class TestIngredientCollectionPrototypeMapComplex {
         assertThat(available2, is(Sets.newHashSet(new AbstractMap.SimpleEntry<>(CA01_, 5L), new AbstractMap.SimpleEntry<>(CB01_, 2L), new AbstractMap.SimpleEntry<>(CA91B, 2L), new AbstractMap.SimpleEntry<>(CA01B, 5L))));
     }
 
+    @Test
+    public void forEachMatch() {
+        assertThat(collection.add(CA01_), is(true));
+        assertThat(collection.add(CB02_), is(true));
+        assertThat(collection.add(CA02_), is(true));
+        assertThat(collection.add(CA92B), is(true));
+        assertThat(collection.add(CA05B), is(true));
+        assertThat(collection.add(CA02_), is(true));
+
+        IngredientHashSet<ComplexStack, Integer> available1 = new IngredientHashSet<>(IngredientComponentStubs.COMPLEX);
+        collection.forEachMatching(CA05_, ComplexStack.Match.EXACT, available1::add);
+        assertThat(available1, is(new IngredientHashSet<>(IngredientComponentStubs.COMPLEX, Lists.newArrayList(CA05_))));
+
+        IngredientHashSet<ComplexStack, Integer> available2 = new IngredientHashSet<>(IngredientComponentStubs.COMPLEX);
+        collection.forEachMatching(CA01_, ComplexStack.Match.GROUP, available2::add);
+        assertThat(available2, is(new IngredientHashSet<>(IngredientComponentStubs.COMPLEX, Lists.newArrayList(CA05_, CA92B, CA05B))));
+
+        IngredientHashSet<ComplexStack, Integer> available3 = new IngredientHashSet<>(IngredientComponentStubs.COMPLEX);
+        collection.forEach(available3::add);
+        assertThat(available3, is(new IngredientHashSet<>(IngredientComponentStubs.COMPLEX, Lists.newArrayList(CA05_, CB02_, CA92B, CA05B))));
+    }
+
+    @Test
+    public void forEachPrototype() {
+        assertThat(collection.add(CA01_), is(true));
+        assertThat(collection.add(CB02_), is(true));
+        assertThat(collection.add(CA02_), is(true));
+        assertThat(collection.add(CA92B), is(true));
+        assertThat(collection.add(CA05B), is(true));
+        assertThat(collection.add(CA02_), is(true));
+
+        HashSet<Map.Entry<ComplexStack, Long>> available1 = Sets.newHashSet();
+        collection.forEachPrototype((prototype, quantity) -> available1.add(new AbstractMap.SimpleEntry<>(prototype, quantity)));
+        assertThat(available1, is(Sets.newHashSet(new AbstractMap.SimpleEntry<>(CA01_, 5L), new AbstractMap.SimpleEntry<>(CB01_, 2L), new AbstractMap.SimpleEntry<>(CA91B, 2L), new AbstractMap.SimpleEntry<>(CA01B, 5L))));
+
+        HashSet<Map.Entry<ComplexStack, Long>> available2 = Sets.newHashSet();
+        collection.forEachPrototype(CA05_, ComplexStack.Match.EXACT, (prototype, quantity) -> available2.add(new AbstractMap.SimpleEntry<>(prototype, quantity)));
+        assertThat(available2, is(Sets.newHashSet(new AbstractMap.SimpleEntry<>(CA01_, 5L))));
+    }
+
+    protected IngredientCollectionPrototypeMap<ComplexStack, Integer> createAggregated() {
+        return new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX, false,
+                new IngredientHashMapLong<>(IngredientComponentStubs.COMPLEX),
+                Lists.newArrayList(IngredientComponentStubs.COMPLEX.getCategoryTypes().get(0),
+                        IngredientComponentStubs.COMPLEX.getCategoryTypes().get(3)), null);
+    }
+
+    @Test
+    public void totalQuantity() {
+        collection = createAggregated();
+        assertThat(collection.add(CA01_), is(true));
+        assertThat(collection.add(CB02_), is(true));
+        assertThat(collection.add(CA02_), is(true));
+        assertThat(collection.add(CA92B), is(true));
+        assertThat(collection.add(CA05B), is(true));
+        assertThat(collection.add(CA02_), is(true));
+
+        // Aggregated
+        assertThat(collection.getTotalQuantity(CA01_, ComplexStack.Match.ANY), is(14L));
+        assertThat(collection.getPrototypeCount(CA01_, ComplexStack.Match.ANY), is(4));
+        assertThat(collection.getTotalQuantity(CA01_, ComplexStack.Match.GROUP), is(12L));
+        assertThat(collection.getPrototypeCount(CA01_, ComplexStack.Match.GROUP), is(3));
+        assertThat(collection.getTotalQuantity(CB05_, ComplexStack.Match.GROUP), is(2L));
+        assertThat(collection.getTotalQuantity(CB05_, ComplexStack.Match.GROUP | ComplexStack.Match.AMOUNT), is(2L));
+        assertThat(collection.getTotalQuantity(CA01B, ComplexStack.Match.TAG), is(7L));
+        assertThat(collection.getPrototypeCount(CA01B, ComplexStack.Match.TAG), is(2));
+        assertThat(collection.getTotalQuantity(CA01_, ComplexStack.Match.TAG), is(7L));
+        assertThat(collection.getAggregates().appliesTo(ComplexStack.Match.GROUP), is(true));
+        assertThat(collection.getAggregates().appliesTo(ComplexStack.Match.META), is(false));
+
+        // Not aggregated
+        assertThat(collection.getTotalQuantity(CA01B, ComplexStack.Match.GROUP | ComplexStack.Match.TAG), is(7L));
+        assertThat(collection.getPrototypeCount(CA01B, ComplexStack.Match.GROUP | ComplexStack.Match.TAG), is(2));
+        assertThat(collection.getTotalQuantity(CA01_, ComplexStack.Match.META), is(12L));
+        assertThat(collection.getPrototypeCount(CA01_, ComplexStack.Match.META), is(3));
+        assertThat(collection.getTotalQuantity(CA01_, ComplexStack.Match.EXACT), is(5L));
+
+        assertThat(collection.remove(CA02_), is(true));
+        assertThat(collection.getTotalQuantity(CA01_, ComplexStack.Match.GROUP), is(10L));
+
+        collection.setQuantity(CA91B, 0);
+        assertThat(collection.getTotalQuantity(CA01_, ComplexStack.Match.GROUP), is(8L));
+        assertThat(collection.getPrototypeCount(CA01_, ComplexStack.Match.GROUP), is(2));
+        assertThat(collection.getTotalQuantity(CA01B, ComplexStack.Match.TAG), is(5L));
+        assertThat(collection.getPrototypeCount(CA01B, ComplexStack.Match.TAG), is(1));
+
+        assertThat(collection.removeAll(CB01_, ComplexStack.Match.GROUP), is(1));
+        assertThat(collection.getTotalQuantity(CB01_, ComplexStack.Match.GROUP), is(0L));
+        assertThat(collection.getPrototypeCount(CB01_, ComplexStack.Match.GROUP), is(0));
+        assertThat(collection.getTotalQuantity(CA01_, ComplexStack.Match.ANY), is(8L));
+        assertThat(collection.getPrototypeCount(CA01_, ComplexStack.Match.ANY), is(2));
+
+        collection.clear();
+        assertThat(collection.getTotalQuantity(CA01_, ComplexStack.Match.ANY), is(0L));
+        assertThat(collection.getTotalQuantity(CA01_, ComplexStack.Match.GROUP), is(0L));
+    }
+
+    @Test
+    public void totalQuantityInitialMap() {
+        IngredientHashMapLong<ComplexStack, Integer> map = new IngredientHashMapLong<>(IngredientComponentStubs.COMPLEX);
+        map.putLong(CA01_, 5);
+        map.putLong(CA01B, 3);
+        map.putLong(CB01_, 2);
+        collection = new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX, false, map,
+                Lists.newArrayList(IngredientComponentStubs.COMPLEX.getCategoryTypes().get(0)), null);
+
+        assertThat(collection.getTotalQuantity(CA01_, ComplexStack.Match.ANY), is(10L));
+        assertThat(collection.getTotalQuantity(CA01_, ComplexStack.Match.GROUP), is(8L));
+        assertThat(collection.getPrototypeCount(CA01_, ComplexStack.Match.GROUP), is(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void totalQuantityAggregatePrimaryQuantifier() {
+        new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX, false,
+                new IngredientHashMapLong<>(IngredientComponentStubs.COMPLEX),
+                Lists.newArrayList(IngredientComponentStubs.COMPLEX.getPrimaryQuantifier()), null);
+    }
+
+    @Test
+    public void totalQuantityRandomOperations() {
+        collection = new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX, true,
+                new IngredientHashMapLong<>(IngredientComponentStubs.COMPLEX),
+                Lists.newArrayList(IngredientComponentStubs.COMPLEX.getCategoryTypes().get(0),
+                        IngredientComponentStubs.COMPLEX.getCategoryTypes().get(1),
+                        IngredientComponentStubs.COMPLEX.getCategoryTypes().get(3)), null);
+        Random random = new Random(42);
+        int[] matchConditions = { ComplexStack.Match.ANY, ComplexStack.Match.GROUP, ComplexStack.Match.META,
+                ComplexStack.Match.TAG, ComplexStack.Match.GROUP | ComplexStack.Match.TAG };
+        for (int i = 0; i < 1000; i++) {
+            ComplexStack instance = new ComplexStack(ComplexStack.Group.values()[random.nextInt(3)], random.nextInt(3),
+                    1 + random.nextInt(5), random.nextBoolean() ? null : ComplexStack.Tag.values()[random.nextInt(2)]);
+            int operation = random.nextInt(3);
+            if (operation == 0) {
+                collection.add(instance);
+            } else if (operation == 1) {
+                collection.remove(instance);
+            } else {
+                collection.setQuantity(instance, random.nextInt(3));
+            }
+
+            ComplexStack probe = new ComplexStack(ComplexStack.Group.values()[random.nextInt(3)], random.nextInt(3),
+                    1, random.nextBoolean() ? null : ComplexStack.Tag.values()[random.nextInt(2)]);
+            for (int matchCondition : matchConditions) {
+                long expectedQuantity = 0;
+                int expectedCount = 0;
+                Iterator<Map.Entry<ComplexStack, Long>> it = collection.prototypeIterator();
+                while (it.hasNext()) {
+                    Map.Entry<ComplexStack, Long> entry = it.next();
+                    if (IngredientComponentStubs.COMPLEX.getMatcher().matches(probe, entry.getKey(), matchCondition)) {
+                        expectedQuantity += entry.getValue();
+                        expectedCount++;
+                    }
+                }
+                assertThat(collection.getTotalQuantity(probe, matchCondition), is(expectedQuantity));
+                assertThat(collection.getPrototypeCount(probe, matchCondition), is(expectedCount));
+            }
+        }
+    }
+
 }
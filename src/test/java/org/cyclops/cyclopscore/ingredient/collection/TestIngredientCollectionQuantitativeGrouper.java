@@ -1,6 +1,7 @@
 package org.cyclops.cyclopscore.ingredient.collection;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import net.minecraft.resources.ResourceLocation;
 import org.cyclops.commoncapabilities.api.ingredient.IngredientComponent;
 import org.cyclops.commoncapabilities.api.ingredient.IngredientComponentCategoryType;
@@ -12,6 +13,10 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -343,4 +348,90 @@ public class TestIngredientCollectionQuantitativeGrouper {
         Assert.assertThat(collection.size(), is(1));
     }
 
+    @Test
+    public void testAddInPlace() {
+        assertThat(this.collection.add(CA01_), is(true));
+        assertThat(this.collection.add(CB02_), is(true));
+        assertThat(this.collection.add(CA01_), is(true));
+        assertThat(Lists.newArrayList(this.collection), is(Lists.newArrayList(CA02_, CB02_)));
+    }
+
+    @Test
+    public void testAddBreachMaxQuantityInPlace() {
+        assertThat(this.collection.add(CA0MAXM_), is(true));
+        assertThat(this.collection.add(CB02_), is(true));
+        assertThat(this.collection.add(CA02_), is(true));
+        assertThat(Lists.newArrayList(this.collection), is(Lists.newArrayList(CA0MAX_, CB02_, CA01_)));
+    }
+
+    @Test
+    public void testRemoveInPlace() {
+        assertThat(this.collection.add(CA05_), is(true));
+        assertThat(this.collection.add(CB02_), is(true));
+        assertThat(this.collection.remove(CA02_), is(true));
+        assertThat(Lists.newArrayList(this.collection), is(Lists.newArrayList(new ComplexStack(ComplexStack.Group.A, 0, 3, null), CB02_)));
+        assertThat(this.collection.remove(new ComplexStack(ComplexStack.Group.A, 0, 3, null)), is(true));
+        assertThat(Lists.newArrayList(this.collection), is(Lists.newArrayList(CB02_)));
+        assertThat(this.collection.add(CA01_), is(true));
+        assertThat(this.collection.add(CB02_), is(true));
+        assertThat(Lists.newArrayList(this.collection), is(Lists.newArrayList(new ComplexStack(ComplexStack.Group.B, 0, 4, null), CA01_)));
+    }
+
+    @Test
+    public void testRemoveFailTooLargeMultiple() {
+        assertThat(this.collection.add(CA0MAX_), is(true));
+        assertThat(this.collection.add(CA01_), is(true));
+        assertThat(this.collection.remove(CA0MAX_), is(true));
+        assertThat(this.collection.remove(CA02_), is(false));
+        assertThat(Lists.newArrayList(this.collection), is(Lists.newArrayList(CA01_)));
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        assertThat(this.collection.add(CA01_), is(true));
+        assertThat(this.collection.add(CB02_), is(true));
+        Iterator<ComplexStack> it = this.collection.iterator();
+        it.next();
+        it.remove();
+        assertThat(this.collection.getQuantity(CA01_), is(0L));
+        assertThat(this.collection.add(CB02_), is(true));
+        assertThat(this.collection.add(CA01_), is(true));
+        assertThat(Lists.newArrayList(this.collection), is(Lists.newArrayList(new ComplexStack(ComplexStack.Group.B, 0, 4, null), CA01_)));
+    }
+
+    @Test
+    public void testRandomOperations() {
+        IngredientCollectionQuantitativeGrouper<ComplexStack, Integer, IngredientArrayList<ComplexStack, Integer>> grouper =
+                new IngredientCollectionQuantitativeGrouper<>(new IngredientArrayList<>(IngredientComponentStubs.COMPLEX));
+        Map<ComplexStack, Long> quantities = Maps.newHashMap();
+        Random random = new Random(42);
+        for (int op = 0; op < 2000; op++) {
+            ComplexStack prototype = new ComplexStack(ComplexStack.Group.values()[random.nextInt(2)], random.nextInt(2), 1, null);
+            int amount = 1 + random.nextInt(Integer.MAX_VALUE / 2);
+            ComplexStack instance = new ComplexStack(prototype.getGroup(), prototype.getMeta(), amount, null);
+            long quantity = quantities.getOrDefault(prototype, 0L);
+            if (random.nextBoolean()) {
+                assertThat(grouper.add(instance), is(true));
+                quantities.put(prototype, quantity + amount);
+            } else {
+                boolean removable = quantity >= amount;
+                assertThat(grouper.remove(instance), is(removable));
+                if (removable) {
+                    if (quantity == amount) {
+                        quantities.remove(prototype);
+                    } else {
+                        quantities.put(prototype, quantity - amount);
+                    }
+                }
+            }
+
+            int expectedSize = 0;
+            for (Map.Entry<ComplexStack, Long> entry : quantities.entrySet()) {
+                assertThat(grouper.getQuantity(entry.getKey()), is(entry.getValue()));
+                expectedSize += (int) ((entry.getValue() + Integer.MAX_VALUE - 1) / Integer.MAX_VALUE);
+            }
+            assertThat(grouper.size(), is(expectedSize));
+        }
+    }
+
 }
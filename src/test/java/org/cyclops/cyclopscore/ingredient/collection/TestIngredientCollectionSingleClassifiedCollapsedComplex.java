@@ -179,6 +179,7 @@ public class TestIngredientCollectionSingleClassifiedCollapsedComplex {
         assertThat(collection.getQuantity(CA05_), is(0L));
         assertThat(collection.size(), is(0));
         assertThat(collection.isEmpty(), is(true));
+        assertThat(collection.getClassifiedCollections().isEmpty(), is(true));
     }
 
     @Test
@@ -210,4 +211,30 @@ public class TestIngredientCollectionSingleClassifiedCollapsedComplex {
         assertThat(available2, is(new IngredientHashSet<>(IngredientComponentStubs.COMPLEX, Lists.newArrayList(CA05_, CB02_, CA92B, CA05B))));
     }
 
+    @Test
+    public void totalQuantity() {
+        assertThat(collection.add(CA01_), is(true));
+        assertThat(collection.add(CB02_), is(true));
+        assertThat(collection.add(CA02_), is(true));
+        assertThat(collection.add(CA92B), is(true));
+        assertThat(collection.add(CA05B), is(true));
+        assertThat(collection.add(CA02_), is(true));
+
+        assertThat(collection.getTotalQuantity(CA01_, ComplexStack.Match.ANY), is(14L));
+        assertThat(collection.getPrototypeCount(CA01_, ComplexStack.Match.ANY), is(4));
+        assertThat(collection.getTotalQuantity(CA01_, ComplexStack.Match.GROUP), is(12L));
+        assertThat(collection.getPrototypeCount(CA01_, ComplexStack.Match.GROUP), is(3));
+        assertThat(collection.getTotalQuantity(CB05_, ComplexStack.Match.GROUP | ComplexStack.Match.AMOUNT), is(2L));
+        assertThat(collection.getTotalQuantity(CA01_, ComplexStack.Match.GROUP | ComplexStack.Match.META), is(10L));
+        assertThat(collection.getPrototypeCount(CA01_, ComplexStack.Match.GROUP | ComplexStack.Match.META), is(2));
+        assertThat(collection.getTotalQuantity(CA01B, ComplexStack.Match.TAG), is(7L));
+        assertThat(collection.getPrototypeCount(CA01B, ComplexStack.Match.TAG), is(2));
+        assertThat(collection.getTotalQuantity(CA01_, ComplexStack.Match.EXACT), is(5L));
+
+        collection.setQuantity(CB01_, 0);
+        assertThat(collection.getTotalQuantity(CB01_, ComplexStack.Match.GROUP), is(0L));
+        assertThat(collection.getPrototypeCount(CB01_, ComplexStack.Match.GROUP), is(0));
+        assertThat(collection.getTotalQuantity(CA01_, ComplexStack.Match.ANY), is(12L));
+    }
+
 }
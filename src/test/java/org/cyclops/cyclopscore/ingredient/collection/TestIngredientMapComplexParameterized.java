@@ -50,6 +50,13 @@ public class TestIngredientMapComplexParameterized {
                         IngredientComponentStubs.COMPLEX.getCategoryTypes().get(3)) },
                 { new IngredientMapMultiClassified<>(IngredientComponentStubs.COMPLEX,
                         () -> new IngredientHashMap<>(IngredientComponentStubs.COMPLEX)) },
+                { new IngredientOpenHashMap<>(IngredientComponentStubs.COMPLEX) },
+                { new IngredientOpenHashMap<>(IngredientComponentStubs.COMPLEX, 3) },
+                { new IngredientOpenHashMap<>(IngredientComponentStubs.COMPLEX, new IngredientHashMap<>(IngredientComponentStubs.COMPLEX)) },
+                { new IngredientMapMultiClassified<>(IngredientComponentStubs.COMPLEX,
+                        () -> new IngredientOpenHashMap<>(IngredientComponentStubs.COMPLEX)) },
+                { new IngredientCopyOnWriteMap<>(IngredientComponentStubs.COMPLEX) },
+                { new IngredientCopyOnWriteMap<>(IngredientComponentStubs.COMPLEX, new IngredientHashMap<>(IngredientComponentStubs.COMPLEX)) },
         });
     }
 
@@ -34,6 +34,21 @@ public class TestIngredientMapConstructors {
         assertThat(map3.containsKeyAll(Lists.newArrayList(0, 1, 2)), is(true));
     }
 
+    @Test
+    public void testOpenHashMap() {
+        IngredientOpenHashMap<Integer, Boolean, Integer> map0 = new IngredientOpenHashMap<>(IngredientComponentStubs.SIMPLE);
+        IngredientOpenHashMap<Integer, Boolean, Integer> map1 = new IngredientOpenHashMap<>(IngredientComponentStubs.SIMPLE, 10);
+        IngredientTreeMap<Integer, Boolean, Integer> subIngredientMap = new IngredientTreeMap<>(IngredientComponentStubs.SIMPLE);
+        subIngredientMap.put(0, 0);
+        subIngredientMap.put(1, 10);
+        subIngredientMap.put(2, 20);
+        IngredientOpenHashMap<Integer, Boolean, Integer> map2 = new IngredientOpenHashMap<>(IngredientComponentStubs.SIMPLE, subIngredientMap);
+        assertThat(map0.isEmpty(), is(true));
+        assertThat(map1.isEmpty(), is(true));
+        assertThat(map2.containsKeyAll(Lists.newArrayList(0, 1, 2)), is(true));
+        assertThat(map2.get(1), is(10));
+    }
+
     @Test
     public void testTreeMap() {
         IngredientTreeMap<Integer, Boolean, Integer> map0 = new IngredientTreeMap<>(IngredientComponentStubs.SIMPLE);
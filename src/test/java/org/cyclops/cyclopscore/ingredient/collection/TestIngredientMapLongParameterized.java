@@ -0,0 +1,208 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import it.unimi.dsi.fastutil.objects.AbstractObject2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import org.cyclops.cyclopscore.ingredient.ComplexStack;
+import org.cyclops.cyclopscore.ingredient.IngredientComponentStubs;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+@RunWith(Parameterized.class)
+public class TestIngredientMapLongParameterized {
+
+    private static final ComplexStack CA01_ = new ComplexStack(ComplexStack.Group.A, 0, 1, null);
+    private static final ComplexStack CB02_ = new ComplexStack(ComplexStack.Group.B, 0, 2, null);
+    private static final ComplexStack CA91B = new ComplexStack(ComplexStack.Group.A, 9, 1, ComplexStack.Tag.B);
+    private static final ComplexStack CA01B = new ComplexStack(ComplexStack.Group.A, 0, 1, ComplexStack.Tag.B);
+
+    @Parameterized.Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] {
+                { new IngredientHashMapLong<>(IngredientComponentStubs.COMPLEX) },
+                { new IngredientHashMapLong<>(IngredientComponentStubs.COMPLEX, 3) },
+                { new IngredientMapLongSingleClassified<>(IngredientComponentStubs.COMPLEX,
+                        () -> new IngredientHashMapLong<>(IngredientComponentStubs.COMPLEX),
+                        IngredientComponentStubs.COMPLEX.getCategoryTypes().get(0)) },
+                { new IngredientMapLongSingleClassified<>(IngredientComponentStubs.COMPLEX,
+                        () -> new IngredientHashMapLong<>(IngredientComponentStubs.COMPLEX),
+                        IngredientComponentStubs.COMPLEX.getCategoryTypes().get(1)) },
+                { new IngredientMapLongSingleClassified<>(IngredientComponentStubs.COMPLEX,
+                        () -> new IngredientHashMapLong<>(IngredientComponentStubs.COMPLEX),
+                        IngredientComponentStubs.COMPLEX.getCategoryTypes().get(2)) },
+                { new IngredientMapLongSingleClassified<>(IngredientComponentStubs.COMPLEX,
+                        () -> new IngredientHashMapLong<>(IngredientComponentStubs.COMPLEX),
+                        IngredientComponentStubs.COMPLEX.getCategoryTypes().get(3)) },
+                { new IngredientMapLongMultiClassified<>(IngredientComponentStubs.COMPLEX,
+                        () -> new IngredientHashMapLong<>(IngredientComponentStubs.COMPLEX)) },
+                { new IngredientCopyOnWriteMapLong<>(IngredientComponentStubs.COMPLEX) },
+                { new IngredientMapLongQuantityIndexed<>(IngredientComponentStubs.COMPLEX) },
+        });
+    }
+
+    @Parameterized.Parameter
+    public IIngredientMapLongMutable<ComplexStack, Integer> map;
+
+    @Before
+    public void beforeEach() {
+        map.clear();
+        map.putLong(CA01_, 10);
+        map.putLong(CB02_, 20);
+        map.putLong(CA91B, 90);
+    }
+
+    @Test
+    public void testGetLong() {
+        assertThat(map.getLong(CA01_), is(10L));
+        assertThat(map.getLong(CB02_), is(20L));
+        assertThat(map.getLong(CA91B), is(90L));
+        assertThat(map.getLong(CA01B), is(0L));
+        assertThat(map.get(CA01_), is(10L));
+        assertThat(map.get(CA01B), nullValue());
+    }
+
+    @Test
+    public void testPutLong() {
+        assertThat(map.putLong(CA01_, 11), is(10L));
+        assertThat(map.putLong(CA01B, 5), is(0L));
+        assertThat(map.getLong(CA01_), is(11L));
+        assertThat(map.getLong(CA01B), is(5L));
+        assertThat(map.size(), is(4));
+    }
+
+    @Test
+    public void testPutLongZero() {
+        assertThat(map.putLong(CA01_, 0), is(10L));
+        assertThat(map.putLong(CA01B, 0), is(0L));
+        assertThat(map.containsKey(CA01_), is(false));
+        assertThat(map.containsKey(CA01B), is(false));
+        assertThat(map.size(), is(2));
+    }
+
+    @Test
+    public void testPutBoxed() {
+        assertThat(map.put(CA01_, 11L), is(10L));
+        assertThat(map.put(CA01B, 5L), nullValue());
+        assertThat(map.getLong(CA01B), is(5L));
+        assertThat(map.size(), is(4));
+    }
+
+    @Test
+    public void testAddTo() {
+        assertThat(map.addTo(CA01_, 5), is(10L));
+        assertThat(map.getLong(CA01_), is(15L));
+        assertThat(map.addTo(CA01B, 3), is(0L));
+        assertThat(map.getLong(CA01B), is(3L));
+        assertThat(map.addTo(CA01B, -4), is(3L));
+        assertThat(map.getLong(CA01B), is(-1L));
+        assertThat(map.size(), is(4));
+    }
+
+    @Test
+    public void testAddToZero() {
+        assertThat(map.addTo(CA01_, -10), is(10L));
+        assertThat(map.containsKey(CA01_), is(false));
+        assertThat(map.size(), is(2));
+
+        assertThat(map.addTo(CA01B, 0), is(0L));
+        assertThat(map.containsKey(CA01B), is(false));
+        assertThat(map.size(), is(2));
+    }
+
+    @Test
+    public void testAddToOverflow() {
+        map.putLong(CA01_, Long.MAX_VALUE);
+        try {
+            map.addTo(CA01_, 1);
+            throw new AssertionError("Expected an ArithmeticException");
+        } catch (ArithmeticException e) {
+            // Expected
+        }
+        assertThat(map.getLong(CA01_), is(Long.MAX_VALUE));
+        assertThat(map.size(), is(3));
+    }
+
+    @Test
+    public void testRemoveLong() {
+        assertThat(map.removeLong(CA01_), is(10L));
+        assertThat(map.removeLong(CA01_), is(0L));
+        assertThat(map.removeLong(CA01B), is(0L));
+        assertThat(map.remove(CB02_), is(20L));
+        assertThat(map.remove(CB02_), nullValue());
+        assertThat(map.size(), is(1));
+    }
+
+    @Test
+    public void testLongIterator() {
+        assertThat(Sets.newHashSet(map.longIterator()), is(Sets.newHashSet(
+                new AbstractObject2LongMap.BasicEntry<>(CA01_, 10),
+                new AbstractObject2LongMap.BasicEntry<>(CB02_, 20),
+                new AbstractObject2LongMap.BasicEntry<>(CA91B, 90)
+        )));
+        assertThat(Sets.newHashSet(map.longIterator(CA01_, ComplexStack.Match.GROUP)), is(Sets.newHashSet(
+                new AbstractObject2LongMap.BasicEntry<>(CA01_, 10),
+                new AbstractObject2LongMap.BasicEntry<>(CA91B, 90)
+        )));
+    }
+
+    @Test
+    public void testLongIteratorRemove() {
+        Iterator<Object2LongMap.Entry<ComplexStack>> it = map.longIterator(CA01_, ComplexStack.Match.GROUP);
+        while (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+        assertThat(map.size(), is(1));
+        assertThat(map.getLong(CB02_), is(20L));
+        assertThat(map.containsKey(CA01_), is(false));
+    }
+
+    @Test
+    public void testKeySet() {
+        assertThat(map.keySet(), is(new IngredientHashSet<>(IngredientComponentStubs.COMPLEX,
+                Lists.newArrayList(CA01_, CB02_, CA91B))));
+    }
+
+    @Test
+    public void testForEachLongEntry() {
+        Set<Object2LongMap.Entry<ComplexStack>> entries = Sets.newHashSet();
+        map.forEachLongEntry((instance, value) -> entries.add(new AbstractObject2LongMap.BasicEntry<>(instance, value)));
+        assertThat(entries, is(Sets.newHashSet(
+                new AbstractObject2LongMap.BasicEntry<>(CA01_, 10),
+                new AbstractObject2LongMap.BasicEntry<>(CB02_, 20),
+                new AbstractObject2LongMap.BasicEntry<>(CA91B, 90)
+        )));
+    }
+
+    @Test
+    public void testForEachLongEntryMatching() {
+        for (int matchCondition = ComplexStack.Match.ANY; matchCondition <= ComplexStack.Match.EXACT; matchCondition++) {
+            Set<Object2LongMap.Entry<ComplexStack>> entries = Sets.newHashSet();
+            map.forEachLongEntryMatching(CA01B, matchCondition, (instance, value) -> entries.add(new AbstractObject2LongMap.BasicEntry<>(instance, value)));
+            assertThat(entries, is(Sets.newHashSet(map.longIterator(CA01B, matchCondition))));
+        }
+    }
+
+    @Test
+    public void testForEachEntryMatching() {
+        Map<ComplexStack, Long> entries = Maps.newHashMap();
+        map.forEachEntryMatching(CA01_, ComplexStack.Match.GROUP, entries::put);
+        assertThat(entries, is(ImmutableMap.of(CA01_, 10L, CA91B, 90L)));
+    }
+
+}
@@ -0,0 +1,84 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.collect.Sets;
+import org.cyclops.cyclopscore.ingredient.ComplexStack;
+import org.cyclops.cyclopscore.ingredient.IngredientComponentStubs;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TestIngredientMapsParallel {
+
+    private static final ComplexStack CA01_ = new ComplexStack(ComplexStack.Group.A, 0, 1, null);
+    private static final ComplexStack CB02_ = new ComplexStack(ComplexStack.Group.B, 0, 2, null);
+
+    protected IngredientHashMap<ComplexStack, Integer, Integer> createSource() {
+        IngredientHashMap<ComplexStack, Integer, Integer> source = new IngredientHashMap<>(IngredientComponentStubs.COMPLEX);
+        Random random = new Random(100);
+        for (int i = 0; i < 1000; i++) {
+            ComplexStack.Group group = ComplexStack.Group.values()[random.nextInt(ComplexStack.Group.values().length)];
+            ComplexStack.Tag tag = random.nextBoolean() ? null : ComplexStack.Tag.values()[random.nextInt(ComplexStack.Tag.values().length)];
+            source.put(new ComplexStack(group, random.nextInt(64), random.nextInt(15) + 1, tag), i);
+        }
+        return source;
+    }
+
+    @Test
+    public void testSingleClassifiedPutAllParallel() {
+        IngredientHashMap<ComplexStack, Integer, Integer> source = createSource();
+        for (int i = 0; i < IngredientComponentStubs.COMPLEX.getCategoryTypes().size(); i++) {
+            IngredientMapSingleClassified<ComplexStack, Integer, Integer, ?> map = new IngredientMapSingleClassified<>(
+                    IngredientComponentStubs.COMPLEX,
+                    () -> new IngredientHashMap<>(IngredientComponentStubs.COMPLEX),
+                    IngredientComponentStubs.COMPLEX.getCategoryTypes().get(i));
+            map.put(CA01_, -1);
+
+            IngredientHashMap<ComplexStack, Integer, Integer> expected = new IngredientHashMap<>(IngredientComponentStubs.COMPLEX, source);
+            expected.put(CA01_, source.containsKey(CA01_) ? source.get(CA01_) : -1);
+
+            assertThat(map.putAllParallel(source), is(expected.size() - 1));
+            assertThat(map.putAllParallel(source), is(0));
+            assertThat(map.size(), is(expected.size()));
+            assertThat(Sets.newHashSet(map), is(Sets.newHashSet(expected)));
+            assertThat(Sets.newHashSet(map.keySet(CB02_, ComplexStack.Match.GROUP)), is(Sets.newHashSet(expected.keySet(CB02_, ComplexStack.Match.GROUP))));
+        }
+    }
+
+    @Test
+    public void testMultiClassifiedPutAllParallel() {
+        IngredientHashMap<ComplexStack, Integer, Integer> source = createSource();
+        IngredientMapMultiClassified<ComplexStack, Integer, Integer> map = new IngredientMapMultiClassified<>(
+                IngredientComponentStubs.COMPLEX,
+                () -> new IngredientHashMap<>(IngredientComponentStubs.COMPLEX));
+
+        assertThat(map.putAllParallel(source), is(source.size()));
+        assertThat(map.putAllParallel(source), is(0));
+
+        assertThat(map.size(), is(source.size()));
+        assertThat(Sets.newHashSet(map), is(Sets.newHashSet(source)));
+        for (IngredientMapSingleClassified<ComplexStack, Integer, Integer, ?> singleClassified : map.getClassifiedCollections().values()) {
+            assertThat(singleClassified.size(), is(source.size()));
+        }
+        assertThat(Sets.newHashSet(map.keySet(CB02_, ComplexStack.Match.GROUP)), is(Sets.newHashSet(source.keySet(CB02_, ComplexStack.Match.GROUP))));
+    }
+
+    @Test
+    public void testMultiClassifiedLongPutAllThreadedSharedPool() {
+        IngredientHashMapLong<ComplexStack, Integer> source = new IngredientHashMapLong<>(IngredientComponentStubs.COMPLEX);
+        source.putLong(CA01_, 10);
+        source.putLong(CB02_, 20);
+        IngredientMapLongMultiClassified<ComplexStack, Integer> map = new IngredientMapLongMultiClassified<>(
+                IngredientComponentStubs.COMPLEX,
+                () -> new IngredientHashMapLong<>(IngredientComponentStubs.COMPLEX));
+
+        assertThat(map.putAllThreaded(null, source), is(2));
+
+        assertThat(map.size(), is(2));
+        assertThat(map.getLong(CA01_), is(10L));
+        assertThat(map.getLong(CB02_), is(20L));
+    }
+
+}
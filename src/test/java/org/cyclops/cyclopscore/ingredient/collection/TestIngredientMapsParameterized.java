@@ -55,6 +55,17 @@ public class TestIngredientMapsParameterized<T, M, V> {
                 IngredientComponentStubs.COMPLEX.getCategoryTypes().get(3)), IngredientComponentStubs.COMPLEX, C0, C1, C2, C3, 0, 1, 2, 3 },
                 /* 10 */ { new IngredientMapMultiClassified<>(IngredientComponentStubs.COMPLEX,
                 () -> new IngredientHashMap<>(IngredientComponentStubs.COMPLEX)), IngredientComponentStubs.COMPLEX, C0, C1, C2, C3, 0, 1, 2, 3 },
+
+                /* 11 */ { new IngredientOpenHashMap<>(IngredientComponentStubs.SIMPLE), IngredientComponentStubs.SIMPLE, 0, 1, 2, 3, 0, 1, 2, 3 },
+                /* 12 */ { new IngredientOpenHashMap<>(IngredientComponentStubs.COMPLEX), IngredientComponentStubs.COMPLEX, C0, C1, C2, C3, 0, 1, 2, 3 },
+                /* 13 */ { new IngredientMapSingleClassified<>(IngredientComponentStubs.COMPLEX,
+                () -> new IngredientOpenHashMap<>(IngredientComponentStubs.COMPLEX),
+                IngredientComponentStubs.COMPLEX.getCategoryTypes().get(0)), IngredientComponentStubs.COMPLEX, C0, C1, C2, C3, 0, 1, 2, 3 },
+                /* 14 */ { new IngredientMapMultiClassified<>(IngredientComponentStubs.COMPLEX,
+                () -> new IngredientOpenHashMap<>(IngredientComponentStubs.COMPLEX)), IngredientComponentStubs.COMPLEX, C0, C1, C2, C3, 0, 1, 2, 3 },
+
+                /* 15 */ { new IngredientCopyOnWriteMap<>(IngredientComponentStubs.SIMPLE), IngredientComponentStubs.SIMPLE, 0, 1, 2, 3, 0, 1, 2, 3 },
+                /* 16 */ { new IngredientCopyOnWriteMap<>(IngredientComponentStubs.COMPLEX), IngredientComponentStubs.COMPLEX, C0, C1, C2, C3, 0, 1, 2, 3 },
         });
     }
 
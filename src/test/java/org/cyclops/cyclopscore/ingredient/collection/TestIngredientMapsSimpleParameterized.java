@@ -38,6 +38,8 @@ public class TestIngredientMapsSimpleParameterized<T, M, V> {
                 IngredientComponentStubs.SIMPLE.getCategoryTypes().get(0)), IngredientComponentStubs.SIMPLE, 0, 1, 2, 3, 0, 1, 2, 3 },
                 /*  3 */ { new IngredientMapMultiClassified<>(IngredientComponentStubs.SIMPLE,
                 () -> new IngredientHashMap<>(IngredientComponentStubs.SIMPLE)), IngredientComponentStubs.SIMPLE, 0, 1, 2, 3, 0, 1, 2, 3 },
+                /*  4 */ { new IngredientOpenHashMap<>(IngredientComponentStubs.SIMPLE), IngredientComponentStubs.SIMPLE, 0, 1, 2, 3, 0, 1, 2, 3 },
+                /*  5 */ { new IngredientCopyOnWriteMap<>(IngredientComponentStubs.SIMPLE), IngredientComponentStubs.SIMPLE, 0, 1, 2, 3, 0, 1, 2, 3 },
         });
     }
 
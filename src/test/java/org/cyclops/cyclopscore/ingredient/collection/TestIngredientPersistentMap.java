@@ -0,0 +1,160 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.cyclops.cyclopscore.ingredient.ComplexStack;
+import org.cyclops.cyclopscore.ingredient.IngredientComponentStubs;
+import org.junit.Test;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TestIngredientPersistentMap {
+
+    private static final ComplexStack CA01_ = new ComplexStack(ComplexStack.Group.A, 0, 1, null);
+    private static final ComplexStack CB02_ = new ComplexStack(ComplexStack.Group.B, 0, 2, null);
+    private static final ComplexStack CA91B = new ComplexStack(ComplexStack.Group.A, 9, 1, ComplexStack.Tag.B);
+    // These two instances have the same hash
+    private static final ComplexStack CA12_ = new ComplexStack(ComplexStack.Group.A, 1, 2, null);
+    private static final ComplexStack CA21_ = new ComplexStack(ComplexStack.Group.A, 2, 1, null);
+
+    @Test
+    public void testEmpty() {
+        IngredientPersistentMap<ComplexStack, Integer, Integer> map = new IngredientPersistentMap<>(IngredientComponentStubs.COMPLEX);
+        assertThat(map.size(), is(0));
+        assertThat(map.isEmpty(), is(true));
+        assertThat(map.get(CA01_), nullValue());
+        assertThat(map.iterator().hasNext(), is(false));
+        assertThat(map.without(CA01_), sameInstance(map));
+    }
+
+    @Test
+    public void testWithWithout() {
+        IngredientPersistentMap<ComplexStack, Integer, Integer> map0 = new IngredientPersistentMap<>(IngredientComponentStubs.COMPLEX);
+        IngredientPersistentMap<ComplexStack, Integer, Integer> map1 = map0.with(CA01_, 1);
+        IngredientPersistentMap<ComplexStack, Integer, Integer> map2 = map1.with(CB02_, 2);
+        IngredientPersistentMap<ComplexStack, Integer, Integer> map3 = map2.with(CA01_, 10);
+        IngredientPersistentMap<ComplexStack, Integer, Integer> map4 = map3.without(CA01_);
+
+        assertThat(map0.size(), is(0));
+        assertThat(map1.size(), is(1));
+        assertThat(map2.size(), is(2));
+        assertThat(map3.size(), is(2));
+        assertThat(map4.size(), is(1));
+
+        assertThat(map1.get(CA01_), is(1));
+        assertThat(map2.get(CA01_), is(1));
+        assertThat(map3.get(CA01_), is(10));
+        assertThat(map4.get(CA01_), nullValue());
+        assertThat(map4.get(CB02_), is(2));
+
+        assertThat(map0.containsKey(CA01_), is(false));
+        assertThat(map1.containsKey(CB02_), is(false));
+        assertThat(map2.containsKey(CB02_), is(true));
+    }
+
+    @Test
+    public void testUnchanged() {
+        Integer value = 1;
+        IngredientPersistentMap<ComplexStack, Integer, Integer> map = new IngredientPersistentMap<ComplexStack, Integer, Integer>(IngredientComponentStubs.COMPLEX)
+                .with(CA01_, value);
+        assertThat(map.with(CA01_, value), sameInstance(map));
+        assertThat(map.without(CB02_), sameInstance(map));
+    }
+
+    @Test
+    public void testCollisions() {
+        IngredientPersistentMap<ComplexStack, Integer, Integer> map = new IngredientPersistentMap<ComplexStack, Integer, Integer>(IngredientComponentStubs.COMPLEX)
+                .with(CA12_, 12)
+                .with(CA21_, 21)
+                .with(CA01_, 1);
+        assertThat(map.size(), is(3));
+        assertThat(map.get(CA12_), is(12));
+        assertThat(map.get(CA21_), is(21));
+        assertThat(map.get(CA01_), is(1));
+
+        IngredientPersistentMap<ComplexStack, Integer, Integer> mapRemoved = map.without(CA12_);
+        assertThat(mapRemoved.size(), is(2));
+        assertThat(mapRemoved.get(CA12_), nullValue());
+        assertThat(mapRemoved.get(CA21_), is(21));
+        assertThat(map.get(CA12_), is(12));
+
+        assertThat(mapRemoved.without(CA21_).without(CA01_).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testCopyConstructor() {
+        IngredientHashMap<ComplexStack, Integer, Integer> source = new IngredientHashMap<>(IngredientComponentStubs.COMPLEX);
+        source.put(CA01_, 1);
+        source.put(CB02_, 2);
+        source.put(CA91B, 3);
+        IngredientPersistentMap<ComplexStack, Integer, Integer> map = new IngredientPersistentMap<>(IngredientComponentStubs.COMPLEX, source);
+        assertThat(map.size(), is(3));
+        assertThat(map.equals(source), is(true));
+        assertThat(map.hashCode(), is(source.hashCode()));
+    }
+
+    @Test
+    public void testIteratorMatch() {
+        IngredientPersistentMap<ComplexStack, Integer, Integer> map = new IngredientPersistentMap<ComplexStack, Integer, Integer>(IngredientComponentStubs.COMPLEX)
+                .with(CA01_, 1)
+                .with(CB02_, 2)
+                .with(CA91B, 3);
+        assertThat(Sets.newHashSet(map.iterator(CA01_, ComplexStack.Match.GROUP)), is(Sets.newHashSet(
+                new AbstractMap.SimpleEntry<>(CA01_, 1),
+                new AbstractMap.SimpleEntry<>(CA91B, 3)
+        )));
+        assertThat(Sets.newHashSet(map.iterator(CA01_, ComplexStack.Match.EXACT)), is(Sets.newHashSet(
+                new AbstractMap.SimpleEntry<>(CA01_, 1)
+        )));
+        assertThat(map.iterator(CB02_, ComplexStack.Match.ANY).hasNext(), is(true));
+        assertThat(Sets.newHashSet(map.keySet(CA01_, ComplexStack.Match.GROUP)), is(Sets.newHashSet(CA01_, CA91B)));
+        assertThat(Sets.newHashSet(map.getAll(CA01_, ComplexStack.Match.GROUP)), is(Sets.newHashSet(1, 3)));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testKeySetImmutable() {
+        new IngredientPersistentMap<ComplexStack, Integer, Integer>(IngredientComponentStubs.COMPLEX)
+                .with(CA01_, 1)
+                .keySet()
+                .remove(CA01_);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testIteratorImmutable() {
+        new IngredientPersistentMap<ComplexStack, Integer, Integer>(IngredientComponentStubs.COMPLEX)
+                .with(CA01_, 1)
+                .iterator()
+                .remove();
+    }
+
+    @Test
+    public void testRandomAgainstHashMap() {
+        // Simple instances are hashed by their value, so this also covers deep tries
+        Random random = new Random(100);
+        Map<Integer, Integer> expected = Maps.newHashMap();
+        IngredientPersistentMap<Integer, Boolean, Integer> map = new IngredientPersistentMap<>(IngredientComponentStubs.SIMPLE);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextBoolean() ? random.nextInt(512) : random.nextInt(8) << (random.nextInt(30));
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.without(key);
+            } else {
+                expected.put(key, i);
+                map = map.with(key, i);
+            }
+            assertThat(map.size(), is(expected.size()));
+        }
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertThat(map.get(entry.getKey()), is(entry.getValue()));
+        }
+        assertThat(Sets.newHashSet(map.entrySet()), is(expected.entrySet()));
+    }
+
+}
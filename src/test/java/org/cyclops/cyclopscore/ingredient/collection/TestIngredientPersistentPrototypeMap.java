@@ -0,0 +1,133 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.collect.Sets;
+import org.cyclops.cyclopscore.ingredient.ComplexStack;
+import org.cyclops.cyclopscore.ingredient.IngredientComponentStubs;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TestIngredientPersistentPrototypeMap {
+
+    private static final ComplexStack CA01_ = new ComplexStack(ComplexStack.Group.A, 0, 1, null);
+    private static final ComplexStack CA02_ = new ComplexStack(ComplexStack.Group.A, 0, 2, null);
+    private static final ComplexStack CA03_ = new ComplexStack(ComplexStack.Group.A, 0, 3, null);
+    private static final ComplexStack CA05_ = new ComplexStack(ComplexStack.Group.A, 0, 5, null);
+    private static final ComplexStack CB02_ = new ComplexStack(ComplexStack.Group.B, 0, 2, null);
+    private static final ComplexStack CA91B = new ComplexStack(ComplexStack.Group.A, 9, 1, ComplexStack.Tag.B);
+
+    @Test
+    public void testWithAddedRemoved() {
+        IngredientPersistentPrototypeMap<ComplexStack, Integer> collection0 = new IngredientPersistentPrototypeMap<>(IngredientComponentStubs.COMPLEX);
+        IngredientPersistentPrototypeMap<ComplexStack, Integer> collection1 = collection0.withAdded(CA01_);
+        IngredientPersistentPrototypeMap<ComplexStack, Integer> collection2 = collection1.withAdded(CA02_);
+        IngredientPersistentPrototypeMap<ComplexStack, Integer> collection3 = collection2.withRemoved(CA01_);
+
+        assertThat(collection0.isEmpty(), is(true));
+        assertThat(collection1.getQuantity(CA01_), is(1L));
+        assertThat(collection2.getQuantity(CA01_), is(3L));
+        assertThat(collection2.contains(CA03_), is(true));
+        assertThat(collection2.size(), is(1));
+        assertThat(collection3.getQuantity(CA01_), is(2L));
+
+        assertThat(collection3.withRemoved(CA05_), sameInstance(collection3));
+        assertThat(collection3.withRemoved(CA02_).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testNegativeQuantities() {
+        IngredientPersistentPrototypeMap<ComplexStack, Integer> collection = new IngredientPersistentPrototypeMap<ComplexStack, Integer>(IngredientComponentStubs.COMPLEX, true)
+                .withRemoved(CA02_);
+        assertThat(collection.getQuantity(CA01_), is(-2L));
+        assertThat(collection.withAdded(CA02_).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testIterator() {
+        IngredientPersistentPrototypeMap<ComplexStack, Integer> collection = new IngredientPersistentPrototypeMap<ComplexStack, Integer>(IngredientComponentStubs.COMPLEX)
+                .withAdded(CA02_)
+                .withAdded(CB02_)
+                .withAdded(CA91B);
+        assertThat(Sets.newHashSet(collection), is(Sets.newHashSet(CA02_, CB02_, CA91B)));
+        assertThat(Sets.newHashSet(collection.iterator(CA01_, ComplexStack.Match.GROUP)), is(Sets.newHashSet(CA02_, CA91B)));
+        assertThat(Sets.newHashSet(collection.iterator(CA02_, ComplexStack.Match.EXACT)), is(Sets.newHashSet(CA02_)));
+        assertThat(collection.count(CA01_, ComplexStack.Match.GROUP), is(2));
+        assertThat(collection.contains(CA01_, ComplexStack.Match.GROUP), is(true));
+        assertThat(collection.contains(CA03_, ComplexStack.Match.GROUP), is(false));
+    }
+
+    @Test
+    public void testSnapshotCopied() {
+        IngredientCollectionPrototypeMap<ComplexStack, Integer> collection = new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX);
+        collection.add(CA02_);
+        collection.add(CB02_);
+
+        IngredientPersistentPrototypeMap<ComplexStack, Integer> snapshot = collection.snapshot();
+        collection.add(CA01_);
+        collection.remove(CB02_);
+
+        assertThat(snapshot.getQuantity(CA01_), is(2L));
+        assertThat(snapshot.getQuantity(CB02_), is(2L));
+        assertThat(collection.snapshot().getQuantity(CA01_), is(3L));
+        assertThat(collection.snapshot().getQuantity(CB02_), is(0L));
+    }
+
+    @Test
+    public void testSnapshotCopyOnWrite() {
+        IngredientCollectionPrototypeMap<ComplexStack, Integer> collection = new IngredientCollectionPrototypeMap<>(
+                IngredientComponentStubs.COMPLEX, false, new IngredientCopyOnWriteMapLong<>(IngredientComponentStubs.COMPLEX),
+                Collections.emptyList(), null);
+        collection.add(CA02_);
+        collection.add(CB02_);
+
+        IngredientPersistentPrototypeMap<ComplexStack, Integer> snapshot = collection.snapshot();
+        assertThat(collection.snapshot(), is(snapshot));
+        Iterator<ComplexStack> it = snapshot.iterator();
+        collection.add(CA01_);
+        collection.remove(CB02_);
+        collection.add(CA91B);
+
+        assertThat(Sets.newHashSet(it), is(Sets.newHashSet(CA02_, CB02_)));
+        assertThat(snapshot.getQuantity(CA01_), is(2L));
+        assertThat(Sets.newHashSet(collection), is(Sets.newHashSet(CA03_, CA91B)));
+        assertThat(Sets.newHashSet(collection.snapshot()), is(Sets.newHashSet(CA03_, CA91B)));
+    }
+
+    @Test
+    public void testSnapshotSnapshottableCollection() {
+        IngredientCollectionPrototypeMap<ComplexStack, Integer> collection = IngredientCollectionHelpers
+                .createSnapshottableCollection(IngredientComponentStubs.COMPLEX);
+        collection.add(CA02_);
+
+        IngredientPersistentPrototypeMap<ComplexStack, Integer> snapshot = collection.snapshot();
+        collection.add(CB02_);
+
+        assertThat(Sets.newHashSet(snapshot), is(Sets.newHashSet(CA02_)));
+        assertThat(Sets.newHashSet(collection.snapshot()), is(Sets.newHashSet(CA02_, CB02_)));
+    }
+
+    @Test
+    public void testCopyOnWriteMapSnapshot() {
+        IngredientCopyOnWriteMap<ComplexStack, Integer, Integer> map = new IngredientCopyOnWriteMap<>(IngredientComponentStubs.COMPLEX);
+        map.put(CA01_, 1);
+        IngredientPersistentMap<ComplexStack, Integer, Integer> snapshot = map.snapshot();
+        assertThat(map.snapshot(), sameInstance(snapshot));
+
+        map.put(CB02_, 2);
+        map.remove(CA01_);
+        assertThat(snapshot.size(), is(1));
+        assertThat(snapshot.get(CA01_), is(1));
+        assertThat(map.size(), is(1));
+        assertThat(map.get(CB02_), is(2));
+
+        map.clear();
+        assertThat(map.isEmpty(), is(true));
+        assertThat(snapshot.isEmpty(), is(false));
+    }
+
+}
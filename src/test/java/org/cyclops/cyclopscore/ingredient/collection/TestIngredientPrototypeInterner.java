@@ -0,0 +1,141 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.cyclops.cyclopscore.ingredient.ComplexStack;
+import org.cyclops.cyclopscore.ingredient.IngredientComponentStubs;
+import org.cyclops.cyclopscore.ingredient.collection.diff.IngredientCollectionDiff;
+import org.cyclops.cyclopscore.ingredient.collection.diff.IngredientCollectionDiffManager;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TestIngredientPrototypeInterner {
+
+    private static final ComplexStack CA01_ = new ComplexStack(ComplexStack.Group.A, 0, 1, null);
+    private static final ComplexStack CA05_ = new ComplexStack(ComplexStack.Group.A, 0, 5, null);
+    private static final ComplexStack CB01_ = new ComplexStack(ComplexStack.Group.B, 0, 1, null);
+    private static final ComplexStack CB02_ = new ComplexStack(ComplexStack.Group.B, 0, 2, null);
+    private static final ComplexStack CA91B = new ComplexStack(ComplexStack.Group.A, 9, 1, ComplexStack.Tag.B);
+
+    private IngredientPrototypeInterner<ComplexStack, Integer> interner;
+
+    @Before
+    public void beforeEach() {
+        interner = new IngredientPrototypeInterner<>(IngredientComponentStubs.COMPLEX, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaximumSize() {
+        new IngredientPrototypeInterner<>(IngredientComponentStubs.COMPLEX, 0);
+    }
+
+    @Test
+    public void testIntern() {
+        ComplexStack canonical = interner.intern(CA05_);
+        assertThat(canonical, is(CA01_));
+        assertThat(canonical, not(sameInstance(CA01_)));
+        assertThat(interner.intern(CA01_), sameInstance(canonical));
+        assertThat(interner.intern(CA05_), sameInstance(canonical));
+        assertThat(interner.intern(CB02_), is(CB01_));
+
+        assertThat(interner.size(), is(2));
+        assertThat(interner.getHits(), is(2L));
+        assertThat(interner.getMisses(), is(2L));
+    }
+
+    @Test
+    public void testEviction() {
+        ComplexStack a = interner.intern(CA01_);
+        ComplexStack b = interner.intern(CB01_);
+        // Touch A, so that B becomes the least recently used
+        assertThat(interner.intern(CA01_), sameInstance(a));
+
+        interner.intern(CA91B);
+        assertThat(interner.size(), is(2));
+        assertThat(interner.intern(CA01_), sameInstance(a));
+        assertThat(interner.intern(CB01_), not(sameInstance(b)));
+    }
+
+    @Test
+    public void testClear() {
+        ComplexStack a = interner.intern(CA01_);
+        interner.clear();
+
+        assertThat(interner.size(), is(0));
+        assertThat(interner.getHits(), is(0L));
+        assertThat(interner.getMisses(), is(0L));
+        assertThat(interner.intern(CA01_), not(sameInstance(a)));
+    }
+
+    @Test
+    public void testPrototypeMapsShareInstances() {
+        IngredientCollectionPrototypeMap<ComplexStack, Integer> collection1 = new IngredientCollectionPrototypeMap<>(
+                IngredientComponentStubs.COMPLEX, false, new IngredientHashMapLong<>(IngredientComponentStubs.COMPLEX),
+                Collections.emptyList(), interner);
+        IngredientCollectionPrototypeMap<ComplexStack, Integer> collection2 = new IngredientCollectionPrototypeMap<>(
+                IngredientComponentStubs.COMPLEX, true, new IngredientHashMapLong<>(IngredientComponentStubs.COMPLEX),
+                Collections.emptyList(), interner);
+        collection1.add(CA05_);
+        collection2.remove(CA01_);
+        collection2.setQuantity(CB02_, 3);
+
+        assertThat(collection1.getInterner(), sameInstance(interner));
+        assertThat(collection1.getQuantity(CA01_), is(5L));
+        assertThat(collection2.getQuantity(CA01_), is(-1L));
+        assertThat(collection2.getQuantity(CB01_), is(3L));
+        assertThat(collection1.prototypeIterator().next().getKey(), sameInstance(interner.intern(CA01_)));
+        Iterator<Map.Entry<ComplexStack, Long>> it = collection2.prototypeIterator();
+        while (it.hasNext()) {
+            ComplexStack prototype = it.next().getKey();
+            assertThat(prototype, sameInstance(interner.intern(prototype)));
+        }
+    }
+
+    @Test
+    public void testPrototypeMapInternsOnlyStored() {
+        IngredientCollectionPrototypeMap<ComplexStack, Integer> collection = new IngredientCollectionPrototypeMap<>(
+                IngredientComponentStubs.COMPLEX, false, new IngredientHashMapLong<>(IngredientComponentStubs.COMPLEX),
+                Collections.emptyList(), interner);
+        collection.setQuantity(CB02_, 0);
+        collection.remove(CB02_);
+        assertThat(interner.size(), is(0));
+
+        collection.add(CA05_);
+        collection.add(CA01_);
+        collection.setQuantity(CA01_, 2);
+        collection.remove(CA01_);
+        assertThat(collection.getQuantity(CA01_), is(1L));
+        assertThat(interner.size(), is(1));
+        assertThat(interner.getHits(), is(0L));
+        assertThat(interner.getMisses(), is(1L));
+    }
+
+    @Test
+    public void testDiffManagers() {
+        IngredientCollectionDiffManager<ComplexStack, Integer> manager1 = new IngredientCollectionDiffManager<>(
+                IngredientComponentStubs.COMPLEX, interner);
+        IngredientCollectionDiffManager<ComplexStack, Integer> manager2 = new IngredientCollectionDiffManager<>(
+                IngredientComponentStubs.COMPLEX, interner);
+
+        IngredientCollectionDiff<ComplexStack, Integer> diff1 = manager1.onChange(Lists.newArrayList(CA05_, CB02_).iterator());
+        IngredientCollectionDiff<ComplexStack, Integer> diff2 = manager2.onChange(Lists.newArrayList(CA05_, CB02_).iterator());
+        assertThat(Sets.newHashSet(diff1.getAdditions()), is(Sets.newHashSet(CA05_, CB02_)));
+        assertThat(Sets.newHashSet(diff2.getAdditions()), is(Sets.newHashSet(CA05_, CB02_)));
+        assertThat(interner.size(), is(2));
+        assertThat(interner.getMisses(), is(2L));
+
+        IngredientCollectionDiff<ComplexStack, Integer> diff3 = manager1.onChange(Lists.newArrayList(CA01_).iterator());
+        assertThat(Sets.newHashSet(diff3.getAdditions()), is(Sets.newHashSet()));
+        assertThat(Sets.newHashSet(diff3.getDeletions()), is(Sets.newHashSet(new ComplexStack(ComplexStack.Group.A, 0, 4, null), CB02_)));
+    }
+
+}
@@ -0,0 +1,148 @@
+package org.cyclops.cyclopscore.ingredient.collection;
+
+import com.google.common.collect.Lists;
+import it.unimi.dsi.fastutil.objects.AbstractObject2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import org.cyclops.cyclopscore.ingredient.ComplexStack;
+import org.cyclops.cyclopscore.ingredient.IngredientComponentStubs;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TestIngredientQuantityIndex {
+
+    private static final ComplexStack CA01_ = new ComplexStack(ComplexStack.Group.A, 0, 1, null);
+    private static final ComplexStack CA05_ = new ComplexStack(ComplexStack.Group.A, 0, 5, null);
+    private static final ComplexStack CB01_ = new ComplexStack(ComplexStack.Group.B, 0, 1, null);
+    private static final ComplexStack CB02_ = new ComplexStack(ComplexStack.Group.B, 0, 2, null);
+    private static final ComplexStack CA91B = new ComplexStack(ComplexStack.Group.A, 9, 1, ComplexStack.Tag.B);
+
+    private IngredientMapLongQuantityIndexed<ComplexStack, Integer> map;
+
+    @Before
+    public void beforeEach() {
+        map = new IngredientMapLongQuantityIndexed<>(IngredientComponentStubs.COMPLEX);
+        map.putLong(CA01_, 10);
+        map.putLong(CB02_, 20);
+        map.putLong(CA91B, 5);
+    }
+
+    @Test
+    public void testRange() {
+        assertThat(Lists.newArrayList(map.longIterator(6, 20)), is(Lists.newArrayList(
+                entry(CA01_, 10),
+                entry(CB02_, 20)
+        )));
+        assertThat(Lists.newArrayList(map.descendingLongIterator(Long.MIN_VALUE, Long.MAX_VALUE)), is(Lists.newArrayList(
+                entry(CB02_, 20),
+                entry(CA01_, 10),
+                entry(CA91B, 5)
+        )));
+        assertThat(map.longIterator(11, 19).hasNext(), is(false));
+        assertThat(map.getQuantityIndex().count(5, 10), is(2));
+        assertThat(map.getQuantityIndex().count(10, 5), is(0));
+    }
+
+    @Test
+    public void testTop() {
+        assertThat(map.getTop(2), is(Lists.newArrayList(
+                entry(CB02_, 20),
+                entry(CA01_, 10)
+        )));
+        assertThat(map.getTop(10).size(), is(3));
+        assertThat(map.getTop(0).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testRank() {
+        assertThat(map.getRank(CA91B), is(0));
+        assertThat(map.getRank(CA01_), is(1));
+        assertThat(map.getRank(CB02_), is(2));
+        assertThat(map.getRank(CA05_), is(-1));
+        assertThat(map.getQuantityIndex().get(1), is(entry(CA01_, 10)));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetOutOfBounds() {
+        map.getQuantityIndex().get(3);
+    }
+
+    @Test
+    public void testUpdates() {
+        map.addTo(CA91B, 100);
+        map.removeLong(CB02_);
+        map.putLong(CB01_, 7);
+        assertThat(map.getTop(1), is(Lists.newArrayList(entry(CA91B, 105))));
+        assertThat(map.getRank(CB01_), is(0));
+        assertThat(map.getQuantityIndex().size(), is(3));
+
+        map.removeAll(CA01_, ComplexStack.Match.GROUP);
+        assertThat(map.getQuantityIndex().size(), is(1));
+        assertThat(map.getTop(10), is(Lists.newArrayList(entry(CB01_, 7))));
+
+        map.clear();
+        assertThat(map.getQuantityIndex().isEmpty(), is(true));
+    }
+
+    @Test
+    public void testPrototypeMap() {
+        IngredientMapLongQuantityIndexed<ComplexStack, Integer> counts = new IngredientMapLongQuantityIndexed<>(IngredientComponentStubs.COMPLEX);
+        IngredientCollectionPrototypeMap<ComplexStack, Integer> collection = new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX, false, counts,
+                Collections.emptyList(), null);
+        collection.add(CA05_);
+        collection.add(CB02_);
+        collection.add(CA01_);
+        collection.remove(CB01_);
+
+        assertThat(counts.getTop(2), is(Lists.newArrayList(
+                entry(CA01_, 6),
+                entry(CB01_, 1)
+        )));
+    }
+
+    @Test
+    public void testRandomAgainstSort() {
+        Random random = new Random(100);
+        IngredientMapLongQuantityIndexed<Integer, Boolean> map = new IngredientMapLongQuantityIndexed<>(IngredientComponentStubs.SIMPLE);
+        for (int i = 0; i < 10000; i++) {
+            int key = random.nextInt(500) + 1;
+            if (random.nextInt(4) == 0) {
+                map.removeLong(key);
+            } else {
+                map.addTo(key, random.nextInt(200) - 50);
+            }
+        }
+
+        List<Object2LongMap.Entry<Integer>> expected = Lists.newArrayList(map.longIterator());
+        expected.sort(Comparator.comparingLong(Object2LongMap.Entry<Integer>::getLongValue)
+                .thenComparing(Object2LongMap.Entry::getKey));
+        assertThat(Lists.newArrayList(map.longIterator(Long.MIN_VALUE, Long.MAX_VALUE)), is(expected));
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(map.getRank(expected.get(i).getKey()), is(i));
+            assertThat(map.getQuantityIndex().get(i), is(expected.get(i)));
+        }
+
+        List<Object2LongMap.Entry<Integer>> expectedRange = Lists.newArrayList();
+        for (Object2LongMap.Entry<Integer> entry : expected) {
+            if (entry.getLongValue() >= 20 && entry.getLongValue() <= 100) {
+                expectedRange.add(entry);
+            }
+        }
+        assertThat(Lists.newArrayList(map.longIterator(20, 100)), is(expectedRange));
+        assertThat(map.getQuantityIndex().count(20, 100), is(expectedRange.size()));
+        assertThat(map.getTop(20), is(Lists.reverse(expected).subList(0, 20)));
+    }
+
+    protected static <T> Object2LongMap.Entry<T> entry(T key, long value) {
+        return new AbstractObject2LongMap.BasicEntry<>(key, value);
+    }
+
+}
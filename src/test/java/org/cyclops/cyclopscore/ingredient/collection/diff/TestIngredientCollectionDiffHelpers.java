@@ -15,6 +15,7 @@ import org.junit.Test;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
 
 public class TestIngredientCollectionDiffHelpers {
 
@@ -57,6 +58,33 @@ public class TestIngredientCollectionDiffHelpers {
         assertThat(diff.isCompletelyEmpty(), is(false));
     }
 
+    @Test
+    public void testGetDiffEmptyToNonEmptyCopy() {
+        IngredientCollectionDiff<ComplexStack, Integer> diff = IngredientCollectionDiffHelpers.getDiff(
+                COMP, null, newInstancesCache, Lists.newArrayList(CA01_, CB02_).iterator());
+        newInstancesCache.add(CA01_);
+        newInstancesCache.remove(CB02_);
+
+        assertThat(Sets.newHashSet(diff.getAdditions()), is(Sets.newHashSet(CA01_, CB02_)));
+    }
+
+    @Test
+    public void testGetDiffJournalOverflow() {
+        newInstancesCache.setQuantity(CA01_, Long.MAX_VALUE);
+        newInstancesCache.setQuantity(CB02_, 2);
+        IngredientCollectionChangeJournal<ComplexStack, Integer> journal = new IngredientCollectionChangeJournal<>(COMP);
+        journal.onChanged(CA01_, 1);
+        journal.onChanged(CB02_, 1);
+
+        try {
+            IngredientCollectionDiffHelpers.getDiff(COMP, newInstancesCache, journal);
+            fail("Expected an ArithmeticException");
+        } catch (ArithmeticException e) {
+            assertThat(newInstancesCache.getQuantity(CA01_), is(Long.MAX_VALUE));
+            assertThat(newInstancesCache.getQuantity(CB02_), is(2L));
+        }
+    }
+
     @Test
     public void testGetDiffNonEmptyToEmpty() {
         IngredientCollectionPrototypeMap<ComplexStack, Integer> oldInstancesCache = new IngredientCollectionPrototypeMap<>(COMP, true);
@@ -5,6 +5,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.cyclops.cyclopscore.ingredient.ComplexStack;
 import org.cyclops.cyclopscore.ingredient.IngredientComponentStubs;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionPrototypeMap;
 import org.junit.Test;
 
 import static org.hamcrest.CoreMatchers.is;
@@ -73,4 +74,75 @@ public class TestIngredientCollectionDiffManager {
         assertThat(diff5.isCompletelyEmpty(), is(true));
     }
 
+    @Test
+    public void testOnChangeJournalFirstFallback() {
+        IngredientCollectionDiffManager<ComplexStack, Integer> manager = new IngredientCollectionDiffManager<>(IngredientComponentStubs.COMPLEX);
+        IngredientCollapsedCollectionMutableJournaled<ComplexStack, Integer> collection = new IngredientCollapsedCollectionMutableJournaled<>(
+                new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX));
+        collection.add(CA02_);
+
+        IngredientCollectionDiff<ComplexStack, Integer> diff = manager.onChange(collection.getJournal(), collection::iterator);
+
+        assertThat(Sets.newHashSet(diff.getAdditions()), is(Sets.newHashSet(CA02_)));
+        assertThat(Sets.newHashSet(diff.getDeletions()), is(Sets.newHashSet()));
+        assertThat(diff.isCompletelyEmpty(), is(false));
+        assertThat(collection.getJournal().isEmpty(), is(true));
+    }
+
+    @Test
+    public void testOnChangeJournalIterations() {
+        IngredientCollectionDiffManager<ComplexStack, Integer> manager = new IngredientCollectionDiffManager<>(IngredientComponentStubs.COMPLEX);
+        IngredientCollapsedCollectionMutableJournaled<ComplexStack, Integer> collection = new IngredientCollapsedCollectionMutableJournaled<>(
+                new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX));
+        collection.add(CA02_);
+        // The first call must fall back to a full rescan, as there is no cache yet
+        manager.onChange(collection.getJournal(), collection::iterator);
+
+        collection.remove(CA01_);
+        IngredientCollectionDiff<ComplexStack, Integer> diff2 = manager.onChange(collection.getJournal(), () -> {
+            throw new AssertionError("Full rescan is not expected");
+        });
+
+        assertThat(Sets.newHashSet(diff2.getAdditions()), is(Sets.newHashSet()));
+        assertThat(Sets.newHashSet(diff2.getDeletions()), is(Sets.newHashSet(CA01_)));
+        assertThat(diff2.isCompletelyEmpty(), is(false));
+
+        collection.add(CA91B);
+        collection.add(CB02_);
+        collection.remove(CB02_);
+        IngredientCollectionDiff<ComplexStack, Integer> diff3 = manager.onChange(collection.getJournal(), () -> {
+            throw new AssertionError("Full rescan is not expected");
+        });
+
+        assertThat(Sets.newHashSet(diff3.getAdditions()), is(Sets.newHashSet(CA91B)));
+        assertThat(Sets.newHashSet(diff3.getDeletions()), is(Sets.newHashSet()));
+        assertThat(diff3.isCompletelyEmpty(), is(false));
+
+        collection.clear();
+        IngredientCollectionDiff<ComplexStack, Integer> diff4 = manager.onChange(collection.getJournal(), () -> {
+            throw new AssertionError("Full rescan is not expected");
+        });
+
+        assertThat(Sets.newHashSet(diff4.getAdditions()), is(Sets.newHashSet()));
+        assertThat(Sets.newHashSet(diff4.getDeletions()), is(Sets.newHashSet(CA01_, CA91B)));
+        assertThat(diff4.isCompletelyEmpty(), is(true));
+    }
+
+    @Test
+    public void testOnChangeJournalInvalidated() {
+        IngredientCollectionDiffManager<ComplexStack, Integer> manager = new IngredientCollectionDiffManager<>(IngredientComponentStubs.COMPLEX);
+        IngredientCollapsedCollectionMutableJournaled<ComplexStack, Integer> collection = new IngredientCollapsedCollectionMutableJournaled<>(
+                new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX));
+        collection.add(CA02_);
+        manager.onChange(collection.getJournal(), collection::iterator);
+
+        collection.add(CA91B);
+        collection.getJournal().invalidate();
+        IngredientCollectionDiff<ComplexStack, Integer> diff = manager.onChange(collection.getJournal(), collection::iterator);
+
+        assertThat(Sets.newHashSet(diff.getAdditions()), is(Sets.newHashSet(CA91B)));
+        assertThat(Sets.newHashSet(diff.getDeletions()), is(Sets.newHashSet()));
+        assertThat(collection.getJournal().isInvalidated(), is(false));
+    }
+
 }
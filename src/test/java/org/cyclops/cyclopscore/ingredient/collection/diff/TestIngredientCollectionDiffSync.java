@@ -0,0 +1,165 @@
+package org.cyclops.cyclopscore.ingredient.collection.diff;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.cyclops.cyclopscore.ingredient.ComplexStack;
+import org.cyclops.cyclopscore.ingredient.IngredientComponentStubs;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientArrayList;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionPrototypeMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TestIngredientCollectionDiffSync {
+
+    private static final ComplexStack CA01_ = new ComplexStack(ComplexStack.Group.A, 0, 1, null);
+    private static final ComplexStack CA03_ = new ComplexStack(ComplexStack.Group.A, 0, 3, null);
+    private static final ComplexStack CB02_ = new ComplexStack(ComplexStack.Group.B, 0, 2, null);
+    private static final ComplexStack CA91B = new ComplexStack(ComplexStack.Group.A, 9, 1, ComplexStack.Tag.B);
+
+    private IngredientCollectionDiffSender<ComplexStack, Integer> sender;
+    private IngredientCollectionDiffReceiver<ComplexStack, Integer> receiver;
+
+    @Before
+    public void beforeEach() {
+        sender = new IngredientCollectionDiffSender<>(IngredientComponentStubs.COMPLEX_SERIALIZABLE, 32768);
+        receiver = new IngredientCollectionDiffReceiver<>(IngredientComponentStubs.COMPLEX_SERIALIZABLE,
+                new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX_SERIALIZABLE));
+    }
+
+    protected IngredientCollectionDiffMessage<ComplexStack, Integer> transfer(IngredientCollectionDiffMessage<ComplexStack, Integer> message) {
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            sender.getCodec().encode(buffer, message);
+            IngredientCollectionDiffMessage<ComplexStack, Integer> decoded = sender.getCodec().decode(buffer);
+            assertThat(buffer.readableBytes(), is(0));
+            return decoded;
+        } finally {
+            buffer.release();
+        }
+    }
+
+    protected boolean sync(List<ComplexStack> instances) {
+        boolean resyncRequested = false;
+        for (IngredientCollectionDiffMessage<ComplexStack, Integer> message : sender.onChange(instances.iterator())) {
+            resyncRequested |= receiver.onMessage(transfer(message));
+        }
+        return resyncRequested;
+    }
+
+    @Test
+    public void testCodec() {
+        IngredientCollectionDiff<ComplexStack, Integer> diff = new IngredientCollectionDiff<>(
+                new IngredientArrayList<>(IngredientComponentStubs.COMPLEX_SERIALIZABLE, CA01_, CB02_),
+                new IngredientArrayList<>(IngredientComponentStubs.COMPLEX_SERIALIZABLE, CA91B),
+                false);
+        IngredientCollectionDiffMessage<ComplexStack, Integer> message = transfer(new IngredientCollectionDiffMessage<>(7, true, diff));
+
+        assertThat(message.getSequence(), is(7));
+        assertThat(message.isResync(), is(true));
+        assertThat(Lists.newArrayList(message.getDiff().getAdditions()), is(Lists.newArrayList(CA01_, CB02_)));
+        assertThat(Lists.newArrayList(message.getDiff().getDeletions()), is(Lists.newArrayList(CA91B)));
+        assertThat(message.getDiff().isCompletelyEmpty(), is(false));
+    }
+
+    @Test
+    public void testCodecEmpty() {
+        IngredientCollectionDiffMessage<ComplexStack, Integer> message = transfer(new IngredientCollectionDiffMessage<>(0, false,
+                new IngredientCollectionDiff<>(null, null, true)));
+
+        assertThat(message.getDiff().hasAdditions(), is(false));
+        assertThat(message.getDiff().hasDeletions(), is(false));
+        assertThat(message.getDiff().isCompletelyEmpty(), is(true));
+    }
+
+    @Test
+    public void testSync() {
+        assertThat(sync(Lists.newArrayList(CA01_, CB02_)), is(false));
+        assertThat(Sets.newHashSet(receiver.getCollection()), is(Sets.newHashSet(CA01_, CB02_)));
+        assertThat(receiver.isResyncRequired(), is(false));
+
+        assertThat(sync(Lists.newArrayList(CA03_, CA91B)), is(false));
+        assertThat(Sets.newHashSet(receiver.getCollection()), is(Sets.newHashSet(CA03_, CA91B)));
+
+        assertThat(sync(Lists.newArrayList()), is(false));
+        assertThat(Sets.newHashSet(receiver.getCollection()), is(Sets.newHashSet()));
+    }
+
+    @Test
+    public void testSyncUnchanged() {
+        sync(Lists.newArrayList(CA01_));
+        assertThat(sender.onChange(Lists.newArrayList(CA01_).iterator()).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testSyncInitialEmpty() {
+        assertThat(sender.onChange(Lists.<ComplexStack>newArrayList().iterator()).size(), is(1));
+    }
+
+    @Test
+    public void testSyncSplit() {
+        sender = new IngredientCollectionDiffSender<>(IngredientComponentStubs.COMPLEX_SERIALIZABLE, 128);
+        List<ComplexStack> instances = Lists.newArrayList();
+        for (ComplexStack.Group group : ComplexStack.Group.values()) {
+            for (int meta = 0; meta < 10; meta++) {
+                instances.add(new ComplexStack(group, meta, meta + 1, null));
+            }
+        }
+
+        List<IngredientCollectionDiffMessage<ComplexStack, Integer>> messages = sender.onChange(instances.iterator());
+        assertThat(messages.size() > 1, is(true));
+        for (int i = 0; i < messages.size(); i++) {
+            IngredientCollectionDiffMessage<ComplexStack, Integer> message = messages.get(i);
+            assertThat(message.getSequence(), is(i));
+            assertThat(message.isResync(), is(i == 0));
+
+            ByteBuf buffer = Unpooled.buffer();
+            sender.getCodec().encode(buffer, message);
+            assertThat(buffer.readableBytes() <= 128, is(true));
+            buffer.release();
+
+            assertThat(receiver.onMessage(transfer(message)), is(false));
+        }
+        assertThat(Sets.newHashSet(receiver.getCollection()), is(Sets.newHashSet(instances)));
+    }
+
+    @Test
+    public void testMissedMessage() {
+        sync(Lists.newArrayList(CA01_));
+
+        // Drop the next message
+        sender.onChange(Lists.newArrayList(CA01_, CB02_).iterator());
+
+        List<IngredientCollectionDiffMessage<ComplexStack, Integer>> messages = sender.onChange(Lists.newArrayList(CB02_).iterator());
+        assertThat(receiver.onMessage(transfer(messages.get(0))), is(true));
+        assertThat(receiver.isResyncRequired(), is(true));
+        assertThat(Sets.newHashSet(receiver.getCollection()), is(Sets.newHashSet(CA01_)));
+
+        // Messages before the resync are ignored
+        assertThat(sync(Lists.newArrayList(CA91B)), is(false));
+        assertThat(Sets.newHashSet(receiver.getCollection()), is(Sets.newHashSet(CA01_)));
+
+        sender.requestResync();
+        assertThat(sync(Lists.newArrayList(CA91B, CB02_)), is(false));
+        assertThat(receiver.isResyncRequired(), is(false));
+        assertThat(Sets.newHashSet(receiver.getCollection()), is(Sets.newHashSet(CA91B, CB02_)));
+
+        assertThat(sync(Lists.newArrayList(CB02_)), is(false));
+        assertThat(Sets.newHashSet(receiver.getCollection()), is(Sets.newHashSet(CB02_)));
+    }
+
+    @Test
+    public void testIgnoreBeforeInitialResync() {
+        sender.onChange(Lists.newArrayList(CA01_).iterator());
+        assertThat(sync(Lists.newArrayList(CB02_)), is(false));
+        assertThat(receiver.isResyncRequired(), is(true));
+        assertThat(Sets.newHashSet(receiver.getCollection()), is(Sets.newHashSet()));
+    }
+
+}
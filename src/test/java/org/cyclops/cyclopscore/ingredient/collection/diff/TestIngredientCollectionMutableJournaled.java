@@ -0,0 +1,121 @@
+package org.cyclops.cyclopscore.ingredient.collection.diff;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import it.unimi.dsi.fastutil.objects.AbstractObject2LongMap;
+import org.cyclops.cyclopscore.ingredient.ComplexStack;
+import org.cyclops.cyclopscore.ingredient.IngredientComponentStubs;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientArrayList;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionPrototypeMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Iterator;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TestIngredientCollectionMutableJournaled {
+
+    private static final ComplexStack CA01_ = new ComplexStack(ComplexStack.Group.A, 0, 1, null);
+    private static final ComplexStack CA02_ = new ComplexStack(ComplexStack.Group.A, 0, 2, null);
+    private static final ComplexStack CB02_ = new ComplexStack(ComplexStack.Group.B, 0, 2, null);
+    private static final ComplexStack CA91B = new ComplexStack(ComplexStack.Group.A, 9, 1, ComplexStack.Tag.B);
+
+    private IngredientCollectionMutableJournaled<ComplexStack, Integer, IngredientArrayList<ComplexStack, Integer>> collection;
+
+    @Before
+    public void beforeEach() {
+        collection = new IngredientCollectionMutableJournaled<>(new IngredientArrayList<>(IngredientComponentStubs.COMPLEX));
+        collection.addAll(Lists.newArrayList(CA01_, CA02_, CB02_));
+        collection.getJournal().clear();
+    }
+
+    @Test
+    public void testEmpty() {
+        assertThat(collection.getJournal().isEmpty(), is(true));
+        assertThat(collection.getJournal().isInvalidated(), is(false));
+    }
+
+    @Test
+    public void testAdd() {
+        collection.add(CA01_);
+        collection.add(CA91B);
+        assertThat(collection.size(), is(5));
+        assertThat(Sets.newHashSet(collection.getJournal().iterator()), is(Sets.newHashSet(
+                new AbstractObject2LongMap.BasicEntry<>(CA01_, 1),
+                new AbstractObject2LongMap.BasicEntry<>(CA91B, 1)
+        )));
+    }
+
+    @Test
+    public void testRemove() {
+        collection.remove(CA02_);
+        collection.remove(CA91B);
+        assertThat(collection.size(), is(2));
+        assertThat(Sets.newHashSet(collection.getJournal().iterator()), is(Sets.newHashSet(
+                new AbstractObject2LongMap.BasicEntry<>(CA01_, -2)
+        )));
+    }
+
+    @Test
+    public void testAddRemoveCancel() {
+        collection.add(CA91B);
+        collection.remove(CA91B);
+        assertThat(collection.getJournal().isEmpty(), is(true));
+    }
+
+    @Test
+    public void testRemoveAllMatch() {
+        assertThat(collection.removeAll(CA01_, ComplexStack.Match.GROUP), is(2));
+        assertThat(Sets.newHashSet(collection.getJournal().iterator()), is(Sets.newHashSet(
+                new AbstractObject2LongMap.BasicEntry<>(CA01_, -3)
+        )));
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        Iterator<ComplexStack> it = collection.iterator();
+        it.next();
+        it.remove();
+        assertThat(Sets.newHashSet(collection.getJournal().iterator()), is(Sets.newHashSet(
+                new AbstractObject2LongMap.BasicEntry<>(CA01_, -1)
+        )));
+    }
+
+    @Test
+    public void testClear() {
+        collection.clear();
+        assertThat(collection.isEmpty(), is(true));
+        assertThat(Sets.newHashSet(collection.getJournal().iterator()), is(Sets.newHashSet(
+                new AbstractObject2LongMap.BasicEntry<>(CA01_, -3),
+                new AbstractObject2LongMap.BasicEntry<>(new ComplexStack(ComplexStack.Group.B, 0, 1, null), -2)
+        )));
+    }
+
+    @Test
+    public void testInvalidate() {
+        collection.add(CA91B);
+        collection.getJournal().invalidate();
+        collection.add(CA01_);
+        assertThat(collection.getJournal().isInvalidated(), is(true));
+        assertThat(collection.getJournal().isEmpty(), is(true));
+        collection.getJournal().clear();
+        assertThat(collection.getJournal().isInvalidated(), is(false));
+    }
+
+    @Test
+    public void testCollapsedSetQuantity() {
+        IngredientCollapsedCollectionMutableJournaled<ComplexStack, Integer> collapsed = new IngredientCollapsedCollectionMutableJournaled<>(
+                new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX));
+        collapsed.setQuantity(CA01_, 10);
+        collapsed.setQuantity(CA01_, 4);
+        collapsed.add(CB02_);
+        assertThat(collapsed.getQuantity(CA01_), is(4L));
+        assertThat(Sets.newHashSet(collapsed.getJournal().iterator()), is(Sets.newHashSet(
+                new AbstractObject2LongMap.BasicEntry<>(CA01_, 4),
+                new AbstractObject2LongMap.BasicEntry<>(new ComplexStack(ComplexStack.Group.B, 0, 1, null), 2)
+        )));
+    }
+
+}
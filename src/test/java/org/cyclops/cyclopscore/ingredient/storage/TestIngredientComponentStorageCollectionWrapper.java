@@ -3,6 +3,7 @@ package org.cyclops.cyclopscore.ingredient.storage;
 import com.google.common.collect.Lists;
 import org.cyclops.cyclopscore.ingredient.IngredientComponentStubs;
 import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionPrototypeMap;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientPrototypeInterner;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -56,6 +57,22 @@ public class TestIngredientComponentStorageCollectionWrapper {
         assertThat(sizedStorage.getMaxQuantity(), is(100L));
     }
 
+    @Test
+    public void testInterner() {
+        IngredientPrototypeInterner<Integer, Boolean> interner = new IngredientPrototypeInterner<>(IngredientComponentStubs.SIMPLE);
+        IngredientComponentStorageCollectionWrapper<Integer, Boolean> internedStorage = new IngredientComponentStorageCollectionWrapper<>(
+                interner, 100, 11);
+
+        assertThat(internedStorage.getMaxQuantity(), is(100L));
+        assertThat(internedStorage.insert(20, false), is(9));
+        assertThat(Lists.newArrayList(internedStorage.iterator()), is(Lists.newArrayList(11)));
+        assertThat(interner.size(), is(1));
+
+        assertThat(internedStorage.extract(5, false), is(5));
+        assertThat(Lists.newArrayList(internedStorage.iterator()), is(Lists.newArrayList(6)));
+        assertThat(interner.getMisses(), is(1L));
+    }
+
     @Test
     public void testRateLimit() {
         assertThat(storage.rateLimit(0, Long.MAX_VALUE), is(0));
@@ -231,4 +248,65 @@ public class TestIngredientComponentStorageCollectionWrapper {
         assertThat(Lists.newArrayList(storage), is(Lists.newArrayList(2)));
     }
 
+    @Test
+    public void testTransactionCommit() {
+        storage.insert(10, false);
+        storage.beginTransaction();
+        assertThat(storage.isTransactionActive(), is(true));
+        storage.insert(5, false);
+        storage.extract(3, false);
+        storage.commitTransaction();
+        assertThat(storage.isTransactionActive(), is(false));
+        assertThat(Lists.newArrayList(storage), is(Lists.newArrayList(12)));
+    }
+
+    @Test
+    public void testTransactionRollback() {
+        storage.insert(10, false);
+        storage.beginTransaction();
+        storage.insert(5, false);
+        storage.extract(15, false, false);
+        assertThat(Lists.newArrayList(storage), is(Lists.newArrayList()));
+        storage.rollbackTransaction();
+        assertThat(storage.isTransactionActive(), is(false));
+        assertThat(Lists.newArrayList(storage), is(Lists.newArrayList(10)));
+    }
+
+    @Test
+    public void testTransactionRollbackQuantity() {
+        IngredientComponentStorageCollectionWrapper<Integer, Boolean> sizedStorage = new IngredientComponentStorageCollectionWrapper<>(
+                new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.SIMPLE), 10, 100);
+        sizedStorage.beginTransaction();
+        assertThat(sizedStorage.insert(10, false), is(0));
+        sizedStorage.rollbackTransaction();
+        assertThat(sizedStorage.insert(10, false), is(0));
+        assertThat(Lists.newArrayList(sizedStorage), is(Lists.newArrayList(10)));
+    }
+
+    @Test
+    public void testTransactionNested() {
+        storage.beginTransaction();
+        storage.insert(5, false);
+        storage.beginTransaction();
+        storage.insert(3, false);
+        storage.rollbackTransaction();
+        assertThat(Lists.newArrayList(storage), is(Lists.newArrayList(5)));
+        storage.beginTransaction();
+        storage.insert(2, false);
+        storage.commitTransaction();
+        assertThat(Lists.newArrayList(storage), is(Lists.newArrayList(7)));
+        storage.rollbackTransaction();
+        assertThat(Lists.newArrayList(storage), is(Lists.newArrayList()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTransactionCommitInactive() {
+        storage.commitTransaction();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTransactionRollbackInactive() {
+        storage.rollbackTransaction();
+    }
+
 }
@@ -0,0 +1,132 @@
+package org.cyclops.cyclopscore.ingredient.storage;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.cyclops.commoncapabilities.api.ingredient.storage.IIngredientComponentStorage;
+import org.cyclops.cyclopscore.ingredient.ComplexStack;
+import org.cyclops.cyclopscore.ingredient.IngredientComponentStubs;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientArrayList;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionPrototypeMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TestIngredientComponentStorageHelpersMoveIngredientsBatch {
+
+    private static final ComplexStack CA00_ = new ComplexStack(ComplexStack.Group.A, 0, 0, null);
+    private static final ComplexStack CA02_ = new ComplexStack(ComplexStack.Group.A, 0, 2, null);
+    private static final ComplexStack CA03_ = new ComplexStack(ComplexStack.Group.A, 0, 3, null);
+    private static final ComplexStack CA05_ = new ComplexStack(ComplexStack.Group.A, 0, 5, null);
+    private static final ComplexStack CA07_ = new ComplexStack(ComplexStack.Group.A, 0, 7, null);
+    private static final ComplexStack CA08_ = new ComplexStack(ComplexStack.Group.A, 0, 8, null);
+    private static final ComplexStack CA15_ = new ComplexStack(ComplexStack.Group.A, 1, 5, null);
+    private static final ComplexStack CB00_ = new ComplexStack(ComplexStack.Group.B, 0, 0, null);
+    private static final ComplexStack CB05_ = new ComplexStack(ComplexStack.Group.B, 0, 5, null);
+    private static final ComplexStack CC03_ = new ComplexStack(ComplexStack.Group.C, 0, 3, null);
+
+    private IngredientArrayList<ComplexStack, Integer> sourceList;
+    private IngredientArrayList<ComplexStack, Integer> destinationList;
+    private IngredientComponentStorageSlottedCollectionWrapper<ComplexStack, Integer> source;
+    private IngredientComponentStorageSlottedCollectionWrapper<ComplexStack, Integer> destination;
+    private List<IngredientMoveRequest<ComplexStack, Integer>> requests;
+
+    @Before
+    public void beforeEach() {
+        sourceList = new IngredientArrayList<>(IngredientComponentStubs.COMPLEX, CA05_, CB05_, CA05_, null, CC03_);
+        destinationList = new IngredientArrayList<>(IngredientComponentStubs.COMPLEX, null, null, null, null, null);
+        source = new IngredientComponentStorageSlottedCollectionWrapper<>(sourceList, 10, Long.MAX_VALUE);
+        destination = new IngredientComponentStorageSlottedCollectionWrapper<>(destinationList, 10, Long.MAX_VALUE);
+        requests = Lists.newArrayList(
+                new IngredientMoveRequest<>(CA00_, ComplexStack.Match.GROUP, 7),
+                new IngredientMoveRequest<>(CB00_, ComplexStack.Match.EXACT, 10),
+                new IngredientMoveRequest<>(CC03_, ComplexStack.Match.EXACT, 0)
+        );
+    }
+
+    @Test
+    public void testSlotted() throws InconsistentIngredientInsertionException {
+        assertThat(IngredientStorageHelpers.moveIngredientsBatch(source, destination, requests, false), is(new long[]{7, 5, 0}));
+        assertThat(Lists.newArrayList(source), is(Lists.newArrayList(CA00_, CB00_, CA03_, null, CC03_)));
+        assertThat(Lists.newArrayList(destination), is(Lists.newArrayList(CA07_, CB05_, null, null, null)));
+    }
+
+    @Test
+    public void testSlottedSimulateTransactional() throws InconsistentIngredientInsertionException {
+        assertThat(IngredientStorageHelpers.moveIngredientsBatch(source, destination, requests, true), is(new long[]{7, 5, 0}));
+        assertThat(source.isTransactionActive(), is(false));
+        assertThat(Lists.newArrayList(source), is(Lists.newArrayList(CA05_, CB05_, CA05_, null, CC03_)));
+        assertThat(Lists.newArrayList(destination), is(Lists.newArrayList(null, null, null, null, null)));
+    }
+
+    @Test
+    public void testSlottedSimulateNonTransactional() throws InconsistentIngredientInsertionException {
+        IIngredientComponentStorage<ComplexStack, Integer> sourceWrapped = IngredientStorageHelpers.wrapStorage(source, true, true, true);
+        IIngredientComponentStorage<ComplexStack, Integer> destinationWrapped = IngredientStorageHelpers.wrapStorage(destination, true, true, true);
+        assertThat(IngredientStorageHelpers.moveIngredientsBatch(sourceWrapped, destinationWrapped, requests, true), is(new long[]{7, 5, 0}));
+        assertThat(Lists.newArrayList(source), is(Lists.newArrayList(CA05_, CB05_, CA05_, null, CC03_)));
+        assertThat(Lists.newArrayList(destination), is(Lists.newArrayList(null, null, null, null, null)));
+    }
+
+    @Test
+    public void testSlottedNonTransactional() throws InconsistentIngredientInsertionException {
+        IIngredientComponentStorage<ComplexStack, Integer> sourceWrapped = IngredientStorageHelpers.wrapStorage(source, true, true, true);
+        IIngredientComponentStorage<ComplexStack, Integer> destinationWrapped = IngredientStorageHelpers.wrapStorage(destination, true, true, true);
+        assertThat(IngredientStorageHelpers.moveIngredientsBatch(sourceWrapped, destinationWrapped, requests, false), is(new long[]{7, 5, 0}));
+        assertThat(Lists.newArrayList(source), is(Lists.newArrayList(CA00_, CB00_, CA03_, null, CC03_)));
+        assertThat(Lists.newArrayList(destination), is(Lists.newArrayList(CA07_, CB05_, null, null, null)));
+    }
+
+    @Test
+    public void testSlottedRemainderToNextRequest() throws InconsistentIngredientInsertionException {
+        requests = Lists.newArrayList(
+                new IngredientMoveRequest<>(CA00_, ComplexStack.Match.EXACT, 3),
+                new IngredientMoveRequest<>(CA15_, ComplexStack.Match.GROUP, 10)
+        );
+        assertThat(IngredientStorageHelpers.moveIngredientsBatch(source, destination, requests, false), is(new long[]{3, 7}));
+        assertThat(Lists.newArrayList(source), is(Lists.newArrayList(CA00_, CB05_, CA00_, null, CC03_)));
+        assertThat(Lists.newArrayList(destination), is(Lists.newArrayList(new ComplexStack(ComplexStack.Group.A, 0, 10, null), null, null, null, null)));
+    }
+
+    @Test
+    public void testSlottedDestinationFull() throws InconsistentIngredientInsertionException {
+        destination = new IngredientComponentStorageSlottedCollectionWrapper<>(
+                new IngredientArrayList<>(IngredientComponentStubs.COMPLEX, CA08_), 10, Long.MAX_VALUE);
+        assertThat(IngredientStorageHelpers.moveIngredientsBatch(source, destination, requests, false), is(new long[]{2, 0, 0}));
+        assertThat(Lists.newArrayList(source), is(Lists.newArrayList(CA03_, CB05_, CA05_, null, CC03_)));
+        assertThat(Lists.newArrayList(destination), is(Lists.newArrayList(new ComplexStack(ComplexStack.Group.A, 0, 10, null))));
+    }
+
+    @Test
+    public void testSlotless() throws InconsistentIngredientInsertionException {
+        IngredientComponentStorageCollectionWrapper<ComplexStack, Integer> sourceSlotless = new IngredientComponentStorageCollectionWrapper<>(
+                new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX));
+        IngredientComponentStorageCollectionWrapper<ComplexStack, Integer> destinationSlotless = new IngredientComponentStorageCollectionWrapper<>(
+                new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX));
+        sourceSlotless.insert(CA05_, false);
+        sourceSlotless.insert(CA05_, false);
+        sourceSlotless.insert(CB05_, false);
+        sourceSlotless.insert(CC03_, false);
+
+        assertThat(IngredientStorageHelpers.moveIngredientsBatch(sourceSlotless, destinationSlotless, requests, false), is(new long[]{7, 5, 0}));
+        assertThat(Sets.newHashSet(sourceSlotless), is(Sets.newHashSet(CA03_, CC03_)));
+        assertThat(Sets.newHashSet(destinationSlotless), is(Sets.newHashSet(CA07_, CB05_)));
+    }
+
+    @Test
+    public void testSlotlessToSlotted() throws InconsistentIngredientInsertionException {
+        IngredientComponentStorageCollectionWrapper<ComplexStack, Integer> sourceSlotless = new IngredientComponentStorageCollectionWrapper<>(
+                new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX));
+        sourceSlotless.insert(CA05_, false);
+        sourceSlotless.insert(CA05_, false);
+        sourceSlotless.insert(CB05_, false);
+
+        assertThat(IngredientStorageHelpers.moveIngredientsBatch(sourceSlotless, destination, requests, false), is(new long[]{7, 5, 0}));
+        assertThat(Sets.newHashSet(sourceSlotless), is(Sets.newHashSet(CA03_)));
+        assertThat(Sets.newHashSet(destination), is(Sets.newHashSet(CA07_, CB05_, null)));
+    }
+
+}
@@ -0,0 +1,136 @@
+package org.cyclops.cyclopscore.ingredient.storage;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.cyclops.commoncapabilities.api.ingredient.storage.IIngredientComponentStorage;
+import org.cyclops.cyclopscore.ingredient.ComplexStack;
+import org.cyclops.cyclopscore.ingredient.IngredientComponentStubs;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientArrayList;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientCollectionPrototypeMap;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TestIngredientComponentStorageHelpersTransactional {
+
+    private static final ComplexStack CA01_ = new ComplexStack(ComplexStack.Group.A, 0, 1, null);
+    private static final ComplexStack CA05_ = new ComplexStack(ComplexStack.Group.A, 0, 5, null);
+    private static final ComplexStack CA10_ = new ComplexStack(ComplexStack.Group.A, 0, 10, null);
+    private static final ComplexStack CB05_ = new ComplexStack(ComplexStack.Group.B, 0, 5, null);
+
+    @Test
+    public void testIsTransactional() {
+        IngredientComponentStorageSlottedCollectionWrapper<ComplexStack, Integer> storage = new IngredientComponentStorageSlottedCollectionWrapper<>(
+                new IngredientArrayList<>(IngredientComponentStubs.COMPLEX), 10, 10);
+        assertThat(IngredientStorageHelpers.isTransactional(storage, storage), is(true));
+        assertThat(IngredientStorageHelpers.isTransactional(storage,
+                IngredientStorageHelpers.wrapStorage(storage, true, true, true)), is(false));
+    }
+
+    @Test
+    public void testMovePartial() throws InconsistentIngredientInsertionException {
+        IngredientComponentStorageSlottedCollectionWrapper<ComplexStack, Integer> source = new IngredientComponentStorageSlottedCollectionWrapper<>(
+                new IngredientArrayList<>(IngredientComponentStubs.COMPLEX, CA10_, CB05_), 10, 10);
+        IngredientComponentStorageSlottedCollectionWrapper<ComplexStack, Integer> destination = new IngredientComponentStorageSlottedCollectionWrapper<>(
+                new IngredientArrayList<>(IngredientComponentStubs.COMPLEX, CA05_), 10, 10);
+
+        assertThat(IngredientStorageHelpers.moveIngredients(source, destination, CA10_, ComplexStack.Match.EXACT, false), is((ComplexStack) null));
+        assertThat(IngredientStorageHelpers.moveIngredients(source, destination, CA10_, ComplexStack.Match.GROUP, false), is(CA05_));
+        assertThat(source.isTransactionActive(), is(false));
+        assertThat(destination.isTransactionActive(), is(false));
+        assertThat(Lists.newArrayList(source), is(Lists.newArrayList(CA05_, CB05_)));
+        assertThat(Lists.newArrayList(destination), is(Lists.newArrayList(CA10_)));
+    }
+
+    @Test
+    public void testMoveRejectedRollsBack() throws InconsistentIngredientInsertionException {
+        IngredientComponentStorageSlottedCollectionWrapper<ComplexStack, Integer> source = new IngredientComponentStorageSlottedCollectionWrapper<>(
+                new IngredientArrayList<>(IngredientComponentStubs.COMPLEX, CA05_), 10, 10);
+        IngredientComponentStorageSlottedCollectionWrapper<ComplexStack, Integer> destination = new IngredientComponentStorageSlottedCollectionWrapper<>(
+                new IngredientArrayList<>(IngredientComponentStubs.COMPLEX, CB05_), 10, 10);
+
+        assertThat(IngredientStorageHelpers.moveIngredientsSlotted(source, 0, destination, 0, CA01_, ComplexStack.Match.GROUP, false), is((ComplexStack) null));
+        assertThat(IngredientStorageHelpers.moveIngredients(source, destination, 5, false), is((ComplexStack) null));
+        assertThat(Lists.newArrayList(source), is(Lists.newArrayList(CA05_)));
+        assertThat(Lists.newArrayList(destination), is(Lists.newArrayList(CB05_)));
+    }
+
+    @Test
+    public void testMoveSameStorage() throws InconsistentIngredientInsertionException {
+        IngredientComponentStorageSlottedCollectionWrapper<ComplexStack, Integer> storage = new IngredientComponentStorageSlottedCollectionWrapper<>(
+                new IngredientArrayList<>(IngredientComponentStubs.COMPLEX, CA10_, CA05_), 10, 10);
+
+        assertThat(IngredientStorageHelpers.moveIngredientsSlotted(storage, 0, storage, 1, CA10_, ComplexStack.Match.GROUP, false), is(CA05_));
+        assertThat(storage.isTransactionActive(), is(false));
+        assertThat(Lists.newArrayList(storage), is(Lists.newArrayList(CA05_, CA10_)));
+    }
+
+    @Test
+    public void testRandomMovesEqualToSimulated() throws InconsistentIngredientInsertionException {
+        Random random = new Random(42);
+        for (int run = 0; run < 20; run++) {
+            IngredientArrayList<ComplexStack, Integer> sourceList = new IngredientArrayList<>(IngredientComponentStubs.COMPLEX);
+            IngredientArrayList<ComplexStack, Integer> destinationList = new IngredientArrayList<>(IngredientComponentStubs.COMPLEX);
+            for (int i = 0; i < 10; i++) {
+                sourceList.add(random.nextInt(3) == 0 ? null : randomStack(random));
+                destinationList.add(random.nextInt(3) == 0 ? null : randomStack(random));
+            }
+            IngredientComponentStorageSlottedCollectionWrapper<ComplexStack, Integer> source =
+                    new IngredientComponentStorageSlottedCollectionWrapper<>(new IngredientArrayList<>(IngredientComponentStubs.COMPLEX, sourceList), 10, 7);
+            IngredientComponentStorageSlottedCollectionWrapper<ComplexStack, Integer> destination =
+                    new IngredientComponentStorageSlottedCollectionWrapper<>(new IngredientArrayList<>(IngredientComponentStubs.COMPLEX, destinationList), 10, 7);
+            IngredientComponentStorageCollectionWrapper<ComplexStack, Integer> destinationCollapsed =
+                    new IngredientComponentStorageCollectionWrapper<>(new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX), 30, 7);
+            // Wrapped storages are not transactional, so these will always simulate first.
+            IngredientComponentStorageSlottedCollectionWrapper<ComplexStack, Integer> sourceSimulatedInner =
+                    new IngredientComponentStorageSlottedCollectionWrapper<>(new IngredientArrayList<>(IngredientComponentStubs.COMPLEX, sourceList), 10, 7);
+            IIngredientComponentStorage<ComplexStack, Integer> sourceSimulated = IngredientStorageHelpers.wrapStorage(sourceSimulatedInner, true, true, true);
+            IIngredientComponentStorage<ComplexStack, Integer> destinationSimulated = IngredientStorageHelpers.wrapStorage(
+                    new IngredientComponentStorageSlottedCollectionWrapper<>(new IngredientArrayList<>(IngredientComponentStubs.COMPLEX, destinationList), 10, 7), true, true, true);
+            IIngredientComponentStorage<ComplexStack, Integer> destinationCollapsedSimulated = IngredientStorageHelpers.wrapStorage(
+                    new IngredientComponentStorageCollectionWrapper<>(new IngredientCollectionPrototypeMap<>(IngredientComponentStubs.COMPLEX), 30, 7), true, true, true);
+
+            for (int op = 0; op < 100; op++) {
+                ComplexStack stack = randomStack(random);
+                int condition = random.nextInt(ComplexStack.Match.EXACT + 1);
+                int sourceSlot = random.nextInt(3) == 0 ? random.nextInt(10) : -1;
+                int destinationSlot = random.nextInt(3) == 0 ? random.nextInt(10) : -1;
+                long maxQuantity = random.nextInt(10);
+                boolean exact = random.nextBoolean();
+                switch (random.nextInt(5)) {
+                    case 0:
+                        assertThat(IngredientStorageHelpers.moveIngredientsSlotted(source, sourceSlot, destination, destinationSlot, stack, condition, false),
+                                is(IngredientStorageHelpers.moveIngredientsSlotted(sourceSimulated, sourceSlot, destinationSimulated, destinationSlot, stack, condition, false)));
+                        break;
+                    case 1:
+                        assertThat(IngredientStorageHelpers.moveIngredientsSlotted(destination, sourceSlot, source, destinationSlot, s -> s.getMeta() == stack.getMeta(), maxQuantity, exact, false),
+                                is(IngredientStorageHelpers.moveIngredientsSlotted(destinationSimulated, sourceSlot, sourceSimulated, destinationSlot, s -> s.getMeta() == stack.getMeta(), maxQuantity, exact, false)));
+                        break;
+                    case 2:
+                        assertThat(IngredientStorageHelpers.moveIngredients(source, destinationCollapsed, stack, condition, false),
+                                is(IngredientStorageHelpers.moveIngredients(sourceSimulated, destinationCollapsedSimulated, stack, condition, false)));
+                        break;
+                    case 3:
+                        assertThat(IngredientStorageHelpers.moveIngredientsSlotted(source, sourceSlot, destinationCollapsed, -1, s -> s.getGroup() == stack.getGroup(), maxQuantity, exact, false),
+                                is(IngredientStorageHelpers.moveIngredientsSlotted(sourceSimulated, sourceSlot, destinationCollapsedSimulated, -1, s -> s.getGroup() == stack.getGroup(), maxQuantity, exact, false)));
+                        break;
+                    default:
+                        assertThat(IngredientStorageHelpers.moveIngredients(destination, source, maxQuantity, false),
+                                is(IngredientStorageHelpers.moveIngredients(destinationSimulated, sourceSimulated, maxQuantity, false)));
+                }
+                assertThat(Lists.newArrayList(source), is(Lists.newArrayList(sourceSimulated)));
+                assertThat(Lists.newArrayList(destination), is(Lists.newArrayList(destinationSimulated)));
+                assertThat(Sets.newHashSet(destinationCollapsed), is(Sets.newHashSet(destinationCollapsedSimulated)));
+            }
+        }
+    }
+
+    private static ComplexStack randomStack(Random random) {
+        return new ComplexStack(ComplexStack.Group.values()[random.nextInt(2)], random.nextInt(2),
+                1 + random.nextInt(6), random.nextBoolean() ? null : ComplexStack.Tag.A);
+    }
+
+}
@@ -445,4 +445,43 @@ public class TestIngredientComponentStorageSlottedCollectionWrapper {
         assertThat(Lists.newArrayList(storage), is(Lists.newArrayList(0, 2, 0, 0, 0)));
     }
 
+    @Test
+    public void testTransactionRollback() {
+        storage.insert(1, 10, false);
+        storage.beginTransaction();
+        storage.insert(1, 5, false);
+        storage.insert(3, 7, false);
+        storage.extract(1, 15, false);
+        assertThat(Lists.newArrayList(storage), is(Lists.newArrayList(0, 0, 0, 7, 0)));
+        storage.rollbackTransaction();
+        assertThat(storage.isTransactionActive(), is(false));
+        assertThat(Lists.newArrayList(storage), is(Lists.newArrayList(0, 10, 0, 0, 0)));
+    }
+
+    @Test
+    public void testTransactionCommit() {
+        storage.beginTransaction();
+        storage.insert(2, 5, false);
+        storage.extract(2, 1, false);
+        storage.commitTransaction();
+        assertThat(storage.isTransactionActive(), is(false));
+        assertThat(Lists.newArrayList(storage), is(Lists.newArrayList(0, 0, 4, 0, 0)));
+    }
+
+    @Test
+    public void testTransactionRollbackQuantity() {
+        IngredientComponentStorageSlottedCollectionWrapper<Integer, Boolean> sizedStorage = new IngredientComponentStorageSlottedCollectionWrapper<>(
+                innerList, 2, 100);
+        sizedStorage.beginTransaction();
+        assertThat(sizedStorage.insert(10, false), is(8));
+        sizedStorage.rollbackTransaction();
+        assertThat(sizedStorage.insert(10, false), is(8));
+        assertThat(Lists.newArrayList(sizedStorage), is(Lists.newArrayList(2, 0, 0, 0, 0)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTransactionRollbackInactive() {
+        storage.rollbackTransaction();
+    }
+
 }
@@ -0,0 +1,135 @@
+package org.cyclops.cyclopscore.ingredient.storage;
+
+import com.google.common.collect.Lists;
+import org.cyclops.cyclopscore.ingredient.ComplexStack;
+import org.cyclops.cyclopscore.ingredient.IngredientComponentStubs;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientArrayList;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TestIngredientComponentStorageSlottedIndexedCollectionWrapper {
+
+    private static final ComplexStack CA01_ = new ComplexStack(ComplexStack.Group.A, 0, 1, null);
+    private static final ComplexStack CA05_ = new ComplexStack(ComplexStack.Group.A, 0, 5, null);
+    private static final ComplexStack CA11_ = new ComplexStack(ComplexStack.Group.A, 1, 1, null);
+    private static final ComplexStack CB01_ = new ComplexStack(ComplexStack.Group.B, 0, 1, null);
+    private static final ComplexStack CB02_ = new ComplexStack(ComplexStack.Group.B, 0, 2, null);
+
+    private IngredientArrayList<ComplexStack, Integer> innerList;
+    private IngredientComponentStorageSlottedIndexedCollectionWrapper<ComplexStack, Integer> storage;
+
+    @Before
+    public void beforeEach() {
+        innerList = new IngredientArrayList<>(IngredientComponentStubs.COMPLEX);
+        innerList.add(null);
+        innerList.add(CA01_);
+        innerList.add(CB01_);
+        innerList.add(null);
+        innerList.add(CA01_);
+        storage = new IngredientComponentStorageSlottedIndexedCollectionWrapper<>(innerList, 10, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testInitialIndex() {
+        assertThat(storage.getSlotsNonEmpty(), is(new int[]{1, 2, 4}));
+        assertThat(storage.getSlotsMatching(CA05_, ComplexStack.Match.EXACT), is(new int[]{1, 4}));
+        assertThat(storage.getSlotsMatching(CB02_, ComplexStack.Match.EXACT), is(new int[]{2}));
+        assertThat(storage.getSlotsMatching(CA11_, ComplexStack.Match.EXACT), is(new int[]{}));
+        assertThat(storage.getSlotsInsertable(CA05_), is(new int[]{0, 1, 3, 4}));
+        assertThat(storage.getSlotsInsertable(CA11_), is(new int[]{0, 3}));
+    }
+
+    @Test
+    public void testGetSlotsMatchingConditions() {
+        assertThat(storage.getSlotsMatching(CA01_, ComplexStack.Match.ANY), is(new int[]{1, 2, 4}));
+        assertThat(storage.getSlotsMatching(CA11_, ComplexStack.Match.GROUP), is(new int[]{1, 4}));
+        assertThat(storage.getSlotsMatching(CB01_, ComplexStack.Match.META), is(new int[]{1, 2, 4}));
+        assertThat(storage.getSlotsMatching(CA11_, ComplexStack.Match.META), is(new int[]{}));
+    }
+
+    @Test
+    public void testIndexAfterModifications() {
+        storage.insert(3, CA11_, false);
+        assertThat(storage.getSlotsMatching(CA11_, ComplexStack.Match.EXACT), is(new int[]{3}));
+        assertThat(storage.getSlotsInsertable(CB01_), is(new int[]{0, 2}));
+
+        storage.extract(2, 1, false);
+        assertThat(storage.getSlotsMatching(CB01_, ComplexStack.Match.EXACT), is(new int[]{}));
+        assertThat(storage.getSlotsNonEmpty(), is(new int[]{1, 3, 4}));
+        assertThat(storage.getSlotsInsertable(CB01_), is(new int[]{0, 2}));
+
+        // Empty slots are not skipped if they come first
+        storage.insert(CA05_, false);
+        assertThat(storage.getSlotsMatching(CA01_, ComplexStack.Match.GROUP | ComplexStack.Match.META),
+                is(new int[]{0, 1, 4}));
+        assertThat(Lists.newArrayList(storage), is(Lists.newArrayList(
+                CA05_, CA01_, new ComplexStack(ComplexStack.Group.B, 0, 0, null), CA11_, CA01_)));
+    }
+
+    @Test
+    public void testRandomOperationsEqualToNonIndexed() throws InconsistentIngredientInsertionException {
+        Random random = new Random(123);
+        for (int run = 0; run < 20; run++) {
+            IngredientArrayList<ComplexStack, Integer> sourceList = new IngredientArrayList<>(IngredientComponentStubs.COMPLEX);
+            IngredientArrayList<ComplexStack, Integer> destinationList = new IngredientArrayList<>(IngredientComponentStubs.COMPLEX);
+            for (int i = 0; i < 20; i++) {
+                sourceList.add(random.nextInt(3) == 0 ? null : randomStack(random));
+                destinationList.add(random.nextInt(3) == 0 ? null : randomStack(random));
+            }
+            IngredientComponentStorageSlottedCollectionWrapper<ComplexStack, Integer> source =
+                    new IngredientComponentStorageSlottedCollectionWrapper<>(new IngredientArrayList<>(IngredientComponentStubs.COMPLEX, sourceList), 10, 7);
+            IngredientComponentStorageSlottedCollectionWrapper<ComplexStack, Integer> destination =
+                    new IngredientComponentStorageSlottedCollectionWrapper<>(new IngredientArrayList<>(IngredientComponentStubs.COMPLEX, destinationList), 10, 7);
+            IngredientComponentStorageSlottedIndexedCollectionWrapper<ComplexStack, Integer> sourceIndexed =
+                    new IngredientComponentStorageSlottedIndexedCollectionWrapper<>(new IngredientArrayList<>(IngredientComponentStubs.COMPLEX, sourceList), 10, 7);
+            IngredientComponentStorageSlottedIndexedCollectionWrapper<ComplexStack, Integer> destinationIndexed =
+                    new IngredientComponentStorageSlottedIndexedCollectionWrapper<>(new IngredientArrayList<>(IngredientComponentStubs.COMPLEX, destinationList), 10, 7);
+
+            for (int op = 0; op < 100; op++) {
+                ComplexStack stack = randomStack(random);
+                int condition = random.nextInt(ComplexStack.Match.EXACT + 1);
+                boolean simulate = random.nextBoolean();
+                switch (random.nextInt(6)) {
+                    case 0:
+                        assertThat(destinationIndexed.insert(stack, simulate), is(destination.insert(stack, simulate)));
+                        break;
+                    case 1:
+                        assertThat(sourceIndexed.extract(stack, condition, simulate), is(source.extract(stack, condition, simulate)));
+                        break;
+                    case 2:
+                        long quantity = random.nextInt(10);
+                        assertThat(sourceIndexed.extract(quantity, simulate), is(source.extract(quantity, simulate)));
+                        break;
+                    case 3:
+                        int sourceSlot = random.nextInt(3) == 0 ? random.nextInt(20) : -1;
+                        int destinationSlot = random.nextInt(3) == 0 ? random.nextInt(20) : -1;
+                        assertThat(IngredientStorageHelpers.moveIngredientsSlotted(sourceIndexed, sourceSlot, destinationIndexed, destinationSlot, stack, condition, simulate),
+                                is(IngredientStorageHelpers.moveIngredientsSlotted(source, sourceSlot, destination, destinationSlot, stack, condition, simulate)));
+                        break;
+                    case 4:
+                        long maxQuantity = random.nextInt(10);
+                        boolean exact = random.nextBoolean();
+                        assertThat(IngredientStorageHelpers.moveIngredientsSlotted(sourceIndexed, -1, destinationIndexed, -1, s -> s.getMeta() == stack.getMeta(), maxQuantity, exact, simulate),
+                                is(IngredientStorageHelpers.moveIngredientsSlotted(source, -1, destination, -1, s -> s.getMeta() == stack.getMeta(), maxQuantity, exact, simulate)));
+                        break;
+                    default:
+                        assertThat(IngredientStorageHelpers.moveIngredientsSlotted(destinationIndexed, -1, sourceIndexed, -1, stack, condition, simulate),
+                                is(IngredientStorageHelpers.moveIngredientsSlotted(destination, -1, source, -1, stack, condition, simulate)));
+                }
+                assertThat(Lists.newArrayList(sourceIndexed), is(Lists.newArrayList(source)));
+                assertThat(Lists.newArrayList(destinationIndexed), is(Lists.newArrayList(destination)));
+            }
+        }
+    }
+
+    private static ComplexStack randomStack(Random random) {
+        return new ComplexStack(ComplexStack.Group.values()[random.nextInt(2)], random.nextInt(2),
+                1 + random.nextInt(6), random.nextBoolean() ? null : ComplexStack.Tag.A);
+    }
+
+}
@@ -0,0 +1,92 @@
+package org.cyclops.cyclopscore.ingredient.storage;
+
+import com.google.common.collect.Lists;
+import org.cyclops.cyclopscore.ingredient.ComplexStack;
+import org.cyclops.cyclopscore.ingredient.IngredientComponentStubs;
+import org.cyclops.cyclopscore.ingredient.collection.IngredientArrayList;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TestIngredientStorageRestartingIterator {
+
+    private static final ComplexStack CA01_ = new ComplexStack(ComplexStack.Group.A, 0, 1, null);
+    private static final ComplexStack CA02_ = new ComplexStack(ComplexStack.Group.A, 0, 2, null);
+    private static final ComplexStack CB01_ = new ComplexStack(ComplexStack.Group.B, 0, 1, null);
+    private static final ComplexStack CB02_ = new ComplexStack(ComplexStack.Group.B, 0, 2, null);
+    private static final ComplexStack CA11_ = new ComplexStack(ComplexStack.Group.A, 1, 1, null);
+    private static final ComplexStack CA01B = new ComplexStack(ComplexStack.Group.A, 0, 1, ComplexStack.Tag.B);
+
+    private IngredientArrayList<ComplexStack, Integer> source;
+    private int iterations;
+
+    @Before
+    public void beforeEach() {
+        source = new IngredientArrayList<>(IngredientComponentStubs.COMPLEX, CA01_, CA02_, CB01_, CA01_, CB02_, CA11_, CA01B);
+        iterations = 0;
+    }
+
+    protected IngredientStorageRestartingIterator<ComplexStack, Integer> createIterator() {
+        return new IngredientStorageRestartingIterator<>(IngredientComponentStubs.COMPLEX, () -> {
+            iterations++;
+            return source.iterator();
+        });
+    }
+
+    @Test
+    public void testUnmodified() {
+        List<ComplexStack> expected = Lists.newArrayList(source);
+        assertThat(Lists.newArrayList(createIterator()), is(expected));
+        // Chunks of 1, 2 and 4 instances
+        assertThat(iterations, is(3));
+    }
+
+    @Test
+    public void testFirst() {
+        assertThat(createIterator().next(), is(CA01_));
+        assertThat(iterations, is(1));
+    }
+
+    @Test
+    public void testEmpty() {
+        source.clear();
+        assertThat(createIterator().hasNext(), is(false));
+    }
+
+    @Test
+    public void testRemoved() {
+        source = new IngredientArrayList<>(IngredientComponentStubs.COMPLEX, CA01_, CA02_, CB01_, CB02_, CA11_, CA01B);
+        List<ComplexStack> expected = Lists.newArrayList(source);
+        List<ComplexStack> actual = Lists.newArrayList();
+        Iterator<ComplexStack> it = createIterator();
+        while (it.hasNext()) {
+            ComplexStack instance = it.next();
+            actual.add(instance);
+            source.remove(instance);
+        }
+        assertThat(actual, is(expected));
+        assertThat(source.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testRemovedAndRestored() {
+        List<ComplexStack> expected = Lists.newArrayList(source);
+        List<ComplexStack> actual = Lists.newArrayList();
+        Iterator<ComplexStack> it = createIterator();
+        while (it.hasNext()) {
+            ComplexStack instance = it.next();
+            actual.add(instance);
+            // Mimic a rolled back movement
+            source.remove(instance);
+            source.add(instance);
+        }
+        assertThat(actual.size(), is(expected.size()));
+        assertThat(source.size(), is(expected.size()));
+    }
+
+}
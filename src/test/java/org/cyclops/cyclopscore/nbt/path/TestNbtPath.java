@@ -8,7 +8,11 @@ import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
 import net.minecraft.nbt.StringTag;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -17,26 +21,42 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+@RunWith(Parameterized.class)
 public class TestNbtPath {
 
+    @Parameterized.Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] {
+                { false },
+                { true }
+        });
+    }
+
+    @Parameterized.Parameter
+    public boolean compiled;
+
+    protected INbtPathExpression parse(String nbtPathExpression) throws NbtParseException {
+        return compiled ? NbtPath.compile(nbtPathExpression) : NbtPath.parse(nbtPathExpression);
+    }
+
     @Test(expected = NbtParseException.class)
     public void testParseInvalidUnknownChar() throws NbtParseException {
-        NbtPath.parse("!");
+        parse("!");
     }
 
     @Test(expected = NbtParseException.class)
     public void testParseInvalidTooShort() throws NbtParseException {
-        NbtPath.parse(".");
+        parse(".");
     }
 
     @Test(expected = NbtParseException.class)
     public void testParseInvalidNoNestedChildName() throws NbtParseException {
-        NbtPath.parse("$.abc.def.");
+        parse("$.abc.def.");
     }
 
     @Test
     public void testParseSelf() throws NbtParseException {
-        INbtPathExpression expression = NbtPath.parse("");
+        INbtPathExpression expression = parse("");
 
         StringTag tag1 = StringTag.valueOf("a");
         assertThat(expression.match(Stream.of(tag1)).getMatches().collect(Collectors.toList()), equalTo(Lists.newArrayList(
@@ -51,7 +71,7 @@ public class TestNbtPath {
 
     @Test
     public void testParseRoot() throws NbtParseException {
-        INbtPathExpression expression = NbtPath.parse("$");
+        INbtPathExpression expression = parse("$");
 
         StringTag tag1 = StringTag.valueOf("a");
         assertThat(expression.match(Stream.of(tag1)).getMatches().collect(Collectors.toList()), equalTo(Lists.newArrayList(
@@ -66,7 +86,7 @@ public class TestNbtPath {
 
     @Test
     public void testParseChild() throws NbtParseException {
-        INbtPathExpression expression = NbtPath.parse("$.a.b");
+        INbtPathExpression expression = parse("$.a.b");
 
         StringTag tag1 = StringTag.valueOf("a");
         CompoundTag tag2 = new CompoundTag();
@@ -92,7 +112,7 @@ public class TestNbtPath {
 
     @Test
     public void testParseChildBrackets() throws NbtParseException {
-        INbtPathExpression expression = NbtPath.parse("$[\"a*\"].b");
+        INbtPathExpression expression = parse("$[\"a*\"].b");
 
         StringTag tag1 = StringTag.valueOf("a");
         CompoundTag tag2 = new CompoundTag();
@@ -118,7 +138,7 @@ public class TestNbtPath {
 
     @Test
     public void testParseRootAfterChild() throws NbtParseException {
-        INbtPathExpression expression = NbtPath.parse("$.a.b$");
+        INbtPathExpression expression = parse("$.a.b$");
 
         StringTag tag1 = StringTag.valueOf("a");
         CompoundTag tag2 = new CompoundTag();
@@ -144,7 +164,7 @@ public class TestNbtPath {
 
     @Test
     public void testParseRootAfterChildEmpty() throws NbtParseException {
-        INbtPathExpression expression = NbtPath.parse("$.a.c$");
+        INbtPathExpression expression = parse("$.a.c$");
 
         StringTag tag1 = StringTag.valueOf("a");
         CompoundTag tag2 = new CompoundTag();
@@ -166,7 +186,7 @@ public class TestNbtPath {
 
     @Test
     public void testParseParentAfterChild() throws NbtParseException {
-        INbtPathExpression expression = NbtPath.parse("$.a.b..");
+        INbtPathExpression expression = parse("$.a.b..");
 
         StringTag tag1 = StringTag.valueOf("a");
         CompoundTag tag2 = new CompoundTag();
@@ -192,7 +212,7 @@ public class TestNbtPath {
 
     @Test
     public void testParseAllChildren() throws NbtParseException {
-        INbtPathExpression expression = NbtPath.parse("$.a*");
+        INbtPathExpression expression = parse("$.a*");
 
         StringTag tag1 = StringTag.valueOf("a");
         CompoundTag tag2 = new CompoundTag();
@@ -222,7 +242,7 @@ public class TestNbtPath {
 
     @Test
     public void testParseListElement() throws NbtParseException {
-        INbtPathExpression expression = NbtPath.parse("$.a[1]");
+        INbtPathExpression expression = parse("$.a[1]");
 
         CompoundTag tagFail1 = new CompoundTag();
         ListTag tagFail2 = new ListTag();
@@ -253,7 +273,7 @@ public class TestNbtPath {
 
     @Test
     public void testParseUnion() throws NbtParseException {
-        INbtPathExpression expression = NbtPath.parse("$.a[0,2]");
+        INbtPathExpression expression = parse("$.a[0,2]");
 
         CompoundTag tagFail1 = new CompoundTag();
         CompoundTag tagFail2 = new CompoundTag();
@@ -286,7 +306,7 @@ public class TestNbtPath {
 
     @Test
     public void testParseSlice() throws NbtParseException {
-        INbtPathExpression expression = NbtPath.parse("$.a[1:3:2]");
+        INbtPathExpression expression = parse("$.a[1:3:2]");
 
         CompoundTag tagFail1 = new CompoundTag();
         CompoundTag tagFail2 = new CompoundTag();
@@ -320,7 +340,7 @@ public class TestNbtPath {
 
     @Test
     public void testParseLength() throws NbtParseException {
-        INbtPathExpression expression = NbtPath.parse("$.a.length");
+        INbtPathExpression expression = parse("$.a.length");
 
         StringTag tag1 = StringTag.valueOf("a");
         CompoundTag tag2 = new CompoundTag();
@@ -348,7 +368,7 @@ public class TestNbtPath {
 
     @Test
     public void testParseFilterExpression() throws NbtParseException {
-        INbtPathExpression expression = NbtPath.parse("$.a[?(@.b)]");
+        INbtPathExpression expression = parse("$.a[?(@.b)]");
 
         StringTag tag1 = StringTag.valueOf("a");
         CompoundTag tag2 = new CompoundTag();
@@ -379,7 +399,7 @@ public class TestNbtPath {
 
     @Test
     public void testParseRelationalLessThan() throws NbtParseException {
-        INbtPathExpression expression = NbtPath.parse("$.a < 2");
+        INbtPathExpression expression = parse("$.a < 2");
 
         StringTag tag1 = StringTag.valueOf("a");
         CompoundTag tag2 = new CompoundTag();
@@ -402,7 +422,7 @@ public class TestNbtPath {
 
     @Test
     public void testParseRelationalLessThanOrEqual() throws NbtParseException {
-        INbtPathExpression expression = NbtPath.parse("$.a <= 2");
+        INbtPathExpression expression = parse("$.a <= 2");
 
         StringTag tag1 = StringTag.valueOf("a");
         CompoundTag tag2 = new CompoundTag();
@@ -425,7 +445,7 @@ public class TestNbtPath {
 
     @Test
     public void testParseRelationalGreaterThan() throws NbtParseException {
-        INbtPathExpression expression = NbtPath.parse("$.a > 2");
+        INbtPathExpression expression = parse("$.a > 2");
 
         StringTag tag1 = StringTag.valueOf("a");
         CompoundTag tag2 = new CompoundTag();
@@ -448,7 +468,7 @@ public class TestNbtPath {
 
     @Test
     public void testParseRelationalGreaterThanOrEqual() throws NbtParseException {
-        INbtPathExpression expression = NbtPath.parse("$.a >= 2");
+        INbtPathExpression expression = parse("$.a >= 2");
 
         StringTag tag1 = StringTag.valueOf("a");
         CompoundTag tag2 = new CompoundTag();
@@ -471,7 +491,7 @@ public class TestNbtPath {
 
     @Test
     public void testParseRelationalEqual() throws NbtParseException {
-        INbtPathExpression expression = NbtPath.parse("$.a == 2");
+        INbtPathExpression expression = parse("$.a == 2");
 
         StringTag tag1 = StringTag.valueOf("a");
         CompoundTag tag2 = new CompoundTag();
@@ -494,7 +514,7 @@ public class TestNbtPath {
 
     @Test
     public void testParseStringEqual() throws NbtParseException {
-        INbtPathExpression expression = NbtPath.parse("$.a == \"b\"");
+        INbtPathExpression expression = parse("$.a == \"b\"");
 
         StringTag tag1 = StringTag.valueOf("a");
         CompoundTag tag2 = new CompoundTag();
@@ -517,7 +537,7 @@ public class TestNbtPath {
 
     @Test
     public void testParseFilterExpressionComplex() throws NbtParseException {
-        INbtPathExpression expression = NbtPath.parse("$.a[?(@.c == \"B\")]");
+        INbtPathExpression expression = parse("$.a[?(@.c == \"B\")]");
 
         CompoundTag tag1 = new CompoundTag();
         ListTag tag1_1 = new ListTag();
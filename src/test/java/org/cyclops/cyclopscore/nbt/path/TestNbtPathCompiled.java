@@ -0,0 +1,159 @@
+package org.cyclops.cyclopscore.nbt.path;
+
+import com.google.common.collect.Lists;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.IntTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
+import org.cyclops.cyclopscore.nbt.path.compile.NbtPathCompiledExpression;
+import org.cyclops.cyclopscore.nbt.path.parse.NbtPathExpressionExecutionContext;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TestNbtPathCompiled {
+
+    private static final String[] EXPRESSIONS = new String[] {
+            "",
+            "$",
+            "@",
+            "$.a",
+            "$.a.b",
+            "$.a.b..",
+            "$.a.b....",
+            "$.a.b$.a",
+            "$*",
+            "$**",
+            "$*..",
+            "$.list[1]",
+            "$.list[5]",
+            "$.list[0,2]",
+            "$[a,list]",
+            "$.list[1:2]",
+            "$.list[:1]",
+            "$.list[0::2]",
+            "$.list[1:10:2].x",
+            "$.length",
+            "$.list.length",
+            "$.list[?(@.x)]",
+            "$.list[?(@.x == \"X\")]",
+            "$.list[?(@.x == \"X\")][0].x",
+            "$.list[?(@.n > 1)]*.n",
+            "$.list[?(@.n > 1)]..",
+            "$.list[?(@.n > 1)]*..",
+            "$.list[?(@.n > 1)]*$.a",
+            "$.list[?($.n)]",
+            "$.a[?(@ == 1)]",
+            "$.list*.n < 2",
+            "$.list*.n < 2..",
+            "$.list*.x == \"X\"",
+            "$.list*.x == \"X\"..",
+    };
+
+    private CompoundTag tag;
+
+    @Before
+    public void beforeEach() {
+        tag = new CompoundTag();
+        CompoundTag a = new CompoundTag();
+        a.putInt("b", 1);
+        a.putInt("c", 2);
+        tag.put("a", a);
+        ListTag list = new ListTag();
+        for (int i = 0; i < 4; i++) {
+            CompoundTag element = new CompoundTag();
+            element.putInt("n", i);
+            if (i % 2 == 1) {
+                element.putString("x", i == 1 ? "X" : "Y");
+            }
+            list.add(element);
+        }
+        tag.put("list", list);
+        tag.putInt("n", 1);
+    }
+
+    protected List<NbtPathExpressionExecutionContext> matchContexts(INbtPathExpression expression,
+                                                                    NbtPathExpressionExecutionContext context) {
+        return expression.matchContexts(Stream.of(context)).getContexts().collect(Collectors.toList());
+    }
+
+    @Test
+    public void testEquivalence() throws NbtParseException {
+        for (String expressionString : EXPRESSIONS) {
+            INbtPathExpression expression = NbtPath.parse(expressionString);
+            INbtPathExpression compiled = NbtPath.compile(expression);
+
+            assertThat(expressionString, compiled.match(tag).getMatches().collect(Collectors.toList()),
+                    equalTo(expression.match(tag).getMatches().collect(Collectors.toList())));
+            assertThat(expressionString, compiled.match(Stream.of(tag, tag.get("a"))).getMatches().collect(Collectors.toList()),
+                    equalTo(expression.match(Stream.of(tag, tag.get("a"))).getMatches().collect(Collectors.toList())));
+            assertThat(expressionString, compiled.test(tag), is(expression.test(tag)));
+            assertThat(expressionString, compiled.test(Stream.of(tag.get("a"), tag)), is(expression.test(Stream.of(tag.get("a"), tag))));
+
+            // Contexts, including their parents, must be equal when starting from a nested context
+            NbtPathExpressionExecutionContext context = new NbtPathExpressionExecutionContext(tag.get("list"),
+                    new NbtPathExpressionExecutionContext(tag));
+            assertThat(expressionString, matchContexts(compiled, context), equalTo(matchContexts(expression, context)));
+        }
+    }
+
+    @Test
+    public void testCompileTwice() throws NbtParseException {
+        INbtPathExpression compiled = NbtPath.compile("$.a");
+        assertThat(compiled, instanceOf(NbtPathCompiledExpression.class));
+        assertThat(NbtPath.compile(compiled), sameInstance(compiled));
+    }
+
+    @Test
+    public void testTestOnlyFirstMatch() throws NbtParseException {
+        // The first match is a non-truthy byte, so the later truthy match must be ignored
+        INbtPathExpression compiled = NbtPath.compile("$.list*.x == \"Y\"");
+        assertThat(compiled.test(tag), is(false));
+        assertThat(NbtPath.parse("$.list*.x == \"Y\"").test(tag), is(false));
+    }
+
+    @Test
+    public void testFallback() throws NbtParseException {
+        // An expression without compiled form that maps each tag to its list of children
+        INbtPathExpression custom = executionContexts -> new NbtPathExpressionMatches(executionContexts
+                .map(context -> new NbtPathExpressionExecutionContext(IntTag.valueOf(1), context)));
+        INbtPathExpression expression = new NbtPathExpressionList(NbtPath.parse("$.a"), custom, NbtPath.parse(".."));
+        INbtPathExpression compiled = NbtPath.compile(expression);
+
+        assertThat(compiled.match(tag).getMatches().collect(Collectors.toList()),
+                equalTo(Lists.newArrayList((Tag) tag.get("a"))));
+        assertThat(compiled.match(tag).getMatches().collect(Collectors.toList()),
+                equalTo(expression.match(tag).getMatches().collect(Collectors.toList())));
+    }
+
+    @Test
+    public void testDeepNesting() throws NbtParseException {
+        CompoundTag root = new CompoundTag();
+        CompoundTag current = root;
+        StringBuilder path = new StringBuilder("$");
+        for (int i = 0; i < 100; i++) {
+            CompoundTag child = new CompoundTag();
+            current.put("c", child);
+            current = child;
+            path.append(".c");
+        }
+        current.put("leaf", StringTag.valueOf("x"));
+        path.append(".leaf");
+
+        INbtPathExpression compiled = NbtPath.compile(path.toString());
+        assertThat(compiled.match(root).getMatches().collect(Collectors.toList()),
+                equalTo(Lists.newArrayList((Tag) StringTag.valueOf("x"))));
+        assertThat(compiled.test(root), is(true));
+    }
+
+}
@@ -0,0 +1,82 @@
+package org.cyclops.cyclopscore.nbt.path;
+
+import net.minecraft.nbt.CompoundTag;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestNbtPathParseCache {
+
+    private NbtPathParseCache cache;
+
+    @Before
+    public void beforeEach() {
+        cache = new NbtPathParseCache(2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new NbtPathParseCache(-1);
+    }
+
+    @Test
+    public void testParse() throws NbtParseException {
+        INbtPathExpression expression = cache.parse("$.a");
+        assertThat(cache.parse("$.a"), sameInstance(expression));
+
+        CompoundTag tag = new CompoundTag();
+        tag.putInt("a", 1);
+        assertThat(expression.test(tag), is(true));
+
+        assertThat(cache.getStats().hitCount(), is(1L));
+        assertThat(cache.getStats().missCount(), is(1L));
+        assertThat(cache.size(), is(1L));
+    }
+
+    @Test
+    public void testParseFailureCached() {
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.parse("!");
+                fail("Expected a parse exception");
+            } catch (NbtParseException e) {
+                // Expected
+            }
+        }
+        assertThat(cache.getStats().hitCount(), is(1L));
+        assertThat(cache.getStats().missCount(), is(1L));
+    }
+
+    @Test
+    public void testEviction() throws NbtParseException {
+        cache.parse("$.a");
+        cache.parse("$.b");
+        cache.parse("$.c");
+
+        assertThat(cache.size(), is(2L));
+        assertThat(cache.getStats().evictionCount(), is(1L));
+    }
+
+    @Test
+    public void testClear() throws NbtParseException {
+        INbtPathExpression expression = cache.parse("$.a");
+        cache.clear();
+        assertThat(cache.size(), is(0L));
+        assertThat(cache.parse("$.a") == expression, is(false));
+    }
+
+    @Test
+    public void testSharedCache() throws NbtParseException {
+        NbtPath.setParseCacheCapacity(10);
+        assertThat(NbtPath.getParseCache().getCapacity(), is(10));
+        INbtPathExpression expression = NbtPath.parseCached("$.a.b");
+        assertThat(NbtPath.parseCached("$.a.b"), sameInstance(expression));
+        assertThat(NbtPath.getParseCache().getStats().hitCount(), is(1L));
+        NbtPath.setParseCacheCapacity(NbtPath.DEFAULT_PARSE_CACHE_CAPACITY);
+    }
+
+}
@@ -10,7 +10,6 @@ import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
 import org.cyclops.cyclopscore.nbt.path.NbtParseException;
 import org.cyclops.cyclopscore.nbt.path.navigate.NbtPathNavigationLeafWildcard;
 import org.cyclops.cyclopscore.nbt.path.navigate.NbtPathNavigationLinkWildcard;
-import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Collections;
@@ -23,46 +22,9 @@ import static org.hamcrest.MatcherAssert.assertThat;
 
 public class TestNbtPathExpressionHandlerAllChildren {
 
-    private NbtPathExpressionParseHandlerAllChildren handler;
-
-    @Before
-    public void beforeEach() {
-        handler = new NbtPathExpressionParseHandlerAllChildren();
-    }
-
-    @Test
-    public void testNonMatch() {
-        assertThat(handler.handlePrefixOf(".", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testMatchSingle() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("*", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(1));
-        assertThat(result.getPrefixExpression(), is(NbtPathExpressionParseHandlerAllChildren.Expression.INSTANCE));
-    }
-
-    @Test
-    public void testMatchSingleLater() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("aa*", 2);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(1));
-        assertThat(result.getPrefixExpression(), is(NbtPathExpressionParseHandlerAllChildren.Expression.INSTANCE));
-    }
-
-    @Test
-    public void testMatchLonger() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("*aaa", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(1));
-        assertThat(result.getPrefixExpression(), is(NbtPathExpressionParseHandlerAllChildren.Expression.INSTANCE));
-    }
-
     @Test
     public void testMatchNavigation() throws NbtParseException {
-        INbtPathExpression expression = handler.handlePrefixOf("*", 0).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("*");
         assertThat(expression.asNavigation(null), is(NbtPathNavigationLeafWildcard.INSTANCE));
         assertThat(expression.asNavigation(NbtPathNavigationLeafWildcard.INSTANCE), instanceOf(NbtPathNavigationLinkWildcard.class));
     }
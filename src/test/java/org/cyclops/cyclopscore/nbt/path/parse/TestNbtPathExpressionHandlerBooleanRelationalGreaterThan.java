@@ -10,7 +10,6 @@ import org.junit.Test;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
@@ -23,47 +22,23 @@ public class TestNbtPathExpressionHandlerBooleanRelationalGreaterThan {
         handler = new NbtPathExpressionParseHandlerBooleanRelationalGreaterThan();
     }
 
-    @Test
-    public void testNonMatch() {
-        assertThat(handler.handlePrefixOf("$", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testMatchExpressionInt() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf(">2", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(2));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerBooleanRelationalGreaterThan.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerBooleanRelationalGreaterThan.Expression) result.getPrefixExpression()).getTargetDouble(), is(2D));
-    }
-
-    @Test
-    public void testMatchExpressionDoubleSpaces() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf(" > 24.23", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(8));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerBooleanRelationalGreaterThan.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerBooleanRelationalGreaterThan.Expression) result.getPrefixExpression()).getTargetDouble(), is(24.23D));
-    }
-
     @Test
     public void testExpressionStreamSingleLeafIntInvalid1() {
-        INbtPathExpression expression = handler.handlePrefixOf("aa > 3", 2).getPrefixExpression();
+        INbtPathExpression expression = new NbtPathExpressionParseHandlerBooleanRelationalAdapter.Expression(3D, handler);
         assertThat(expression.match(Stream.of(IntTag.valueOf(2))).getMatches().collect(Collectors.toList()),
                 is(Lists.newArrayList(ByteTag.valueOf((byte) 0))));
     }
 
     @Test
     public void testExpressionStreamSingleLeafIntInvalid2() {
-        INbtPathExpression expression = handler.handlePrefixOf("aa > 3", 2).getPrefixExpression();
+        INbtPathExpression expression = new NbtPathExpressionParseHandlerBooleanRelationalAdapter.Expression(3D, handler);
         assertThat(expression.match(Stream.of(IntTag.valueOf(3))).getMatches().collect(Collectors.toList()),
                 is(Lists.newArrayList(ByteTag.valueOf((byte) 0))));
     }
 
     @Test
     public void testExpressionStreamSingleLeafIntValid() {
-        INbtPathExpression expression = handler.handlePrefixOf("aa > 3", 2).getPrefixExpression();
+        INbtPathExpression expression = new NbtPathExpressionParseHandlerBooleanRelationalAdapter.Expression(3D, handler);
         assertThat(expression.match(Stream.of(IntTag.valueOf(4))).getMatches().collect(Collectors.toList()),
                 is(Lists.newArrayList(ByteTag.valueOf((byte) 1))));
     }
@@ -8,7 +8,6 @@ import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
 import org.cyclops.cyclopscore.nbt.path.NbtParseException;
 import org.cyclops.cyclopscore.nbt.path.navigate.NbtPathNavigationAdapter;
 import org.cyclops.cyclopscore.nbt.path.navigate.NbtPathNavigationLeafWildcard;
-import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Collections;
@@ -20,113 +19,29 @@ import static org.hamcrest.MatcherAssert.assertThat;
 
 public class TestNbtPathExpressionHandlerChild {
 
-    private NbtPathExpressionParseHandlerChild handler;
-
-    @Before
-    public void beforeEach() {
-        handler = new NbtPathExpressionParseHandlerChild();
-    }
-
-    @Test
-    public void testNonMatch() {
-        assertThat(handler.handlePrefixOf("$", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchNoChildName() {
-        assertThat(handler.handlePrefixOf(".", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchInvalidChildName() {
-        assertThat(handler.handlePrefixOf(".)", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testMatchSingle() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf(".abc", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(4));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerChild.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerChild.Expression) result.getPrefixExpression()).getChildName(), equalTo("abc"));
-    }
-
-    @Test
-    public void testMatchSingleMixedCasing() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf(".aBc", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(4));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerChild.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerChild.Expression) result.getPrefixExpression()).getChildName(), equalTo("aBc"));
-    }
-
-    @Test
-    public void testMatchSingleNumbers() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf(".abc012", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(7));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerChild.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerChild.Expression) result.getPrefixExpression()).getChildName(), equalTo("abc012"));
-    }
-
-    @Test
-    public void testMatchSingleUnderscores() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf(".a_b_c", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(6));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerChild.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerChild.Expression) result.getPrefixExpression()).getChildName(), equalTo("a_b_c"));
-    }
-
-    @Test
-    public void testMatchSingleLater() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("aa.abc", 2);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(4));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerChild.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerChild.Expression) result.getPrefixExpression()).getChildName(), equalTo("abc"));
-    }
-
-    @Test
-    public void testNonMatchNoChildNameLater() {
-        assertThat(handler.handlePrefixOf("aa.", 2),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testMatchLonger() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf(".aaa$aa", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(4));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerChild.Expression.class));
-    }
-
     @Test
     public void testMatchNavigation() throws NbtParseException {
-        INbtPathExpression expression = handler.handlePrefixOf(".abc", 0).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle(".abc");
         assertThat(expression.asNavigation(NbtPathNavigationLeafWildcard.INSTANCE), instanceOf(NbtPathNavigationAdapter.class));
     }
 
     @Test
-    public void testExpressionStreamEmpty() {
-        INbtPathExpression expression = handler.handlePrefixOf("aa.abc", 2).getPrefixExpression();
+    public void testExpressionStreamEmpty() throws NbtParseException {
+        INbtPathExpression expression = TestNbtPathParser.parseSingle(".abc");
         assertThat(expression.match(Stream.empty()).getMatches().collect(Collectors.toList()),
                 is(Collections.emptyList()));
     }
 
     @Test
-    public void testExpressionStreamSingleLeaf() {
-        INbtPathExpression expression = handler.handlePrefixOf("aa.abc", 2).getPrefixExpression();
+    public void testExpressionStreamSingleLeaf() throws NbtParseException {
+        INbtPathExpression expression = TestNbtPathParser.parseSingle(".abc");
         assertThat(expression.match(Stream.of(StringTag.valueOf("a"))).getMatches().collect(Collectors.toList()),
                 is(Lists.newArrayList()));
     }
 
     @Test
-    public void testExpressionStreamMultipleLeaf() {
-        INbtPathExpression expression = handler.handlePrefixOf("aa.abc", 2).getPrefixExpression();
+    public void testExpressionStreamMultipleLeaf() throws NbtParseException {
+        INbtPathExpression expression = TestNbtPathParser.parseSingle(".abc");
         Stream<Tag> stream = Stream.of(
                 StringTag.valueOf("a"),
                 StringTag.valueOf("b"),
@@ -137,17 +52,17 @@ public class TestNbtPathExpressionHandlerChild {
     }
 
     @Test
-    public void testExpressionStreamSingleTagNoMatch() {
+    public void testExpressionStreamSingleTagNoMatch() throws NbtParseException {
         CompoundTag tag = new CompoundTag();
         tag.putString("def", "123");
 
-        INbtPathExpression expression = handler.handlePrefixOf("aa.abc", 2).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle(".abc");
         assertThat(expression.match(Stream.of(tag)).getMatches().collect(Collectors.toList()),
                 is(Lists.newArrayList()));
     }
 
     @Test
-    public void testExpressionStreamMultipleTagsNoMatch() {
+    public void testExpressionStreamMultipleTagsNoMatch() throws NbtParseException {
         CompoundTag tag1 = new CompoundTag();
         tag1.putString("def", "1");
         CompoundTag tag2 = new CompoundTag();
@@ -155,7 +70,7 @@ public class TestNbtPathExpressionHandlerChild {
         CompoundTag tag3 = new CompoundTag();
         tag3.putString("def", "3");
 
-        INbtPathExpression expression = handler.handlePrefixOf("aa.abc", 2).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle(".abc");
         Stream<Tag> stream = Stream.of(
                 tag1,
                 tag2,
@@ -166,11 +81,11 @@ public class TestNbtPathExpressionHandlerChild {
     }
 
     @Test
-    public void testExpressionStreamSingleTagMatch() {
+    public void testExpressionStreamSingleTagMatch() throws NbtParseException {
         CompoundTag tag = new CompoundTag();
         tag.putString("abc", "123");
 
-        INbtPathExpression expression = handler.handlePrefixOf("aa.abc", 2).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle(".abc");
         assertThat(expression.match(Stream.of(tag)).getMatches().collect(Collectors.toList()),
                 is(Lists.newArrayList(
                         StringTag.valueOf("123")
@@ -178,7 +93,7 @@ public class TestNbtPathExpressionHandlerChild {
     }
 
     @Test
-    public void testExpressionStreamMultipleTagsMatch() {
+    public void testExpressionStreamMultipleTagsMatch() throws NbtParseException {
         CompoundTag tag1 = new CompoundTag();
         tag1.putString("abc", "1");
         CompoundTag tag2 = new CompoundTag();
@@ -186,7 +101,7 @@ public class TestNbtPathExpressionHandlerChild {
         CompoundTag tag3 = new CompoundTag();
         tag3.putString("abc", "3");
 
-        INbtPathExpression expression = handler.handlePrefixOf("aa.abc", 2).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle(".abc");
         Stream<Tag> stream = Stream.of(
                 tag1,
                 tag2,
@@ -201,7 +116,7 @@ public class TestNbtPathExpressionHandlerChild {
     }
 
     @Test
-    public void testExpressionStreamMultipleTagsPartialMatch() {
+    public void testExpressionStreamMultipleTagsPartialMatch() throws NbtParseException {
         CompoundTag tag1 = new CompoundTag();
         tag1.putString("abc", "1");
         CompoundTag tag2 = new CompoundTag();
@@ -209,7 +124,7 @@ public class TestNbtPathExpressionHandlerChild {
         CompoundTag tag3 = new CompoundTag();
         tag3.putString("abc", "3");
 
-        INbtPathExpression expression = handler.handlePrefixOf("aa.abc", 2).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle(".abc");
         Stream<Tag> stream = Stream.of(
                 tag1,
                 tag2,
@@ -4,7 +4,6 @@ import com.google.common.collect.Lists;
 import net.minecraft.nbt.Tag;
 import net.minecraft.nbt.StringTag;
 import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
-import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Collections;
@@ -16,43 +15,6 @@ import static org.hamcrest.MatcherAssert.assertThat;
 
 public class TestNbtPathExpressionHandlerCurrent {
 
-    private NbtPathExpressionParseHandlerCurrent handler;
-
-    @Before
-    public void beforeEach() {
-        handler = new NbtPathExpressionParseHandlerCurrent();
-    }
-
-    @Test
-    public void testNonMatch() {
-        assertThat(handler.handlePrefixOf(".", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testMatchSingle() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("@", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(1));
-        assertThat(result.getPrefixExpression(), is(NbtPathExpressionParseHandlerCurrent.Expression.INSTANCE));
-    }
-
-    @Test
-    public void testMatchSingleLater() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("aa@", 2);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(1));
-        assertThat(result.getPrefixExpression(), is(NbtPathExpressionParseHandlerCurrent.Expression.INSTANCE));
-    }
-
-    @Test
-    public void testMatchLonger() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("@aaa", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(1));
-        assertThat(result.getPrefixExpression(), is(NbtPathExpressionParseHandlerCurrent.Expression.INSTANCE));
-    }
-
     @Test
     public void testExpressionStreamEmpty() {
         INbtPathExpression expression = NbtPathExpressionParseHandlerCurrent.Expression.INSTANCE;
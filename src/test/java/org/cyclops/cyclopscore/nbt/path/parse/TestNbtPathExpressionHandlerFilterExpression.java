@@ -6,8 +6,7 @@ import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
 import net.minecraft.nbt.StringTag;
 import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
-import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionList;
-import org.junit.Before;
+import org.cyclops.cyclopscore.nbt.path.NbtParseException;
 import org.junit.Test;
 
 import java.util.ArrayList;
@@ -20,114 +19,23 @@ import static org.hamcrest.MatcherAssert.assertThat;
 
 public class TestNbtPathExpressionHandlerFilterExpression {
 
-    private NbtPathExpressionParseHandlerFilterExpression handler;
-
-    @Before
-    public void beforeEach() {
-        handler = new NbtPathExpressionParseHandlerFilterExpression();
-    }
-
-    @Test
-    public void testNonMatch() {
-        assertThat(handler.handlePrefixOf("$", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchOnlyOpen() {
-        assertThat(handler.handlePrefixOf("[", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchOnlyClose() {
-        assertThat(handler.handlePrefixOf("]", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchNoQuestionMark() {
-        assertThat(handler.handlePrefixOf("[]", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchNoBrackets() {
-        assertThat(handler.handlePrefixOf("[?]", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchNoExpression() {
-        assertThat(handler.handlePrefixOf("[?()]", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchInvalidExpression1() {
-        assertThat(handler.handlePrefixOf("[?(()]", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchInvalidExpression2() {
-        assertThat(handler.handlePrefixOf("[?(()]", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchInvalidExpression3() {
-        assertThat(handler.handlePrefixOf("[?(abc)]", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testMatchExpressionRoot() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("[?($)]", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(6));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerFilterExpression.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerFilterExpression.Expression) result.getPrefixExpression()).getExpression(),
-                instanceOf(NbtPathExpressionList.class));
-        NbtPathExpressionList expressionList = (NbtPathExpressionList) ((NbtPathExpressionParseHandlerFilterExpression.Expression)
-                result.getPrefixExpression()).getExpression();
-        assertThat(expressionList.getSubExpressions().length, equalTo(1));
-        assertThat(expressionList.getSubExpressions()[0], instanceOf(NbtPathExpressionParseHandlerRoot.Expression.class));
-    }
-
-    @Test
-    public void testMatchExpressionRootChild() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("aa[?($.abc)]", 2);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(10));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerFilterExpression.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerFilterExpression.Expression) result.getPrefixExpression()).getExpression(),
-                instanceOf(NbtPathExpressionList.class));
-        NbtPathExpressionList expressionList = (NbtPathExpressionList) ((NbtPathExpressionParseHandlerFilterExpression.Expression)
-                result.getPrefixExpression()).getExpression();
-        assertThat(expressionList.getSubExpressions().length, equalTo(2));
-        assertThat(expressionList.getSubExpressions()[0], instanceOf(NbtPathExpressionParseHandlerRoot.Expression.class));
-        assertThat(expressionList.getSubExpressions()[1], instanceOf(NbtPathExpressionParseHandlerChild.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerChild.Expression) expressionList.getSubExpressions()[1]).getChildName(), is("abc"));
-    }
-
     @Test
-    public void testExpressionStreamEmpty() {
-        INbtPathExpression expression = handler.handlePrefixOf("aa[?(@)]", 2).getPrefixExpression();
+    public void testExpressionStreamEmpty() throws NbtParseException {
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[?(@)]");
         assertThat(expression.match(Stream.empty()).getMatches().collect(Collectors.toList()),
                 is(Collections.emptyList()));
     }
 
     @Test
-    public void testExpressionStreamSingleLeaf() {
-        INbtPathExpression expression = handler.handlePrefixOf("aa[?(@)]", 2).getPrefixExpression();
+    public void testExpressionStreamSingleLeaf() throws NbtParseException {
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[?(@)]");
         assertThat(expression.match(Stream.of(StringTag.valueOf("a"))).getMatches().collect(Collectors.toList()),
                 is(Lists.newArrayList()));
     }
 
     @Test
-    public void testExpressionStreamMultipleLeaf() {
-        INbtPathExpression expression = handler.handlePrefixOf("aa[?(@)]", 2).getPrefixExpression();
+    public void testExpressionStreamMultipleLeaf() throws NbtParseException {
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[?(@)]");
         Stream<Tag> stream = Stream.of(
                 StringTag.valueOf("a"),
                 StringTag.valueOf("b"),
@@ -138,7 +46,7 @@ public class TestNbtPathExpressionHandlerFilterExpression {
     }
 
     @Test
-    public void testExpressionStreamMultipleTagsMatch() {
+    public void testExpressionStreamMultipleTagsMatch() throws NbtParseException {
         ListTag tag1 = new ListTag();
         tag1.add(StringTag.valueOf("a0"));
         tag1.add(StringTag.valueOf("a1"));
@@ -154,7 +62,7 @@ public class TestNbtPathExpressionHandlerFilterExpression {
         tag3.add(StringTag.valueOf("c1"));
         tag3.add(StringTag.valueOf("c2"));
 
-        INbtPathExpression expression = handler.handlePrefixOf("aa[?(@)]", 2).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[?(@)]");
         Stream<Tag> stream = Stream.of(
                 tag1,
                 tag2,
@@ -169,7 +77,7 @@ public class TestNbtPathExpressionHandlerFilterExpression {
     }
 
     @Test
-    public void testExpressionStreamTagNested() {
+    public void testExpressionStreamTagNested() throws NbtParseException {
         ListTag tagRoot = new ListTag();
         ListTag tagRootFiltered = new ListTag();
         CompoundTag tag1 = new CompoundTag();
@@ -181,14 +89,14 @@ public class TestNbtPathExpressionHandlerFilterExpression {
         tagRoot.add(tag1);
         tagRoot.add(tag2);
         tagRootFiltered.add(tag1);
-        INbtPathExpression expression = handler.handlePrefixOf("aa[?(@.a.b)]", 2).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[?(@.a.b)]");
         ArrayList<Tag> expected = Lists.newArrayList();
         expected.add(tagRootFiltered);
         assertThat(expression.match(tagRoot).getMatches().collect(Collectors.toList()), is(expected));
     }
 
     @Test
-    public void testExpressionStreamMultipleTagCompoundsMatch() {
+    public void testExpressionStreamMultipleTagCompoundsMatch() throws NbtParseException {
         CompoundTag tag1 = new CompoundTag();
         tag1.put("a", StringTag.valueOf("a0"));
         tag1.put("b", StringTag.valueOf("a1"));
@@ -219,7 +127,7 @@ public class TestNbtPathExpressionHandlerFilterExpression {
         list3.add(StringTag.valueOf("c1"));
         list3.add(StringTag.valueOf("c2"));
 
-        INbtPathExpression expression = handler.handlePrefixOf("aa[?(@)]", 2).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[?(@)]");
         Stream<Tag> stream = Stream.of(
                 tag1,
                 tag2,
@@ -8,7 +8,6 @@ import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.StringTag;
 import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
-import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Collections;
@@ -20,43 +19,6 @@ import static org.hamcrest.MatcherAssert.assertThat;
 
 public class TestNbtPathExpressionHandlerLength {
 
-    private NbtPathExpressionParseHandlerLength handler;
-
-    @Before
-    public void beforeEach() {
-        handler = new NbtPathExpressionParseHandlerLength();
-    }
-
-    @Test
-    public void testNonMatch() {
-        assertThat(handler.handlePrefixOf(".", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testMatchSingle() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf(".length", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(7));
-        assertThat(result.getPrefixExpression(), is(NbtPathExpressionParseHandlerLength.Expression.INSTANCE));
-    }
-
-    @Test
-    public void testMatchSingleLater() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("aa.length", 2);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(7));
-        assertThat(result.getPrefixExpression(), is(NbtPathExpressionParseHandlerLength.Expression.INSTANCE));
-    }
-
-    @Test
-    public void testMatchLonger() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf(".length.aaa", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(7));
-        assertThat(result.getPrefixExpression(), is(NbtPathExpressionParseHandlerLength.Expression.INSTANCE));
-    }
-
     @Test
     public void testExpressionStreamEmpty() {
         INbtPathExpression expression = NbtPathExpressionParseHandlerLength.Expression.INSTANCE;
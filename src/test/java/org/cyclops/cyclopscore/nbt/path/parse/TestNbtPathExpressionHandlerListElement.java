@@ -5,7 +5,7 @@ import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
 import net.minecraft.nbt.StringTag;
 import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
-import org.junit.Before;
+import org.cyclops.cyclopscore.nbt.path.NbtParseException;
 import org.junit.Test;
 
 import java.util.Collections;
@@ -17,95 +17,23 @@ import static org.hamcrest.MatcherAssert.assertThat;
 
 public class TestNbtPathExpressionHandlerListElement {
 
-    private NbtPathExpressionParseHandlerListElement handler;
-
-    @Before
-    public void beforeEach() {
-        handler = new NbtPathExpressionParseHandlerListElement();
-    }
-
-    @Test
-    public void testNonMatch() {
-        assertThat(handler.handlePrefixOf("$", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchOnlyOpen() {
-        assertThat(handler.handlePrefixOf("[", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchOnlyClose() {
-        assertThat(handler.handlePrefixOf("]", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchNoValue() {
-        assertThat(handler.handlePrefixOf("[]", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchNoInt() {
-        assertThat(handler.handlePrefixOf("[a]", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testMatchSingle() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("[1]", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(3));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerListElement.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerListElement.Expression) result.getPrefixExpression()).getChildIndex(), equalTo(1));
-    }
-
-    @Test
-    public void testMatchLong() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("[987]", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(5));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerListElement.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerListElement.Expression) result.getPrefixExpression()).getChildIndex(), equalTo(987));
-    }
-
-    @Test
-    public void testMatchSingleLater() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("aa[2]", 2);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(3));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerListElement.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerListElement.Expression) result.getPrefixExpression()).getChildIndex(), equalTo(2));
-    }
-
-    @Test
-    public void testMatchLonger() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("[10]$aa", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(4));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerListElement.Expression.class));
-    }
-
     @Test
-    public void testExpressionStreamEmpty() {
-        INbtPathExpression expression = handler.handlePrefixOf("aa[1]", 2).getPrefixExpression();
+    public void testExpressionStreamEmpty() throws NbtParseException {
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[1]");
         assertThat(expression.match(Stream.empty()).getMatches().collect(Collectors.toList()),
                 is(Collections.emptyList()));
     }
 
     @Test
-    public void testExpressionStreamSingleLeaf() {
-        INbtPathExpression expression = handler.handlePrefixOf("aa[1]", 2).getPrefixExpression();
+    public void testExpressionStreamSingleLeaf() throws NbtParseException {
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[1]");
         assertThat(expression.match(Stream.of(StringTag.valueOf("a"))).getMatches().collect(Collectors.toList()),
                 is(Lists.newArrayList()));
     }
 
     @Test
-    public void testExpressionStreamMultipleLeaf() {
-        INbtPathExpression expression = handler.handlePrefixOf("aa[1]", 2).getPrefixExpression();
+    public void testExpressionStreamMultipleLeaf() throws NbtParseException {
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[1]");
         Stream<Tag> stream = Stream.of(
                 StringTag.valueOf("a"),
                 StringTag.valueOf("b"),
@@ -116,17 +44,17 @@ public class TestNbtPathExpressionHandlerListElement {
     }
 
     @Test
-    public void testExpressionStreamSingleTagNoMatch() {
+    public void testExpressionStreamSingleTagNoMatch() throws NbtParseException {
         ListTag tag = new ListTag();
         tag.add(StringTag.valueOf("0"));
 
-        INbtPathExpression expression = handler.handlePrefixOf("aa[1]", 2).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[1]");
         assertThat(expression.match(Stream.of(tag)).getMatches().collect(Collectors.toList()),
                 is(Lists.newArrayList()));
     }
 
     @Test
-    public void testExpressionStreamMultipleTagsNoMatch() {
+    public void testExpressionStreamMultipleTagsNoMatch() throws NbtParseException {
         ListTag tag1 = new ListTag();
         tag1.add(StringTag.valueOf("a0"));
 
@@ -136,7 +64,7 @@ public class TestNbtPathExpressionHandlerListElement {
         ListTag tag3 = new ListTag();
         tag3.add(StringTag.valueOf("c0"));
 
-        INbtPathExpression expression = handler.handlePrefixOf("aa[2]", 2).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[2]");
         Stream<Tag> stream = Stream.of(
                 tag1,
                 tag2,
@@ -147,19 +75,19 @@ public class TestNbtPathExpressionHandlerListElement {
     }
 
     @Test
-    public void testExpressionStreamSingleTagMatch() {
+    public void testExpressionStreamSingleTagMatch() throws NbtParseException {
         ListTag tag = new ListTag();
         tag.add(StringTag.valueOf("0"));
         tag.add(StringTag.valueOf("1"));
         tag.add(StringTag.valueOf("2"));
 
-        INbtPathExpression expression = handler.handlePrefixOf("aa[1]", 2).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[1]");
         assertThat(expression.match(Stream.of(tag)).getMatches().collect(Collectors.toList()),
                 is(Lists.newArrayList(StringTag.valueOf("1"))));
     }
 
     @Test
-    public void testExpressionStreamMultipleTagsMatch() {
+    public void testExpressionStreamMultipleTagsMatch() throws NbtParseException {
         ListTag tag1 = new ListTag();
         tag1.add(StringTag.valueOf("a0"));
         tag1.add(StringTag.valueOf("a1"));
@@ -175,7 +103,7 @@ public class TestNbtPathExpressionHandlerListElement {
         tag3.add(StringTag.valueOf("c1"));
         tag3.add(StringTag.valueOf("c2"));
 
-        INbtPathExpression expression = handler.handlePrefixOf("aa[1]", 2).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[1]");
         Stream<Tag> stream = Stream.of(
                 tag1,
                 tag2,
@@ -190,7 +118,7 @@ public class TestNbtPathExpressionHandlerListElement {
     }
 
     @Test
-    public void testExpressionStreamMultipleTagsPartialMatch() {
+    public void testExpressionStreamMultipleTagsPartialMatch() throws NbtParseException {
         ListTag tag1 = new ListTag();
         tag1.add(StringTag.valueOf("a0"));
         tag1.add(StringTag.valueOf("a1"));
@@ -205,7 +133,7 @@ public class TestNbtPathExpressionHandlerListElement {
         tag3.add(StringTag.valueOf("c1"));
         tag3.add(StringTag.valueOf("c2"));
 
-        INbtPathExpression expression = handler.handlePrefixOf("aa[2]", 2).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[2]");
         Stream<Tag> stream = Stream.of(
                 tag1,
                 tag2,
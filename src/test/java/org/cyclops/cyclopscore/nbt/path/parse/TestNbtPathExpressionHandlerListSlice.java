@@ -5,7 +5,7 @@ import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
 import net.minecraft.nbt.StringTag;
 import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
-import org.junit.Before;
+import org.cyclops.cyclopscore.nbt.path.NbtParseException;
 import org.junit.Test;
 
 import java.util.Collections;
@@ -17,171 +17,23 @@ import static org.hamcrest.MatcherAssert.assertThat;
 
 public class TestNbtPathExpressionHandlerListSlice {
 
-    private NbtPathExpressionParseHandlerListSlice handler;
-
-    @Before
-    public void beforeEach() {
-        handler = new NbtPathExpressionParseHandlerListSlice();
-    }
-
-    @Test
-    public void testNonMatch() {
-        assertThat(handler.handlePrefixOf("$", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchOnlyOpen() {
-        assertThat(handler.handlePrefixOf("[", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchOnlyClose() {
-        assertThat(handler.handlePrefixOf("]", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchNoValue() {
-        assertThat(handler.handlePrefixOf("[]", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchNoInt() {
-        assertThat(handler.handlePrefixOf("[a:]", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchNoColon() {
-        assertThat(handler.handlePrefixOf("[0]", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchZeroStep() {
-        assertThat(handler.handlePrefixOf("[0:1:0]", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testMatchIntColon() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("[0:]", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(4));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerListSlice.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getStart(), equalTo(0));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getEnd(), equalTo(-1));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getStep(), equalTo(1));
-    }
-
-    @Test
-    public void testMatchIntColonInt() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("[0:1]", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(5));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerListSlice.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getStart(), equalTo(0));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getEnd(), equalTo(1));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getStep(), equalTo(1));
-    }
-
-    @Test
-    public void testMatchColonInt() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("[:1]", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(4));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerListSlice.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getStart(), equalTo(0));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getEnd(), equalTo(1));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getStep(), equalTo(1));
-    }
-
-    @Test
-    public void testMatchColonColonInt() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("[::2]", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(5));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerListSlice.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getStart(), equalTo(0));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getEnd(), equalTo(-1));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getStep(), equalTo(2));
-    }
-
-    @Test
-    public void testMatchColonIntColonInt() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("[:1:2]", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(6));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerListSlice.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getStart(), equalTo(0));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getEnd(), equalTo(1));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getStep(), equalTo(2));
-    }
-
-    @Test
-    public void testMatchIntColonIntColonInt() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("[1:1:2]", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(7));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerListSlice.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getStart(), equalTo(1));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getEnd(), equalTo(1));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getStep(), equalTo(2));
-    }
-
-    @Test
-    public void testMatchIntColonColonInt() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("[1::2]", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(6));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerListSlice.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getStart(), equalTo(1));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getEnd(), equalTo(-1));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getStep(), equalTo(2));
-    }
-
-    @Test
-    public void testMatchLong() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("[123:456:789]", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(13));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerListSlice.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getStart(), equalTo(123));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getEnd(), equalTo(456));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getStep(), equalTo(789));
-    }
-
-    @Test
-    public void testMatchSingleLater() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("aa[123:456:789]", 2);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(13));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerListSlice.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getStart(), equalTo(123));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getEnd(), equalTo(456));
-        assertThat(((NbtPathExpressionParseHandlerListSlice.Expression) result.getPrefixExpression()).getStep(), equalTo(789));
-    }
-
     @Test
-    public void testExpressionStreamEmpty() {
-        INbtPathExpression expression = handler.handlePrefixOf("aa[1:2]", 2).getPrefixExpression();
+    public void testExpressionStreamEmpty() throws NbtParseException {
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[1:2]");
         assertThat(expression.match(Stream.empty()).getMatches().collect(Collectors.toList()),
                 is(Collections.emptyList()));
     }
 
     @Test
-    public void testExpressionStreamSingleLeaf() {
-        INbtPathExpression expression = handler.handlePrefixOf("aa[1:2]", 2).getPrefixExpression();
+    public void testExpressionStreamSingleLeaf() throws NbtParseException {
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[1:2]");
         assertThat(expression.match(Stream.of(StringTag.valueOf("a"))).getMatches().collect(Collectors.toList()),
                 is(Lists.newArrayList()));
     }
 
     @Test
-    public void testExpressionStreamMultipleLeaf() {
-        INbtPathExpression expression = handler.handlePrefixOf("aa[1:2]", 2).getPrefixExpression();
+    public void testExpressionStreamMultipleLeaf() throws NbtParseException {
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[1:2]");
         Stream<Tag> stream = Stream.of(
                 StringTag.valueOf("a"),
                 StringTag.valueOf("b"),
@@ -192,21 +44,21 @@ public class TestNbtPathExpressionHandlerListSlice {
     }
 
     @Test
-    public void testExpressionStreamSingleTagNoMatch() {
+    public void testExpressionStreamSingleTagNoMatch() throws NbtParseException {
         ListTag tag = new ListTag();
         tag.add(StringTag.valueOf("0"));
 
-        INbtPathExpression expression = handler.handlePrefixOf("aa[1:2]", 2).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[1:2]");
         assertThat(expression.match(Stream.of(tag)).getMatches().collect(Collectors.toList()),
                 is(Lists.newArrayList()));
     }
 
     @Test
-    public void testExpressionStreamFromFirstTagMatch() {
+    public void testExpressionStreamFromFirstTagMatch() throws NbtParseException {
         ListTag tag = new ListTag();
         tag.add(StringTag.valueOf("0"));
 
-        INbtPathExpression expression = handler.handlePrefixOf("aa[0:]", 2).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[0:]");
         assertThat(expression.match(Stream.of(tag)).getMatches().collect(Collectors.toList()),
                 is(Lists.newArrayList(
                         StringTag.valueOf("0")
@@ -214,17 +66,17 @@ public class TestNbtPathExpressionHandlerListSlice {
     }
 
     @Test
-    public void testExpressionStreamAfterFirstTagNoMatch() {
+    public void testExpressionStreamAfterFirstTagNoMatch() throws NbtParseException {
         ListTag tag = new ListTag();
         tag.add(StringTag.valueOf("0"));
 
-        INbtPathExpression expression = handler.handlePrefixOf("aa[1:]", 2).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[1:]");
         assertThat(expression.match(Stream.of(tag)).getMatches().collect(Collectors.toList()),
                 is(Lists.newArrayList()));
     }
 
     @Test
-    public void testExpressionStreamMultipleTagsNoMatch() {
+    public void testExpressionStreamMultipleTagsNoMatch() throws NbtParseException {
         ListTag tag1 = new ListTag();
         tag1.add(StringTag.valueOf("a0"));
 
@@ -234,7 +86,7 @@ public class TestNbtPathExpressionHandlerListSlice {
         ListTag tag3 = new ListTag();
         tag3.add(StringTag.valueOf("c0"));
 
-        INbtPathExpression expression = handler.handlePrefixOf("aa[1:2]", 2).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[1:2]");
         Stream<Tag> stream = Stream.of(
                 tag1,
                 tag2,
@@ -245,13 +97,13 @@ public class TestNbtPathExpressionHandlerListSlice {
     }
 
     @Test
-    public void testExpressionStreamSingleTagMatch() {
+    public void testExpressionStreamSingleTagMatch() throws NbtParseException {
         ListTag tag = new ListTag();
         tag.add(StringTag.valueOf("0"));
         tag.add(StringTag.valueOf("1"));
         tag.add(StringTag.valueOf("2"));
 
-        INbtPathExpression expression = handler.handlePrefixOf("aa[1:2]", 2).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[1:2]");
         assertThat(expression.match(Stream.of(tag)).getMatches().collect(Collectors.toList()),
                 is(Lists.newArrayList(
                         StringTag.valueOf("1"),
@@ -260,7 +112,7 @@ public class TestNbtPathExpressionHandlerListSlice {
     }
 
     @Test
-    public void testExpressionStreamMultipleTagsMatch() {
+    public void testExpressionStreamMultipleTagsMatch() throws NbtParseException {
         ListTag tag1 = new ListTag();
         tag1.add(StringTag.valueOf("a0"));
         tag1.add(StringTag.valueOf("a1"));
@@ -276,7 +128,7 @@ public class TestNbtPathExpressionHandlerListSlice {
         tag3.add(StringTag.valueOf("c1"));
         tag3.add(StringTag.valueOf("c2"));
 
-        INbtPathExpression expression = handler.handlePrefixOf("aa[1:2]", 2).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[1:2]");
         Stream<Tag> stream = Stream.of(
                 tag1,
                 tag2,
@@ -294,7 +146,7 @@ public class TestNbtPathExpressionHandlerListSlice {
     }
 
     @Test
-    public void testExpressionStreamMultipleTagsMatchStep() {
+    public void testExpressionStreamMultipleTagsMatchStep() throws NbtParseException {
         ListTag tag1 = new ListTag();
         tag1.add(StringTag.valueOf("a0"));
         tag1.add(StringTag.valueOf("a1"));
@@ -310,7 +162,7 @@ public class TestNbtPathExpressionHandlerListSlice {
         tag3.add(StringTag.valueOf("c1"));
         tag3.add(StringTag.valueOf("c2"));
 
-        INbtPathExpression expression = handler.handlePrefixOf("aa[0::2]", 2).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[0::2]");
         Stream<Tag> stream = Stream.of(
                 tag1,
                 tag2,
@@ -328,7 +180,7 @@ public class TestNbtPathExpressionHandlerListSlice {
     }
 
     @Test
-    public void testExpressionStreamMultipleTagsPartialMatch() {
+    public void testExpressionStreamMultipleTagsPartialMatch() throws NbtParseException {
         ListTag tag1 = new ListTag();
         tag1.add(StringTag.valueOf("a0"));
         tag1.add(StringTag.valueOf("a1"));
@@ -343,7 +195,7 @@ public class TestNbtPathExpressionHandlerListSlice {
         tag3.add(StringTag.valueOf("c1"));
         tag3.add(StringTag.valueOf("c2"));
 
-        INbtPathExpression expression = handler.handlePrefixOf("aa[1:2]", 2).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[1:2]");
         Stream<Tag> stream = Stream.of(
                 tag1,
                 tag2,
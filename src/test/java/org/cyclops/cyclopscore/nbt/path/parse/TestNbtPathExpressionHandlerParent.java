@@ -4,7 +4,6 @@ import com.google.common.collect.Lists;
 import net.minecraft.nbt.Tag;
 import net.minecraft.nbt.StringTag;
 import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
-import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Collections;
@@ -16,49 +15,6 @@ import static org.hamcrest.MatcherAssert.assertThat;
 
 public class TestNbtPathExpressionHandlerParent {
 
-    private NbtPathExpressionParseHandlerParent handler;
-
-    @Before
-    public void beforeEach() {
-        handler = new NbtPathExpressionParseHandlerParent();
-    }
-
-    @Test
-    public void testNonMatch() {
-        assertThat(handler.handlePrefixOf("$", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchShort() {
-        assertThat(handler.handlePrefixOf(".", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testMatchSingle() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("..", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(2));
-        assertThat(result.getPrefixExpression(), is(NbtPathExpressionParseHandlerParent.Expression.INSTANCE));
-    }
-
-    @Test
-    public void testMatchSingleLater() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("aa..", 2);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(2));
-        assertThat(result.getPrefixExpression(), is(NbtPathExpressionParseHandlerParent.Expression.INSTANCE));
-    }
-
-    @Test
-    public void testMatchLonger() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("..aaa", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(2));
-        assertThat(result.getPrefixExpression(), is(NbtPathExpressionParseHandlerParent.Expression.INSTANCE));
-    }
-
     @Test
     public void testExpressionStreamEmpty() {
         INbtPathExpression expression = NbtPathExpressionParseHandlerParent.Expression.INSTANCE;
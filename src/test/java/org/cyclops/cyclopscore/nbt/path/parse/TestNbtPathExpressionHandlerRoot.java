@@ -6,7 +6,6 @@ import net.minecraft.nbt.StringTag;
 import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
 import org.cyclops.cyclopscore.nbt.path.NbtParseException;
 import org.cyclops.cyclopscore.nbt.path.navigate.NbtPathNavigationLeafWildcard;
-import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Collections;
@@ -19,46 +18,9 @@ import static org.hamcrest.MatcherAssert.assertThat;
 
 public class TestNbtPathExpressionHandlerRoot {
 
-    private NbtPathExpressionParseHandlerRoot handler;
-
-    @Before
-    public void beforeEach() {
-        handler = new NbtPathExpressionParseHandlerRoot();
-    }
-
-    @Test
-    public void testNonMatch() {
-        assertThat(handler.handlePrefixOf(".", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testMatchSingle() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("$", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(1));
-        assertThat(result.getPrefixExpression(), is(NbtPathExpressionParseHandlerRoot.Expression.INSTANCE));
-    }
-
-    @Test
-    public void testMatchSingleLater() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("aa$", 2);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(1));
-        assertThat(result.getPrefixExpression(), is(NbtPathExpressionParseHandlerRoot.Expression.INSTANCE));
-    }
-
-    @Test
-    public void testMatchLonger() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("$aaa", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(1));
-        assertThat(result.getPrefixExpression(), is(NbtPathExpressionParseHandlerRoot.Expression.INSTANCE));
-    }
-
     @Test
     public void testMatchNavigation() throws NbtParseException {
-        INbtPathExpression expression = handler.handlePrefixOf("$", 0).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("$");
         assertThat(expression.asNavigation(null), nullValue());
         assertThat(expression.asNavigation(NbtPathNavigationLeafWildcard.INSTANCE), is(NbtPathNavigationLeafWildcard.INSTANCE));
     }
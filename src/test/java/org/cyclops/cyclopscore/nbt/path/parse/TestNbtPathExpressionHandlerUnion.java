@@ -10,7 +10,6 @@ import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
 import org.cyclops.cyclopscore.nbt.path.NbtParseException;
 import org.cyclops.cyclopscore.nbt.path.navigate.NbtPathNavigationAdapter;
 import org.cyclops.cyclopscore.nbt.path.navigate.NbtPathNavigationLeafWildcard;
-import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Collections;
@@ -22,96 +21,15 @@ import static org.hamcrest.MatcherAssert.assertThat;
 
 public class TestNbtPathExpressionHandlerUnion {
 
-    private NbtPathExpressionParseHandlerUnion handler;
-
-    @Before
-    public void beforeEach() {
-        handler = new NbtPathExpressionParseHandlerUnion();
-    }
-
-    @Test
-    public void testNonMatch() {
-        assertThat(handler.handlePrefixOf(".", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchFew() {
-        assertThat(handler.handlePrefixOf("[0]", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNonMatchInvalid() {
-        assertThat(handler.handlePrefixOf("[,]", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testNoMatchMixed() {
-        assertThat(handler.handlePrefixOf("[aa,0]", 0),
-                is(INbtPathExpressionParseHandler.HandleResult.INVALID));
-    }
-
-    @Test
-    public void testMatchTwoInt() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("[0,1]", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(5));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerUnion.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerUnion.Expression) result.getPrefixExpression()).getChildIndexes(), equalTo(Lists.newArrayList(0, 1)));
-        assertThat(((NbtPathExpressionParseHandlerUnion.Expression) result.getPrefixExpression()).getChildNames(), equalTo(Lists.newArrayList()));
-    }
-
-    @Test
-    public void testMatchThreeInt() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("[0,1,2]", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(7));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerUnion.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerUnion.Expression) result.getPrefixExpression()).getChildIndexes(), equalTo(Lists.newArrayList(0, 1, 2)));
-        assertThat(((NbtPathExpressionParseHandlerUnion.Expression) result.getPrefixExpression()).getChildNames(), equalTo(Lists.newArrayList()));
-    }
-
-    @Test
-    public void testMatchTwoString() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("[aa,bb]", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(7));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerUnion.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerUnion.Expression) result.getPrefixExpression()).getChildIndexes(), equalTo(Lists.newArrayList()));
-        assertThat(((NbtPathExpressionParseHandlerUnion.Expression) result.getPrefixExpression()).getChildNames(), equalTo(Lists.newArrayList("aa", "bb")));
-    }
-
-    @Test
-    public void testMatchThreeString() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("[aa,bb,cc]", 0);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(10));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerUnion.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerUnion.Expression) result.getPrefixExpression()).getChildIndexes(), equalTo(Lists.newArrayList()));
-        assertThat(((NbtPathExpressionParseHandlerUnion.Expression) result.getPrefixExpression()).getChildNames(), equalTo(Lists.newArrayList("aa", "bb", "cc")));
-    }
-
-    @Test
-    public void testMatchSingleLater() {
-        INbtPathExpressionParseHandler.HandleResult result = handler.handlePrefixOf("aa[0,1,2]", 2);
-        assertThat(result.isValid(), is(true));
-        assertThat(result.getConsumedExpressionLength(), is(7));
-        assertThat(result.getPrefixExpression(), instanceOf(NbtPathExpressionParseHandlerUnion.Expression.class));
-        assertThat(((NbtPathExpressionParseHandlerUnion.Expression) result.getPrefixExpression()).getChildIndexes(), equalTo(Lists.newArrayList(0, 1, 2)));
-        assertThat(((NbtPathExpressionParseHandlerUnion.Expression) result.getPrefixExpression()).getChildNames(), equalTo(Lists.newArrayList()));
-    }
-
     @Test
     public void testMatchNavigation() throws NbtParseException {
-        INbtPathExpression expression = handler.handlePrefixOf("[a,b]", 0).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[a,b]");
         assertThat(expression.asNavigation(NbtPathNavigationLeafWildcard.INSTANCE), instanceOf(NbtPathNavigationAdapter.class));
     }
 
     @Test(expected = UnsupportedOperationException.class)
     public void testMatchNavigationList() throws NbtParseException {
-        INbtPathExpression expression = handler.handlePrefixOf("[0,1]", 0).getPrefixExpression();
+        INbtPathExpression expression = TestNbtPathParser.parseSingle("[0,1]");
         expression.asNavigation(NbtPathNavigationLeafWildcard.INSTANCE);
     }
 
@@ -0,0 +1,209 @@
+package org.cyclops.cyclopscore.nbt.path.parse;
+
+import com.google.common.collect.Lists;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.IntTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
+import org.cyclops.cyclopscore.nbt.path.NbtParseException;
+import org.cyclops.cyclopscore.nbt.path.NbtPath;
+import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionList;
+import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionMatches;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TestNbtPathLazyListTag {
+
+    private ListTag source;
+    private int tests;
+
+    @Before
+    public void beforeEach() {
+        source = new ListTag();
+        for (int i = 0; i < 6; i++) {
+            source.add(IntTag.valueOf(i));
+        }
+        tests = 0;
+    }
+
+    protected NbtPathLazyListTag createEvenList() {
+        return new NbtPathLazyListTag(source.iterator(), tag -> {
+            tests++;
+            return ((IntTag) tag).getAsInt() % 2 == 0;
+        });
+    }
+
+    @Test
+    public void testGet() {
+        NbtPathLazyListTag list = createEvenList();
+        assertThat(list.get(0), is(IntTag.valueOf(0)));
+        assertThat(tests, is(1));
+        assertThat(list.get(1), is(IntTag.valueOf(2)));
+        assertThat(tests, is(3));
+        assertThat(list.get(0), is(IntTag.valueOf(0)));
+        assertThat(tests, is(3));
+        assertThat(list.isMaterialized(), is(false));
+    }
+
+    @Test
+    public void testGetInt() {
+        NbtPathLazyListTag list = createEvenList();
+        assertThat(list.getInt(1), is(2));
+        assertThat(tests, is(3));
+        assertThat(list.getInt(2), is(4));
+        assertThat(tests, is(5));
+        assertThat(list.getInt(3), is(0));
+        assertThat(list.isMaterialized(), is(true));
+    }
+
+    @Test
+    public void testHasElement() {
+        NbtPathLazyListTag list = createEvenList();
+        assertThat(NbtPathLazyListTag.hasElement(list, 1), is(true));
+        assertThat(tests, is(3));
+        assertThat(NbtPathLazyListTag.hasElement(list, 3), is(false));
+        assertThat(tests, is(6));
+        assertThat(list.isMaterialized(), is(true));
+        assertThat(NbtPathLazyListTag.hasElement(source, 5), is(true));
+        assertThat(NbtPathLazyListTag.hasElement(source, 6), is(false));
+    }
+
+    @Test
+    public void testIsEmpty() {
+        NbtPathLazyListTag list = createEvenList();
+        assertThat(list.isEmpty(), is(false));
+        assertThat(tests, is(1));
+        assertThat(new NbtPathLazyListTag(source.iterator(), tag -> false).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testIterator() {
+        NbtPathLazyListTag list = createEvenList();
+        for (Tag tag : list) {
+            assertThat(tag, is(IntTag.valueOf(0)));
+            break;
+        }
+        assertThat(tests, is(1));
+        assertThat(Lists.newArrayList(list.iterator()), is(Lists.newArrayList(IntTag.valueOf(0), IntTag.valueOf(2), IntTag.valueOf(4))));
+    }
+
+    @Test
+    public void testMaterialize() {
+        ListTag expected = new ListTag();
+        expected.add(IntTag.valueOf(0));
+        expected.add(IntTag.valueOf(2));
+        expected.add(IntTag.valueOf(4));
+
+        NbtPathLazyListTag list = createEvenList();
+        assertThat(list.size(), is(3));
+        assertThat(list.isMaterialized(), is(true));
+        assertThat(list, equalTo(expected));
+
+        assertThat(createEvenList().copy(), equalTo(expected));
+        assertThat(createEvenList().getElementType(), is(Tag.TAG_INT));
+    }
+
+    @Test
+    public void testSizeInBytes() {
+        ListTag expected = new ListTag();
+        expected.add(IntTag.valueOf(0));
+        expected.add(IntTag.valueOf(2));
+        expected.add(IntTag.valueOf(4));
+
+        assertThat(createEvenList().sizeInBytes(), is(expected.sizeInBytes()));
+    }
+
+    @Test
+    public void testMutate() {
+        NbtPathLazyListTag list = createEvenList();
+        list.get(0);
+        list.add(IntTag.valueOf(10));
+        assertThat(list.isMaterialized(), is(true));
+        assertThat(Lists.newArrayList(list), is(Lists.newArrayList(IntTag.valueOf(0), IntTag.valueOf(2), IntTag.valueOf(4), IntTag.valueOf(10))));
+
+        list = createEvenList();
+        assertThat(list.set(1, IntTag.valueOf(3)), is(IntTag.valueOf(2)));
+        assertThat(Lists.newArrayList(list), is(Lists.newArrayList(IntTag.valueOf(0), IntTag.valueOf(3), IntTag.valueOf(4))));
+
+        list = createEvenList();
+        assertThat(list.remove(0), is(IntTag.valueOf(0)));
+        assertThat(Lists.newArrayList(list), is(Lists.newArrayList(IntTag.valueOf(2), IntTag.valueOf(4))));
+
+        tests = 0;
+        list = createEvenList();
+        list.clear();
+        assertThat(list.isEmpty(), is(true));
+        assertThat(tests, is(0));
+    }
+
+    /**
+     * Create the expression "$.list[?(...)]", optionally followed by "[0]",
+     * where the filter counts the number of children it tests.
+     */
+    protected INbtPathExpression createFilterExpression(boolean first) throws NbtParseException {
+        INbtPathExpression counting = executionContexts -> new NbtPathExpressionMatches(executionContexts
+                .peek(context -> tests++));
+        INbtPathExpression filter = new NbtPathExpressionParseHandlerFilterExpression.Expression(counting);
+        if (first) {
+            return new NbtPathExpressionList(NbtPath.parse("$.list"), filter, new NbtPathExpressionParseHandlerListElement.Expression(0));
+        }
+        return new NbtPathExpressionList(NbtPath.parse("$.list"), filter);
+    }
+
+    @Test
+    public void testFilterShortCircuits() throws NbtParseException {
+        CompoundTag tag = new CompoundTag();
+        tag.put("list", source);
+
+        for (boolean compiled : new boolean[]{false, true}) {
+            INbtPathExpression expressionFirst = createFilterExpression(true);
+            INbtPathExpression expressionAll = createFilterExpression(false);
+            if (compiled) {
+                expressionFirst = NbtPath.compile(expressionFirst);
+                expressionAll = NbtPath.compile(expressionAll);
+            }
+
+            // Tests never evaluate the filtered list
+            tests = 0;
+            assertThat(expressionAll.test(tag), is(true));
+            assertThat(expressionFirst.test(tag), is(true));
+            assertThat(tests, is(1));
+
+            // Matches contain the fully evaluated list
+            tests = 0;
+            List<Tag> matches = expressionAll.match(tag).getMatches().collect(Collectors.toList());
+            assertThat(matches, is(Lists.newArrayList((Tag) source)));
+            assertThat(tests, is(6));
+        }
+
+        // Results materialize their parent lists, so they do not depend on the source anymore
+        tests = 0;
+        assertThat(createFilterExpression(true).match(tag).getMatches().findFirst().get(), is(IntTag.valueOf(0)));
+        assertThat(tests, is(6));
+    }
+
+    @Test
+    public void testContextsMaterializeParents() throws NbtParseException {
+        CompoundTag tag = new CompoundTag();
+        tag.put("list", source);
+
+        NbtPathExpressionExecutionContext context = createFilterExpression(true).match(tag).getContexts()
+                .findFirst().get();
+        assertThat(context.getCurrentTag(), is(IntTag.valueOf(0)));
+        Tag parent = context.getParentContext().getCurrentTag();
+        assertThat(((NbtPathLazyListTag) parent).isMaterialized(), is(true));
+
+        // The parent no longer depends on the source
+        source.clear();
+        assertThat(Lists.newArrayList((ListTag) parent), is(Lists.newArrayList(IntTag.valueOf(0), IntTag.valueOf(2), IntTag.valueOf(4))));
+    }
+
+}
@@ -0,0 +1,206 @@
+package org.cyclops.cyclopscore.nbt.path.parse;
+
+import com.google.common.collect.Lists;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.DoubleTag;
+import net.minecraft.nbt.IntTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
+import org.cyclops.cyclopscore.nbt.path.NbtParseException;
+import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionList;
+import org.junit.Test;
+
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestNbtPathParser {
+
+    public static INbtPathExpression parseSingle(String expression) throws NbtParseException {
+        INbtPathExpression[] subExpressions = NbtPathParser.parse(expression).getSubExpressions();
+        assertThat(subExpressions.length, is(1));
+        return subExpressions[0];
+    }
+
+    protected void assertFailure(String expression, int position) {
+        try {
+            NbtPathParser.parse(expression);
+            fail("Expected a parse exception for " + expression);
+        } catch (NbtParseException e) {
+            assertThat(expression, e.getPosition(), is(position));
+        }
+    }
+
+    @Test
+    public void testEmpty() throws NbtParseException {
+        assertThat(NbtPathParser.parse("").getSubExpressions().length, is(0));
+    }
+
+    @Test
+    public void testSimpleSteps() throws NbtParseException {
+        assertThat(parseSingle("$"), instanceOf(NbtPathExpressionParseHandlerRoot.Expression.class));
+        assertThat(parseSingle("@"), instanceOf(NbtPathExpressionParseHandlerCurrent.Expression.class));
+        assertThat(parseSingle("*"), instanceOf(NbtPathExpressionParseHandlerAllChildren.Expression.class));
+        assertThat(parseSingle(".."), instanceOf(NbtPathExpressionParseHandlerParent.Expression.class));
+        assertThat(parseSingle(".length"), instanceOf(NbtPathExpressionParseHandlerLength.Expression.class));
+    }
+
+    @Test
+    public void testChild() throws NbtParseException {
+        assertThat(((NbtPathExpressionParseHandlerChild.Expression) parseSingle(".ab_C1")).getChildName(), is("ab_C1"));
+        assertThat(((NbtPathExpressionParseHandlerChild.Expression) parseSingle(".lengthy")).getChildName(), is("lengthy"));
+        assertThat(((NbtPathExpressionParseHandlerChild.Expression) parseSingle("[\"a.b]\\\"\"]")).getChildName(), is("a.b]\""));
+    }
+
+    @Test
+    public void testChildBrackets() throws NbtParseException {
+        assertThat(((NbtPathExpressionParseHandlerChild.Expression) parseSingle("[\"\"]")).getChildName(), is(""));
+        assertThat(((NbtPathExpressionParseHandlerChild.Expression) parseSingle("[\"aBc012_\"]")).getChildName(), is("aBc012_"));
+        assertThat(((NbtPathExpressionParseHandlerChild.Expression) parseSingle("[\"&*()%^$#:.\"]")).getChildName(), is("&*()%^$#:."));
+        assertThat(((NbtPathExpressionParseHandlerChild.Expression) parseSingle("[\"c\\\\d\"]")).getChildName(), is("c\\d"));
+        assertThat(((NbtPathExpressionParseHandlerChild.Expression) parseSingle("[\"c\\\"d\"]")).getChildName(), is("c\"d"));
+    }
+
+    @Test
+    public void testChain() throws NbtParseException {
+        INbtPathExpression[] subExpressions = NbtPathParser.parse("$.a...b").getSubExpressions();
+        assertThat(subExpressions.length, is(4));
+        assertThat(subExpressions[0], instanceOf(NbtPathExpressionParseHandlerRoot.Expression.class));
+        assertThat(((NbtPathExpressionParseHandlerChild.Expression) subExpressions[1]).getChildName(), is("a"));
+        assertThat(subExpressions[2], instanceOf(NbtPathExpressionParseHandlerParent.Expression.class));
+        assertThat(((NbtPathExpressionParseHandlerChild.Expression) subExpressions[3]).getChildName(), is("b"));
+    }
+
+    @Test
+    public void testListElement() throws NbtParseException {
+        assertThat(((NbtPathExpressionParseHandlerListElement.Expression) parseSingle("[10]")).getChildIndex(), is(10));
+    }
+
+    @Test
+    public void testListSlice() throws NbtParseException {
+        NbtPathExpressionParseHandlerListSlice.Expression slice = (NbtPathExpressionParseHandlerListSlice.Expression) parseSingle("[1:3:2]");
+        assertThat(slice.getStart(), is(1));
+        assertThat(slice.getEnd(), is(3));
+        assertThat(slice.getStep(), is(2));
+
+        slice = (NbtPathExpressionParseHandlerListSlice.Expression) parseSingle("[:]");
+        assertThat(slice.getStart(), is(0));
+        assertThat(slice.getEnd(), is(-1));
+        assertThat(slice.getStep(), is(1));
+
+        slice = (NbtPathExpressionParseHandlerListSlice.Expression) parseSingle("[::3]");
+        assertThat(slice.getStart(), is(0));
+        assertThat(slice.getEnd(), is(-1));
+        assertThat(slice.getStep(), is(3));
+    }
+
+    @Test
+    public void testUnion() throws NbtParseException {
+        NbtPathExpressionParseHandlerUnion.Expression union = (NbtPathExpressionParseHandlerUnion.Expression) parseSingle("[1,2,3]");
+        assertThat(union.getChildIndexes(), is(Lists.newArrayList(1, 2, 3)));
+        assertThat(union.getChildNames(), is(Lists.newArrayList()));
+
+        union = (NbtPathExpressionParseHandlerUnion.Expression) parseSingle("[a,b c]");
+        assertThat(union.getChildIndexes(), is(Lists.newArrayList()));
+        assertThat(union.getChildNames(), is(Lists.newArrayList("a", "b c")));
+
+        union = (NbtPathExpressionParseHandlerUnion.Expression) parseSingle("[\"a,\",\"b]\"]");
+        assertThat(union.getChildNames(), is(Lists.newArrayList("a,", "b]")));
+    }
+
+    @Test
+    public void testRelational() throws NbtParseException {
+        NbtPathExpressionParseHandlerBooleanRelationalAdapter.Expression relational =
+                (NbtPathExpressionParseHandlerBooleanRelationalAdapter.Expression) parseSingle(" <= 10.5");
+        assertThat(relational.getTargetDouble(), is(10.5D));
+        relational = (NbtPathExpressionParseHandlerBooleanRelationalAdapter.Expression) parseSingle(">2");
+        assertThat(relational.getTargetDouble(), is(2D));
+        assertThat(((NbtPathExpressionParseHandlerStringEqual.Expression) parseSingle(" == \"abc\"")).getTargetString(), is("abc"));
+    }
+
+    @Test
+    public void testRelationalOperators() throws NbtParseException {
+        IntTag three = IntTag.valueOf(3);
+        assertThat(parseSingle("<3").test(three), is(false));
+        assertThat(parseSingle("<=3").test(three), is(true));
+        assertThat(parseSingle(" > 2.5").test(three), is(true));
+        assertThat(parseSingle(">=  3").test(three), is(true));
+        assertThat(parseSingle("==24.23").test(DoubleTag.valueOf(24.23)), is(true));
+    }
+
+    @Test
+    public void testNestedFilter() throws NbtParseException {
+        NbtPathExpressionParseHandlerFilterExpression.Expression filter =
+                (NbtPathExpressionParseHandlerFilterExpression.Expression) parseSingle("[?(@.a[?(@.b == 1)])]");
+        INbtPathExpression[] subExpressions = ((NbtPathExpressionList) filter.getExpression()).getSubExpressions();
+        assertThat(subExpressions.length, is(3));
+        assertThat(subExpressions[2], instanceOf(NbtPathExpressionParseHandlerFilterExpression.Expression.class));
+
+        CompoundTag match = new CompoundTag();
+        ListTag matchList = new ListTag();
+        CompoundTag matchListElement = new CompoundTag();
+        matchListElement.putInt("b", 1);
+        matchList.add(matchListElement);
+        match.put("a", matchList);
+        CompoundTag noMatch = new CompoundTag();
+        noMatch.put("a", new ListTag());
+        ListTag list = new ListTag();
+        list.add(noMatch);
+        list.add(match);
+
+        // A filter result is always a list, so the outer filter must check its length
+        INbtPathExpression expression = NbtPathParser.parse("[?(@.a[?(@.b == 1)].length > 0)]");
+        ListTag expected = new ListTag();
+        expected.add(match);
+        assertThat(expression.match(list).getMatches().collect(Collectors.toList()),
+                equalTo(Lists.newArrayList((Tag) expected)));
+    }
+
+    @Test
+    public void testGroup() throws NbtParseException {
+        CompoundTag tag = new CompoundTag();
+        CompoundTag child = new CompoundTag();
+        child.putInt("b", 3);
+        tag.put("a", child);
+
+        INbtPathExpression expression = NbtPathParser.parse("$(.a(.b)) > 2");
+        assertThat(expression.test(tag), is(true));
+    }
+
+    @Test
+    public void testFailurePositions() {
+        assertFailure("!", 0);
+        assertFailure(".", 1);
+        assertFailure("$.abc.def.", 10);
+        assertFailure("$.a)", 3);
+        assertFailure("$.a < x", 6);
+        assertFailure("$.a <", 5);
+        assertFailure("$.a = 1", 4);
+        assertFailure("$.a ", 4);
+        assertFailure("[]", 1);
+        assertFailure("[abc]", 1);
+        assertFailure("[1:2:]", 1);
+        assertFailure("[1:2:0]", 1);
+        assertFailure("[1:2:3:4]", 1);
+        assertFailure("[99999999999]", 1);
+        assertFailure("[1,,2]", 3);
+        assertFailure("[1,a]", 3);
+        assertFailure("[1", 2);
+        assertFailure("[\"a\"", 4);
+        assertFailure("[\"a", 1);
+        assertFailure("[\"]", 1);
+        assertFailure("[\"\\", 1);
+        assertFailure("[\"\\w\"]", 1);
+        assertFailure("[?()]", 3);
+        assertFailure("[?(@.a]", 6);
+        assertFailure("[?(@.a[?(!)])]", 9);
+        assertFailure("[?@]", 2);
+        assertFailure("$()", 2);
+    }
+
+}
@@ -0,0 +1,191 @@
+package org.cyclops.cyclopscore.nbt.path.query;
+
+import com.google.common.collect.Lists;
+import net.minecraft.nbt.ByteTag;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.IntTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
+import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
+import org.cyclops.cyclopscore.nbt.path.NbtParseException;
+import org.cyclops.cyclopscore.nbt.path.NbtPath;
+import org.cyclops.cyclopscore.nbt.path.NbtPathExpressionMatches;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TestNbtPathQuerySet {
+
+    private static final List<String> EXPRESSIONS = Lists.newArrayList(
+            "",
+            "$",
+            "@",
+            "$.a",
+            "$.a.b",
+            "$[\"a\"].c",
+            "$.a.b..",
+            "$.a.b....",
+            "$.a.b$.a",
+            "$*",
+            "$**",
+            "$*.b",
+            "$*..",
+            "$.list",
+            "$.list*",
+            "$.list*.n",
+            "$.list*.x",
+            "$.list[1]",
+            "$.list[0,2]",
+            "$[a,list]",
+            "$.list[1:10:2].x",
+            "$.length",
+            "$.list.length",
+            "$.list[?(@.x)]",
+            "$.list[?(@.n > 1)]*.n",
+            "$.list[?($.n)]",
+            "$.a[?(@ == 1)]",
+            "$.list*.n < 2",
+            "$.list*.x == \"Y\"",
+            "$.list*.x == \"X\"..",
+            "$.missing.b",
+            "$.n"
+    );
+
+    private CompoundTag tag;
+
+    @Before
+    public void beforeEach() {
+        tag = new CompoundTag();
+        CompoundTag a = new CompoundTag();
+        a.putInt("b", 1);
+        a.putInt("c", 2);
+        tag.put("a", a);
+        ListTag list = new ListTag();
+        for (int i = 0; i < 4; i++) {
+            CompoundTag element = new CompoundTag();
+            element.putInt("n", i);
+            if (i % 2 == 1) {
+                element.putString("x", i == 1 ? "X" : "Y");
+            }
+            list.add(element);
+        }
+        tag.put("list", list);
+        tag.putInt("n", 1);
+    }
+
+    @Test
+    public void testEquivalence() throws NbtParseException {
+        NbtPathQuerySet querySet = NbtPathQuerySet.parse(EXPRESSIONS);
+        assertThat(querySet.size(), is(EXPRESSIONS.size()));
+
+        List<NbtPathExpressionMatches> matches = querySet.match(tag);
+        boolean[] tests = querySet.test(tag);
+        for (int i = 0; i < EXPRESSIONS.size(); i++) {
+            INbtPathExpression expression = NbtPath.parse(EXPRESSIONS.get(i));
+            assertThat(EXPRESSIONS.get(i), matches.get(i).getMatches().collect(Collectors.toList()),
+                    equalTo(expression.match(tag).getMatches().collect(Collectors.toList())));
+            assertThat(EXPRESSIONS.get(i), tests[i], is(expression.test(tag)));
+        }
+    }
+
+    @Test
+    public void testEquivalenceSingle() throws NbtParseException {
+        for (String expressionString : EXPRESSIONS) {
+            INbtPathExpression expression = NbtPath.parse(expressionString);
+            NbtPathQuerySet querySet = new NbtPathQuerySet(Lists.newArrayList(NbtPath.compile(expression)));
+            assertThat(expressionString, querySet.match(tag).get(0).getMatches().collect(Collectors.toList()),
+                    equalTo(expression.match(tag).getMatches().collect(Collectors.toList())));
+            assertThat(expressionString, querySet.test(tag)[0], is(expression.test(tag)));
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        NbtPathQuerySet querySet = new NbtPathQuerySet(Lists.newArrayList());
+        assertThat(querySet.match(tag).size(), is(0));
+        assertThat(querySet.test(tag).length, is(0));
+    }
+
+    @Test
+    public void testSharedPrefixes() throws NbtParseException {
+        NbtPathQuerySet querySet = NbtPathQuerySet.parse(Lists.newArrayList("$.a.b", "$.a.c", "$*.b", "$.list*.n"));
+        NbtPathQueryNode root = querySet.getRoot();
+
+        // "a" is reached by both a specific key and the wildcard
+        NbtPathQueryNode a = root.getChild("a");
+        assertThat(a, notNullValue());
+        assertThat(a.hasTerminals(), is(false));
+        assertThat(a.getChild("b").hasTerminals(), is(true));
+        assertThat(a.getChild("c").hasTerminals(), is(true));
+        assertThat(a.getChild("d"), nullValue());
+
+        // Other keys are only reached by the wildcard
+        NbtPathQueryNode other = root.getChild("other");
+        assertThat(other, sameInstance(root.getChild("other2")));
+        assertThat(other.getChild("b").hasTerminals(), is(true));
+        assertThat(other.getChild("c"), nullValue());
+
+        // As navigation
+        assertThat(root.getNext("a"), sameInstance(a));
+        assertThat(root.isLeafKey("a"), is(false));
+        assertThat(a.isLeafKey("b"), is(true));
+        assertThat(a.getNext("b"), nullValue());
+        assertThat(root.getNext("list").isLeafKey("x"), is(false));
+
+        List<NbtPathExpressionMatches> matches = querySet.match(tag);
+        assertThat(matches.get(0).getMatches().collect(Collectors.toList()), equalTo(Lists.newArrayList((Tag) IntTag.valueOf(1))));
+        assertThat(matches.get(1).getMatches().collect(Collectors.toList()), equalTo(Lists.newArrayList((Tag) IntTag.valueOf(2))));
+        assertThat(matches.get(2).getMatches().collect(Collectors.toList()), equalTo(Lists.newArrayList((Tag) IntTag.valueOf(1))));
+        assertThat(matches.get(3).getMatches().collect(Collectors.toList()), equalTo(Lists.newArrayList(
+                (Tag) IntTag.valueOf(0), IntTag.valueOf(1), IntTag.valueOf(2), IntTag.valueOf(3))));
+    }
+
+    @Test
+    public void testVisitsTagsOnce() throws NbtParseException {
+        // A tag that counts how often its children are looked up
+        int[] lookups = new int[1];
+        CompoundTag counting = new CompoundTag() {
+            @Override
+            public Tag get(String key) {
+                lookups[0]++;
+                return super.get(key);
+            }
+        };
+        counting.put("a", tag.get("a"));
+        counting.put("list", tag.get("list"));
+
+        List<String> expressions = Lists.newArrayList();
+        for (int i = 0; i < 50; i++) {
+            expressions.add(i % 2 == 0 ? "$.a.b == " + i : "$.list*.n == " + i);
+        }
+        List<NbtPathExpressionMatches> matches = NbtPathQuerySet.parse(expressions).match(counting);
+        assertThat(lookups[0], is(2));
+        assertThat(matches.get(0).getMatches().collect(Collectors.toList()), equalTo(Lists.newArrayList((Tag) ByteTag.valueOf(false))));
+        assertThat(matches.get(3).getMatches().collect(Collectors.toList()), equalTo(Lists.newArrayList(
+                (Tag) ByteTag.valueOf(false), ByteTag.valueOf(false), ByteTag.valueOf(false), ByteTag.valueOf(true))));
+    }
+
+    @Test
+    public void testTestStopsEarly() throws NbtParseException {
+        ListTag list = (ListTag) tag.get("list");
+        list.add(StringTag.valueOf("not a compound"));
+
+        boolean[] tests = NbtPathQuerySet.parse(Lists.newArrayList("$.list*.n", "$.list*.x == \"Y\"", "$.missing"))
+                .test(tag);
+        assertThat(tests[0], is(true));
+        // The first match of "x" is not "Y", so the later match must be ignored
+        assertThat(tests[1], is(false));
+        assertThat(tests[2], is(false));
+    }
+
+}
@@ -0,0 +1,201 @@
+package org.cyclops.cyclopscore.nbt.path.stream;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.IntArrayTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
+import org.cyclops.cyclopscore.nbt.path.INbtPathExpression;
+import org.cyclops.cyclopscore.nbt.path.NbtParseException;
+import org.cyclops.cyclopscore.nbt.path.NbtPath;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TestNbtPathStreamEvaluator {
+
+    private static final List<String> EXPRESSIONS = Lists.newArrayList(
+            "",
+            "$",
+            "$.a",
+            "$.a.b",
+            "$[a,list]",
+            "$*",
+            "$*.b",
+            "$.list*",
+            "$.list*.n",
+            "$.list*.x",
+            "$.list**",
+            "$.missing.b",
+            "$.a.b.c",
+            "$.list[1]",
+            "$.list[?(@.n > 1)]",
+            "$.list*.x == \"Y\"",
+            "$.list.length"
+    );
+
+    private CompoundTag tag;
+
+    @Before
+    public void beforeEach() {
+        tag = new CompoundTag();
+        CompoundTag a = new CompoundTag();
+        a.putInt("b", 1);
+        a.putInt("c", 2);
+        tag.put("a", a);
+        ListTag list = new ListTag();
+        for (int i = 0; i < 4; i++) {
+            CompoundTag element = new CompoundTag();
+            element.putInt("n", i);
+            if (i % 2 == 1) {
+                element.putString("x", i == 1 ? "X" : "Y");
+            }
+            element.put("data", new IntArrayTag(new int[]{i, i, i}));
+            list.add(element);
+        }
+        tag.put("list", list);
+        ListTag strings = new ListTag();
+        strings.add(StringTag.valueOf("s1"));
+        strings.add(StringTag.valueOf("s2"));
+        tag.put("strings", strings);
+        tag.putLong("n", 1L);
+    }
+
+    protected DataInput write(Tag tag, boolean named) throws IOException {
+        ByteArrayDataOutput output = ByteStreams.newDataOutput();
+        if (named) {
+            NbtIo.write((CompoundTag) tag, output);
+        } else {
+            NbtIo.writeAnyTag(tag, output);
+        }
+        // Data after the tag must remain readable
+        output.writeInt(123);
+        return ByteStreams.newDataInput(output.toByteArray());
+    }
+
+    @Test
+    public void testEquivalence() throws NbtParseException, IOException {
+        for (String expressionString : EXPRESSIONS) {
+            INbtPathExpression expression = NbtPath.parse(expressionString);
+            NbtPathStreamEvaluator evaluator = new NbtPathStreamEvaluator(expression);
+            List<Tag> expected = expression.match(tag).getMatches().collect(Collectors.toList());
+
+            for (boolean named : new boolean[]{false, true}) {
+                DataInput input = write(tag, named);
+                assertThat(expressionString, evaluator.match(input, named).getMatches().collect(Collectors.toList()),
+                        equalTo(expected));
+                assertThat(expressionString, input.readInt(), is(123));
+
+                input = write(tag, named);
+                assertThat(expressionString, evaluator.test(input, named), is(expression.test(tag)));
+                assertThat(expressionString, input.readInt(), is(123));
+            }
+        }
+    }
+
+    @Test
+    public void testPartialTag() throws NbtParseException, IOException {
+        NbtPathStreamEvaluator evaluator = new NbtPathStreamEvaluator(NbtPath.parse("$.list*.x"));
+        assertThat(evaluator.isNavigable(), is(true));
+
+        CompoundTag expected = new CompoundTag();
+        ListTag list = new ListTag();
+        for (int i = 0; i < 4; i++) {
+            CompoundTag element = new CompoundTag();
+            if (i % 2 == 1) {
+                element.putString("x", i == 1 ? "X" : "Y");
+            }
+            list.add(element);
+        }
+        expected.put("list", list);
+
+        assertThat(evaluator.read(write(tag, false), false, NbtAccounter.unlimitedHeap()), equalTo(expected));
+    }
+
+    @Test
+    public void testLeafSubtree() throws NbtParseException, IOException {
+        NbtPathStreamEvaluator evaluator = new NbtPathStreamEvaluator(NbtPath.parse("$.a"));
+
+        CompoundTag expected = new CompoundTag();
+        expected.put("a", tag.get("a").copy());
+
+        assertThat(evaluator.read(write(tag, true), true, NbtAccounter.unlimitedHeap()), equalTo(expected));
+    }
+
+    @Test
+    public void testNotNavigable() throws NbtParseException, IOException {
+        NbtPathStreamEvaluator evaluator = new NbtPathStreamEvaluator(NbtPath.parse("$.list[?(@.n > 1)]"));
+        assertThat(evaluator.isNavigable(), is(false));
+        assertThat(evaluator.read(write(tag, false), false, NbtAccounter.unlimitedHeap()), equalTo(tag));
+    }
+
+    @Test
+    public void testByteBuf() throws NbtParseException, IOException {
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            NbtIo.writeAnyTag(tag, new ByteBufOutputStream(buffer));
+            buffer.writeInt(123);
+
+            NbtPathStreamEvaluator evaluator = new NbtPathStreamEvaluator(NbtPath.parse("$.a.c"));
+            assertThat(evaluator.match(buffer).getMatches().collect(Collectors.toList()),
+                    equalTo(Lists.newArrayList(((CompoundTag) tag.get("a")).get("c"))));
+            assertThat(buffer.readInt(), is(123));
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testAccounterLimit() throws NbtParseException, IOException {
+        NbtPathStreamEvaluator evaluator = new NbtPathStreamEvaluator(NbtPath.parse("$.a"));
+        evaluator.match(write(tag, false), false, NbtAccounter.create(8));
+    }
+
+    @Test
+    public void testAccounterSkippedNotCounted() throws NbtParseException, IOException {
+        NbtPathStreamEvaluator evaluator = new NbtPathStreamEvaluator(NbtPath.parse("$.a.c"));
+        NbtAccounter accounter = NbtAccounter.create(Long.MAX_VALUE);
+        evaluator.match(write(tag, false), false, accounter);
+        long partialUsage = accounter.getUsage();
+        NbtAccounter fullAccounter = NbtAccounter.create(Long.MAX_VALUE);
+        NbtPathStreamEvaluator.read(write(tag, false), false, null, fullAccounter);
+        assertThat(partialUsage < fullAccounter.getUsage(), is(true));
+    }
+
+    @Test
+    public void testSkip() throws IOException {
+        DataInput input = write(tag, false);
+        assertThat(input.readByte(), is(Tag.TAG_COMPOUND));
+        NbtPathStreamEvaluator.skip(input, Tag.TAG_COMPOUND);
+        assertThat(input.readInt(), is(123));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testSkipDepthLimit() throws IOException {
+        ByteArrayDataOutput output = ByteStreams.newDataOutput();
+        for (int i = 0; i < 100000; i++) {
+            output.writeByte(Tag.TAG_LIST);
+            output.writeInt(1);
+        }
+        output.writeByte(Tag.TAG_END);
+        output.writeInt(0);
+        NbtPathStreamEvaluator.skip(ByteStreams.newDataInput(output.toByteArray()), Tag.TAG_LIST);
+    }
+
+}